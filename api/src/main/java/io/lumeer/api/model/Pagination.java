@@ -20,15 +20,35 @@ package io.lumeer.api.model;
 
 import javax.annotation.concurrent.Immutable;
 
+/**
+ * Either offset pagination (page and page size) or keyset pagination, where the next page starts right after
+ * the given resume token (the last id of the previous page) and records are ordered by their id.
+ */
 @Immutable
 public class Pagination {
 
    private final Integer page;
    private final Integer pageSize;
+   private final String afterId;
+   private final boolean keyset;
 
    public Pagination(final Integer page, final Integer pageSize) {
+      this(page, pageSize, null, false);
+   }
+
+   private Pagination(final Integer page, final Integer pageSize, final String afterId, final boolean keyset) {
       this.page = page;
       this.pageSize = pageSize;
+      this.afterId = afterId;
+      this.keyset = keyset;
+   }
+
+   /**
+    * @param afterId id of the last record of the previous page, null for the first page
+    * @param pageSize maximum number of returned records
+    */
+   public static Pagination keyset(final String afterId, final Integer pageSize) {
+      return new Pagination(null, pageSize, afterId, true);
    }
 
    public Integer getPage() {
@@ -38,4 +58,12 @@ public class Pagination {
    public Integer getPageSize() {
       return pageSize;
    }
+
+   public String getAfterId() {
+      return afterId;
+   }
+
+   public boolean isKeyset() {
+      return keyset;
+   }
 }
@@ -132,4 +132,13 @@ public interface Cache<T> {
     * @return Stream of values.
     */
    Stream<T> stream();
+
+   /**
+    * Gets the usage statistics. Caches that do not collect statistics return {@link CacheStats#EMPTY}.
+    *
+    * @return Usage statistics of the cache.
+    */
+   default CacheStats getStats() {
+      return CacheStats.EMPTY;
+   }
 }
@@ -31,4 +31,17 @@ public interface CacheFactory {
     * @return A fresh cache of given type.
     */
    <T> Cache<T> getCache();
+
+   /**
+    * Obtains a fresh cache of given type limited by the given specification.
+    *
+    * @param spec
+    *       Limits of the cache.
+    * @param <T>
+    *       Type of values stored in the cache.
+    * @return A fresh cache of given type.
+    */
+   default <T> Cache<T> getCache(final CacheSpec spec) {
+      return getCache();
+   }
 }
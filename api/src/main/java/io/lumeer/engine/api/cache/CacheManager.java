@@ -46,4 +46,17 @@ public interface CacheManager {
     */
    <T> Cache<T> getCache(final String cacheName);
 
+   /**
+    * Obtains a cache of given type limited by the given specification. The specification is used only when the cache is created.
+    *
+    * @param cacheName
+    *       Name of the cache to obtain.
+    * @param spec
+    *       Limits of the cache.
+    * @param <T>
+    *       Type of values stored in the cache.
+    * @return A cache of given type.
+    */
+   <T> Cache<T> getCache(final String cacheName, final CacheSpec spec);
+
 }
@@ -43,4 +43,17 @@ public interface CacheProvider {
     * @return A fresh cache of given type.
     */
    <T> Cache<T> getCache(final String cacheName);
+
+   /**
+    * Obtains a cache of given type limited by the given specification.
+    *
+    * @param cacheName
+    *       Name of the cache to obtain.
+    * @param spec
+    *       Limits of the cache.
+    * @param <T>
+    *       Type of values stored in the cache.
+    * @return A cache of given type.
+    */
+   <T> Cache<T> getCache(final String cacheName, final CacheSpec spec);
 }
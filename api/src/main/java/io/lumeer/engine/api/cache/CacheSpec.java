@@ -0,0 +1,95 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.engine.api.cache;
+
+import java.time.Duration;
+
+/**
+ * Describes limits of a cache. Caches without any limit keep all entries until they are removed explicitly.
+ */
+public final class CacheSpec {
+
+   private static final CacheSpec UNBOUNDED = new CacheSpec(0, null, null);
+
+   private final long maximumSize;
+   private final Duration expireAfterWrite;
+   private final Duration expireAfterAccess;
+
+   private CacheSpec(final long maximumSize, final Duration expireAfterWrite, final Duration expireAfterAccess) {
+      this.maximumSize = maximumSize;
+      this.expireAfterWrite = expireAfterWrite;
+      this.expireAfterAccess = expireAfterAccess;
+   }
+
+   public static CacheSpec unbounded() {
+      return UNBOUNDED;
+   }
+
+   /**
+    * @param maximumSize
+    *       Maximum number of entries, the least recently used entries are evicted first.
+    * @return A cache specification with the given size limit.
+    */
+   public static CacheSpec maximumSize(final long maximumSize) {
+      return new CacheSpec(maximumSize, null, null);
+   }
+
+   /**
+    * @param expireAfterWrite
+    *       Time after which an entry expires since it was stored.
+    * @return A copy of this specification with the given time to live.
+    */
+   public CacheSpec expireAfterWrite(final Duration expireAfterWrite) {
+      return new CacheSpec(maximumSize, expireAfterWrite, expireAfterAccess);
+   }
+
+   /**
+    * @param expireAfterAccess
+    *       Time after which an entry expires since it was last read or stored.
+    * @return A copy of this specification with the given idle time.
+    */
+   public CacheSpec expireAfterAccess(final Duration expireAfterAccess) {
+      return new CacheSpec(maximumSize, expireAfterWrite, expireAfterAccess);
+   }
+
+   public long getMaximumSize() {
+      return maximumSize;
+   }
+
+   public Duration getExpireAfterWrite() {
+      return expireAfterWrite;
+   }
+
+   public Duration getExpireAfterAccess() {
+      return expireAfterAccess;
+   }
+
+   public boolean isUnbounded() {
+      return maximumSize <= 0 && expireAfterWrite == null && expireAfterAccess == null;
+   }
+
+   @Override
+   public String toString() {
+      return "CacheSpec{" +
+            "maximumSize=" + maximumSize +
+            ", expireAfterWrite=" + expireAfterWrite +
+            ", expireAfterAccess=" + expireAfterAccess +
+            '}';
+   }
+}
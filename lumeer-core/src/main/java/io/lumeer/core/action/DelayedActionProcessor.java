@@ -66,13 +66,22 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 
 @Singleton
@@ -100,22 +109,45 @@ public class DelayedActionProcessor extends WorkspaceContext {
    @Inject
    private TranslationManager translationManager;
 
+   @Inject
+   private ManagedExecutorService executorService;
+
+   @Inject
+   private Logger log;
+
    private PusherClient pusherClient;
 
    private boolean skipDelay = false;
-
-   private final Map<String, Organization> organizations = new HashMap<>();
-   private final Map<String, Project> projects = new HashMap<>();
-   private final Map<String, Collection> collections = new HashMap<>();
-   private final Map<String, PermissionAdapter> permissionAdapters = new HashMap<>();
-   private final Map<String, DaoContextSnapshot> organizationDaoSnapshots = new HashMap<>();
-   private final Map<String, DaoContextSnapshot> projectDaoSnapshots = new HashMap<>();
+   private int batchSize = DEFAULT_BATCH_SIZE;
+   private int parallelism = DEFAULT_PARALLELISM;
+   private volatile ProcessingStats lastRunStats = new ProcessingStats();
+
+   // shared by the workers of a single run
+   private final Map<String, Organization> organizations = new ConcurrentHashMap<>();
+   private final Map<String, Project> projects = new ConcurrentHashMap<>();
+   private final Map<String, Collection> collections = new ConcurrentHashMap<>();
+   private final Map<String, DataStorage> dataStorages = new ConcurrentHashMap<>();
+   private final Map<String, DaoContextSnapshot> organizationDaoSnapshots = new ConcurrentHashMap<>();
+   private final Map<String, DaoContextSnapshot> projectDaoSnapshots = new ConcurrentHashMap<>();
 
    final private static Set<NotificationType> AGGREGATION_TYPES = Set.of(NotificationType.TASK_ASSIGNED, NotificationType.TASK_REOPENED, NotificationType.DUE_DATE_CHANGED, NotificationType.STATE_UPDATE, NotificationType.TASK_UPDATED, NotificationType.TASK_COMMENTED);
 
+   private static final int DEFAULT_BATCH_SIZE = 500;
+   private static final int DEFAULT_PARALLELISM = 4;
+
    @PostConstruct
    public void init() {
       skipDelay = !(configurationProducer.getEnvironment() == DefaultConfigurationProducer.DeployEnvironment.PRODUCTION || configurationProducer.getEnvironment() == DefaultConfigurationProducer.DeployEnvironment.STAGING);
+      batchSize = parsePositiveInt(configurationProducer.get(DefaultConfigurationProducer.DELAYED_ACTION_BATCH_SIZE), DEFAULT_BATCH_SIZE);
+      parallelism = parsePositiveInt(configurationProducer.get(DefaultConfigurationProducer.DELAYED_ACTION_PARALLELISM), DEFAULT_PARALLELISM);
+   }
+
+   private static int parsePositiveInt(final String value, final int defaultValue) {
+      try {
+         return value != null ? Math.max(1, Integer.parseInt(value.trim())) : defaultValue;
+      } catch (NumberFormatException e) {
+         return defaultValue;
+      }
    }
 
    @Schedule(hour = "*", minute = "*/2")
@@ -123,7 +155,28 @@ public class DelayedActionProcessor extends WorkspaceContext {
       delayedActionDao.deleteProcessedActions();
       delayedActionDao.resetTimeoutedActions();
 
-      executeActions(delayedActionDao.getActionsForProcessing(skipDelay));
+      final ProcessingStats stats = new ProcessingStats();
+      final Map<String, UserIndex> userIndexes = new HashMap<>(); // org id -> users
+      clearCache();
+
+      // claim the actions in bounded batches until the backlog is drained
+      List<DelayedAction> actions;
+      do {
+         actions = delayedActionDao.getActionsForProcessing(skipDelay, batchSize);
+         if (actions.size() > 0) {
+            executeActions(actions, userIndexes, stats);
+         }
+      } while (actions.size() >= batchSize);
+
+      stats.finish();
+      lastRunStats = stats;
+      if (stats.getClaimed() > 0) {
+         log.info(stats.toString());
+      }
+   }
+
+   public ProcessingStats getLastRunStats() {
+      return lastRunStats;
    }
 
    private Map<String, List<DelayedAction>> getActionsByTask(final List<DelayedAction> actions, final NotificationChannel notificationChannel) {
@@ -190,53 +243,114 @@ public class DelayedActionProcessor extends WorkspaceContext {
       return action.getData().getArrayList(DelayedAction.DATA_ORIGINAL_ACTION_TYPES, NotificationType.class).stream().anyMatch(type -> user.hasNotificationEnabled(type, action.getNotificationChannel()));
    }
 
-   private void executeActions(final List<DelayedAction> actions) {
-      final Map<String, List<User>> userCache = new HashMap<>(); // org id -> users
-      clearCache();
+   private void executeActions(final List<DelayedAction> actions, final Map<String, UserIndex> userIndexes, final ProcessingStats stats) {
+      final Map<String, DelayedAction> actionsById = actions.stream().collect(Collectors.toMap(DelayedAction::getId, Function.identity()));
+      final List<DelayedAction> aggregatedActions = aggregateActions(actions);
+      stats.batchClaimed(actions.size(), aggregatedActions.size());
 
-      aggregateActions(actions).forEach(action -> {
-         final String organizationId = action.getData().getString(DelayedAction.DATA_ORGANIZATION_ID);
-         final List<User> allUsers = userCache.computeIfAbsent(organizationId, orgId -> userDao.getAllUsers(orgId));
-         allUsers.addAll(getUsersFromActions(actions, allUsers)); // mix in users from actions
+      indexUsers(aggregatedActions, userIndexes);
+
+      // one work unit per worker, each with its own permission adapters as these are not thread safe
+      final int unitSize = (aggregatedActions.size() + parallelism - 1) / parallelism;
+      final List<Runnable> units = new ArrayList<>();
+      for (int i = 0; i < aggregatedActions.size(); i += unitSize) {
+         final List<DelayedAction> unit = aggregatedActions.subList(i, Math.min(i + unitSize, aggregatedActions.size()));
+         units.add(() -> executeUnit(unit, actionsById, userIndexes, stats));
+      }
+
+      runInParallel(units);
+   }
+
+   private void runInParallel(final List<Runnable> units) {
+      if (units.size() <= 1 || executorService == null) {
+         units.forEach(Runnable::run);
+         return;
+      }
+
+      final List<Future<?>> futures = new ArrayList<>();
+      for (final Runnable unit : units) {
+         try {
+            futures.add(executorService.submit(unit));
+         } catch (RejectedExecutionException e) {
+            unit.run();
+         }
+      }
+
+      for (final Future<?> future : futures) {
+         try {
+            future.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Processing of delayed actions was interrupted.", e);
+         } catch (ExecutionException e) {
+            log.log(Level.SEVERE, "Unable to process delayed actions: ", e.getCause());
+         }
+      }
+   }
 
-         final Map<String, User> users = getUsers(allUsers); // id -> user
-         final Map<String, Language> userLanguages = initializeLanguages(users.values());
-         final Map<String, String> userIds = getUserIds(users.values()); // email -> id
+   private void executeUnit(final List<DelayedAction> actions, final Map<String, DelayedAction> actionsById, final Map<String, UserIndex> userIndexes, final ProcessingStats stats) {
+      final Map<String, PermissionAdapter> permissionAdapters = new HashMap<>();
+
+      actions.forEach(action -> {
+         try {
+            final UserIndex userIndex = userIndexes.get(action.getData().getString(DelayedAction.DATA_ORGANIZATION_ID));
+            executeAction(action, actionsById, userIndex, permissionAdapters, stats);
+         } catch (RuntimeException e) {
+            // the action stays started and is picked up again once it times out
+            stats.failed();
+            log.log(Level.WARNING, String.format("Unable to process delayed action '%s': ", action.getId()), e);
+         }
+      });
+   }
 
-         final Language lang = userLanguages.getOrDefault(action.getReceiver(), Language.EN);
+   private void executeAction(final DelayedAction action, final Map<String, DelayedAction> actionsById, final UserIndex userIndex, final Map<String, PermissionAdapter> permissionAdapters, final ProcessingStats stats) {
+      final Language lang = userIndex.getLanguage(action.getReceiver());
 
-         final User receiverUser = userIds.containsKey(action.getReceiver()) ? users.get(userIds.get(action.getReceiver())) : null;
-         final Collection collection = checkActionResourceExistsAndFillData(action, receiverUser);
+      final User receiverUser = userIndex.getUser(action.getReceiver());
+      final Collection collection = checkActionResourceExistsAndFillData(action, receiverUser, permissionAdapters);
 
-         if (collection != null) {
+      if (collection != null) {
 
-            // if we do not know anything about the user, make sure to send the notification; otherwise check the user settings
-            if (receiverUser == null || isNotificationEnabled(action, receiverUser)) {
+         // if we do not know anything about the user, make sure to send the notification; otherwise check the user settings
+         if (receiverUser == null || isNotificationEnabled(action, receiverUser)) {
 
-               if (action.getNotificationChannel() == NotificationChannel.Email) {
-                  final User user = userIds.containsKey(action.getInitiator()) ? users.get(userIds.get(action.getInitiator())) : null;
-                  final String sender = user != null ? emailSenderFacade.formatUserReference(user) : "";
-                  final String from = user != null ? emailSenderFacade.formatFrom(user) : "";
-                  final String recipient = action.getReceiver();
-                  final Map<String, Object> additionalData = processData(action.getData(), lang, receiverUser);
+            if (action.getNotificationChannel() == NotificationChannel.Email) {
+               final User user = userIndex.getUser(action.getInitiator());
+               final String sender = user != null ? emailSenderFacade.formatUserReference(user) : "";
+               final String from = user != null ? emailSenderFacade.formatFrom(user) : "";
+               final String recipient = action.getReceiver();
+               final Map<String, Object> additionalData = processData(action.getData(), lang, receiverUser);
 
-                  emailSenderFacade.sendEmailFromTemplate(getEmailTemplate(action), lang, sender, from, recipient, getEmailSubjectPart(action, additionalData, lang), additionalData);
-               } else if (action.getNotificationChannel() == NotificationChannel.Internal && userIds.containsKey(action.getReceiver())) {
-                  UserNotification notification = createUserNotification(users.get(userIds.get(action.getReceiver())), action, lang);
-                  notification = userNotificationDao.createNotification(notification);
-                  if (pusherClient != null) {
-                     pusherClient.trigger(List.of(createUserNotificationEvent(notification, PusherFacade.CREATE_EVENT_SUFFIX, userIds.get(action.getReceiver()))));
-                  }
+               emailSenderFacade.sendEmailFromTemplate(getEmailTemplate(action), lang, sender, from, recipient, getEmailSubjectPart(action, additionalData, lang), additionalData);
+               stats.emailSent();
+            } else if (action.getNotificationChannel() == NotificationChannel.Internal && receiverUser != null) {
+               UserNotification notification = createUserNotification(receiverUser, action, lang);
+               notification = userNotificationDao.createNotification(notification);
+               if (pusherClient != null) {
+                  pusherClient.dispatch(List.of(createUserNotificationEvent(notification, PusherFacade.CREATE_EVENT_SUFFIX, receiverUser.getId())));
                }
+               stats.notificationCreated();
             }
+         }
 
-            // reschedule past due actions
-            if (!rescheduleDueDateAction(actions, action, receiverUser, collection)) {
-               markActionAsCompleted(actions, action);
-            }
+         // reschedule past due actions
+         if (rescheduleDueDateAction(actionsById, action, receiverUser, collection)) {
+            stats.rescheduled();
          } else {
-            markActionAsCompleted(actions, action);
+            markActionAsCompleted(actionsById, action, stats);
          }
+      } else {
+         stats.skipped();
+         markActionAsCompleted(actionsById, action, stats);
+      }
+   }
+
+   // user indexes are built once per organization and run, before the workers start
+   private void indexUsers(final List<DelayedAction> actions, final Map<String, UserIndex> userIndexes) {
+      actions.forEach(action -> {
+         final String organizationId = action.getData().getString(DelayedAction.DATA_ORGANIZATION_ID);
+         final UserIndex userIndex = userIndexes.computeIfAbsent(organizationId, orgId -> new UserIndex(userDao.getAllUsers(orgId)));
+         userIndex.resolve(action.getReceiver(), userDao::getUserByEmail); // mix in users from actions
       });
    }
 
@@ -244,27 +358,27 @@ public class DelayedActionProcessor extends WorkspaceContext {
       organizations.clear();
       projects.clear();
       collections.clear();
-      permissionAdapters.clear();
+      dataStorages.clear();
       organizationDaoSnapshots.clear();
       projectDaoSnapshots.clear();
    }
 
-   private void markActionAsCompleted(final List<DelayedAction> actions, final DelayedAction action) {
+   private void markActionAsCompleted(final Map<String, DelayedAction> actionsById, final DelayedAction action, final ProcessingStats stats) {
       if (action.getId() == null && action.getData().containsKey(DelayedAction.DATA_ORIGINAL_ACTION_IDS)) {
          var ids = action.getData().getArrayList(DelayedAction.DATA_ORIGINAL_ACTION_IDS, String.class);
-         actions.forEach(a -> {
-            if (ids.contains(a.getId())) {
-               a.setCompleted(ZonedDateTime.now());
-               delayedActionDao.updateAction(a);
-            }
+         ids.stream().map(actionsById::get).filter(Objects::nonNull).forEach(a -> {
+            a.setCompleted(ZonedDateTime.now());
+            delayedActionDao.updateAction(a);
+            stats.completed();
          });
       } else {
          action.setCompleted(ZonedDateTime.now());
          delayedActionDao.updateAction(action);
+         stats.completed();
       }
    }
 
-   private Collection checkActionResourceExistsAndFillData(final DelayedAction action, final User receiver) {
+   private Collection checkActionResourceExistsAndFillData(final DelayedAction action, final User receiver, final Map<String, PermissionAdapter> permissionAdapters) {
       final String organizationId = action.getData().getString(DelayedAction.DATA_ORGANIZATION_ID);
       final String projectId = action.getData().getString(DelayedAction.DATA_PROJECT_ID);
       final String collectionId = action.getData().getString(DelayedAction.DATA_COLLECTION_ID);
@@ -272,7 +386,7 @@ public class DelayedActionProcessor extends WorkspaceContext {
 
       try {
          if (organizationId != null) {
-            final DataStorage userDataStorage = getDataStorage(organizationId);
+            final DataStorage userDataStorage = dataStorages.computeIfAbsent(organizationId, this::getDataStorage);
             final Organization organization = organizations.computeIfAbsent(organizationId, id -> organizationDao.getOrganizationById(organizationId));
 
             action.getData().append(DelayedAction.DATA_ORGANIZATION_NAME, organization.getName());
@@ -323,14 +437,12 @@ public class DelayedActionProcessor extends WorkspaceContext {
    }
 
    // reschedule past due actions until they are completed
-   private boolean rescheduleDueDateAction(final List<DelayedAction> actions, final DelayedAction action, final User user, final Collection collection) {
-      if (action.getId() == null && action.getData().containsKey(DelayedAction.DATA_ORIGINAL_ACTION_IDS) && actions != null) {
+   private boolean rescheduleDueDateAction(final Map<String, DelayedAction> actionsById, final DelayedAction action, final User user, final Collection collection) {
+      if (action.getId() == null && action.getData().containsKey(DelayedAction.DATA_ORIGINAL_ACTION_IDS) && actionsById != null) {
          final AtomicBoolean rescheduled = new AtomicBoolean(false);
          var ids = action.getData().getArrayList(DelayedAction.DATA_ORIGINAL_ACTION_IDS, String.class);
-         actions.forEach(a -> {
-            if (ids.contains(a.getId())) {
-               rescheduled.set(rescheduled.get() || rescheduleDueDateAction(null, a, user, collection));
-            }
+         ids.stream().map(actionsById::get).filter(Objects::nonNull).forEach(a -> {
+            rescheduled.set(rescheduled.get() || rescheduleDueDateAction(null, a, user, collection));
          });
 
          return rescheduled.get();
@@ -504,40 +616,139 @@ public class DelayedActionProcessor extends WorkspaceContext {
       this.pusherClient = pusherClient;
    }
 
-   // get map of user id -> user
-   private Map<String, User> getUsers(final List<User> users) {
-      return users.stream()
-                  .collect(Collectors.toMap(User::getId, Function.identity()));
+   /**
+    * Overrides the configured size of claimed batches and number of workers. Useful for tests.
+    */
+   public void setBatching(final int batchSize, final int parallelism) {
+      this.batchSize = Math.max(1, batchSize);
+      this.parallelism = Math.max(1, parallelism);
    }
 
-   private List<User> getUsersFromActions(final List<DelayedAction> actions, final List<User> loadedUsers) {
-      var loadedEmails = loadedUsers.stream().map(User::getEmail).collect(Collectors.toList());
-      return actions.stream()
-                    .map(DelayedAction::getReceiver)
-                    .distinct()
-                    .filter(email -> !loadedEmails.contains(email))
-                    .map(userDao::getUserByEmail)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-   }
+   // users of an organization mixed in with the receivers of the processed actions, indexed by email
+   private static class UserIndex {
+
+      private final Map<String, User> usersByEmail = new HashMap<>();
 
-   // get map of user email -> user language
-   private Map<String, Language> initializeLanguages(final java.util.Collection<User> users) {
-      return users.stream()
-                  .collect(
-                        Collectors.toMap(
-                              User::getEmail,
-                              user -> Language.valueOf((user.getNotificationsLanguage() != null ? user.getNotificationsLanguage() : "en").toUpperCase())
-                        )
-                  );
+      private UserIndex(final List<User> users) {
+         users.forEach(user -> usersByEmail.putIfAbsent(user.getEmail(), user));
+      }
+
+      private void resolve(final String email, final Function<String, User> loader) {
+         if (email != null && !usersByEmail.containsKey(email)) {
+            usersByEmail.put(email, loader.apply(email)); // remember unknown users as well
+         }
+      }
+
+      private User getUser(final String email) {
+         return email != null ? usersByEmail.get(email) : null;
+      }
+
+      private Language getLanguage(final String email) {
+         final User user = getUser(email);
+         return user != null ? Language.valueOf((user.getNotificationsLanguage() != null ? user.getNotificationsLanguage() : "en").toUpperCase()) : Language.EN;
+      }
    }
 
-   // get map of user email -> user id
-   private Map<String, String> getUserIds(final java.util.Collection<User> users) {
-      return users.stream()
-                  .collect(
-                        Collectors.toMap(User::getEmail, User::getId)
-                  );
+   /**
+    * Throughput of a single processing run.
+    */
+   public static class ProcessingStats {
+
+      private final long started = System.nanoTime();
+      private final AtomicInteger batches = new AtomicInteger();
+      private final AtomicInteger claimed = new AtomicInteger();
+      private final AtomicInteger aggregated = new AtomicInteger();
+      private final AtomicInteger emailsSent = new AtomicInteger();
+      private final AtomicInteger notificationsCreated = new AtomicInteger();
+      private final AtomicInteger completed = new AtomicInteger();
+      private final AtomicInteger rescheduled = new AtomicInteger();
+      private final AtomicInteger skipped = new AtomicInteger();
+      private final AtomicInteger failed = new AtomicInteger();
+      private volatile long durationMillis;
+
+      private void batchClaimed(final int claimedActions, final int aggregatedActions) {
+         batches.incrementAndGet();
+         claimed.addAndGet(claimedActions);
+         aggregated.addAndGet(aggregatedActions);
+      }
+
+      private void emailSent() {
+         emailsSent.incrementAndGet();
+      }
+
+      private void notificationCreated() {
+         notificationsCreated.incrementAndGet();
+      }
+
+      private void completed() {
+         completed.incrementAndGet();
+      }
+
+      private void rescheduled() {
+         rescheduled.incrementAndGet();
+      }
+
+      private void skipped() {
+         skipped.incrementAndGet();
+      }
+
+      private void failed() {
+         failed.incrementAndGet();
+      }
+
+      private void finish() {
+         durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+      }
+
+      public int getBatches() {
+         return batches.get();
+      }
+
+      public int getClaimed() {
+         return claimed.get();
+      }
+
+      public int getAggregated() {
+         return aggregated.get();
+      }
+
+      public int getEmailsSent() {
+         return emailsSent.get();
+      }
+
+      public int getNotificationsCreated() {
+         return notificationsCreated.get();
+      }
+
+      public int getCompleted() {
+         return completed.get();
+      }
+
+      public int getRescheduled() {
+         return rescheduled.get();
+      }
+
+      public int getSkipped() {
+         return skipped.get();
+      }
+
+      public int getFailed() {
+         return failed.get();
+      }
+
+      public long getDurationMillis() {
+         return durationMillis;
+      }
+
+      public double getActionsPerSecond() {
+         return durationMillis > 0 ? claimed.get() * 1000.0 / durationMillis : claimed.get();
+      }
+
+      @Override
+      public String toString() {
+         return String.format("Processed %d delayed actions (%d after aggregation) in %d batches and %d ms (%.1f actions/s): %d emails, %d notifications, %d completed, %d rescheduled, %d skipped, %d failed.",
+               getClaimed(), getAggregated(), getBatches(), getDurationMillis(), getActionsPerSecond(), getEmailsSent(), getNotificationsCreated(), getCompleted(), getRescheduled(), getSkipped(), getFailed());
+      }
    }
 
    private Event createUserNotificationEvent(final UserNotification notification, final String event, final String userId) {
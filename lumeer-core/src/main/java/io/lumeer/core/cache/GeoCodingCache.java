@@ -22,10 +22,10 @@ import io.lumeer.api.model.geocoding.Coordinates;
 import io.lumeer.api.model.geocoding.Location;
 import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.cache.CacheSpec;
 
-import java.util.Deque;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -36,29 +36,20 @@ public class GeoCodingCache {
    private static final int QUERY_LOCATIONS_CACHE_SIZE = 10000;
    private static final int COORDINATES_LOCATION_CACHE_SIZE = 10000;
    private static final int QUERY_COORDINATES_CACHE_SIZE = 10000;
+   private static final Duration EXPIRE_AFTER_WRITE = Duration.ofDays(7);
 
    @Inject
    private CacheFactory cacheFactory;
 
    private Cache<List<Location>> queryLocationsCache;
-   private Deque<String> queryLocationsCacheKeys;
-
    private Cache<Location> coordinatesLocationCache;
-   private Deque<String> coordinatesLocationCacheKeys;
-
    private Cache<Coordinates> queryCoordinatesCache;
-   private Deque<String> queryCoordinatesCacheKeys;
 
    @PostConstruct
    public void initCache() {
-      queryLocationsCache = cacheFactory.getCache();
-      queryLocationsCacheKeys = new ConcurrentLinkedDeque<>();
-
-      coordinatesLocationCache = cacheFactory.getCache();
-      coordinatesLocationCacheKeys = new ConcurrentLinkedDeque<>();
-
-      queryCoordinatesCache = cacheFactory.getCache();
-      queryCoordinatesCacheKeys = new ConcurrentLinkedDeque<>();
+      queryLocationsCache = cacheFactory.getCache(CacheSpec.maximumSize(QUERY_LOCATIONS_CACHE_SIZE).expireAfterWrite(EXPIRE_AFTER_WRITE));
+      coordinatesLocationCache = cacheFactory.getCache(CacheSpec.maximumSize(COORDINATES_LOCATION_CACHE_SIZE).expireAfterWrite(EXPIRE_AFTER_WRITE));
+      queryCoordinatesCache = cacheFactory.getCache(CacheSpec.maximumSize(QUERY_COORDINATES_CACHE_SIZE).expireAfterWrite(EXPIRE_AFTER_WRITE));
    }
 
    public List<Location> getQueryLocations(final String query, final String language) {
@@ -66,14 +57,7 @@ public class GeoCodingCache {
    }
 
    public void updateQueryLocations(final String query, final List<Location> locations, final String language) {
-      var key = GeoCodingCache.createKey(query, language);
-
-      queryLocationsCache.set(key, locations);
-      queryLocationsCacheKeys.push(key);
-
-      if (queryLocationsCacheKeys.size() > QUERY_LOCATIONS_CACHE_SIZE) {
-         GeoCodingCache.removeLastCacheEntry(queryLocationsCache, queryLocationsCacheKeys);
-      }
+      queryLocationsCache.set(GeoCodingCache.createKey(query, language), locations);
    }
 
    public Location getCoordinatesLocation(final Coordinates coordinates, final String language) {
@@ -81,14 +65,7 @@ public class GeoCodingCache {
    }
 
    public void updateCoordinatesLocation(final Coordinates coordinates, final Location location, final String language) {
-      var key = GeoCodingCache.createKey(coordinates.toString(), language);
-
-      coordinatesLocationCache.set(key, location);
-      coordinatesLocationCacheKeys.push(key);
-
-      if (queryLocationsCacheKeys.size() > QUERY_LOCATIONS_CACHE_SIZE) {
-         GeoCodingCache.removeLastCacheEntry(coordinatesLocationCache, coordinatesLocationCacheKeys);
-      }
+      coordinatesLocationCache.set(GeoCodingCache.createKey(coordinates.toString(), language), location);
    }
 
    public Coordinates getQueryCoordinates(final String query) {
@@ -97,18 +74,6 @@ public class GeoCodingCache {
 
    public void updateQueryCoordinates(final String query, final Coordinates coordinates) {
       queryCoordinatesCache.set(query, coordinates);
-      queryCoordinatesCacheKeys.push(query);
-
-      if (queryCoordinatesCacheKeys.size() > QUERY_COORDINATES_CACHE_SIZE) {
-         GeoCodingCache.removeLastCacheEntry(queryCoordinatesCache, queryCoordinatesCacheKeys);
-      }
-   }
-
-   private static void removeLastCacheEntry(final Cache cache, final Deque<String> cachedKeys) {
-      var key = cachedKeys.pollLast();
-      if (key != null) {
-         cache.remove(key);
-      }
    }
 
    private static String createKey(final String query, final String language) {
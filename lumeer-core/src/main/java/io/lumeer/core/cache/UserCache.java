@@ -21,16 +21,25 @@ package io.lumeer.core.cache;
 import io.lumeer.api.model.User;
 import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.cache.CacheSpec;
 import io.lumeer.storage.api.dao.UserDao;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 
+/**
+ * Users indexed both by email and by id. Both indexes hold the same instances and are kept consistent on every update.
+ */
 @RequestScoped
 public class UserCache {
 
+   private static final int MAXIMUM_SIZE = 1000;
+
    @Inject
    private CacheFactory cacheFactory;
 
@@ -38,43 +47,90 @@ public class UserCache {
    private UserDao userDao;
 
    private Cache<User> userCache;
+   private Cache<User> userByIdCache;
 
    @PostConstruct
    public void initCache() {
-      userCache = cacheFactory.getCache();
+      userCache = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
+      userByIdCache = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
    }
 
    public User getUser(String email) {
-      return userCache.computeIfAbsent(email, userDao::getUserByEmail);
+      final User user = userCache.get(email);
+      if (user != null) {
+         return user;
+      }
+
+      final User loadedUser = userDao.getUserByEmail(email);
+      if (loadedUser != null) {
+         updateUser(email, loadedUser);
+      }
+      return loadedUser;
    }
 
    public User getUserById(String id) {
-      final Optional<User> maybeUser = userCache.stream().filter(u -> id.equals(u.getId())).findFirst();
+      final User user = userByIdCache.get(id);
+      if (user != null) {
+         return user;
+      }
+
+      final User loadedUser = userDao.getUserById(id);
+      if (loadedUser != null) {
+         updateUser(loadedUser.getEmail(), loadedUser);
+      }
+      return loadedUser;
+   }
 
-      if (maybeUser.isEmpty()) {
-         final User u = userDao.getUserById(id);
+   public List<User> getUsersByIds(Set<String> ids) {
+      final List<User> users = new ArrayList<>(ids.size());
+      final Set<String> missingIds = new HashSet<>();
 
-         if (u != null) {
-            updateUser(u.getEmail(), u);
-            return u;
+      for (final String id : ids) {
+         final User user = userByIdCache.get(id);
+         if (user != null) {
+            users.add(user);
+         } else {
+            missingIds.add(id);
          }
-      } else {
-         return maybeUser.get();
       }
 
-      return null;
+      if (!missingIds.isEmpty()) {
+         userDao.getUserByIds(missingIds).forEach(user -> {
+            updateUser(user.getEmail(), user);
+            users.add(user);
+         });
+      }
+
+      return users;
    }
 
    public void updateUser(String username, User user) {
+      final User previousUser = userCache.get(username);
+      if (previousUser != null && previousUser.getId() != null && !previousUser.getId().equals(user.getId())) {
+         userByIdCache.remove(previousUser.getId());
+      }
+
+      if (user.getId() != null) {
+         final User previousById = userByIdCache.get(user.getId());
+         if (previousById != null && previousById.getEmail() != null && !previousById.getEmail().equals(username)) {
+            userCache.remove(previousById.getEmail());
+         }
+         userByIdCache.set(user.getId(), user);
+      }
+
       userCache.set(username, user);
    }
 
    public void removeUser(String username) {
-      userCache.remove(username);
+      final User user = userCache.remove(username);
+      if (user != null && user.getId() != null) {
+         userByIdCache.remove(user.getId());
+      }
    }
 
    public void clear() {
       userCache.clear();
+      userByIdCache.clear();
    }
 
 }
@@ -23,6 +23,7 @@ import io.lumeer.api.model.Project;
 import io.lumeer.api.model.ServiceLimits;
 import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.cache.CacheSpec;
 import io.lumeer.storage.api.dao.OrganizationDao;
 import io.lumeer.storage.api.dao.ProjectDao;
 
@@ -34,6 +35,8 @@ import javax.inject.Inject;
 @RequestScoped
 public class WorkspaceCache {
 
+   private static final int MAXIMUM_SIZE = 1000;
+
    @Inject
    private CacheFactory cacheFactory;
 
@@ -51,11 +54,11 @@ public class WorkspaceCache {
 
    @PostConstruct
    public void initCaches() {
-      organizationCache = cacheFactory.getCache();
-      projectCache = cacheFactory.getCache();
-      serviceLimitsCache = cacheFactory.getCache();
-      userCollections = cacheFactory.getCache();
-      systemCollections = cacheFactory.getCache();
+      organizationCache = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
+      projectCache = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
+      serviceLimitsCache = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
+      userCollections = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
+      systemCollections = cacheFactory.getCache(CacheSpec.maximumSize(MAXIMUM_SIZE));
    }
 
    public Organization getOrganization(String organizationId) {
@@ -49,6 +49,7 @@ import io.lumeer.core.auth.RequestDataKeeper;
 import io.lumeer.core.constraint.ConstraintManager;
 import io.lumeer.core.exception.UnsupportedOperationException;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.core.util.AuditLogWriter;
 import io.lumeer.core.util.DocumentUtils;
 import io.lumeer.core.util.LinkInstanceUtils;
 import io.lumeer.core.util.PusherClient;
@@ -73,6 +74,8 @@ import io.lumeer.storage.api.dao.LinkTypeDao;
 import io.lumeer.storage.api.dao.ResourceCommentDao;
 import io.lumeer.storage.api.dao.UserDao;
 import io.lumeer.storage.api.dao.ViewDao;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshotFactory;
 
 import org.marvec.pusher.data.Event;
 
@@ -140,7 +143,11 @@ public class AuditFacade extends AbstractFacade {
    @Inject
    private PusherHelperFacade pusherHelperFacade;
 
+   @Inject
+   private DaoContextSnapshotFactory daoContextSnapshotFactory;
+
    private AuditAdapter auditAdapter;
+   private AuditAdapter asyncAuditAdapter;
    private DocumentAdapter documentAdapter;
    private ConstraintManager constraintManager;
    private LinkInstanceAdapter linkInstanceAdapter;
@@ -274,6 +281,9 @@ public class AuditFacade extends AbstractFacade {
          throw new UnsupportedOperationException("Reverting audit log entries is not available on the free plan.");
       }
 
+      // the record being reverted must be compared with the latest records, including those still queued
+      AuditLogWriter.flushInstance(AuditLogWriter.DEFAULT_FLUSH_TIMEOUT_MS);
+
       final AuditRecord record = auditDao.getAuditRecord(auditRecordId);
 
       switch (record.getResourceType()) {
@@ -370,7 +380,7 @@ public class AuditFacade extends AbstractFacade {
 
    private void sendPushNotification(final List<Event> events) {
       if (pusherClient != null && events.size() > 0) {
-         pusherClient.trigger(events);
+         pusherClient.dispatch(events);
       }
    }
 
@@ -451,6 +461,14 @@ public class AuditFacade extends AbstractFacade {
       auditAdapter.registerEnter(organization.getId(), ResourceType.PROJECT, project.getId(), authenticatedUser.getCurrentUser());
    }
 
+   private AuditAdapter getAsyncAuditAdapter() {
+      if (asyncAuditAdapter == null) {
+         final DaoContextSnapshot snapshot = daoContextSnapshotFactory.getInstance();
+         asyncAuditAdapter = new AuditAdapter(snapshot.getAuditDao(), AuditLogWriter.getInstance(), snapshot.getOrganizationId() + "/" + snapshot.getProjectId());
+      }
+      return asyncAuditAdapter;
+   }
+
    private AuditRecord registerDocumentCreate(final Document newDocument) {
       if (newDocument == null) {
          throw new UnsupportedOperationException("Cannot create audit record from different or incomplete documents.");
@@ -460,7 +478,7 @@ public class AuditFacade extends AbstractFacade {
       final Collection collection = collectionDao.getCollectionById(newDocument.getCollectionId());
       final DataDocument newDataDecoded = constraintManager.decodeDataTypes(collection, newDocument.getData());
 
-      return auditAdapter.registerCreate(collection.getId(), ResourceType.DOCUMENT, newDocument.getId(), user, null, getCurrentViewId(), newDataDecoded);
+      return getAsyncAuditAdapter().registerCreate(collection.getId(), ResourceType.DOCUMENT, newDocument.getId(), user, null, getCurrentViewId(), newDataDecoded);
    }
 
    private AuditRecord registerDocumentUpdate(final Document oldDocument, final Document newDocument) {
@@ -474,7 +492,7 @@ public class AuditFacade extends AbstractFacade {
       final DataDocument oldDataDecoded = constraintManager.decodeDataTypes(collection, oldDocument.getData());
       final DataDocument newDataDecoded = constraintManager.decodeDataTypes(collection, newDocument.getData());
 
-      return auditAdapter.registerDataChange(collection.getId(), ResourceType.DOCUMENT, oldDocument.getId(), user, null, getCurrentViewId(), oldDocument.getData(), oldDataDecoded, newDocument.getData(), newDataDecoded);
+      return getAsyncAuditAdapter().registerDataChange(collection.getId(), ResourceType.DOCUMENT, oldDocument.getId(), user, null, getCurrentViewId(), oldDocument.getData(), oldDataDecoded, newDocument.getData(), newDataDecoded);
    }
 
    private AuditRecord registerDocumentDelete(final Document oldDocument) {
@@ -485,7 +503,7 @@ public class AuditFacade extends AbstractFacade {
       final User user = authenticatedUser.getCurrentUser();
       final Collection collection = collectionDao.getCollectionById(oldDocument.getCollectionId());
 
-      return auditAdapter.registerDelete(collection.getId(), ResourceType.DOCUMENT, oldDocument.getId(), user, null, getCurrentViewId(), oldDocument.getData());
+      return getAsyncAuditAdapter().registerDelete(collection.getId(), ResourceType.DOCUMENT, oldDocument.getId(), user, null, getCurrentViewId(), oldDocument.getData());
    }
 
    private AuditRecord registerLinkCreate(final LinkInstance newLink) {
@@ -497,7 +515,7 @@ public class AuditFacade extends AbstractFacade {
       final LinkType linkType = linkTypeDao.getLinkType(newLink.getLinkTypeId());
       final DataDocument newDataDecoded = constraintManager.decodeDataTypes(linkType, newLink.getData());
 
-      return auditAdapter.registerCreate(linkType.getId(), ResourceType.LINK, newLink.getId(), user, null, getCurrentViewId(), newDataDecoded);
+      return getAsyncAuditAdapter().registerCreate(linkType.getId(), ResourceType.LINK, newLink.getId(), user, null, getCurrentViewId(), newDataDecoded);
    }
 
    private AuditRecord registerLinkUpdate(final LinkInstance oldLink, final LinkInstance newLink) {
@@ -511,7 +529,7 @@ public class AuditFacade extends AbstractFacade {
       final DataDocument oldDataDecoded = constraintManager.decodeDataTypes(linkType, oldLink.getData());
       final DataDocument newDataDecoded = constraintManager.decodeDataTypes(linkType, newLink.getData());
 
-      return auditAdapter.registerDataChange(linkType.getId(), ResourceType.LINK, oldLink.getId(), user, null, getCurrentViewId(), oldLink.getData(), oldDataDecoded, newLink.getData(), newDataDecoded);
+      return getAsyncAuditAdapter().registerDataChange(linkType.getId(), ResourceType.LINK, oldLink.getId(), user, null, getCurrentViewId(), oldLink.getData(), oldDataDecoded, newLink.getData(), newDataDecoded);
    }
 
    private AuditRecord registerLinkDelete(final LinkInstance oldLink) {
@@ -522,7 +540,7 @@ public class AuditFacade extends AbstractFacade {
       final User user = authenticatedUser.getCurrentUser();
       final LinkType linkType = linkTypeDao.getLinkType(oldLink.getLinkTypeId());
 
-      return auditAdapter.registerDelete(linkType.getId(), ResourceType.LINK, oldLink.getId(), user, null, getCurrentViewId(), oldLink.getData());
+      return getAsyncAuditAdapter().registerDelete(linkType.getId(), ResourceType.LINK, oldLink.getId(), user, null, getCurrentViewId(), oldLink.getData());
    }
 
    private List<AuditRecord> decodeWithTitle(final Collection collection, final List<AuditRecord> auditRecords) {
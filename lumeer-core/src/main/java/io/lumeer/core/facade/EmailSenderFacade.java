@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.PostConstruct;
@@ -65,7 +66,7 @@ public class EmailSenderFacade {
    private static String SMTP_FROM;
 
    private Map<String, String> subjectLines = new HashMap<>();
-   private Map<String, String> templates = new HashMap<>();
+   private Map<String, String> templates = new ConcurrentHashMap<>();
    private Engine templateEngine = Engine.createEngine();
    private EmailService emailService = null;
 
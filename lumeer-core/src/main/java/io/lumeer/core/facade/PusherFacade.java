@@ -45,6 +45,7 @@ import io.lumeer.core.adapter.DocumentAdapter;
 import io.lumeer.core.adapter.LinkInstanceAdapter;
 import io.lumeer.core.adapter.LinkTypeAdapter;
 import io.lumeer.core.adapter.PermissionAdapter;
+import io.lumeer.core.adapter.PermissionDecisionCache;
 import io.lumeer.core.adapter.PusherAdapter;
 import io.lumeer.core.adapter.ResourceAdapter;
 import io.lumeer.core.adapter.ResourceVariableAdapter;
@@ -119,9 +120,11 @@ import io.lumeer.storage.api.dao.ViewDao;
 
 import org.marvec.pusher.data.Event;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -332,6 +335,7 @@ public class PusherFacade extends AbstractFacade {
 
    private void checkOrganizationPermissionsChange(final Organization originalOrganization, final Organization updatedOrganization) {
       RolesDifference rolesDifference = permissionAdapter.getOrganizationReadersDifference(originalOrganization, updatedOrganization);
+      invalidatePermissionDecisions(rolesDifference);
       Set<String> removedUsers = new HashSet<>(rolesDifference.getRemovedUsers());
       removedUsers.remove(getCurrentUserId());
       if (!removedUsers.isEmpty()) {
@@ -341,6 +345,7 @@ public class PusherFacade extends AbstractFacade {
 
    private void checkProjectPermissionsChange(final Project originalProject, final Project updatedProject) {
       RolesDifference rolesDifference = permissionAdapter.getProjectReadersDifference(getOrganization(), originalProject, updatedProject);
+      invalidatePermissionDecisions(rolesDifference);
       Set<String> removedUsers = new HashSet<>(rolesDifference.getRemovedUsers());
       removedUsers.remove(getCurrentUserId());
       if (!removedUsers.isEmpty()) {
@@ -348,6 +353,13 @@ public class PusherFacade extends AbstractFacade {
       }
    }
 
+   private void invalidatePermissionDecisions(final RolesDifference rolesDifference) {
+      // organization and project roles are inherited by all the nested resources
+      if (!rolesDifference.getAddedUsers().isEmpty() || !rolesDifference.getRemovedUsers().isEmpty()) {
+         PermissionDecisionCache.invalidate();
+      }
+   }
+
    private void checkLinkTypesPermissionsChange(final LinkType originalLinkType, final LinkType updatedLinkType) {
       List<Event> notifications = pusherAdapter.checkLinkTypePermissionsChange(getOrganization(), getProject(), authenticatedUser.getCurrentUser(), originalLinkType, updatedLinkType);
       if (notifications.size() > 0) {
@@ -433,24 +445,31 @@ public class PusherFacade extends AbstractFacade {
 
    private void sendViewNotifications(final View view, final String event) {
       Set<String> userIds = resourceAdapter.getViewReaders(getOrganization(), getProject(), view);
-      sendNotificationsBatch(userIds.stream()
-                                    .map(userId -> createEvent(new ObjectWithParent(getAppId(), createViewForUser(view, userId), getOrganization().getId(), getProject().getId()), event, userId))
-                                    .collect(Collectors.toList()));
-   }
+      if (REMOVE_EVENT_SUFFIX.equals(event)) {
+         sendNotificationsBatch(pusherAdapter.createEventsForNestedResource(getOrganization(), getProject(), view, event, userIds, userId -> null, (v, overlay) -> { }));
+         return;
+      }
 
-   private View createViewForUser(final View view, final String userId) {
-      return viewAdapter.mapViewData(getOrganization(), getProject(), view.copy(), userId, workspaceKeeper.getProjectId());
+      // author rights are the same for all users, only the favorite flag differs
+      final View sharedView = viewAdapter.mapViewAuthorRights(getOrganization(), getProject(), view.copy());
+      final Set<String> favoriteUserIds = viewAdapter.getFavoriteUserIds(view.getId(), workspaceKeeper.getProjectId());
+      sendNotificationsBatch(pusherAdapter.createEventsForNestedResource(getOrganization(), getProject(), sharedView, event, userIds,
+            favoriteUserIds::contains, (v, favorite) -> v.setFavorite((Boolean) favorite)));
    }
 
    private void sendCollectionNotifications(final Collection collection, final String event) {
       Set<String> userIds = resourceAdapter.getCollectionReaders(getOrganization(), getProject(), collection);
-      sendNotificationsBatch(userIds.stream()
-                                    .map(userId -> createEvent(new ObjectWithParent(getAppId(), createCollectionForUser(collection, userId), getOrganization().getId(), getProject().getId()), event, userId))
-                                    .collect(Collectors.toList()));
-   }
+      if (REMOVE_EVENT_SUFFIX.equals(event)) {
+         sendNotificationsBatch(pusherAdapter.createEventsForNestedResource(getOrganization(), getProject(), collection, event, userIds, userId -> null, (c, overlay) -> { }));
+         return;
+      }
 
-   private Collection createCollectionForUser(final Collection collection, final String userId) {
-      return collectionAdapter.mapCollectionComputedProperties(collection.copy(), userId, workspaceKeeper.getProjectId());
+      // documents count is the same for all users, only the favorite flag differs
+      final Collection sharedCollection = collection.copy();
+      sharedCollection.setDocumentsCount(collectionAdapter.getDocumentsCountByCollection(collection.getId()));
+      final Set<String> favoriteUserIds = collectionAdapter.getFavoriteUserIds(collection.getId(), workspaceKeeper.getProjectId());
+      sendNotificationsBatch(pusherAdapter.createEventsForNestedResource(getOrganization(), getProject(), sharedCollection, event, userIds,
+            favoriteUserIds::contains, (c, favorite) -> c.setFavorite((Boolean) favorite)));
    }
 
    public void createResourceComment(@Observes final CreateResourceComment commentEvent) {
@@ -518,17 +537,33 @@ public class PusherFacade extends AbstractFacade {
             document.setData(constraintManager.decodeDataTypes(collection, document.getData()));
             Set<String> userIds = resourceAdapter.getDocumentReaders(getOrganization(), getProject(), collection, document);
 
-            sendNotificationsBatch(userIds.stream()
-                                          .map(userId -> createEvent(createDocumentForUser(document, userId), eventSuffix, userId))
-                                          .collect(Collectors.toList()));
+            sendNotificationsBatch(createDocumentEvents(document, eventSuffix, userIds));
          } catch (Exception e) {
             log.log(Level.WARNING, "Unable to send push notification: ", e);
          }
       }
    }
 
-   private Document createDocumentForUser(final Document document, final String userId) {
-      return documentAdapter.mapDocumentData(document, userId, workspaceKeeper.getProjectId());
+   private List<Event> createDocumentEvents(final Document document, final String eventSuffix, final Set<String> userIds) {
+      if (REMOVE_EVENT_SUFFIX.equals(eventSuffix)) {
+         return pusherAdapter.createEventsForWorkspaceObject(getOrganization(), getProject(), document, document.getId(), eventSuffix, userIds);
+      }
+
+      // comments count is the same for all users, only the favorite flag differs
+      final Long commentsCount = documentAdapter.getCommentsCount(document.getId());
+      final Set<String> favoriteUserIds = documentAdapter.getFavoriteUserIds(document.getId(), workspaceKeeper.getProjectId());
+      final Map<Boolean, List<String>> usersByFavorite = userIds.stream().collect(Collectors.partitioningBy(favoriteUserIds::contains));
+
+      final List<Event> events = new ArrayList<>(userIds.size());
+      usersByFavorite.forEach((favorite, favoriteGroupUserIds) -> {
+         if (!favoriteGroupUserIds.isEmpty()) {
+            final Document userDocument = new Document(document);
+            userDocument.setFavorite(favorite);
+            userDocument.setCommentsCount(commentsCount);
+            events.addAll(pusherAdapter.createEventsForWorkspaceObject(getOrganization(), getProject(), userDocument, userDocument.getId(), eventSuffix, favoriteGroupUserIds));
+         }
+      });
+      return events;
    }
 
    public void createLinkInstance(@Observes final CreateLinkInstance createLinkInstance) {
@@ -1010,7 +1045,7 @@ public class PusherFacade extends AbstractFacade {
             }
          });
 
-         pusherClient.trigger(notifications);
+         pusherClient.dispatch(notifications);
       }
    }
 
@@ -23,6 +23,7 @@ import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.util.PusherClient;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -43,6 +44,13 @@ public class PusherHelperFacade {
       delayedActionProcessor.setPusherClient(pusherClient);
    }
 
+   @PreDestroy
+   public void destroy() {
+      if (pusherClient != null) {
+         pusherClient.close(5000);
+      }
+   }
+
    public PusherClient getPusherClient() {
       return pusherClient;
    }
@@ -31,6 +31,9 @@ import io.lumeer.api.model.Document;
 import io.lumeer.api.model.Language;
 import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.LinkType;
+import io.lumeer.api.model.Organization;
+import io.lumeer.api.model.Pagination;
+import io.lumeer.api.model.Project;
 import io.lumeer.api.model.Query;
 import io.lumeer.api.model.QueryStem;
 import io.lumeer.api.model.RoleType;
@@ -39,6 +42,7 @@ import io.lumeer.api.model.common.Resource;
 import io.lumeer.api.util.ResourceUtils;
 import io.lumeer.core.adapter.DocumentAdapter;
 import io.lumeer.core.adapter.LinkInstanceAdapter;
+import io.lumeer.core.adapter.PermissionAdapter;
 import io.lumeer.core.adapter.SearchAdapter;
 import io.lumeer.core.auth.RequestDataKeeper;
 import io.lumeer.core.constraint.ConstraintManager;
@@ -46,9 +50,11 @@ import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.facade.translate.TranslationManager;
 import io.lumeer.core.util.CollectionPurposeUtils;
 import io.lumeer.core.util.QueryUtils;
+import io.lumeer.core.util.StemFilterPlanner;
 import io.lumeer.core.util.Tuple;
 import io.lumeer.core.util.Utils;
 import io.lumeer.core.util.js.DataFilter;
+import io.lumeer.core.util.js.DataFilterEngine;
 import io.lumeer.storage.api.dao.CollectionDao;
 import io.lumeer.storage.api.dao.DataDao;
 import io.lumeer.storage.api.dao.DocumentDao;
@@ -60,6 +66,9 @@ import io.lumeer.storage.api.dao.LinkTypeDao;
 import io.lumeer.storage.api.dao.ResourceCommentDao;
 import io.lumeer.storage.api.dao.SelectionListDao;
 import io.lumeer.storage.api.dao.UserDao;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshotFactory;
+import io.lumeer.storage.api.query.SearchQueryStem;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -71,9 +80,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 
@@ -122,9 +138,17 @@ public class SearchFacade extends AbstractFacade {
    @Inject
    private RequestDataKeeper requestDataKeeper;
 
+   @Inject
+   private DaoContextSnapshotFactory daoContextSnapshotFactory;
+
+   @Inject
+   private ManagedExecutorService executorService;
+
    private ConstraintManager constraintManager;
    private Language language;
    private String timezone;
+   private DataFilterEngine dataFilterEngine;
+   private int searchParallelism;
 
    private DocumentAdapter documentAdapter;
    private LinkInstanceAdapter linkInstanceAdapter;
@@ -135,6 +159,8 @@ public class SearchFacade extends AbstractFacade {
       constraintManager = ConstraintManager.getInstance(configurationProducer);
       language = requestDataKeeper.getUserLanguage();
       timezone = requestDataKeeper.getTimezone();
+      dataFilterEngine = DataFilterEngine.fromString(configurationProducer.get(DefaultConfigurationProducer.DATA_FILTER_ENGINE));
+      searchParallelism = parseSearchParallelism(configurationProducer.get(DefaultConfigurationProducer.SEARCH_PARALLELISM));
 
       documentAdapter = new DocumentAdapter(resourceCommentDao, favoriteItemDao);
       linkInstanceAdapter = new LinkInstanceAdapter(resourceCommentDao);
@@ -142,11 +168,28 @@ public class SearchFacade extends AbstractFacade {
    }
 
    private static final Integer FETCH_SIZE = 200;
+   private static final int DEFAULT_SEARCH_PARALLELISM = 4;
+
+   private static int parseSearchParallelism(final String value) {
+      try {
+         return value != null ? Integer.parseInt(value.trim()) : DEFAULT_SEARCH_PARALLELISM;
+      } catch (NumberFormatException e) {
+         return DEFAULT_SEARCH_PARALLELISM;
+      }
+   }
 
    public void setLanguage(final Language language) {
       this.language = language;
    }
 
+   public void setDataFilterEngine(final DataFilterEngine dataFilterEngine) {
+      this.dataFilterEngine = dataFilterEngine;
+   }
+
+   public void setSearchParallelism(final int searchParallelism) {
+      this.searchParallelism = searchParallelism;
+   }
+
    public List<LinkInstance> getLinkInstancesPublic(Query query) {
       return searchLinkInstances(query, true, true);
    }
@@ -236,6 +279,13 @@ public class SearchFacade extends AbstractFacade {
       return searchDocumentsAndLinks(query, true, true);
    }
 
+   public void streamDocumentsAndLinks(final Query query, boolean includeChildDocuments, final Consumer<Tuple<List<Document>, List<LinkInstance>>> consumer) {
+      var resources = getReadResources(false, query);
+      final Map<String, Collection> collectionsMap = getCollectionsMap(resources.getFirst());
+      final Map<String, LinkType> linkTypesMap = getLinkTypeMap(resources.getSecond());
+      streamDocumentsAndLinks(query, includeChildDocuments, true, collectionsMap, linkTypesMap, null, false, consumer);
+   }
+
    private Tuple<List<Document>, List<LinkInstance>> searchDocumentsAndLinks(final Query query, boolean isPublic, boolean includeChildDocuments) {
       var resources = getReadResources(isPublic, query);
       final Map<String, Collection> collectionsMap = getCollectionsMap(resources.getFirst());
@@ -245,28 +295,26 @@ public class SearchFacade extends AbstractFacade {
 
    private Tuple<List<Document>, List<LinkInstance>> searchDocumentsAndLinks(final Query query, boolean includeChildDocuments, boolean shouldCheckQuery, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
       final Query encodedQuery = checkQuery(query, collectionsMap, linkTypesMap, shouldCheckQuery);
+      final List<PagedSearch> searches = createSearches(encodedQuery, includeChildDocuments, collectionsMap, linkTypesMap, documentFilter, isPublic);
+      final SearchScope requestScope = createRequestScope(collectionsMap, linkTypesMap, filtersData(encodedQuery));
 
       final Set<Document> allDocuments = new HashSet<>();
       final Set<LinkInstance> allLinkInstances = new HashSet<>();
 
-      if (encodedQuery.containsStems()) {
-         ConstraintData constraintData = createConstraintData();
-         encodedQuery.getStems().forEach(stem -> {
-            var result = stem.containsAnyFilter() || encodedQuery.getFulltexts().size() > 0
-                  ? searchDocumentsAndLinksInStem(stem, encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, constraintData, includeChildDocuments)
-                  : searchDocumentsAndLinksInStemWithoutFilters(stem, collectionsMap, linkTypesMap, documentFilter, isPublic);
-            allDocuments.addAll(result.getFirst());
-            allLinkInstances.addAll(result.getSecond());
+      final List<Function<SearchScope, Tuple<Set<Document>, Set<LinkInstance>>>> collectingSearches = searches.stream().<Function<SearchScope, Tuple<Set<Document>, Set<LinkInstance>>>>map(search -> scope -> {
+         final Set<Document> documents = new HashSet<>();
+         final Set<LinkInstance> linkInstances = new HashSet<>();
+         search.search(scope, (pageDocuments, pageLinkInstances) -> {
+            documents.addAll(pageDocuments);
+            linkInstances.addAll(pageLinkInstances);
          });
-      } else if (encodedQuery.getFulltexts().size() > 0) {
-         var result = searchDocumentsAndLinksByFulltexts(encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, createConstraintData(), includeChildDocuments);
-         allDocuments.addAll(result.getFirst());
-         allLinkInstances.addAll(result.getSecond());
-      } else {
-         var result = searchDocumentsAndLinksByEmptyQuery(collectionsMap, linkTypesMap, documentFilter, isPublic);
+         return new Tuple<>(documents, linkInstances);
+      }).collect(Collectors.toList());
+
+      runSearches(requestScope, collectingSearches).forEach(result -> {
          allDocuments.addAll(result.getFirst());
          allLinkInstances.addAll(result.getSecond());
-      }
+      });
 
       var mappedDocuments = documentAdapter.mapDocumentsData(new ArrayList<>(allDocuments), getCurrentUserId(), workspaceKeeper.getProjectId());
       var mappedLinkInstances = linkInstanceAdapter.mapLinkInstancesData(new ArrayList<>(allLinkInstances));
@@ -274,6 +322,58 @@ public class SearchFacade extends AbstractFacade {
       return new Tuple<>(mappedDocuments, mappedLinkInstances);
    }
 
+   /**
+    * Streams the results page by page on the calling thread, the next page is fetched only after the consumer returns.
+    * Every document and link instance is passed to the consumer only once.
+    */
+   private void streamDocumentsAndLinks(final Query query, boolean includeChildDocuments, boolean shouldCheckQuery, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic, final Consumer<Tuple<List<Document>, List<LinkInstance>>> consumer) {
+      final Query encodedQuery = checkQuery(query, collectionsMap, linkTypesMap, shouldCheckQuery);
+      final List<PagedSearch> searches = createSearches(encodedQuery, includeChildDocuments, collectionsMap, linkTypesMap, documentFilter, isPublic);
+      final SearchScope requestScope = createRequestScope(collectionsMap, linkTypesMap, filtersData(encodedQuery));
+
+      final Set<String> sentDocumentIds = new HashSet<>();
+      final Set<String> sentLinkInstanceIds = new HashSet<>();
+      searches.forEach(search -> search.search(requestScope, (pageDocuments, pageLinkInstances) -> {
+         final List<Document> documents = pageDocuments.stream().filter(document -> sentDocumentIds.add(document.getId())).collect(Collectors.toList());
+         final List<LinkInstance> linkInstances = pageLinkInstances.stream().filter(linkInstance -> sentLinkInstanceIds.add(linkInstance.getId())).collect(Collectors.toList());
+         if (!documents.isEmpty() || !linkInstances.isEmpty()) {
+            var mappedDocuments = documentAdapter.mapDocumentsData(documents, getCurrentUserId(), workspaceKeeper.getProjectId());
+            var mappedLinkInstances = linkInstanceAdapter.mapLinkInstancesData(linkInstances);
+            consumer.accept(new Tuple<>(mappedDocuments, mappedLinkInstances));
+         }
+      }));
+   }
+
+   private boolean filtersData(final Query encodedQuery) {
+      return encodedQuery.getFulltexts().size() > 0 || encodedQuery.getStems().stream().anyMatch(QueryStem::containsAnyFilter);
+   }
+
+   private List<PagedSearch> createSearches(final Query encodedQuery, boolean includeChildDocuments, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
+      final List<PagedSearch> searches = new ArrayList<>();
+      if (encodedQuery.containsStems()) {
+         final ConstraintData constraintData = createConstraintData();
+         encodedQuery.getStems().forEach(stem -> {
+            if (stem.containsAnyFilter() || encodedQuery.getFulltexts().size() > 0) {
+               searches.add((scope, sink) -> searchDocumentsAndLinksInStem(scope, stem, encodedQuery.getFulltexts(), collectionsMap, linkTypesMap, documentFilter, constraintData, includeChildDocuments, sink));
+            } else {
+               searches.add((scope, sink) -> searchDocumentsAndLinksInStemWithoutFilters(scope, stem, collectionsMap, linkTypesMap, documentFilter, isPublic, sink));
+            }
+         });
+      } else if (encodedQuery.getFulltexts().size() > 0) {
+         final ConstraintData constraintData = createConstraintData();
+         collectionsMap.values().forEach(collection ->
+               searches.add((scope, sink) -> searchDocumentsByFulltexts(scope, collection, encodedQuery.getFulltexts(), documentFilter, constraintData, includeChildDocuments, sink)));
+         linkTypesMap.values().forEach(linkType ->
+               searches.add((scope, sink) -> searchLinkInstancesByFulltexts(scope, linkType, encodedQuery.getFulltexts(), collectionsMap, constraintData, sink)));
+      } else {
+         collectionsMap.values().forEach(collection ->
+               searches.add((scope, sink) -> sink.accept(getDocumentsByCollection(scope, collection, documentFilter, isPublic), Collections.emptyList())));
+         linkTypesMap.values().forEach(linkType ->
+               searches.add((scope, sink) -> sink.accept(Collections.emptyList(), getLinkInstancesByLinkType(scope, linkType, isPublic))));
+      }
+      return searches;
+   }
+
    private ConstraintData createConstraintData() {
       return new ConstraintData(
             userDao.getAllUsers(workspaceKeeper.getOrganizationId()),
@@ -286,30 +386,29 @@ public class SearchFacade extends AbstractFacade {
       );
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksInStem(final QueryStem stem, final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
-         boolean includeChildDocuments) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
-
+   private void searchDocumentsAndLinksInStem(final SearchScope scope, final QueryStem stem, final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
+         boolean includeChildDocuments, final BiConsumer<java.util.Collection<Document>, java.util.Collection<LinkInstance>> sink) {
       var resources = getResourcesFromStem(stem, collectionsMap, linkTypesMap);
       final List<Collection> allCollections = resources.getFirst();
       final List<LinkType> allLinkTypes = resources.getSecond();
 
       if (allCollections.isEmpty()) {
-         return new Tuple<>(allDocuments, allLinkInstances);
+         return;
       }
 
-      final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(allCollections);
-      final Map<String, AllowedPermissions> linkTypesPermissions = permissionsChecker.getLinkTypesPermissions(allLinkTypes);
+      final Map<String, AllowedPermissions> collectionsPermissions = scope.getCollectionsPermissions(allCollections);
+      final Map<String, AllowedPermissions> linkTypesPermissions = scope.getLinkTypesPermissions(allLinkTypes);
       final Query query = new Query(Collections.singletonList(stem), fulltexts, null, null);
+      final SearchQueryStem pushDownStem = StemFilterPlanner.createPushDownStem(stem, allCollections.get(0), constraintManager, includeChildDocuments);
 
       var hasMoreDocuments = true;
-      var page = 0;
+      String afterId = null;
 
       while (hasMoreDocuments) {
          var previousCollection = allCollections.get(0);
-         var firstCollectionDocuments = getDocumentsByCollection(previousCollection, page, FETCH_SIZE);
-         var previousDocuments = filterDocumentsByDocumentFilter(firstCollectionDocuments, documentFilter);
+         var pagination = Pagination.keyset(afterId, FETCH_SIZE);
+         var firstCollectionPage = pushDownStem != null ? getDocumentsPageByCollection(scope, previousCollection, pushDownStem, pagination) : getDocumentsPageByCollection(scope, previousCollection, pagination);
+         var previousDocuments = filterDocumentsByDocumentFilter(firstCollectionPage.getDocuments(), documentFilter);
          final Set<Document> currentDocuments = new HashSet<>(previousDocuments);
          final Set<LinkInstance> currentLinkInstances = new HashSet<>();
 
@@ -317,8 +416,8 @@ public class SearchFacade extends AbstractFacade {
             var linkType = linkTypesMap.get(linkTypeId);
             var collection = getOtherCollection(linkType, collectionsMap, Utils.computeIfNotNull(previousCollection, Collection::getId));
             if (linkType != null && previousCollection != null) {
-               var links = getLinkInstancesByLinkType(linkType, getDocumentsIds(previousDocuments));
-               var documents = getDocumentsByCollection(collection, getLinkDocumentsIds(links), documentFilter);
+               var links = getLinkInstancesByLinkType(scope, linkType, getDocumentsIds(previousDocuments));
+               var documents = getDocumentsByCollection(scope, collection, getLinkDocumentsIds(links), documentFilter);
 
                currentDocuments.addAll(documents);
                currentLinkInstances.addAll(links);
@@ -329,15 +428,13 @@ public class SearchFacade extends AbstractFacade {
          }
 
          if (!currentDocuments.isEmpty()) {
-            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(currentDocuments), allCollections, allLinkTypes, new ArrayList<>(currentLinkInstances), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
-            allDocuments.addAll(result.getFirst());
-            allLinkInstances.addAll(result.getSecond());
+            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(currentDocuments), allCollections, allLinkTypes, new ArrayList<>(currentLinkInstances), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language, dataFilterEngine);
+            sink.accept(result.getFirst(), result.getSecond());
          }
-         page++;
-         hasMoreDocuments = !firstCollectionDocuments.isEmpty();
+         // the page may contain records without documents, paging continues after the last record read
+         hasMoreDocuments = firstCollectionPage.getLastId() != null;
+         afterId = firstCollectionPage.getLastId();
       }
-
-      return new Tuple<>(allDocuments, allLinkInstances);
    }
 
    private Tuple<List<Collection>, List<LinkType>> getResourcesFromStem(final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap) {
@@ -362,91 +459,76 @@ public class SearchFacade extends AbstractFacade {
       return new Tuple<>(allCollections, allLinkTypes);
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksInStemWithoutFilters(final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
+   private void searchDocumentsAndLinksInStemWithoutFilters(final SearchScope scope, final QueryStem stem, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic, final BiConsumer<java.util.Collection<Document>, java.util.Collection<LinkInstance>> sink) {
       var previousCollection = collectionsMap.get(stem.getCollectionId());
       if (previousCollection == null) {
-         return new Tuple<>(new HashSet<>(), new HashSet<>());
+         return;
       }
 
-      final Set<Document> allDocuments = new HashSet<>(getDocumentsByCollection(previousCollection, documentFilter, isPublic));
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
+      sink.accept(getDocumentsByCollection(scope, previousCollection, documentFilter, isPublic), Collections.emptyList());
 
       for (String linkTypeId : stem.getLinkTypeIds()) {
          var linkType = linkTypesMap.get(linkTypeId);
          var collection = getOtherCollection(linkType, collectionsMap, Utils.computeIfNotNull(previousCollection, Collection::getId));
          if (linkType != null && collection != null) {
-            var links = getLinkInstancesByLinkType(linkType, isPublic);
-            var documents = getDocumentsByCollection(collection, documentFilter, isPublic);
+            var links = getLinkInstancesByLinkType(scope, linkType, isPublic);
+            var documents = getDocumentsByCollection(scope, collection, documentFilter, isPublic);
 
-            allDocuments.addAll(documents);
-            allLinkInstances.addAll(links);
+            sink.accept(documents, links);
 
             previousCollection = collection;
          }
       }
-
-      return new Tuple<>(allDocuments, allLinkInstances);
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksByFulltexts(final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
-         boolean includeChildDocuments) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
+   // because we are filtering documents (or links) without linked documents, so it is safe to fetch more
+   private static final int FULLTEXT_FETCH_SIZE_MULTIPLIER = 3;
 
-      // because we are filtering documents (or links) without linked documents, so it is safe to fetch more
-      var fetchSizeMultiplier = 3;
-      var fetchSize = FETCH_SIZE * fetchSizeMultiplier;
-
-      collectionsMap.values().forEach(collection -> {
-         final List<Collection> collections = Collections.singletonList(collection);
-         final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(collections);
-         final Map<String, AllowedPermissions> linkTypesPermissions = Collections.emptyMap();
-         final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
-         var hasMoreDocuments = true;
-         var page = 0;
-         while (hasMoreDocuments) {
-            final List<Document> pagedDocuments = getDocumentsByCollection(collection, page, fetchSize);
-            final List<Document> filteredDocuments = filterDocumentsByDocumentFilter(pagedDocuments, documentFilter);
-            if (!filteredDocuments.isEmpty()) {
-               var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(filteredDocuments), collections, Collections.emptyList(), new ArrayList<>(), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language);
-               allDocuments.addAll(result.getFirst());
-            }
-            hasMoreDocuments = !pagedDocuments.isEmpty();
-            page++;
-         }
-      });
+   private void searchDocumentsByFulltexts(final SearchScope scope, final Collection collection, final Set<String> fulltexts, @Nullable final Function<Document, Boolean> documentFilter, final ConstraintData constraintData,
+         boolean includeChildDocuments, final BiConsumer<java.util.Collection<Document>, java.util.Collection<LinkInstance>> sink) {
+      final int fetchSize = FETCH_SIZE * FULLTEXT_FETCH_SIZE_MULTIPLIER;
 
-      linkTypesMap.values().forEach(linkType -> {
-         final List<LinkType> linkTypes = Collections.singletonList(linkType);
-         final List<Collection> collections = linkType.getCollectionIds().stream().map(collectionsMap::get).filter(Objects::nonNull).collect(Collectors.toList());
-         final Map<String, AllowedPermissions> collectionsPermissions = permissionsChecker.getCollectionsPermissions(collections);
-         final Map<String, AllowedPermissions> linkTypesPermissions = permissionsChecker.getLinkTypesPermissions(linkTypes);
-         final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
-         var hasMoreLinks = true;
-         var page = 0;
-         while (hasMoreLinks) {
-            final List<LinkInstance> linkInstances = getLinkInstancesByLinkType(linkType, page, fetchSize);
-            if (!linkInstances.isEmpty()) {
-               var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(), collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, true, language);
-               allLinkInstances.addAll(result.getSecond());
-            }
-            hasMoreLinks = !linkInstances.isEmpty();
-            page++;
+      final List<Collection> collections = Collections.singletonList(collection);
+      final Map<String, AllowedPermissions> collectionsPermissions = scope.getCollectionsPermissions(collections);
+      final Map<String, AllowedPermissions> linkTypesPermissions = Collections.emptyMap();
+      final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
+      var hasMoreDocuments = true;
+      String afterId = null;
+      while (hasMoreDocuments) {
+         final List<Document> pagedDocuments = getDocumentsByCollection(scope, collection, Pagination.keyset(afterId, fetchSize));
+         final List<Document> filteredDocuments = filterDocumentsByDocumentFilter(pagedDocuments, documentFilter);
+         if (!filteredDocuments.isEmpty()) {
+            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(filteredDocuments), collections, Collections.emptyList(), new ArrayList<>(), query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildDocuments, language, dataFilterEngine);
+            sink.accept(result.getFirst(), Collections.emptyList());
          }
-      });
-
-      return new Tuple<>(allDocuments, allLinkInstances);
+         hasMoreDocuments = !pagedDocuments.isEmpty();
+         if (hasMoreDocuments) {
+            afterId = pagedDocuments.get(pagedDocuments.size() - 1).getId();
+         }
+      }
    }
 
-   private Tuple<? extends java.util.Collection<Document>, ? extends java.util.Collection<LinkInstance>> searchDocumentsAndLinksByEmptyQuery(final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
-      final Set<Document> allDocuments = new HashSet<>();
-      final Set<LinkInstance> allLinkInstances = new HashSet<>();
-
-      collectionsMap.values().forEach(collection -> allDocuments.addAll(getDocumentsByCollection(collection, documentFilter, isPublic)));
-
-      linkTypesMap.values().forEach(linkType -> allLinkInstances.addAll(getLinkInstancesByLinkType(linkType, isPublic)));
-
-      return new Tuple<>(allDocuments, allLinkInstances);
+   private void searchLinkInstancesByFulltexts(final SearchScope scope, final LinkType linkType, final Set<String> fulltexts, final Map<String, Collection> collectionsMap, final ConstraintData constraintData, final BiConsumer<java.util.Collection<Document>, java.util.Collection<LinkInstance>> sink) {
+      final int fetchSize = FETCH_SIZE * FULLTEXT_FETCH_SIZE_MULTIPLIER;
+
+      final List<LinkType> linkTypes = Collections.singletonList(linkType);
+      final List<Collection> collections = linkType.getCollectionIds().stream().map(collectionsMap::get).filter(Objects::nonNull).collect(Collectors.toList());
+      final Map<String, AllowedPermissions> collectionsPermissions = scope.getCollectionsPermissions(collections);
+      final Map<String, AllowedPermissions> linkTypesPermissions = scope.getLinkTypesPermissions(linkTypes);
+      final Query query = new Query(Collections.emptyList(), fulltexts, null, null);
+      var hasMoreLinks = true;
+      String afterId = null;
+      while (hasMoreLinks) {
+         final List<LinkInstance> linkInstances = getLinkInstancesByLinkType(scope, linkType, Pagination.keyset(afterId, fetchSize));
+         if (!linkInstances.isEmpty()) {
+            var result = DataFilter.filterDocumentsAndLinksByQueryFromJson(new ArrayList<>(), collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, true, language, dataFilterEngine);
+            sink.accept(Collections.emptyList(), result.getSecond());
+         }
+         hasMoreLinks = !linkInstances.isEmpty();
+         if (hasMoreLinks) {
+            afterId = linkInstances.get(linkInstances.size() - 1).getId();
+         }
+      }
    }
 
    private Collection getOtherCollection(final LinkType linkType, final Map<String, Collection> collectionMap, final String collectionId) {
@@ -521,18 +603,26 @@ public class SearchFacade extends AbstractFacade {
       return new Tuple<>(filteredCollections, filteredLinkTypes);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
-      var documents = isPublic ? searchAdapter.getAllDocuments(collection, null, null) : searchAdapter.getDocuments(getOrganization(), getProject(), collection, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(SearchScope scope, Collection collection, @Nullable final Function<Document, Boolean> documentFilter, boolean isPublic) {
+      var documents = isPublic ? scope.searchAdapter.getAllDocuments(collection, null, null) : scope.searchAdapter.getDocuments(scope.organization, scope.project, collection, scope.userId);
       return filterDocumentsByDocumentFilter(documents, documentFilter);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, @NotNull Set<String> documentIds, @Nullable final Function<Document, Boolean> documentFilter) {
-      var documents = searchAdapter.getDocuments(getOrganization(), getProject(), collection, documentIds, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(SearchScope scope, Collection collection, @NotNull Set<String> documentIds, @Nullable final Function<Document, Boolean> documentFilter) {
+      var documents = scope.searchAdapter.getDocuments(scope.organization, scope.project, collection, documentIds, scope.userId);
       return filterDocumentsByDocumentFilter(documents, documentFilter);
    }
 
-   private List<Document> getDocumentsByCollection(Collection collection, Integer page, Integer limit) {
-      return searchAdapter.getDocuments(getOrganization(), getProject(), collection, page, limit, authenticatedUser.getCurrentUserId());
+   private List<Document> getDocumentsByCollection(SearchScope scope, Collection collection, Pagination pagination) {
+      return scope.searchAdapter.getDocuments(scope.organization, scope.project, collection, pagination, scope.userId);
+   }
+
+   private SearchAdapter.DocumentsPage getDocumentsPageByCollection(SearchScope scope, Collection collection, Pagination pagination) {
+      return scope.searchAdapter.getDocumentsPage(scope.organization, scope.project, collection, pagination, scope.userId);
+   }
+
+   private SearchAdapter.DocumentsPage getDocumentsPageByCollection(SearchScope scope, Collection collection, SearchQueryStem stem, Pagination pagination) {
+      return scope.searchAdapter.getDocumentsPage(scope.organization, scope.project, collection, stem, pagination, scope.userId);
    }
 
    private List<Document> filterDocumentsByDocumentFilter(final List<Document> documents, @Nullable final Function<Document, Boolean> documentFilter) {
@@ -542,18 +632,118 @@ public class SearchFacade extends AbstractFacade {
       return documents;
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType, boolean isPublic) {
+   private List<LinkInstance> getLinkInstancesByLinkType(SearchScope scope, LinkType linkType, boolean isPublic) {
       if (isPublic) {
-         return searchAdapter.getAllLinkInstances(linkType, null, null);
+         return scope.searchAdapter.getAllLinkInstances(linkType, null, null);
       }
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, authenticatedUser.getCurrentUserId());
+      return scope.searchAdapter.getLinkInstances(scope.organization, scope.project, linkType, scope.userId);
+   }
+
+   private List<LinkInstance> getLinkInstancesByLinkType(SearchScope scope, LinkType linkType, @NotNull Set<String> documentIds) {
+      return scope.searchAdapter.getLinkInstances(scope.organization, scope.project, linkType, documentIds, scope.userId);
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType, @NotNull Set<String> documentIds) {
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, documentIds, authenticatedUser.getCurrentUserId());
+   private List<LinkInstance> getLinkInstancesByLinkType(SearchScope scope, LinkType linkType, Pagination pagination) {
+      return scope.searchAdapter.getLinkInstances(scope.organization, scope.project, linkType, pagination, scope.userId);
    }
 
-   private List<LinkInstance> getLinkInstancesByLinkType(LinkType linkType, Integer page, Integer limit) {
-      return searchAdapter.getLinkInstances(getOrganization(), getProject(), linkType, page, limit, authenticatedUser.getCurrentUserId());
+   private SearchScope createRequestScope(final Map<String, Collection> collectionsMap, final Map<String, LinkType> linkTypesMap, boolean withPermissions) {
+      final Map<String, AllowedPermissions> collectionsPermissions = withPermissions ? permissionsChecker.getCollectionsPermissions(collectionsMap.values()) : Collections.emptyMap();
+      final Map<String, AllowedPermissions> linkTypesPermissions = withPermissions ? permissionsChecker.getLinkTypesPermissions(linkTypesMap.values()) : Collections.emptyMap();
+      return new SearchScope(getOrganization(), getProject(), authenticatedUser.getCurrentUserId(), searchAdapter, collectionsPermissions, linkTypesPermissions);
+   }
+
+   /**
+    * Workers can't touch request scoped beans, so they get their own DAOs from the snapshot and their own adapters (which keep not thread safe caches).
+    */
+   private SearchScope createWorkerScope(final SearchScope requestScope, final DaoContextSnapshot snapshot) {
+      final PermissionAdapter permissionAdapter = new PermissionAdapter(snapshot.getUserDao(), snapshot.getGroupDao(), snapshot.getViewDao(), snapshot.getLinkTypeDao(), snapshot.getCollectionDao());
+      final String viewId = permissionsChecker.getPermissionAdapter().getViewId();
+      if (viewId != null) {
+         permissionAdapter.setViewId(viewId);
+      }
+      final SearchAdapter workerSearchAdapter = new SearchAdapter(permissionAdapter, constraintManager, snapshot.getDocumentDao(), snapshot.getDataDao(), snapshot.getLinkInstanceDao(), snapshot.getLinkDataDao());
+      return new SearchScope(requestScope.organization, requestScope.project, requestScope.userId, workerSearchAdapter, requestScope.collectionsPermissions, requestScope.linkTypesPermissions);
+   }
+
+   /**
+    * Runs independent searches (stems, fulltext collections and link types) on the managed executor, at most {@link #searchParallelism}
+    * of them at once for a single request, so one request can't occupy the whole pool.
+    */
+   private <T> List<T> runSearches(final SearchScope requestScope, final List<Function<SearchScope, T>> searches) {
+      if (searches.size() <= 1 || searchParallelism <= 1 || executorService == null) {
+         return searches.stream().map(search -> search.apply(requestScope)).collect(Collectors.toList());
+      }
+
+      final DaoContextSnapshot snapshot = daoContextSnapshotFactory.getInstance();
+      final ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(executorService);
+      final List<Future<T>> futures = new ArrayList<>();
+      final List<T> results = new ArrayList<>(searches.size());
+      int submitted = 0;
+      try {
+         while (submitted < searches.size() || results.size() < futures.size()) {
+            while (submitted < searches.size() && futures.size() - results.size() < searchParallelism) {
+               final Function<SearchScope, T> search = searches.get(submitted++);
+               try {
+                  final SearchScope workerScope = createWorkerScope(requestScope, snapshot);
+                  futures.add(completionService.submit(() -> search.apply(workerScope)));
+               } catch (RejectedExecutionException e) {
+                  results.add(search.apply(requestScope));
+                  futures.add(null);
+               }
+            }
+            if (results.size() < futures.size()) {
+               results.add(completionService.take().get());
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Search was interrupted.", e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException(e.getCause());
+      } finally {
+         futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+      }
+
+      return results;
+   }
+
+   /**
+    * Search of a single stem, collection or link type, passing the results to the sink page by page.
+    */
+   @FunctionalInterface
+   private interface PagedSearch {
+      void search(SearchScope scope, BiConsumer<java.util.Collection<Document>, java.util.Collection<LinkInstance>> sink);
+   }
+
+   private static class SearchScope {
+      private final Organization organization;
+      private final Project project;
+      private final String userId;
+      private final SearchAdapter searchAdapter;
+      private final Map<String, AllowedPermissions> collectionsPermissions;
+      private final Map<String, AllowedPermissions> linkTypesPermissions;
+
+      private SearchScope(final Organization organization, final Project project, final String userId, final SearchAdapter searchAdapter, final Map<String, AllowedPermissions> collectionsPermissions, final Map<String, AllowedPermissions> linkTypesPermissions) {
+         this.organization = organization;
+         this.project = project;
+         this.userId = userId;
+         this.searchAdapter = searchAdapter;
+         this.collectionsPermissions = collectionsPermissions;
+         this.linkTypesPermissions = linkTypesPermissions;
+      }
+
+      private Map<String, AllowedPermissions> getCollectionsPermissions(final java.util.Collection<Collection> collections) {
+         return collections.stream().filter(collection -> collectionsPermissions.containsKey(collection.getId()))
+                           .collect(Collectors.toMap(Resource::getId, collection -> collectionsPermissions.get(collection.getId()), (a, b) -> a));
+      }
+
+      private Map<String, AllowedPermissions> getLinkTypesPermissions(final java.util.Collection<LinkType> linkTypes) {
+         return linkTypes.stream().filter(linkType -> linkTypesPermissions.containsKey(linkType.getId()))
+                         .collect(Collectors.toMap(LinkType::getId, linkType -> linkTypesPermissions.get(linkType.getId()), (a, b) -> a));
+      }
    }
 }
@@ -85,6 +85,12 @@ public class DefaultConfigurationProducer implements Serializable {
 
    public static final String LOCALE = "locale";
 
+   public static final String DATA_FILTER_ENGINE = "data_filter_engine";
+   public static final String SEARCH_PARALLELISM = "search_parallelism";
+
+   public static final String DELAYED_ACTION_BATCH_SIZE = "delayed_action_batch_size";
+   public static final String DELAYED_ACTION_PARALLELISM = "delayed_action_parallelism";
+
    public static final String TEMPLATE_ORG_EN = "template_org_en";
    public static final String TEMPLATE_ORG_CS = "template_org_cs";
 
@@ -23,6 +23,7 @@ import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheFactory;
 import io.lumeer.engine.api.cache.CacheManager;
 import io.lumeer.engine.api.cache.CacheProvider;
+import io.lumeer.engine.api.cache.CacheSpec;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -50,9 +51,14 @@ public class CdiCacheManager implements CacheManager, Serializable {
    }
 
    public <T> Cache<T> getCache(final String cacheName) {
+      return getCache(cacheName, CacheSpec.unbounded());
+   }
+
+   @Override
+   public <T> Cache<T> getCache(final String cacheName, final CacheSpec spec) {
       final String key = getKey();
       final Map<String, Cache> localCaches = caches.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
-      final Cache<T> cache = localCaches.computeIfAbsent(cacheName, k -> cacheFactory.getCache());
+      final Cache<T> cache = localCaches.computeIfAbsent(cacheName, k -> cacheFactory.getCache(spec));
 
       return cache;
    }
@@ -21,6 +21,7 @@ package io.lumeer.core.provider;
 import io.lumeer.core.WorkspaceKeeper;
 import io.lumeer.core.facade.ConfigurationFacade;
 import io.lumeer.core.facade.SystemConfigurationFacade;
+import io.lumeer.core.util.AuditLogWriter;
 import io.lumeer.engine.api.data.DataStorage;
 import io.lumeer.storage.api.DataStorageFactory;
 
@@ -62,6 +63,8 @@ public class DataStorageProvider {
 
    @PreDestroy
    public void closeConnections() {
+      // queued audit records must be written while the connections are still open
+      AuditLogWriter.closeInstance(AuditLogWriter.DEFAULT_FLUSH_TIMEOUT_MS);
       connections.forEach((k, v) -> v.disconnect());
    }
 }
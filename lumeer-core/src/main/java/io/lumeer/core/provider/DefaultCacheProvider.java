@@ -21,6 +21,7 @@ package io.lumeer.core.provider;
 import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheManager;
 import io.lumeer.engine.api.cache.CacheProvider;
+import io.lumeer.engine.api.cache.CacheSpec;
 
 import java.io.Serializable;
 
@@ -39,4 +40,9 @@ public class DefaultCacheProvider implements CacheProvider, Serializable {
    public <T> Cache<T> getCache(final String cacheName) {
       return cacheManager.getCache(namespace + "/" + cacheName);
    }
+
+   @Override
+   public <T> Cache<T> getCache(final String cacheName, final CacheSpec spec) {
+      return cacheManager.getCache(namespace + "/" + cacheName, spec);
+   }
 }
@@ -99,6 +99,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
    protected PermissionAdapter permissionAdapter;
    protected PusherAdapter pusherAdapter;
    protected FileAttachmentAdapter fileAttachmentAdapter;
+   protected TaskReadCache readCache;
 
    @Override
    public ContextualTask initialize(final User initiator, final DaoContextSnapshot daoContextSnapshot, final PusherClient pusherClient, final LumeerS3Client lumeerS3Client, final RequestDataKeeper requestDataKeeper, final ConstraintManager constraintManager, DefaultConfigurationProducer.DeployEnvironment environment, final int recursionDepth) {
@@ -121,6 +122,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
       linkInstanceAdapter = new LinkInstanceAdapter(daoContextSnapshot.getResourceCommentDao());
       pusherAdapter = new PusherAdapter(getAppId(), new FacadeAdapter(permissionAdapter), resourceAdapter, permissionAdapter, daoContextSnapshot.getViewDao(), daoContextSnapshot.getLinkTypeDao(), daoContextSnapshot.getCollectionDao());
       fileAttachmentAdapter = new FileAttachmentAdapter(getLumeerS3Client(), daoContextSnapshot.getFileAttachmentDao(), environment.name());
+      readCache = new TaskReadCache(daoContextSnapshot);
 
       return this;
    }
@@ -175,6 +177,11 @@ public abstract class AbstractContextualTask implements ContextualTask {
       return fileAttachmentAdapter;
    }
 
+   @Override
+   public TaskReadCache getReadCache() {
+      return readCache;
+   }
+
    private Set<String> getLinkTypeReaders(final LinkType linkType) {
       return resourceAdapter.getLinkTypeReaders(getDaoContextSnapshot().getOrganization(), getDaoContextSnapshot().getProject(), linkType);
    }
@@ -196,7 +203,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
          final Set<String> users = getCollectionReaders(collection);
          final List<Event> events = users.stream().map(user -> createEventForCollection(collection, user, suffix)).collect(Collectors.toList());
 
-         getPusherClient().trigger(events);
+         getPusherClient().dispatch(events);
       }
    }
 
@@ -221,7 +228,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
             );
          });
 
-         getPusherClient().trigger(events);
+         getPusherClient().dispatch(events);
       }
    }
 
@@ -235,7 +242,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
          final Set<String> users = getLinkTypeReaders(linkType);
          final List<Event> events = users.stream().map(user -> createEventForLinkType(linkType, user, suffix)).collect(Collectors.toList());
 
-         getPusherClient().trigger(events);
+         getPusherClient().dispatch(events);
       }
    }
 
@@ -359,8 +366,8 @@ public abstract class AbstractContextualTask implements ContextualTask {
          }
       });
 
-      getPusherClient().trigger(events);
-      getPusherClient().trigger(collectionEvents);
+      getPusherClient().dispatch(events);
+      getPusherClient().dispatch(collectionEvents);
    }
 
    public void sendPushNotifications(final LinkType linkType, final List<LinkInstance> linkInstances, final String suffix, final boolean linkTypeChanged) {
@@ -378,8 +385,8 @@ public abstract class AbstractContextualTask implements ContextualTask {
             }
          });
 
-         getPusherClient().trigger(events);
-         getPusherClient().trigger(linkInstanceEvents);
+         getPusherClient().dispatch(events);
+         getPusherClient().dispatch(linkInstanceEvents);
       }
    }
 
@@ -391,7 +398,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
       final List<Event> events = new ArrayList<>();
       techManagers.forEach(manager -> events.add(createEventForSequence(sequence, manager)));
 
-      getPusherClient().trigger(events);
+      getPusherClient().dispatch(events);
    }
 
    public void sendPushNotifications(final List<UserMessageRequest> userMessageRequests) {
@@ -401,7 +408,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
             events.add(createEventForUserMessage(m, initiator.getId()))
       );
 
-      getPusherClient().trigger(events);
+      getPusherClient().dispatch(events);
    }
 
    public void sendPrintRequestPushNotifications(final List<GenericPrintRequest> printRequests) {
@@ -411,7 +418,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
             events.add(createEventForPrintRequest(m, initiator.getId()))
       );
 
-      getPusherClient().trigger(events);
+      getPusherClient().dispatch(events);
    }
 
    public void sendNavigationRequestPushNotifications(final List<NavigationRequest> navigationRequests) {
@@ -421,7 +428,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
             events.add(createEventForNavigationRequest(m, initiator.getId()))
       );
 
-      getPusherClient().trigger(events);
+      getPusherClient().dispatch(events);
    }
 
    public void sendSendEmailRequestPushNotifications(final List<SendEmailRequest> sendEmailRequests) {
@@ -431,7 +438,7 @@ public abstract class AbstractContextualTask implements ContextualTask {
             events.add(createEventForSendEmailRequest(m, initiator.getId()))
       );
 
-      getPusherClient().trigger(events);
+      getPusherClient().dispatch(events);
    }
 
    private void sendPushNotificationsForDocuments(final ChangesTracker changesTracker) {
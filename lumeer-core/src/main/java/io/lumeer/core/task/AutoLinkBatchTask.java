@@ -27,12 +27,14 @@ import io.lumeer.api.model.Document;
 import io.lumeer.api.model.Language;
 import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.LinkType;
-import io.lumeer.api.model.Query;
+import io.lumeer.api.model.RoleType;
 import io.lumeer.api.model.User;
 import io.lumeer.api.model.rule.AutoLinkRule;
 import io.lumeer.core.facade.translate.TranslationManager;
 import io.lumeer.core.task.executor.ChangesTracker;
+import io.lumeer.core.task.executor.matcher.MatchIndex;
 import io.lumeer.core.task.executor.matcher.MatchQueryFactory;
+import io.lumeer.core.task.executor.matcher.MatchQueryProvider;
 import io.lumeer.core.util.Tuple;
 import io.lumeer.core.util.js.DataFilter;
 
@@ -43,6 +45,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.function.Function;
@@ -67,7 +70,7 @@ public class AutoLinkBatchTask extends AbstractContextualTask {
    private Language language;
    private Map<String, AllowedPermissions> permissions;
    private User user;
-   private Function<Object, Query> matchQuery;
+   private MatchQueryProvider matchQueryProvider;
 
    public void setupBatch(final AutoLinkRule rule, final LinkType linkType,
          final Collection collection, final Attribute attribute,
@@ -102,7 +105,7 @@ public class AutoLinkBatchTask extends AbstractContextualTask {
             daoContextSnapshot.getSelectionListDao().getAllLists(Collections.singletonList(projectId))
       );
 
-      matchQuery = MatchQueryFactory.getMatchQuery(attribute, otherCollection, otherAttribute);
+      matchQueryProvider = MatchQueryFactory.getMatchQueryProvider(attribute, otherAttribute);
    }
 
    @Override
@@ -130,15 +133,19 @@ public class AutoLinkBatchTask extends AbstractContextualTask {
                targetDocumentsById.get(dd.getId()).setData(getConstraintManager().decodeDataTypes(otherCollection, dd));
             });
 
+            // index target documents by their values and source documents by their linked documents, so that we don't scan them for every value
+            final MatchIndex matchIndex = canUseIndex() ? new MatchIndex(otherAttribute, targetDocuments) : null;
+            final Map<String, Set<String>> linkedDocumentIds = getLinkedDocumentIds(existingLinks);
+
             // for every unique source value and all source documents sharing the value
             source.forEach((value, documentIds) -> {
                // find target documents matching this value
-               final List<Document> matchingDocuments = findMatchingDocuments(targetDocuments, value);
+               final List<Document> matchingDocuments = findMatchingDocuments(matchIndex, targetDocumentsById, value);
 
                // for all source documents
                documentIds.forEach(sourceDocumentId -> {
                   // filter out the matching documents to which the source document is already linked, and create new links for the rest
-                  final List<Document> linkingDocuments = filterExistingLinks(sourceDocumentId, matchingDocuments, existingLinks);
+                  final List<Document> linkingDocuments = filterExistingLinks(sourceDocumentId, matchingDocuments, linkedDocumentIds);
                   linksForCreation.addAll(linkingDocuments.stream().map(doc -> {
                      var l = new LinkInstance(linkType.getId(), List.of(sourceDocumentId, doc.getId()));
                      l.setCreatedBy(user.getId());
@@ -166,10 +173,23 @@ public class AutoLinkBatchTask extends AbstractContextualTask {
       return rule;
    }
 
-   private List<Document> findMatchingDocuments(final List<Document> allDocuments, final Object value) {
+   private boolean canUseIndex() {
+      // the index does not check data permissions, the filter is needed when the user can't read all documents
+      final AllowedPermissions allowedPermissions = permissions.get(otherCollection.getId());
+      return allowedPermissions != null && Boolean.TRUE.equals(allowedPermissions.getRolesWithView().get(RoleType.DataRead));
+   }
+
+   private List<Document> findMatchingDocuments(final MatchIndex matchIndex, final Map<String, Document> documentsById, final Object value) {
+      if (matchIndex != null && matchIndex.isUsable()) {
+         final Set<String> documentIds = matchQueryProvider.getMatchingDocumentIds(matchIndex, value);
+         if (documentIds != null) {
+            return documentIds.stream().map(documentsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+         }
+      }
+
       final Tuple<List<Document>, List<LinkInstance>> tuple =
             DataFilter.filterDocumentsAndLinksByQueryDecodingFromJson(
-               allDocuments, List.of(otherCollection), List.of(), List.of(), matchQuery.apply(value),
+               targetDocuments, List.of(otherCollection), List.of(), List.of(), matchQueryProvider.getMatchQuery(otherCollection, otherAttribute, value),
                permissions, Map.of(),
                constraintData,
                true,
@@ -178,12 +198,20 @@ public class AutoLinkBatchTask extends AbstractContextualTask {
       return tuple.getFirst();
    }
 
-   private List<Document> filterExistingLinks(final String sourceDocumentId, final List<Document> documents, final List<LinkInstance> links) {
-      final Set<String> linkedDocumentIds = links
-            .stream()
-            .filter(link -> link.getDocumentIds().contains(sourceDocumentId))
-            .map(link -> link.getDocumentIds().get(0).equals(sourceDocumentId) ? link.getDocumentIds().get(1) : link.getDocumentIds().get(0))
-            .collect(Collectors.toSet());
-      return documents.stream().filter(document -> !linkedDocumentIds.contains(document.getId())).collect(Collectors.toList());
+   private Map<String, Set<String>> getLinkedDocumentIds(final List<LinkInstance> links) {
+      final Map<String, Set<String>> linkedDocumentIds = new HashMap<>();
+      links.forEach(link -> {
+         final List<String> documentIds = link.getDocumentIds();
+         if (documentIds != null && documentIds.size() == 2) {
+            linkedDocumentIds.computeIfAbsent(documentIds.get(0), key -> new HashSet<>()).add(documentIds.get(1));
+            linkedDocumentIds.computeIfAbsent(documentIds.get(1), key -> new HashSet<>()).add(documentIds.get(0));
+         }
+      });
+      return linkedDocumentIds;
+   }
+
+   private List<Document> filterExistingLinks(final String sourceDocumentId, final List<Document> documents, final Map<String, Set<String>> linkedDocumentIds) {
+      final Set<String> linkedIds = linkedDocumentIds.getOrDefault(sourceDocumentId, Set.of());
+      return documents.stream().filter(document -> !linkedIds.contains(document.getId())).collect(Collectors.toList());
    }
 }
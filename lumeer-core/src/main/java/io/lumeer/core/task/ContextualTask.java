@@ -52,6 +52,8 @@ public interface ContextualTask extends Task {
 
    FileAttachmentAdapter getFileAttachmentAdapter();
 
+   TaskReadCache getReadCache();
+
    FunctionFacade getFunctionFacade();
 
    TaskProcessingFacade getTaskProcessingFacade(final TaskExecutor taskExecutor, final FunctionFacade functionFacade);
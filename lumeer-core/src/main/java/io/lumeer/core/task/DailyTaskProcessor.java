@@ -105,6 +105,9 @@ public class DailyTaskProcessor extends WorkspaceContext {
 
             attachmentsToDelete.addAll(projectAttachmentsToDelete);
             projDao.getAuditDao().cleanAuditRecords(cleanOlderThan);
+
+            // fix any drift of the documents counters maintained on writes
+            projDao.getDocumentDao().reconcileDocumentsCounts();
          });
 
       });
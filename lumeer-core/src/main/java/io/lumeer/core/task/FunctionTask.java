@@ -28,8 +28,12 @@ import io.lumeer.core.constraint.ConstraintManager;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
 import io.lumeer.core.task.executor.ChangesTracker;
 import io.lumeer.core.task.executor.FunctionTaskExecutor;
+import io.lumeer.core.task.executor.JsExecutor;
+import io.lumeer.core.task.executor.operation.Operation;
+import io.lumeer.core.task.executor.operation.OperationExecutor;
 import io.lumeer.engine.api.data.DataDocument;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,6 +45,8 @@ import java.util.stream.Collectors;
 
 public class FunctionTask extends AbstractContextualTask {
 
+   static final int BATCH_SIZE = 500;
+
    private Logger log = Logger.getLogger(FunctionTask.class.getName());
 
    private Attribute attribute;
@@ -50,6 +56,7 @@ public class FunctionTask extends AbstractContextualTask {
    private Set<LinkInstance> linkInstances;
    private Map<String, Document> originalDocuments;
    private Map<String, LinkInstance> originalLinkInstances;
+   private boolean errorReported;
 
    private static DefaultConfigurationProducer configurationProducer = new DefaultConfigurationProducer();
    private static ConstraintManager constraintManager = ConstraintManager.getInstance(configurationProducer);
@@ -129,18 +136,16 @@ public class FunctionTask extends AbstractContextualTask {
                )
          );
       }
+      // the function is compiled once and evaluated for every record in a fresh context,
+      // the resulting operations are committed in bulk for each batch of records
       if (documents != null && collection != null) {
-         getDocumentsWithData(collection, documents).forEach(document -> {
-            originalDocuments.put(document.getId(), new Document(document));
-            final FunctionTaskExecutor executor = new FunctionTaskExecutor(this, collection, document);
-            changesTracker.merge(executor.execute(taskExecutor));
-         });
+         final List<Document> documentsWithData = new ArrayList<>(getDocumentsWithData(collection, documents));
+         documentsWithData.forEach(document -> originalDocuments.put(document.getId(), new Document(document)));
+         processInBatches(taskExecutor, changesTracker, documentsWithData, document -> new FunctionTaskExecutor(this, collection, document));
       } else if (linkType != null && linkInstances != null) {
-         getLinkInstancesWithData(linkType, linkInstances).forEach(linkInstance -> {
-            originalLinkInstances.put(linkInstance.getId(), new LinkInstance(linkInstance));
-            final FunctionTaskExecutor executor = new FunctionTaskExecutor(this, linkType, linkInstance);
-            changesTracker.merge(executor.execute(taskExecutor));
-         });
+         final List<LinkInstance> linkInstancesWithData = new ArrayList<>(getLinkInstancesWithData(linkType, linkInstances));
+         linkInstancesWithData.forEach(linkInstance -> originalLinkInstances.put(linkInstance.getId(), new LinkInstance(linkInstance)));
+         processInBatches(taskExecutor, changesTracker, linkInstancesWithData, linkInstance -> new FunctionTaskExecutor(this, linkType, linkInstance));
       }
 
       if (parent != null) {
@@ -148,6 +153,33 @@ public class FunctionTask extends AbstractContextualTask {
       }
    }
 
+   <T> void processInBatches(final TaskExecutor taskExecutor, final ChangesTracker changesTracker, final List<T> records, final java.util.function.Function<T, FunctionTaskExecutor> executorFactory) {
+      errorReported = false;
+
+      for (int i = 0; i < records.size(); i += BATCH_SIZE) {
+         final List<T> batch = records.subList(i, Math.min(i + BATCH_SIZE, records.size()));
+
+         // the batch is evaluated before its operations are committed at once
+         final Set<Operation<?>> operations = JsExecutor.withSession(getFunction().getJs(), session -> {
+            final Set<Operation<?>> batchOperations = new HashSet<>();
+            batch.forEach(record -> {
+               final FunctionTaskExecutor executor = executorFactory.apply(record);
+               batchOperations.addAll(executor.evaluate(session, !errorReported));
+               changesTracker.merge(executor.getChangesTracker());
+               // the error report is written only once, not for every failed record
+               errorReported = errorReported || executor.isFailed();
+            });
+            return batchOperations;
+         });
+
+         changesTracker.merge(commitOperations(taskExecutor, operations));
+      }
+   }
+
+   ChangesTracker commitOperations(final TaskExecutor taskExecutor, final Set<Operation<?>> operations) {
+      return new OperationExecutor(taskExecutor, this, operations).call();
+   }
+
    private Set<Document> getDocumentsWithData(final Collection collection, final Set<Document> documents) {
       if (documents.isEmpty()) {
          return Collections.emptySet();
@@ -180,18 +212,21 @@ public class FunctionTask extends AbstractContextualTask {
 
    @Override
    public void propagateChanges(final List<Document> documents, final List<LinkInstance> links) {
-      if (documents != null && this.documents != null && this.documents.size() > 0 && this.documents.stream().anyMatch(documents::contains)) {
-         this.documents = this.documents.stream().map(doc -> {
-            int idx = documents.indexOf(doc);
-            return idx >= 0 ? documents.get(idx) : doc;
-         }).collect(Collectors.toSet());
+      if (documents != null && this.documents != null && this.documents.size() > 0) {
+         final Map<String, Document> documentsById = documents.stream().collect(Collectors.toMap(Document::getId, doc -> doc, (doc1, doc2) -> doc1));
+         if (this.documents.stream().anyMatch(doc -> doc.equals(documentsById.get(doc.getId())))) {
+            this.documents = this.documents.stream().map(doc -> {
+               final Document changed = documentsById.get(doc.getId());
+               return doc.equals(changed) ? changed : doc;
+            }).collect(Collectors.toSet());
+         }
       }
 
-      if (links != null && this.linkInstances != null && this.linkInstances.size() > 0 && this.linkInstances.stream().anyMatch(links::contains)) {
-         this.linkInstances = this.linkInstances.stream().map(link -> {
-            int idx = links.indexOf(link);
-            return idx >= 0 ? links.get(idx) : link;
-         }).collect(Collectors.toSet());
+      if (links != null && this.linkInstances != null && this.linkInstances.size() > 0) {
+         final Map<String, LinkInstance> linksById = links.stream().collect(Collectors.toMap(LinkInstance::getId, link -> link, (link1, link2) -> link1));
+         if (this.linkInstances.stream().anyMatch(link -> linksById.containsKey(link.getId()))) {
+            this.linkInstances = this.linkInstances.stream().map(link -> linksById.getOrDefault(link.getId(), link)).collect(Collectors.toSet());
+         }
       }
 
       super.propagateChanges(documents, links);
@@ -0,0 +1,181 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task;
+
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.LinkInstance;
+import io.lumeer.api.model.LinkType;
+import io.lumeer.api.model.View;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+import io.lumeer.storage.api.query.SearchQuery;
+import io.lumeer.storage.api.query.SearchQueryStem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of the resources read by the scripts of a single task. Documents, link instances and data are returned
+ * as copies, so the callers can modify them. Entries of the resources changed by the task are invalidated when the changes
+ * are scheduled and the whole cache is cleared when the changes are committed.
+ */
+public class TaskReadCache {
+
+   private final DaoContextSnapshot dao;
+
+   private final Map<String, Collection> collections = new HashMap<>();
+   private final Map<String, LinkType> linkTypes = new HashMap<>();
+   private final Map<String, View> views = new HashMap<>();
+   private final Map<String, Document> documents = new HashMap<>();
+   private final Map<String, DataDocument> documentsData = new HashMap<>(); // collectionId/documentId -> data
+   private final Map<String, DataDocument> linksData = new HashMap<>(); // linkTypeId/linkInstanceId -> data
+   private final Map<String, List<LinkInstance>> linkInstances = new HashMap<>(); // linkTypeId/documentId -> links
+
+   public TaskReadCache(final DaoContextSnapshot dao) {
+      this.dao = dao;
+   }
+
+   public synchronized Collection getCollection(final String collectionId) {
+      return collections.computeIfAbsent(collectionId, id -> dao.getCollectionDao().getCollectionById(id));
+   }
+
+   public synchronized LinkType getLinkType(final String linkTypeId) {
+      return linkTypes.computeIfAbsent(linkTypeId, id -> dao.getLinkTypeDao().getLinkType(id));
+   }
+
+   public synchronized View getView(final String viewId) {
+      return views.computeIfAbsent(viewId, id -> dao.getViewDao().getViewById(id));
+   }
+
+   /**
+    * @return documents without data in no particular order, missing documents are skipped.
+    */
+   public synchronized List<Document> getDocuments(final Set<String> documentIds) {
+      final Set<String> missing = documentIds.stream().filter(id -> !documents.containsKey(id)).collect(Collectors.toSet());
+      if (!missing.isEmpty()) {
+         dao.getDocumentDao().getDocumentsByIds(missing).forEach(document -> documents.put(document.getId(), document));
+      }
+
+      return documentIds.stream().map(documents::get).filter(d -> d != null).map(Document::new).collect(Collectors.toList());
+   }
+
+   /**
+    * @return data of the documents by their ids, missing data are skipped.
+    */
+   public synchronized Map<String, DataDocument> getDocumentsData(final String collectionId, final Set<String> documentIds) {
+      return getData(documentsData, collectionId, documentIds, ids -> dao.getDataDao().getData(collectionId, ids));
+   }
+
+   /**
+    * @return data of the link instances by their ids, missing data are skipped.
+    */
+   public synchronized Map<String, DataDocument> getLinksData(final String linkTypeId, final Set<String> linkInstanceIds) {
+      return getData(linksData, linkTypeId, linkInstanceIds, ids -> dao.getLinkDataDao().getData(linkTypeId, ids));
+   }
+
+   /**
+    * @return link instances of the given type connected to any of the documents.
+    */
+   public synchronized List<LinkInstance> getLinkInstances(final Set<String> documentIds, final String linkTypeId) {
+      final Set<String> missing = documentIds.stream().filter(id -> !linkInstances.containsKey(key(linkTypeId, id))).collect(Collectors.toSet());
+      if (!missing.isEmpty()) {
+         missing.forEach(id -> linkInstances.put(key(linkTypeId, id), new ArrayList<>()));
+         searchLinkInstances(missing, linkTypeId).forEach(linkInstance ->
+               linkInstance.getDocumentIds().stream().filter(missing::contains).distinct().forEach(id -> linkInstances.get(key(linkTypeId, id)).add(linkInstance))
+         );
+      }
+
+      final Map<String, LinkInstance> result = new LinkedHashMap<>();
+      documentIds.forEach(id -> linkInstances.get(key(linkTypeId, id)).forEach(linkInstance -> result.putIfAbsent(linkInstance.getId(), linkInstance)));
+
+      return result.values().stream().map(LinkInstance::new).collect(Collectors.toList());
+   }
+
+   public synchronized void invalidateDocument(final Document document) {
+      if (document != null && document.getId() != null) {
+         documents.remove(document.getId());
+         documentsData.remove(key(document.getCollectionId(), document.getId()));
+      }
+   }
+
+   public synchronized void invalidateLinkInstance(final LinkInstance linkInstance) {
+      if (linkInstance != null) {
+         if (linkInstance.getId() != null) {
+            linksData.remove(key(linkInstance.getLinkTypeId(), linkInstance.getId()));
+         }
+         if (linkInstance.getDocumentIds() != null) {
+            linkInstance.getDocumentIds().forEach(id -> linkInstances.remove(key(linkInstance.getLinkTypeId(), id)));
+         }
+      }
+   }
+
+   public synchronized void clear() {
+      collections.clear();
+      linkTypes.clear();
+      views.clear();
+      documents.clear();
+      documentsData.clear();
+      linksData.clear();
+      linkInstances.clear();
+   }
+
+   private Map<String, DataDocument> getData(final Map<String, DataDocument> cache, final String resourceId, final Set<String> ids, final Function<Set<String>, List<DataDocument>> loader) {
+      final Set<String> missing = ids.stream().filter(id -> !cache.containsKey(key(resourceId, id))).collect(Collectors.toSet());
+      if (!missing.isEmpty()) {
+         loader.apply(missing).forEach(data -> cache.put(key(resourceId, data.getId()), data));
+      }
+
+      final Map<String, DataDocument> result = new HashMap<>();
+      ids.forEach(id -> {
+         final DataDocument data = cache.get(key(resourceId, id));
+         if (data != null) {
+            result.put(id, new DataDocument(data));
+         }
+      });
+
+      return result;
+   }
+
+   private List<LinkInstance> searchLinkInstances(final Set<String> documentIds, final String linkTypeId) {
+      final SearchQuery query = SearchQuery
+            .createBuilder()
+            .stems(Collections.singletonList(
+                  SearchQueryStem
+                        .createBuilder("")
+                        .linkTypeIds(Collections.singletonList(linkTypeId))
+                        .documentIds(new HashSet<>(documentIds))
+                        .build()))
+            .build();
+
+      return dao.getLinkInstanceDao().searchLinkInstances(query);
+   }
+
+   private static String key(final String resourceId, final String id) {
+      return resourceId + "/" + id;
+   }
+}
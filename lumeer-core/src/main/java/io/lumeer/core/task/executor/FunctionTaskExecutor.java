@@ -26,6 +26,9 @@ import io.lumeer.core.task.FunctionTask;
 import io.lumeer.core.task.TaskExecutor;
 import io.lumeer.core.task.executor.bridge.DocumentBridge;
 import io.lumeer.core.task.executor.bridge.LinkBridge;
+import io.lumeer.core.task.executor.operation.DocumentOperation;
+import io.lumeer.core.task.executor.operation.LinkOperation;
+import io.lumeer.core.task.executor.operation.Operation;
 
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +45,7 @@ public class FunctionTaskExecutor {
    private final LinkType linkType;
    private final LinkInstance linkInstance;
    private ChangesTracker changesTracker;
+   private boolean failed = false;
 
    public FunctionTaskExecutor(final FunctionTask functionTask, final Collection collection, final Document document) {
       this.task = functionTask;
@@ -61,9 +65,7 @@ public class FunctionTaskExecutor {
 
    public ChangesTracker execute(final TaskExecutor taskExecutor) {
       changesTracker = new ChangesTracker();
-      final DocumentBridge thisDocument = new DocumentBridge(document);
-      final LinkBridge thisLink = new LinkBridge(linkInstance);
-      final Map<String, Object> bindings = linkInstance == null ? Map.of("thisRecord", thisDocument, "thisDocument", thisDocument) : Map.of("thisLink", thisLink);
+      final Map<String, Object> bindings = getBindings();
 
       final JsExecutor jsExecutor = new JsExecutor();
 
@@ -82,6 +84,50 @@ public class FunctionTaskExecutor {
       return null;
    }
 
+   /**
+    * Evaluates the function in the session without committing the resulting operations, so that the operations
+    * of many records can be committed at once. When the evaluation fails, the attribute value is set to an error.
+    *
+    * @param reportError whether to write the failure to the function error report.
+    * @return operations to commit.
+    */
+   public Set<Operation<?>> evaluate(final JsExecutor.Session session, final boolean reportError) {
+      changesTracker = new ChangesTracker();
+      final JsExecutor jsExecutor = session.createExecutor();
+
+      try {
+         jsExecutor.execute(getBindings(), task, task.getFunction().getJs());
+         checkErrorErasure();
+
+         return jsExecutor.getOperations();
+      } catch (Exception e) {
+         failed = true;
+         if (reportError) {
+            log.log(Level.WARNING, "Unable to execute function: ", e);
+            writeTaskError(e, jsExecutor.getCause());
+         }
+      }
+
+      return linkInstance == null ? Set.of(new DocumentOperation(document, task.getAttribute().getId(), "ERR!")) : Set.of(new LinkOperation(linkInstance, task.getAttribute().getId(), "ERR!"));
+   }
+
+   public boolean isFailed() {
+      return failed;
+   }
+
+   /**
+    * Changes made by the last evaluation apart from its operations (e.g. an updated error report).
+    */
+   public ChangesTracker getChangesTracker() {
+      return changesTracker;
+   }
+
+   private Map<String, Object> getBindings() {
+      final DocumentBridge thisDocument = new DocumentBridge(document);
+      final LinkBridge thisLink = new LinkBridge(linkInstance);
+      return linkInstance == null ? Map.of("thisRecord", thisDocument, "thisDocument", thisDocument) : Map.of("thisLink", thisLink);
+   }
+
    private void checkErrorErasure() {
       if (task.getFunction().getTimestamp() > 0 && System.currentTimeMillis() - task.getFunction().getTimestamp() > 3600_000) {
          task.getFunction().setErrorReport("");
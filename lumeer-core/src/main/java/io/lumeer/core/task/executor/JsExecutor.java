@@ -24,16 +24,24 @@ import io.lumeer.core.task.ContextualTask;
 import io.lumeer.core.task.TaskExecutor;
 import io.lumeer.core.task.executor.bridge.LumeerBridge;
 import io.lumeer.core.task.executor.operation.DocumentOperation;
+import io.lumeer.core.task.executor.operation.Operation;
 import io.lumeer.core.task.executor.operation.OperationExecutor;
 import io.lumeer.core.util.JsFunctionsParser;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class JsExecutor {
 
@@ -41,50 +49,156 @@ public class JsExecutor {
    private static final String HE_JS_SIGNATURE = "/** he.js **/";
    private static final String NUMBRO_JS_SIGNATURE = "/** numbro.js **/";
 
+   private static final int HE_JS = 1;
+   private static final int NUMBRO_JS = 2;
+   private static final int MOMENT_JS = 4;
+
+   private static final long EXECUTION_TIMEOUT_MS = 3000;
+   private static final int MAX_CACHED_SCRIPTS = 256;
+
+   private static final int RUNNING = 0;
+   private static final int FINISHED = 1;
+   private static final int KILLED = 2;
+
    private LumeerBridge lumeerBridge;
    private ContextualTask task;
    private boolean dryRun = false;
+   private Session session;
    private static final Engine engine = JsEngineFactory.getEngine();
    private static final String momentJsCode = JsFunctionsParser.getMomentJsCode();
    private static final String heJsCode = JsFunctionsParser.getHeJsCode();
    private static final String numbroJsCode = JsFunctionsParser.getNumbroJsCode();
 
-   private String getJsLib() {
+   // sources are parsed only once by the shared engine, each run still gets its own context
+   private static final Map<Integer, Source> librarySources = new ConcurrentHashMap<>();
+   private static final Map<String, Source> scripts = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Source> eldest) {
+         return size() > MAX_CACHED_SCRIPTS;
+      }
+   };
+   private static final ScheduledThreadPoolExecutor watchdog = createWatchdog();
+
+   /**
+    * A single script with its libraries compiled once, it can be run many times with different bindings.
+    * Every run is isolated in a fresh context, so nothing a script changes in the global scope outlives the run.
+    */
+   public static class Session {
+      private final Source library;
+      private final Source script;
+
+      private Session(final Source library, final Source script) {
+         this.library = library;
+         this.script = script;
+      }
+
+      public JsExecutor createExecutor() {
+         final JsExecutor executor = new JsExecutor();
+         executor.session = this;
+         return executor;
+      }
+   }
+
+   public static class ExecutionTimeoutException extends IllegalStateException {
+      public ExecutionTimeoutException(final String message) {
+         super(message);
+      }
+   }
+
+   private static ScheduledThreadPoolExecutor createWatchdog() {
+      final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+         final Thread thread = new Thread(runnable, "js-executor-watchdog");
+         thread.setDaemon(true);
+         return thread;
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      return executor;
+   }
+
+   private static String getJsLib() {
       return "function lumeer_numbro(locale, decimals, num) { numbro.setLanguage(locale); return numbro(num).formatCurrency({mantissa: decimals, thousandSeparated: true}); } "
             + "function lumeer_isEmpty(v) {\n"
             + "  return (v === null || v === undefined || v === '' || (Array.isArray(v) && (v.length === 0 || (v.length === 1 && lumeer_isEmpty(v[0])))) || (typeof v === 'object' && !!v && Object.keys(v).length === 0 && v.constructor === Object));\n"
             + "}\n";
    }
 
+   private static int getLibraries(final String js) {
+      return (js.contains(HE_JS_SIGNATURE) ? HE_JS : 0) |
+            (js.contains(NUMBRO_JS_SIGNATURE) ? NUMBRO_JS : 0) |
+            (js.contains(JsFunctionsParser.FORMAT_JS_DATE) || js.contains(JsFunctionsParser.PARSE_JS_DATE) || js.contains(MOMENT_JS_SIGNATURE) ? MOMENT_JS : 0);
+   }
+
+   private static Source getLibrarySource(final int libraries) {
+      return librarySources.computeIfAbsent(libraries, key -> {
+         final String jsCode = getJsLib() +
+               ((key & HE_JS) != 0 ? heJsCode : "") +
+               ((key & NUMBRO_JS) != 0 ? numbroJsCode : "") +
+               ((key & MOMENT_JS) != 0 ? momentJsCode + ";\n" : "");
+         return Source.newBuilder("js", jsCode, "lumeer-lib-" + key + ".js").cached(true).buildLiteral();
+      });
+   }
+
+   private static Source getScript(final String js) {
+      synchronized (scripts) {
+         return scripts.computeIfAbsent(js, code -> Source.newBuilder("js", code, "lumeer-script.js").cached(true).buildLiteral());
+      }
+   }
+
+   /**
+    * Compiles the script and its libraries only once and runs the block with a session that executes the script.
+    */
+   public static <T> T withSession(final String js, final Function<Session, T> block) {
+      return block.apply(new Session(getLibrarySource(getLibraries(js)), getScript(js)));
+   }
+
    public void execute(final Map<String, Object> bindings, final ContextualTask task, final String js) {
       this.task = task;
       lumeerBridge = new LumeerBridge(task);
       lumeerBridge.setDryRun(dryRun);
 
-      Context context = Context
+      if (session != null) {
+         run(session, bindings, lumeerBridge);
+      } else {
+         withSession(js, newSession -> {
+            run(newSession, bindings, lumeerBridge);
+            return null;
+         });
+      }
+   }
+
+   private static void run(final Session session, final Map<String, Object> bindings, final LumeerBridge lumeerBridge) {
+      final Context context = Context
             .newBuilder("js")
             .engine(engine)
             .allowAllAccess(true)
             .build();
-      context.initialize("js");
-      context.getPolyglotBindings().putMember("lumeer", lumeerBridge);
-
-      bindings.forEach((k, v) -> context.getBindings("js").putMember(k, v));
 
-      Timer timer = new Timer(true);
-      timer.schedule(new TimerTask() {
-         @Override
-         public void run() {
+      final AtomicInteger state = new AtomicInteger(RUNNING);
+      final ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+         if (state.compareAndSet(RUNNING, KILLED)) {
             context.close(true);
          }
-      }, 3000);
-
-      final String jsCode = getJsLib() +
-            (js.contains(HE_JS_SIGNATURE) ? heJsCode : "") +
-            (js.contains(NUMBRO_JS_SIGNATURE) ? numbroJsCode : "") +
-            (js.contains(JsFunctionsParser.FORMAT_JS_DATE) || js.contains(JsFunctionsParser.PARSE_JS_DATE) || js.contains(MOMENT_JS_SIGNATURE) ? momentJsCode + ";\n" : "") + js;
+      }, EXECUTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+      try {
+         context.initialize("js");
+         context.getPolyglotBindings().putMember("lumeer", lumeerBridge);
+         final Value jsBindings = context.getBindings("js");
+         bindings.forEach(jsBindings::putMember);
+
+         context.eval(session.library);
+         context.eval(session.script);
+      } finally {
+         timeout.cancel(false);
+         if (!state.compareAndSet(RUNNING, FINISHED)) {
+            throw new ExecutionTimeoutException("JS execution took longer than " + EXECUTION_TIMEOUT_MS + "ms.");
+         }
+         context.close();
+      }
+   }
 
-      context.eval("js", jsCode);
+   public Set<Operation<?>> getOperations() {
+      return lumeerBridge.getOperations();
    }
 
    public ChangesTracker commitOperations(final TaskExecutor taskExecutor) {
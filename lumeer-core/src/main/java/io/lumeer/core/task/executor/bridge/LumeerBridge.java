@@ -77,8 +77,6 @@ import io.lumeer.core.task.executor.request.UserMessageRequest;
 import io.lumeer.core.util.DocumentUtils;
 import io.lumeer.core.util.EmailSecurityType;
 import io.lumeer.engine.api.data.DataDocument;
-import io.lumeer.storage.api.query.SearchQuery;
-import io.lumeer.storage.api.query.SearchQueryStem;
 
 import com.floreysoft.jmte.Engine;
 import org.apache.commons.lang3.StringUtils;
@@ -211,8 +209,8 @@ public class LumeerBridge {
          final String parentId = sourceDocument.getDocument().createIfAbsentMetaData().getString(Document.META_PARENT_ID);
 
          if (StringUtils.isNotEmpty(parentId)) {
-            final Collection collection = task.getDaoContextSnapshot().getCollectionDao().getCollectionById(sourceDocument.getDocument().getCollectionId());
-            final List<Document> documents = DocumentUtils.loadDocumentsWithData(task.getDaoContextSnapshot(), collection, Set.of(parentId), constraintManager, true);
+            final Collection collection = task.getReadCache().getCollection(sourceDocument.getDocument().getCollectionId());
+            final List<Document> documents = loadDocumentsWithData(collection, Set.of(parentId));
 
             if (documents.size() == 1) {
                return new DocumentBridge(documents.get(0));
@@ -233,8 +231,8 @@ public class LumeerBridge {
          final List<Document> documents = task.getDaoContextSnapshot().getDocumentDao().getDocumentsByParentId(parentId);
 
          if (!documents.isEmpty()) {
-            final Collection collection = task.getDaoContextSnapshot().getCollectionDao().getCollectionById(sourceDocument.getDocument().getCollectionId());
-            final List<Document> documentsWithData = DocumentUtils.loadDocumentsData(task.getDaoContextSnapshot(), collection, documents, constraintManager, true);
+            final Collection collection = task.getReadCache().getCollection(sourceDocument.getDocument().getCollectionId());
+            final List<Document> documentsWithData = loadDocumentsData(collection, documents);
 
             return documentsWithData.stream().map(DocumentBridge::new).collect(toList());
          }
@@ -281,8 +279,8 @@ public class LumeerBridge {
             documentIds.remove(sourceDocumentId);
 
             if (!documentIds.isEmpty()) {
-               final Collection collection = task.getDaoContextSnapshot().getCollectionDao().getCollectionById(sourceDocument.getDocument().getCollectionId());
-               final List<Document> documents = DocumentUtils.loadDocumentsWithData(task.getDaoContextSnapshot(), collection, documentIds, constraintManager, true);
+               final Collection collection = task.getReadCache().getCollection(sourceDocument.getDocument().getCollectionId());
+               final List<Document> documents = loadDocumentsWithData(collection, documentIds);
 
                return documents.stream().map(DocumentBridge::new).collect(toList());
             }
@@ -299,7 +297,7 @@ public class LumeerBridge {
    public String getViewName(final String viewId) {
       try {
          if (StringUtils.isNotEmpty(viewId)) {
-            final View view = task.getDaoContextSnapshot().getViewDao().getViewById(viewId);
+            final View view = task.getReadCache().getView(viewId);
 
             return view.getName();
          }
@@ -316,7 +314,7 @@ public class LumeerBridge {
       try {
          if (viewIds != null) {
             return viewIds.stream().filter(StringUtils::isNotEmpty).map(viewId ->
-               task.getDaoContextSnapshot().getViewDao().getViewById(viewId).getName()
+               task.getReadCache().getView(viewId).getName()
             ).collect(Collectors.joining(", "));
          }
       } catch (Exception e) {
@@ -330,7 +328,7 @@ public class LumeerBridge {
    @SuppressWarnings("unused")
    public List<DocumentBridge> readView(final String viewId) {
       try {
-         final View view = task.getDaoContextSnapshot().getViewDao().getViewById(viewId);
+         final View view = task.getReadCache().getView(viewId);
          final Query query = view.getQuery().getFirstStem(0, Task.MAX_VIEW_DOCUMENTS);
          final Language language = Language.fromString(task.getCurrentLocale());
 
@@ -351,6 +349,7 @@ public class LumeerBridge {
       try {
          final LinkOperation operation = new LinkOperation(l.getLink(), attrId, convertValue(value));
          operations.add(operation);
+         task.getReadCache().invalidateLinkInstance(l.getLink());
 
          return operation;
       } catch (Exception e) {
@@ -596,6 +595,7 @@ public class LumeerBridge {
       try {
          final DocumentOperation operation = new DocumentOperation(d.getDocument(), attrId, convertValue(value));
          operations.add(operation);
+         task.getReadCache().invalidateDocument(d.getDocument());
 
          if (d.getDocument() != null) {
             if (d.getDocument().getData() != null) {
@@ -614,6 +614,7 @@ public class LumeerBridge {
 
    public void copyDocumentAttributes(final DocumentBridge source, final DocumentBridge target) {
       try {
+         task.getReadCache().invalidateDocument(target.getDocument());
          source.getDocument().getData().forEach((key, val) -> {
             if (StringUtils.isNotEmpty(key) && !"_id".equals(key))
             operations.add(new DocumentOperation(target.getDocument(), key, val));
@@ -637,6 +638,7 @@ public class LumeerBridge {
       if (task.getDaoContextSnapshot().increaseDeletionCounter() <= Task.MAX_CREATED_AND_DELETED_DOCUMENTS_AND_LINKS) {
          try {
             operations.add(new DocumentRemovalOperation(d.getDocument()));
+            task.getReadCache().invalidateDocument(d.getDocument());
          } catch (Exception e) {
             cause = e;
             throw e;
@@ -677,6 +679,7 @@ public class LumeerBridge {
             link.setData(new DataDocument());
 
             operations.add(new LinkCreationOperation(link));
+            task.getReadCache().invalidateLinkInstance(link);
 
             return new LinkBridge(link);
          } catch (Exception e) {
@@ -763,33 +766,33 @@ public class LumeerBridge {
    }
 
    private List<LinkInstance> getLinkInstances(final Set<String> documentIds, final String linkTypeId) {
-      final SearchQuery query = SearchQuery
-            .createBuilder()
-            .stems(Collections.singletonList(
-                  SearchQueryStem
-                        .createBuilder("")
-                        .linkTypeIds(Collections.singletonList(linkTypeId))
-                        .documentIds(documentIds)
-                        .build()))
-            .build();
-
-      final List<LinkInstance> result = task.getDaoContextSnapshot().getLinkInstanceDao()
-                                            .searchLinkInstances(query);
+      final List<LinkInstance> result = task.getReadCache().getLinkInstances(documentIds, linkTypeId);
+      final LinkType linkType = task.getReadCache().getLinkType(linkTypeId);
       result.forEach(linkInstance ->
-            linkInstance.setData(constraintManager.encodeDataTypesForFce(task.getDaoContextSnapshot().getLinkTypeDao().getLinkType(linkTypeId), linkInstance.getData()))
+            linkInstance.setData(constraintManager.encodeDataTypesForFce(linkType, linkInstance.getData()))
       );
 
       return result;
    }
 
+   private List<Document> loadDocumentsWithData(final Collection collection, final Set<String> documentIds) {
+      return loadDocumentsData(collection, task.getReadCache().getDocuments(documentIds));
+   }
+
+   private List<Document> loadDocumentsData(final Collection collection, final List<Document> documents) {
+      final Map<String, DataDocument> data = task.getReadCache().getDocumentsData(collection.getId(), documents.stream().map(Document::getId).collect(toSet()));
+      documents.forEach(document -> document.setData(constraintManager.encodeDataTypesForFce(collection, data.get(document.getId()))));
+
+      return documents;
+   }
+
    public List<LinkBridge> getLinks(DocumentBridge d, String linkTypeId) {
       try {
          final List<LinkInstance> links = getLinkInstances(d.getDocument().getId(), linkTypeId);
 
          // load link data
          if (links.size() > 0) {
-            final Map<String, DataDocument> linkData = task.getDaoContextSnapshot().getLinkDataDao().getData(linkTypeId, links.stream().map(LinkInstance::getId).collect(toSet())).stream()
-                                                           .collect(Collectors.toMap(DataDocument::getId, data -> data));
+            final Map<String, DataDocument> linkData = task.getReadCache().getLinksData(linkTypeId, links.stream().map(LinkInstance::getId).collect(toSet()));
 
             // match link instances with their data and convert to bridge
             return links.stream().map(linkInstance -> {
@@ -808,12 +811,12 @@ public class LumeerBridge {
    @SuppressWarnings("unused")
    public DocumentBridge getLinkDocument(final LinkBridge l, final String collectionId) {
       try {
-         List<Document> documents = task.getDaoContextSnapshot().getDocumentDao().getDocumentsByIds(l.getLink().getDocumentIds().toArray(new String[0]));
+         List<Document> documents = task.getReadCache().getDocuments(new HashSet<>(l.getLink().getDocumentIds()));
          if (documents.size() == 2) {
             final Document doc = documents.get(0).getCollectionId().equals(collectionId) ? documents.get(0) : documents.get(1);
 
-            DataDocument data = task.getDaoContextSnapshot().getDataDao().getData(doc.getCollectionId(), doc.getId());
-            data = constraintManager.encodeDataTypesForFce(task.getDaoContextSnapshot().getCollectionDao().getCollectionById(collectionId), data);
+            DataDocument data = task.getReadCache().getDocumentsData(doc.getCollectionId(), Set.of(doc.getId())).get(doc.getId());
+            data = constraintManager.encodeDataTypesForFce(task.getReadCache().getCollection(collectionId), data);
             doc.setData(data);
 
             return new DocumentBridge(doc);
@@ -881,7 +884,7 @@ public class LumeerBridge {
 
    public List<DocumentBridge> getLinkedDocuments(DocumentBridge d, String linkTypeId) {
       try {
-         final LinkType linkType = task.getDaoContextSnapshot().getLinkTypeDao().getLinkType(linkTypeId);
+         final LinkType linkType = task.getReadCache().getLinkType(linkTypeId);
          final List<LinkInstance> links = getLinkInstances(d.getDocument().getId(), linkTypeId);
          final String otherCollectionId = linkType.getCollectionIds().get(0).equals(d.getDocument().getCollectionId()) ?
                linkType.getCollectionIds().get(1) : linkType.getCollectionIds().get(0);
@@ -894,22 +897,10 @@ public class LumeerBridge {
                                                  .collect(Collectors.toSet());
             documentIds.remove(d.getDocument().getId());
 
-            // load document data
-            final Map<String, DataDocument> data = new HashMap<>();
-            task.getDaoContextSnapshot().getDataDao()
-                .getData(otherCollectionId, documentIds)
-                .forEach(dd -> data.put(dd.getId(), dd));
-
             // load document meta data and match them with user data
-            return task.getDaoContextSnapshot().getDocumentDao()
-                       .getDocumentsByIds(documentIds.toArray(new String[0]))
-                       .stream().map(document -> {
-                     DataDocument dd = data.get(document.getId());
-                     dd = constraintManager.encodeDataTypesForFce(task.getDaoContextSnapshot().getCollectionDao().getCollectionById(otherCollectionId), dd);
-                     document.setData(dd);
-
-                     return new DocumentBridge(document);
-                  }).collect(toList());
+            final Collection otherCollection = task.getReadCache().getCollection(otherCollectionId);
+            return loadDocumentsWithData(otherCollection, documentIds)
+                  .stream().map(DocumentBridge::new).collect(toList());
          } else {
             return Collections.emptyList();
          }
@@ -0,0 +1,227 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor.matcher;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.util.AttributeUtil;
+import io.lumeer.core.util.js.NativeDataFilterTask;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of normalized attribute values to ids of documents having the value, so that matching documents can be found
+ * without evaluating a match query over all the documents. Only constraint types with a plain equality are indexed,
+ * {@link #isUsable()} is false for the others. Children of matching documents are matching as well.
+ * The normalization follows the JS data filter: texts are compared trimmed and case insensitive, numbers by their value
+ * and select values by the option they belong to (values without an option as they are).
+ */
+public class MatchIndex {
+
+   private static final Set<ConstraintType> SIMPLE_TYPES = Set.of(ConstraintType.None, ConstraintType.Text, ConstraintType.Number);
+
+   private final ConstraintType constraintType;
+   private boolean usable;
+   private final Map<String, Object> selectOptions = new HashMap<>();
+   private final Map<Object, Set<String>> documentIdsByValue = new HashMap<>();
+   private final Map<String, Set<String>> childrenIds = new HashMap<>();
+
+   public MatchIndex(final Attribute attribute, final List<Document> documents) {
+      constraintType = attribute.getConstraint() != null && attribute.getConstraint().getType() != null ? attribute.getConstraint().getType() : ConstraintType.None;
+      if (constraintType == ConstraintType.Select) {
+         // options of selection lists are not part of the attribute
+         usable = AttributeUtil.getSelectionListId(attribute) == null;
+         getSelectOptions(attribute).forEach(option -> selectOptions.putIfAbsent(toJsString(option), option));
+      } else {
+         usable = !AttributeUtil.isMultiselect(attribute) && SIMPLE_TYPES.contains(constraintType);
+      }
+
+      if (usable) {
+         documents.forEach(document -> {
+            final Object value = document.getData() != null ? document.getData().get(attribute.getId()) : null;
+            if (value instanceof Collection && constraintType == ConstraintType.Select) {
+               ((Collection<?>) value).forEach(item -> addValue(item, document.getId()));
+            } else if (value instanceof Collection) {
+               // the filter compares formatted lists of simple values, leave it to the filter
+               usable = false;
+            } else {
+               addValue(value, document.getId());
+            }
+
+            final Object parentId = document.getMetaData() != null ? document.getMetaData().get(Document.META_PARENT_ID) : null;
+            if (parentId instanceof String) {
+               childrenIds.computeIfAbsent((String) parentId, key -> new HashSet<>()).add(document.getId());
+            }
+         });
+      }
+   }
+
+   public boolean isUsable() {
+      return usable;
+   }
+
+   /**
+    * Gets ids of documents having the given value (or containing it for multiselect attributes), including their children.
+    * Returns null when the value can't be looked up in the index.
+    */
+   public Set<String> getDocumentIds(final Object value) {
+      final Object key = getKey(value);
+      if (key == null) {
+         return null;
+      }
+
+      return withChildren(documentIdsByValue.getOrDefault(key, Set.of()));
+   }
+
+   /**
+    * Gets ids of documents having some of the given values, including their children.
+    * Returns null when any of the values can't be looked up in the index or there are no values.
+    * Only select values can have some of many values.
+    */
+   public Set<String> getDocumentIdsWithSome(final Collection<?> values) {
+      if (values.isEmpty() || constraintType != ConstraintType.Select) {
+         return null;
+      }
+
+      final Set<String> result = new HashSet<>();
+      for (final Object value : values) {
+         final Object key = getKey(value);
+         if (key == null) {
+            return null;
+         }
+         result.addAll(documentIdsByValue.getOrDefault(key, Set.of()));
+      }
+
+      return withChildren(result);
+   }
+
+   /**
+    * Gets ids of documents containing all the given values, including their children.
+    * Returns null when any of the values can't be looked up in the index or there are no values.
+    * Only select values can contain many values.
+    */
+   public Set<String> getDocumentIdsWithAll(final Collection<?> values) {
+      if (constraintType != ConstraintType.Select) {
+         return null;
+      }
+
+      Set<String> result = null;
+      for (final Object value : values) {
+         final Object key = getKey(value);
+         if (key == null) {
+            return null;
+         }
+
+         final Set<String> documentIds = documentIdsByValue.getOrDefault(key, Set.of());
+         if (result == null) {
+            result = new HashSet<>(documentIds);
+         } else {
+            result.retainAll(documentIds);
+         }
+      }
+
+      return result != null ? withChildren(result) : null;
+   }
+
+   private void addValue(final Object value, final String documentId) {
+      final Object key = getKey(value);
+      if (key != null) {
+         documentIdsByValue.computeIfAbsent(key, k -> new HashSet<>()).add(documentId);
+      }
+   }
+
+   private Object getKey(final Object value) {
+      if (NativeDataFilterTask.isEmpty(value)) {
+         return null;
+      }
+
+      switch (constraintType) {
+         case Number:
+            final BigDecimal number = NativeDataFilterTask.toNumber(value);
+            return number != null ? number.stripTrailingZeros() : null;
+         case Select:
+            // values are compared strictly, the ones belonging to an option are replaced by the option value
+            final Object option = selectOptions.get(toJsString(value));
+            return getStrictKey(option != null ? option : value);
+         default:
+            // accents are significant for equality of texts
+            return toJsString(value).trim().toLowerCase();
+      }
+   }
+
+   private static Object getStrictKey(final Object value) {
+      if (value instanceof Number) {
+         final BigDecimal number = NativeDataFilterTask.toNumber(value);
+         return number != null ? number.stripTrailingZeros() : null;
+      }
+      return value instanceof String || value instanceof Boolean ? value : null;
+   }
+
+   private static String toJsString(final Object value) {
+      if (value instanceof Number) {
+         final BigDecimal number = NativeDataFilterTask.toNumber(value);
+         return number != null ? number.stripTrailingZeros().toPlainString() : value.toString();
+      }
+      return value.toString();
+   }
+
+   @SuppressWarnings("unchecked")
+   private static List<Object> getSelectOptions(final Attribute attribute) {
+      final Object config = attribute.getConstraint() != null ? attribute.getConstraint().getConfig() : null;
+      final Object options = config instanceof Map ? ((Map<String, Object>) config).get("options") : null;
+      final List<Object> values = new ArrayList<>();
+      if (options instanceof Collection) {
+         ((Collection<Object>) options).forEach(option -> {
+            final Object value = option instanceof Map ? ((Map<String, Object>) option).get("value") : null;
+            if (value != null) {
+               values.add(value);
+            }
+         });
+      }
+      return values;
+   }
+
+   private Set<String> withChildren(final Set<String> documentIds) {
+      if (childrenIds.isEmpty()) {
+         return documentIds;
+      }
+
+      final Set<String> result = new HashSet<>(documentIds);
+      final Deque<String> queue = new ArrayDeque<>(documentIds);
+      while (!queue.isEmpty()) {
+         childrenIds.getOrDefault(queue.poll(), Set.of()).forEach(childId -> {
+            if (result.add(childId)) {
+               queue.add(childId);
+            }
+         });
+      }
+
+      return result;
+   }
+}
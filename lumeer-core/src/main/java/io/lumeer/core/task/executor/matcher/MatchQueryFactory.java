@@ -30,6 +30,12 @@ public class MatchQueryFactory {
    private MatchQueryFactory() {}
 
    public static Function<Object, Query> getMatchQuery(final Attribute thisAttribute, final Collection thatCollection, final Attribute thatAttribute) {
+      final MatchQueryProvider queryProvider = getMatchQueryProvider(thisAttribute, thatAttribute);
+
+      return (value) -> queryProvider.getMatchQuery(thatCollection, thatAttribute, value);
+   }
+
+   public static MatchQueryProvider getMatchQueryProvider(final Attribute thisAttribute, final Attribute thatAttribute) {
       final boolean thisMulti = AttributeUtil.isMultiselect(thisAttribute);
       final boolean thatMulti = AttributeUtil.isMultiselect(thatAttribute);
       MatchQueryProvider queryProvider;
@@ -48,6 +54,6 @@ public class MatchQueryFactory {
          }
       }
 
-      return (value) -> queryProvider.getMatchQuery(thatCollection, thatAttribute, value);
+      return queryProvider;
    }
 }
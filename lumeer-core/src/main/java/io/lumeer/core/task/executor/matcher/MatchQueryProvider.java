@@ -24,6 +24,7 @@ import io.lumeer.api.model.Query;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface MatchQueryProvider {
 
@@ -31,6 +32,12 @@ public interface MatchQueryProvider {
    Query getMatchQueryForCreation(final Object oldValue, final Object newValue);
    Query getMatchQuery(final io.lumeer.api.model.Collection collection, final Attribute attribute, final Object newValue);
 
+   /**
+    * Finds ids of documents that {@link #getMatchQuery} would return using the index of their values.
+    * Returns null when the index can't answer and the query must be evaluated.
+    */
+   Set<String> getMatchingDocumentIds(final MatchIndex index, final Object newValue);
+
    default List<Object> getValues(final Object value) {
       final List<Object> values = new ArrayList<>();
 
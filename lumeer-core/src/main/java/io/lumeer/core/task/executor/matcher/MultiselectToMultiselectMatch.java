@@ -28,6 +28,7 @@ import io.lumeer.api.model.QueryStem;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class MultiselectToMultiselectMatch implements MatchQueryProvider {
 
@@ -109,4 +110,8 @@ public class MultiselectToMultiselectMatch implements MatchQueryProvider {
             )
       );
    }
+
+   public Set<String> getMatchingDocumentIds(final MatchIndex index, final Object newValue) {
+      return index.getDocumentIdsWithAll(getValues(newValue));
+   }
 }
@@ -28,6 +28,7 @@ import io.lumeer.api.model.QueryStem;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class MultiselectToSimpleMatch implements MatchQueryProvider {
 
@@ -112,4 +113,8 @@ public class MultiselectToSimpleMatch implements MatchQueryProvider {
             )
       );
    }
+
+   public Set<String> getMatchingDocumentIds(final MatchIndex index, final Object newValue) {
+      return index.getDocumentIdsWithSome(getValues(newValue));
+   }
 }
@@ -28,6 +28,7 @@ import io.lumeer.api.model.QueryStem;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class SimpleToMultiselectMatch implements MatchQueryProvider {
 
@@ -90,4 +91,7 @@ public class SimpleToMultiselectMatch implements MatchQueryProvider {
       );
    }
 
+   public Set<String> getMatchingDocumentIds(final MatchIndex index, final Object newValue) {
+      return index.getDocumentIds(newValue);
+   }
 }
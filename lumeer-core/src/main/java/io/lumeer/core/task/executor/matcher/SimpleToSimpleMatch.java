@@ -28,6 +28,7 @@ import io.lumeer.api.model.QueryStem;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class SimpleToSimpleMatch implements MatchQueryProvider {
 
@@ -91,4 +92,7 @@ public class SimpleToSimpleMatch implements MatchQueryProvider {
       );
    }
 
+   public Set<String> getMatchingDocumentIds(final MatchIndex index, final Object newValue) {
+      return index.getDocumentIds(newValue);
+   }
 }
@@ -69,6 +69,9 @@ public class OperationExecutor implements Callable<ChangesTracker> {
       changes.merge(smtpEmailsStage.call());
       changes.merge(sequencesStage.call());
 
+      // the following scripts of the task must see the committed changes
+      task.getReadCache().clear();
+
       return changes;
    }
 }
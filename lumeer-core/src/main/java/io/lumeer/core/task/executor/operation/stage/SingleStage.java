@@ -26,6 +26,7 @@ import io.lumeer.api.model.Document;
 import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.LinkType;
 import io.lumeer.api.model.ResourceType;
+import io.lumeer.core.adapter.AuditAdapter;
 import io.lumeer.core.adapter.LinkTypeAdapter;
 import io.lumeer.core.facade.FunctionFacade;
 import io.lumeer.core.facade.TaskProcessingFacade;
@@ -145,6 +146,7 @@ public class SingleStage extends Stage {
          auditAdapter.registerCreate(collection.getId(), ResourceType.DOCUMENT, document.getId(), task.getInitiator(), automationName, null, newDataDecoded);
       });
 
+      final List<DocumentUpdate> documentUpdates = new ArrayList<>();
       changesByDocumentId.forEach((id, changeList) -> {
          unprocessedCreatedDocuments.remove(id);
          final Document document = changeList.get(0).getEntity();
@@ -172,33 +174,62 @@ public class SingleStage extends Stage {
          document.setUpdatedBy(task.getInitiator().getId());
          document.setUpdateDate(ZonedDateTime.now());
 
-         final DataDocument beforePatch = task.getDaoContextSnapshot().getDataDao().getData(document.getCollectionId(), document.getId());
+         documentUpdates.add(new DocumentUpdate(document, originalDocument, collection, aggregatedUpdate, newData));
+      });
 
-         DataDocument patchedData = task.getDaoContextSnapshot().getDataDao()
-                                        .patchData(document.getCollectionId(), document.getId(), newData);
+      // capture before images and write data and documents in bulk, one round trip per collection for each step
+      final Map<String, List<DocumentUpdate>> documentUpdatesByCollection = documentUpdates.stream().collect(Collectors.groupingBy(update -> update.document.getCollectionId()));
+      documentUpdatesByCollection.forEach((collectionId, updates) -> {
+         final Set<String> ids = updates.stream().map(update -> update.document.getId()).collect(toSet());
+         final Map<String, DataDocument> beforePatch = task.getDaoContextSnapshot().getDataDao().getData(collectionId, ids)
+                                                           .stream().collect(Collectors.toMap(DataDocument::getId, Function.identity()));
+         final Map<String, DataDocument> patches = updates.stream().collect(Collectors.toMap(update -> update.document.getId(), update -> update.newData));
+         final Map<String, DataDocument> patchedData = task.getDaoContextSnapshot().getDataDao().patchData(collectionId, patches)
+                                                           .stream().collect(Collectors.toMap(DataDocument::getId, Function.identity()));
+
+         updates.forEach(update -> {
+            update.beforePatch = beforePatch.getOrDefault(update.document.getId(), new DataDocument());
+            update.patchedData = patchedData.getOrDefault(update.document.getId(), new DataDocument());
+         });
+      });
 
-         Document updatedDocument = task.getDaoContextSnapshot().getDocumentDao()
-                                        .updateDocument(document.getId(), document);
+      final Map<String, Document> updatedDocumentsById = task.getDaoContextSnapshot().getDocumentDao()
+                                                             .updateDocuments(documentUpdates.stream().map(update -> update.document).collect(toList()))
+                                                             .stream().collect(Collectors.toMap(Document::getId, Function.identity()));
 
-         updatedDocument.setData(patchedData);
+      documentUpdatesByCollection.forEach((collectionId, updates) -> {
+         final List<AuditAdapter.DataChange> dataChanges = new ArrayList<>();
 
-         // notify delayed actions about data change
-         if (collection.getPurposeType() == CollectionPurposeType.Tasks) {
-            final Document original;
-            if (originalDocument == null) { // when triggered by an action button, let's use the document from db
-               original = new Document(document);
-               original.setData(beforePatch);
-            } else {
-               original = originalDocument;
+         updates.forEach(update -> {
+            final Collection collection = update.collection;
+            update.updatedDocument = updatedDocumentsById.get(update.document.getId());
+            update.updatedDocument.setData(update.patchedData);
+
+            // notify delayed actions about data change
+            if (collection.getPurposeType() == CollectionPurposeType.Tasks) {
+               final Document original;
+               if (update.originalDocument == null) { // when triggered by an action button, let's use the document from db
+                  original = new Document(update.document);
+                  original.setData(update.beforePatch);
+               } else {
+                  original = update.originalDocument;
+               }
+               purposeChangeProcessor.processChanges(new UpdateDocument(update.updatedDocument, original), collection);
             }
-            purposeChangeProcessor.processChanges(new UpdateDocument(updatedDocument, original), collection);
-         }
 
-         var oldDataDecoded = constraintManager.decodeDataTypes(collection, beforePatch);
-         var patchedDataDecoded = constraintManager.decodeDataTypes(collection, patchedData);
+            var oldDataDecoded = constraintManager.decodeDataTypes(collection, update.beforePatch);
+            var patchedDataDecoded = constraintManager.decodeDataTypes(collection, update.patchedData);
+
+            dataChanges.add(new AuditAdapter.DataChange(update.document.getId(), update.beforePatch, oldDataDecoded, update.patchedData, patchedDataDecoded));
+         });
 
-         auditAdapter.registerDataChange(updatedDocument.getCollectionId(), ResourceType.DOCUMENT, updatedDocument.getId(),
-               task.getInitiator(), automationName, null, beforePatch, oldDataDecoded, patchedData, patchedDataDecoded);
+         auditAdapter.registerDataChanges(collectionId, ResourceType.DOCUMENT, task.getInitiator(), automationName, null, dataChanges);
+      });
+
+      documentUpdates.forEach(update -> {
+         final Document document = update.document;
+         final Document updatedDocument = update.updatedDocument;
+         final Collection collection = update.collection;
 
          // add patched data to new documents
          boolean created = false;
@@ -206,7 +237,7 @@ public class SingleStage extends Stage {
             final Document doc = documentsByCorrelationId.get(document.getMetaData().getString(Document.META_CORRELATION_ID));
 
             if (doc != null) {
-               doc.setData(patchedData);
+               doc.setData(update.patchedData);
                created = true;
             }
          }
@@ -224,18 +255,17 @@ public class SingleStage extends Stage {
                   // for the recursive rules, we need to trigger rules for changes between 2 and 3
                   final UpdateDocument updateDocumentEvent;
                   final Document orig = new Document(document);
-                  orig.setData(beforePatch);
+                  orig.setData(update.beforePatch);
                   updateDocumentEvent = new UpdateDocument(updatedDocument, orig);
 
                   taskProcessingFacade.onDocumentUpdate(updateDocumentEvent, ((RuleTask) task).getRule().getName());
                } else {
-                  taskExecutor.submitTask(functionFacade.createTaskForUpdateDocument(collection, originalDocument, updatedDocument, aggregatedUpdate.keySet()));
+                  taskExecutor.submitTask(functionFacade.createTaskForUpdateDocument(collection, update.originalDocument, updatedDocument, update.aggregatedUpdate.keySet()));
                }
             }
          }
 
-         patchedData = constraintManager.decodeDataTypes(collection, patchedData);
-         updatedDocument.setData(patchedData);
+         updatedDocument.setData(constraintManager.decodeDataTypes(collection, update.patchedData));
 
          updatedDocuments.computeIfAbsent(document.getCollectionId(), key -> new ArrayList<>())
                          .add(updatedDocument);
@@ -578,4 +608,23 @@ public class SingleStage extends Stage {
       return changesTracker;
    }
 
+   private static final class DocumentUpdate {
+      private final Document document;
+      private final Document originalDocument;
+      private final Collection collection;
+      private final DataDocument aggregatedUpdate;
+      private final DataDocument newData;
+
+      private DataDocument beforePatch;
+      private DataDocument patchedData;
+      private Document updatedDocument;
+
+      private DocumentUpdate(final Document document, final Document originalDocument, final Collection collection, final DataDocument aggregatedUpdate, final DataDocument newData) {
+         this.document = document;
+         this.originalDocument = originalDocument;
+         this.collection = collection;
+         this.aggregatedUpdate = aggregatedUpdate;
+         this.newData = newData;
+      }
+   }
 }
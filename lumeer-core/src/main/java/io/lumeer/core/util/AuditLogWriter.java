@@ -0,0 +1,479 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import io.lumeer.api.model.AuditRecord;
+import io.lumeer.api.model.ResourceType;
+import io.lumeer.api.model.User;
+import io.lumeer.core.adapter.AuditAdapter;
+import io.lumeer.storage.api.dao.AuditDao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes audit log records from a background thread so that the write path does not wait for the audit log inserts.
+ * Records are kept in a bounded queue and written in batches per workspace, in the order they were queued. A change
+ * of a resource is merged into the queued change of the same originator only when nothing else happened to the resource in between. When the queue is full or the writer
+ * is closed, records are written synchronously, so they are never lost.
+ */
+public class AuditLogWriter {
+
+   private static final Logger log = Logger.getLogger(AuditLogWriter.class.getName());
+
+   public static final int DEFAULT_CAPACITY = 10_000;
+   public static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+   public static final int DEFAULT_BATCH_SIZE = 500;
+   public static final long DEFAULT_FLUSH_TIMEOUT_MS = 5000;
+
+   private static AuditLogWriter instance;
+
+   public static final class Stats {
+      private final int queueDepth;
+      private final long enqueued;
+      private final long merged;
+      private final long written;
+      private final long synchronous;
+      private final long failed;
+
+      private Stats(final int queueDepth, final long enqueued, final long merged, final long written, final long synchronous, final long failed) {
+         this.queueDepth = queueDepth;
+         this.enqueued = enqueued;
+         this.merged = merged;
+         this.written = written;
+         this.synchronous = synchronous;
+         this.failed = failed;
+      }
+
+      public int getQueueDepth() {
+         return queueDepth;
+      }
+
+      public long getEnqueued() {
+         return enqueued;
+      }
+
+      public long getMerged() {
+         return merged;
+      }
+
+      public long getWritten() {
+         return written;
+      }
+
+      public long getSynchronous() {
+         return synchronous;
+      }
+
+      public long getFailed() {
+         return failed;
+      }
+
+      @Override
+      public String toString() {
+         return "Stats{" +
+               "queueDepth=" + queueDepth +
+               ", enqueued=" + enqueued +
+               ", merged=" + merged +
+               ", written=" + written +
+               ", synchronous=" + synchronous +
+               ", failed=" + failed +
+               '}';
+      }
+   }
+
+   private static final class Entry {
+      private final String workspace;
+      private final AuditDao auditDao;
+      private final AuditRecord record;
+      private final String parentId;
+      private final ResourceType resourceType;
+      private final User user;
+      private final String automation;
+      private final String viewId;
+      private AuditAdapter.DataChange dataChange;
+
+      private Entry(final String workspace, final AuditDao auditDao, final AuditRecord record) {
+         this(workspace, auditDao, record, null, null, null, null, null, null);
+      }
+
+      private Entry(final String workspace, final AuditDao auditDao, final AuditRecord record, final String parentId, final ResourceType resourceType, final User user,
+            final String automation, final String viewId, final AuditAdapter.DataChange dataChange) {
+         this.workspace = workspace;
+         this.auditDao = auditDao;
+         this.record = record;
+         this.parentId = parentId;
+         this.resourceType = resourceType;
+         this.user = user;
+         this.automation = automation;
+         this.viewId = viewId;
+         this.dataChange = dataChange;
+      }
+
+      private ChangeGroup getChangeGroup() {
+         return new ChangeGroup(parentId, resourceType, user != null ? user.getId() : null, automation, viewId);
+      }
+
+      private ResourceKey getResourceKey() {
+         return record != null ?
+               new ResourceKey(workspace, record.getParentId(), record.getResourceType(), record.getResourceId()) :
+               new ResourceKey(workspace, parentId, resourceType, dataChange.getResourceId());
+      }
+   }
+
+   private static final class ChangeGroup {
+      private final String parentId;
+      private final ResourceType resourceType;
+      private final String userId;
+      private final String automation;
+      private final String viewId;
+
+      private ChangeGroup(final String parentId, final ResourceType resourceType, final String userId, final String automation, final String viewId) {
+         this.parentId = parentId;
+         this.resourceType = resourceType;
+         this.userId = userId;
+         this.automation = automation;
+         this.viewId = viewId;
+      }
+
+      @Override
+      public boolean equals(final Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof ChangeGroup)) {
+            return false;
+         }
+         final ChangeGroup that = (ChangeGroup) o;
+         return Objects.equals(parentId, that.parentId) && resourceType == that.resourceType && Objects.equals(userId, that.userId)
+               && Objects.equals(automation, that.automation) && Objects.equals(viewId, that.viewId);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(parentId, resourceType, userId, automation, viewId);
+      }
+   }
+
+   private static final class ResourceKey {
+      private final String workspace;
+      private final String parentId;
+      private final ResourceType resourceType;
+      private final String resourceId;
+
+      private ResourceKey(final String workspace, final String parentId, final ResourceType resourceType, final String resourceId) {
+         this.workspace = workspace;
+         this.parentId = parentId;
+         this.resourceType = resourceType;
+         this.resourceId = resourceId;
+      }
+
+      @Override
+      public boolean equals(final Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof ResourceKey)) {
+            return false;
+         }
+         final ResourceKey that = (ResourceKey) o;
+         return Objects.equals(workspace, that.workspace) && Objects.equals(parentId, that.parentId) && resourceType == that.resourceType
+               && Objects.equals(resourceId, that.resourceId);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(workspace, parentId, resourceType, resourceId);
+      }
+   }
+
+   private final int capacity;
+   private final long flushIntervalMs;
+   private final int batchSize;
+
+   private final Object lock = new Object();
+   private final ArrayDeque<Entry> pending = new ArrayDeque<>(); // guarded by lock
+   private final Map<ResourceKey, Entry> newestPending = new HashMap<>(); // guarded by lock
+   private int inProgress = 0; // guarded by lock
+   private boolean flushRequested = false; // guarded by lock
+   private final Thread worker;
+   private volatile boolean running = true;
+
+   private final AtomicLong enqueued = new AtomicLong();
+   private final AtomicLong merged = new AtomicLong();
+   private final AtomicLong written = new AtomicLong();
+   private final AtomicLong synchronous = new AtomicLong();
+   private final AtomicLong failed = new AtomicLong();
+
+   public AuditLogWriter() {
+      this(DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_BATCH_SIZE);
+   }
+
+   public AuditLogWriter(final int capacity, final long flushIntervalMs, final int batchSize) {
+      this.capacity = capacity;
+      this.flushIntervalMs = flushIntervalMs;
+      this.batchSize = batchSize;
+
+      worker = new Thread(this::run, "audit-log-writer");
+      worker.setDaemon(true);
+      worker.start();
+   }
+
+   public static synchronized AuditLogWriter getInstance() {
+      if (instance == null) {
+         instance = new AuditLogWriter();
+      }
+      return instance;
+   }
+
+   /**
+    * Waits for the records queued so far to be written, does nothing when no record was queued yet.
+    */
+   public static void flushInstance(final long timeoutMs) {
+      final AuditLogWriter writer;
+      synchronized (AuditLogWriter.class) {
+         writer = instance;
+      }
+      if (writer != null) {
+         writer.flush(timeoutMs);
+      }
+   }
+
+   /**
+    * Writes all the queued records and stops the shared writer, the records queued afterwards are written synchronously.
+    */
+   public static void closeInstance(final long timeoutMs) {
+      final AuditLogWriter writer;
+      synchronized (AuditLogWriter.class) {
+         writer = instance;
+      }
+      if (writer != null) {
+         writer.close(timeoutMs);
+      }
+   }
+
+   /**
+    * @param workspace identifies the audit log the dao writes to (e.g. organization and project ids), records of the same workspace are written together.
+    * @param auditDao dao that can be used outside of the current request.
+    */
+   public void write(final String workspace, final AuditDao auditDao, final AuditRecord record) {
+      enqueue(new Entry(workspace, auditDao, record));
+   }
+
+   /**
+    * Queues a change of resource data. The change is merged with the queued change of the same resource by the same originator
+    * when that is still the newest queued record of the resource, otherwise it is queued after the other records.
+    */
+   public void writeDataChange(final String workspace, final AuditDao auditDao, final String parentId, final ResourceType resourceType, final User user,
+         final String automation, final String viewId, final AuditAdapter.DataChange dataChange) {
+      final Entry entry = new Entry(workspace, auditDao, null, parentId, resourceType, user, automation, viewId, dataChange);
+
+      synchronized (lock) {
+         final Entry queued = newestPending.get(entry.getResourceKey());
+         if (queued != null && queued.dataChange != null && queued.getChangeGroup().equals(entry.getChangeGroup())) {
+            // the original state is kept from the queued change, only the final state is taken from the new one
+            queued.dataChange = new AuditAdapter.DataChange(dataChange.getResourceId(), queued.dataChange.getOldState(), queued.dataChange.getOldStateDecoded(),
+                  dataChange.getNewState(), dataChange.getNewStateDecoded());
+            merged.incrementAndGet();
+            return;
+         }
+      }
+
+      enqueue(entry);
+   }
+
+   /**
+    * Waits at most the given time for the records queued so far to be written.
+    */
+   public void flush(final long timeoutMs) {
+      final long deadline = System.currentTimeMillis() + timeoutMs;
+      synchronized (lock) {
+         if (!pending.isEmpty()) {
+            flushRequested = true;
+            lock.notifyAll();
+         }
+         long remaining;
+         while ((!pending.isEmpty() || inProgress > 0) && worker.isAlive() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+               lock.wait(remaining);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               return;
+            }
+         }
+      }
+   }
+
+   public Stats getStats() {
+      final int depth;
+      synchronized (lock) {
+         depth = pending.size();
+      }
+      return new Stats(depth, enqueued.get(), merged.get(), written.get(), synchronous.get(), failed.get());
+   }
+
+   /**
+    * Stops the background thread after all the queued records are written, waits at most the given time.
+    */
+   public void close(final long timeoutMs) {
+      synchronized (lock) {
+         running = false;
+         lock.notifyAll();
+      }
+      try {
+         worker.join(timeoutMs);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void enqueue(final Entry entry) {
+      synchronized (lock) {
+         if (running && pending.size() < capacity) {
+            pending.addLast(entry);
+            newestPending.put(entry.getResourceKey(), entry);
+            enqueued.incrementAndGet();
+            if (pending.size() == 1 || pending.size() >= batchSize) {
+               lock.notifyAll();
+            }
+            return;
+         }
+      }
+
+      // the writer is overloaded or stopped, do not lose the record
+      synchronous.incrementAndGet();
+      write(List.of(entry));
+   }
+
+   private void run() {
+      while (true) {
+         synchronized (lock) {
+            while (pending.isEmpty() && running) {
+               try {
+                  lock.wait();
+               } catch (InterruptedException e) {
+                  return;
+               }
+            }
+            if (pending.isEmpty()) {
+               return;
+            }
+
+            // wait a moment to write more records at once and to merge the following changes
+            final long deadline = System.currentTimeMillis() + flushIntervalMs;
+            long remaining;
+            while (running && !flushRequested && pending.size() < batchSize && (remaining = deadline - System.currentTimeMillis()) > 0) {
+               try {
+                  lock.wait(remaining);
+               } catch (InterruptedException e) {
+                  return;
+               }
+            }
+            flushRequested = false;
+         }
+
+         List<Entry> batch;
+         while (!(batch = pollBatch()).isEmpty()) {
+            try {
+               write(batch);
+            } finally {
+               synchronized (lock) {
+                  inProgress = 0;
+                  lock.notifyAll();
+               }
+            }
+         }
+      }
+   }
+
+   private List<Entry> pollBatch() {
+      synchronized (lock) {
+         final List<Entry> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+         while (!pending.isEmpty() && batch.size() < batchSize) {
+            final Entry entry = pending.pollFirst();
+            newestPending.remove(entry.getResourceKey(), entry);
+            batch.add(entry);
+         }
+         inProgress = batch.size();
+         if (batch.isEmpty()) {
+            lock.notifyAll();
+         }
+         return batch;
+      }
+   }
+
+   private void write(final List<Entry> batch) {
+      final Map<String, List<Entry>> byWorkspace = new LinkedHashMap<>();
+      batch.forEach(entry -> byWorkspace.computeIfAbsent(entry.workspace, k -> new ArrayList<>()).add(entry));
+
+      byWorkspace.values().forEach(entries -> {
+         final AuditDao auditDao = entries.get(0).auditDao;
+
+         // consecutive records of the same kind are written together, the runs are written in the queue order
+         int start = 0;
+         for (int i = 1; i <= entries.size(); i++) {
+            if (i == entries.size() || !isSameRun(entries.get(start), entries.get(i))) {
+               writeRun(auditDao, entries.subList(start, i));
+               start = i;
+            }
+         }
+      });
+   }
+
+   private static boolean isSameRun(final Entry first, final Entry entry) {
+      if (first.record != null || entry.record != null) {
+         return first.record != null && entry.record != null;
+      }
+      return first.getChangeGroup().equals(entry.getChangeGroup());
+   }
+
+   private void writeRun(final AuditDao auditDao, final List<Entry> run) {
+      final Entry first = run.get(0);
+
+      if (first.record != null) {
+         final List<AuditRecord> records = new ArrayList<>(run.size());
+         run.forEach(entry -> records.add(entry.record));
+         try {
+            auditDao.createAuditRecords(records);
+            written.addAndGet(records.size());
+         } catch (Exception e) {
+            failed.addAndGet(records.size());
+            log.log(Level.WARNING, "Unable to write " + records.size() + " audit log records: ", e);
+         }
+      } else {
+         final List<AuditAdapter.DataChange> dataChanges = new ArrayList<>(run.size());
+         run.forEach(entry -> dataChanges.add(entry.dataChange));
+         try {
+            new AuditAdapter(auditDao).registerDataChanges(first.parentId, first.resourceType, first.user, first.automation, first.viewId, dataChanges);
+            written.addAndGet(dataChanges.size());
+         } catch (Exception e) {
+            failed.addAndGet(dataChanges.size());
+            log.log(Level.WARNING, "Unable to write " + dataChanges.size() + " audit log changes: ", e);
+         }
+      }
+   }
+}
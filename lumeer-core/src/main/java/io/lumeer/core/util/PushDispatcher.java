@@ -0,0 +1,346 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import io.lumeer.api.model.common.WithId;
+import io.lumeer.core.facade.PusherFacade;
+
+import org.marvec.pusher.data.Event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Sends push notifications from a background thread so that the request thread does not wait for the Pusher HTTP API.
+ * Events are kept in a bounded queue, events with the same channel, name and resource id that arrive within the coalescing
+ * window replace each other (only the latest state is sent), and the rest is sent in batches with retries.
+ * When the queue is full, new events are dropped and counted.
+ */
+public class PushDispatcher {
+
+   private static final Logger log = Logger.getLogger(PushDispatcher.class.getName());
+
+   public static final int DEFAULT_CAPACITY = 10_000;
+   public static final long DEFAULT_COALESCE_WINDOW_MS = 100;
+   public static final int DEFAULT_BATCH_SIZE = 100;
+   public static final int DEFAULT_MAX_RETRIES = 3;
+   public static final long DEFAULT_RETRY_BACKOFF_MS = 250;
+
+   @FunctionalInterface
+   public interface Factory {
+      PushDispatcher create(Consumer<List<Event>> sender, UnaryOperator<List<Event>> preparer);
+   }
+
+   /**
+    * Thrown by the sender when the events were rejected, the batch is sent again only when the failure is retryable.
+    */
+   public static class SendException extends RuntimeException {
+      private final boolean retryable;
+
+      public SendException(final String message, final boolean retryable) {
+         super(message);
+         this.retryable = retryable;
+      }
+
+      public boolean isRetryable() {
+         return retryable;
+      }
+   }
+
+   public static final class Stats {
+      private final int queueDepth;
+      private final long enqueued;
+      private final long coalesced;
+      private final long dropped;
+      private final long sent;
+      private final long retries;
+      private final long failed;
+
+      private Stats(final int queueDepth, final long enqueued, final long coalesced, final long dropped, final long sent, final long retries, final long failed) {
+         this.queueDepth = queueDepth;
+         this.enqueued = enqueued;
+         this.coalesced = coalesced;
+         this.dropped = dropped;
+         this.sent = sent;
+         this.retries = retries;
+         this.failed = failed;
+      }
+
+      public int getQueueDepth() {
+         return queueDepth;
+      }
+
+      public long getEnqueued() {
+         return enqueued;
+      }
+
+      public long getCoalesced() {
+         return coalesced;
+      }
+
+      public long getDropped() {
+         return dropped;
+      }
+
+      public long getSent() {
+         return sent;
+      }
+
+      public long getRetries() {
+         return retries;
+      }
+
+      public long getFailed() {
+         return failed;
+      }
+
+      @Override
+      public String toString() {
+         return "Stats{" +
+               "queueDepth=" + queueDepth +
+               ", enqueued=" + enqueued +
+               ", coalesced=" + coalesced +
+               ", dropped=" + dropped +
+               ", sent=" + sent +
+               ", retries=" + retries +
+               ", failed=" + failed +
+               '}';
+      }
+   }
+
+   private final Consumer<List<Event>> sender;
+   private final UnaryOperator<List<Event>> preparer;
+   private final int capacity;
+   private final long coalesceWindowMs;
+   private final int batchSize;
+   private final int maxRetries;
+   private final long retryBackoffMs;
+
+   private final Object lock = new Object();
+   private final LinkedHashMap<Object, Event> pending = new LinkedHashMap<>(); // guarded by lock
+   private final Thread worker;
+   private volatile boolean running = true;
+
+   private final AtomicLong enqueued = new AtomicLong();
+   private final AtomicLong coalesced = new AtomicLong();
+   private final AtomicLong dropped = new AtomicLong();
+   private final AtomicLong sent = new AtomicLong();
+   private final AtomicLong retries = new AtomicLong();
+   private final AtomicLong failed = new AtomicLong();
+
+   public PushDispatcher(final Consumer<List<Event>> sender, final UnaryOperator<List<Event>> preparer) {
+      this(sender, preparer, DEFAULT_CAPACITY, DEFAULT_COALESCE_WINDOW_MS, DEFAULT_BATCH_SIZE, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_BACKOFF_MS);
+   }
+
+   /**
+    * @param sender sends a batch of events synchronously, throws an exception when the batch should be retried
+    *               ({@link SendException} that is not retryable when it should not).
+    * @param preparer converts the events before they are queued (e.g. serializes their data so that later changes of the data objects are not visible),
+    *                 must keep the number and order of the events.
+    */
+   public PushDispatcher(final Consumer<List<Event>> sender, final UnaryOperator<List<Event>> preparer, final int capacity, final long coalesceWindowMs,
+         final int batchSize, final int maxRetries, final long retryBackoffMs) {
+      this.sender = sender;
+      this.preparer = preparer;
+      this.capacity = capacity;
+      this.coalesceWindowMs = coalesceWindowMs;
+      this.batchSize = batchSize;
+      this.maxRetries = maxRetries;
+      this.retryBackoffMs = retryBackoffMs;
+
+      worker = new Thread(this::run, "push-dispatcher");
+      worker.setDaemon(true);
+      worker.start();
+   }
+
+   public void dispatch(final List<Event> events) {
+      if (events == null || events.isEmpty()) {
+         return;
+      }
+
+      // the keys must be computed from the original data, prepared events may not carry the resource anymore
+      final List<Object> keys = events.stream().map(PushDispatcher::getCoalescingKey).collect(Collectors.toList());
+      final List<Event> prepared = preparer.apply(events);
+
+      synchronized (lock) {
+         for (int i = 0; i < keys.size(); i++) {
+            final Object key = keys.get(i);
+            if (pending.remove(key) != null) {
+               coalesced.incrementAndGet();
+            } else if (pending.size() >= capacity || !running) {
+               dropped.incrementAndGet();
+               continue;
+            }
+            pending.put(key, prepared.get(i));
+            enqueued.incrementAndGet();
+         }
+         lock.notifyAll();
+      }
+   }
+
+   public Stats getStats() {
+      final int depth;
+      synchronized (lock) {
+         depth = pending.size();
+      }
+      return new Stats(depth, enqueued.get(), coalesced.get(), dropped.get(), sent.get(), retries.get(), failed.get());
+   }
+
+   /**
+    * Stops accepting new events and waits at most the given time for the queued ones to be sent.
+    */
+   public void close(final long timeoutMs) {
+      synchronized (lock) {
+         running = false;
+         lock.notifyAll();
+      }
+      try {
+         worker.join(timeoutMs);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void run() {
+      while (true) {
+         synchronized (lock) {
+            while (pending.isEmpty() && running) {
+               try {
+                  lock.wait();
+               } catch (InterruptedException e) {
+                  return;
+               }
+            }
+            if (pending.isEmpty()) {
+               return;
+            }
+
+            // give the following updates of the same resources a chance to replace the queued ones
+            final long deadline = System.currentTimeMillis() + coalesceWindowMs;
+            long remaining;
+            while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+               try {
+                  lock.wait(remaining);
+               } catch (InterruptedException e) {
+                  return;
+               }
+            }
+         }
+
+         List<Event> batch;
+         while (!(batch = pollBatch()).isEmpty()) {
+            send(batch);
+         }
+      }
+   }
+
+   private List<Event> pollBatch() {
+      synchronized (lock) {
+         final List<Event> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+         final Iterator<Event> iterator = pending.values().iterator();
+         while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+         }
+         return batch;
+      }
+   }
+
+   private void send(final List<Event> batch) {
+      long backoff = retryBackoffMs;
+      for (int attempt = 0; ; attempt++) {
+         try {
+            sender.accept(batch);
+            sent.addAndGet(batch.size());
+            return;
+         } catch (Exception e) {
+            if (attempt >= maxRetries || (e instanceof SendException && !((SendException) e).isRetryable())) {
+               failed.addAndGet(batch.size());
+               log.log(Level.WARNING, "Unable to send " + batch.size() + " push notifications: ", e);
+               return;
+            }
+            retries.incrementAndGet();
+            log.log(Level.FINE, "Sending push notifications failed, retrying in " + backoff + "ms: ", e);
+            try {
+               Thread.sleep(backoff);
+            } catch (InterruptedException ie) {
+               Thread.currentThread().interrupt();
+               failed.addAndGet(batch.size());
+               return;
+            }
+            backoff *= 2;
+         }
+      }
+   }
+
+   /**
+    * Events about the same resource sent to the same channel under the same name carry the full state of the resource,
+    * so only the latest one needs to be delivered. Events without a resource id are never coalesced.
+    */
+   static Object getCoalescingKey(final Event event) {
+      Object data = event.getData();
+      if (data instanceof PusherFacade.ObjectWithParent) {
+         data = ((PusherFacade.ObjectWithParent) data).getObject();
+      }
+      if (data instanceof WithId && ((WithId) data).getId() != null) {
+         return new CoalescingKey(event.getChannel(), event.getName(), data.getClass(), ((WithId) data).getId());
+      }
+      return new Object();
+   }
+
+   private static final class CoalescingKey {
+      private final String channel;
+      private final String name;
+      private final Class<?> type;
+      private final String id;
+
+      private CoalescingKey(final String channel, final String name, final Class<?> type, final String id) {
+         this.channel = channel;
+         this.name = name;
+         this.type = type;
+         this.id = id;
+      }
+
+      @Override
+      public boolean equals(final Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof CoalescingKey)) {
+            return false;
+         }
+         final CoalescingKey that = (CoalescingKey) o;
+         return Objects.equals(channel, that.channel) && Objects.equals(name, that.name) && Objects.equals(type, that.type) && Objects.equals(id, that.id);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(channel, name, type, id);
+      }
+   }
+}
@@ -28,15 +28,19 @@ import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.marvec.pusher.Pusher;
+import org.marvec.pusher.data.BackupDataEvent;
 import org.marvec.pusher.data.Event;
 import org.marvec.pusher.data.Result;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class PusherClient {
 
@@ -48,6 +52,8 @@ public class PusherClient {
    private String secret;
    private String key;
 
+   private PushDispatcher dispatcher;
+
    public static PusherClient getInstance(final DefaultConfigurationProducer configurationProducer) {
       String pusherAppId = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_APP_ID)).orElse("");
       String pusheyKey = Optional.ofNullable(configurationProducer.get(DefaultConfigurationProducer.PUSHER_KEY)).orElse("");
@@ -77,15 +83,20 @@ public class PusherClient {
       AnnotationIntrospector pair = AnnotationIntrospector.pair(primary, secondary);
       mapper.setAnnotationIntrospector(pair);
 
-      pusher.setDataMarshaller(o -> {
-         StringWriter sw = new StringWriter();
-         try {
-            mapper.writeValue(sw, o);
-            return sw.toString();
-         } catch (IOException e) {
-            return null;
-         }
-      });
+      pusher.setDataMarshaller(o -> o instanceof SerializedData ? ((SerializedData) o).getJson() : serialize(o));
+
+      dispatcher = new PushDispatcher(this::send, this::prepare);
+   }
+
+   /**
+    * Creates a client that does not connect anywhere, subclasses are expected to override {@link #trigger(List)}.
+    * Useful for tests.
+    */
+   protected PusherClient(final String key, final String secret, final PushDispatcher.Factory dispatcherFactory) {
+      this.secret = secret;
+      this.key = key;
+
+      dispatcher = dispatcherFactory.create(this::send, events -> events);
    }
 
    public Result trigger(final String channel, final String eventName, final Object message) {
@@ -96,6 +107,75 @@ public class PusherClient {
       return pusher.trigger(notifications);
    }
 
+   /**
+    * Queues the notifications to be sent asynchronously. The event data are serialized immediately,
+    * so the caller is free to modify the data objects afterwards.
+    */
+   public void dispatch(List<Event> notifications) {
+      dispatcher.dispatch(notifications);
+   }
+
+   public PushDispatcher.Stats getDispatcherStats() {
+      return dispatcher.getStats();
+   }
+
+   /**
+    * Sends the queued notifications (waiting at most the given time) and stops the dispatcher.
+    */
+   public void close(final long timeoutMs) {
+      dispatcher.close(timeoutMs);
+   }
+
+   /**
+    * Sends the events synchronously. Pusher reports the failures in the results instead of throwing an exception,
+    * so the results are checked and the dispatcher is told whether to send the batch again.
+    * A retry sends the whole batch, the events carry the full state of the resources so the duplicates are harmless.
+    */
+   private void send(final List<Event> events) {
+      final Collection<Result> results = trigger(events);
+      if (results == null) {
+         return;
+      }
+
+      boolean retryable = false;
+      String message = null;
+      for (final Result result : results) {
+         if (result != null && result.getStatus() != Result.Status.SUCCESS) {
+            retryable |= result.getStatus().shouldRetry();
+            message = result.getStatus() + ": " + result.getMessage();
+         }
+      }
+
+      if (message != null) {
+         throw new PushDispatcher.SendException(message, retryable);
+      }
+   }
+
+   /**
+    * Serializes the data of the events. Events for many users usually share the same data object, each such object is serialized only once.
+    */
+   private List<Event> prepare(final List<Event> events) {
+      final Map<Object, SerializedData> serialized = new IdentityHashMap<>();
+      final Function<Object, Object> serializer = o -> o == null || o instanceof SerializedData ? o : serialized.computeIfAbsent(o, k -> new SerializedData(serialize(k)));
+
+      return events.stream().map(event -> {
+         if (event instanceof BackupDataEvent) {
+            return new BackupDataEvent(event.getChannel(), event.getName(), serializer.apply(event.getData()), serializer.apply(((BackupDataEvent) event).getBackupData()), event.getSocketId());
+         }
+         return new Event(event.getChannel(), event.getName(), serializer.apply(event.getData()), event.getSocketId());
+      }).collect(Collectors.toList());
+   }
+
+   private String serialize(final Object o) {
+      StringWriter sw = new StringWriter();
+      try {
+         mapper.writeValue(sw, o);
+         return sw.toString();
+      } catch (IOException e) {
+         return null;
+      }
+   }
+
    public String getSecret() {
       return secret;
    }
@@ -103,4 +183,16 @@ public class PusherClient {
    public String getKey() {
       return key;
    }
+
+   private static final class SerializedData {
+      private final String json;
+
+      private SerializedData(final String json) {
+         this.json = json;
+      }
+
+      public String getJson() {
+         return json;
+      }
+   }
 }
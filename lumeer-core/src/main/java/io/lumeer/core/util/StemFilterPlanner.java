@@ -0,0 +1,124 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.CollectionAttributeFilter;
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.api.model.ConditionValue;
+import io.lumeer.api.model.Constraint;
+import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.QueryStem;
+import io.lumeer.api.util.ResourceUtils;
+import io.lumeer.core.constraint.ConstraintManager;
+import io.lumeer.storage.api.filter.CollectionSearchAttributeFilter;
+import io.lumeer.storage.api.query.SearchQueryStem;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Splits conditions of a query stem into a part that can be evaluated by the database and a residual part.
+ * The database part only pre-selects the documents of the stem's first collection, the complete stem is still evaluated
+ * by the data filter afterwards, so the pushed conditions must never exclude a document the data filter would return.
+ */
+public class StemFilterPlanner {
+
+   private static final Set<ConstraintType> NOT_EMPTY_TYPES = Set.of(ConstraintType.None, ConstraintType.Text, ConstraintType.Number);
+   private static final Set<ConditionType> NUMBER_CONDITIONS = Set.of(ConditionType.EQUALS, ConditionType.LOWER_THAN, ConditionType.LOWER_THAN_EQUALS, ConditionType.GREATER_THAN, ConditionType.GREATER_THAN_EQUALS, ConditionType.BETWEEN);
+
+   private StemFilterPlanner() {
+   }
+
+   /**
+    * Creates a database query with the pushable conditions of the stem.
+    *
+    * @param stem                  the (decoded) query stem
+    * @param collection            first collection of the stem
+    * @param constraintManager     manager to encode the condition values to the stored form
+    * @param includeChildDocuments whether child documents of the matching documents are part of the result
+    * @return the query for the database or null when there is nothing to push down
+    */
+   public static SearchQueryStem createPushDownStem(final QueryStem stem, final Collection collection, final ConstraintManager constraintManager, boolean includeChildDocuments) {
+      // child documents don't have to meet the conditions, so we can't skip any document
+      if (includeChildDocuments || collection == null || !collection.getId().equals(stem.getCollectionId())) {
+         return null;
+      }
+
+      final Set<CollectionSearchAttributeFilter> filters = stem.getFilters().stream()
+                                                               .filter(filter -> collection.getId().equals(filter.getCollectionId()))
+                                                               .map(filter -> createPushDownFilter(filter, collection, constraintManager))
+                                                               .filter(Objects::nonNull)
+                                                               .collect(Collectors.toSet());
+
+      if (filters.isEmpty() && stem.getDocumentIds().isEmpty()) {
+         return null;
+      }
+
+      return SearchQueryStem.createBuilder(collection.getId())
+                            .filters(filters)
+                            .documentIds(stem.getDocumentIds())
+                            .build();
+   }
+
+   private static CollectionSearchAttributeFilter createPushDownFilter(final CollectionAttributeFilter filter, final Collection collection, final ConstraintManager constraintManager) {
+      final Attribute attribute = ResourceUtils.findAttribute(collection.getAttributes(), filter.getAttributeId());
+      if (attribute == null || filter.getCondition() == null || filter.getConditionValues().stream().anyMatch(value -> value.getType() != null)) {
+         return null;
+      }
+
+      final Constraint constraint = attribute.getConstraint();
+      final ConstraintType type = constraint != null && constraint.getType() != null ? constraint.getType() : ConstraintType.None;
+
+      if (filter.getCondition() == ConditionType.NOT_EMPTY && NOT_EMPTY_TYPES.contains(type)) {
+         return new CollectionSearchAttributeFilter(collection.getId(), ConditionType.NOT_EMPTY, attribute.getId(), null);
+      }
+
+      if (type == ConstraintType.Number && NUMBER_CONDITIONS.contains(filter.getCondition())) {
+         final List<Object> values = filter.getConditionValues().stream()
+                                           .map(ConditionValue::getValue)
+                                           .map(value -> value != null ? constraintManager.encode(value, constraint) : null)
+                                           .collect(Collectors.toList());
+
+         if (filter.getCondition() == ConditionType.BETWEEN) {
+            if (values.size() < 2 || !(values.get(0) instanceof Number) || !(values.get(1) instanceof Number)) {
+               return null;
+            }
+            final List<Object> range = compare((Number) values.get(0), (Number) values.get(1)) <= 0 ? Arrays.asList(values.get(0), values.get(1)) : Arrays.asList(values.get(1), values.get(0));
+            return new CollectionSearchAttributeFilter(collection.getId(), ConditionType.BETWEEN, attribute.getId(), range);
+         }
+
+         if (values.isEmpty() || !(values.get(0) instanceof Number)) {
+            return null;
+         }
+         return new CollectionSearchAttributeFilter(collection.getId(), filter.getCondition(), attribute.getId(), values.get(0));
+      }
+
+      return null;
+   }
+
+   private static int compare(final Number n1, final Number n2) {
+      return new BigDecimal(n1.toString()).compareTo(new BigDecimal(n2.toString()));
+   }
+}
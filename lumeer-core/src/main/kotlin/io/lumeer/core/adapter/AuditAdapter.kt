@@ -19,6 +19,7 @@
 package io.lumeer.core.adapter
 
 import io.lumeer.api.model.*
+import io.lumeer.core.util.AuditLogWriter
 import io.lumeer.engine.api.data.DataDocument
 import io.lumeer.storage.api.dao.AuditDao
 import io.lumeer.storage.api.dao.context.DaoContextSnapshot
@@ -30,31 +31,49 @@ private const val FREE_MAX_RECORDS: Int = 3 // number of last records available
 private const val BUSINESS_MAX_WEEKS: Long = 2 // number of last weeks of records available
 private const val UPDATE_MERGE_WINDOW_MINUTES: Long = 5 // number of minutes to merge record changes by the same originator (user or automation)
 
-class AuditAdapter(private val auditDao: AuditDao) {
+/**
+ * When [auditLogWriter] is set, created, deleted and changed records are written asynchronously in batches
+ * and the register methods return the records before they are stored. Reads wait for the queued records to be written first.
+ */
+class AuditAdapter @JvmOverloads constructor(private val auditDao: AuditDao, private val auditLogWriter: AuditLogWriter? = null, private val workspace: String? = null) {
+
+   data class DataChange(val resourceId: String, val oldState: DataDocument, val oldStateDecoded: DataDocument, val newState: DataDocument, val newStateDecoded: DataDocument)
+
+   fun getAuditRecords(userId: String, collectionIds: Set<String>, linkTypeIds: Set<String>, viewIds: Set<String>, serviceLevel: Payment.ServiceLevel): List<AuditRecord> {
+      flushQueued()
 
-   fun getAuditRecords(userId: String, collectionIds: Set<String>, linkTypeIds: Set<String>, viewIds: Set<String>, serviceLevel: Payment.ServiceLevel) =
-      if (serviceLevel == Payment.ServiceLevel.FREE)
+      return if (serviceLevel == Payment.ServiceLevel.FREE)
          auditDao.findAuditRecords(userId, collectionIds, linkTypeIds, viewIds, FREE_MAX_RECORDS)
       else
          auditDao.findAuditRecords(userId, collectionIds, linkTypeIds, viewIds, ZonedDateTime.now().minus(BUSINESS_MAX_WEEKS, ChronoUnit.WEEKS))
+   }
+
+   fun getAuditRecords(collectionIds: Set<String>, linkTypeIds: Set<String>, viewIds: Set<String>, serviceLevel: Payment.ServiceLevel): List<AuditRecord> {
+      flushQueued()
 
-   fun getAuditRecords(collectionIds: Set<String>, linkTypeIds: Set<String>, viewIds: Set<String>, serviceLevel: Payment.ServiceLevel) =
-      if (serviceLevel == Payment.ServiceLevel.FREE)
+      return if (serviceLevel == Payment.ServiceLevel.FREE)
          auditDao.findAuditRecords(collectionIds, linkTypeIds, viewIds, FREE_MAX_RECORDS)
       else
          auditDao.findAuditRecords(collectionIds, linkTypeIds, viewIds, ZonedDateTime.now().minus(BUSINESS_MAX_WEEKS, ChronoUnit.WEEKS))
+   }
 
-   fun getAuditRecords(parentId: String, resourceType: ResourceType, serviceLevel: Payment.ServiceLevel) =
-      if (serviceLevel == Payment.ServiceLevel.FREE)
+   fun getAuditRecords(parentId: String, resourceType: ResourceType, serviceLevel: Payment.ServiceLevel): List<AuditRecord> {
+      flushQueued()
+
+      return if (serviceLevel == Payment.ServiceLevel.FREE)
          auditDao.findAuditRecords(parentId, resourceType, FREE_MAX_RECORDS)
       else
          auditDao.findAuditRecords(parentId, resourceType, ZonedDateTime.now().minus(BUSINESS_MAX_WEEKS, ChronoUnit.WEEKS))
+   }
+
+   fun getAuditRecords(parentId: String, resourceType: ResourceType, resourceId: String, serviceLevel: Payment.ServiceLevel): List<AuditRecord> {
+      flushQueued()
 
-   fun getAuditRecords(parentId: String, resourceType: ResourceType, resourceId: String, serviceLevel: Payment.ServiceLevel) =
-      if (serviceLevel == Payment.ServiceLevel.FREE)
+      return if (serviceLevel == Payment.ServiceLevel.FREE)
          auditDao.findAuditRecords(parentId, resourceType, resourceId, FREE_MAX_RECORDS)
       else
          auditDao.findAuditRecords(parentId, resourceType, resourceId, ZonedDateTime.now().minus(BUSINESS_MAX_WEEKS, ChronoUnit.WEEKS))
+   }
 
    fun registerEnter(parentId: String, resourceType: ResourceType, resourceId: String, user: User?): AuditRecord {
       val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, null, null, DataDocument(), DataDocument())
@@ -66,14 +85,14 @@ class AuditAdapter(private val auditDao: AuditDao) {
       val partialOldState = DataDocument(oldState.filterKeys { it != DataDocument.ID })
       val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, viewId, automation, partialOldState, DataDocument())
       auditRecord.type = AuditType.Deleted
-      return auditDao.createAuditRecord(auditRecord)
+      return createAuditRecord(auditRecord)
    }
 
    fun registerCreate(parentId: String, resourceType: ResourceType, resourceId: String, user: User?, automation: String?, viewId: String?, newState: DataDocument): AuditRecord {
       val partialNewState = DataDocument(newState.filterKeys { it != DataDocument.ID })
       val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, viewId, automation, DataDocument(), partialNewState)
       auditRecord.type = AuditType.Created
-      return auditDao.createAuditRecord(auditRecord)
+      return createAuditRecord(auditRecord)
    }
 
    fun registerRevert(parentId: String, resourceType: ResourceType, resourceId: String, user: User?, automation: String?, viewId: String?, oldState: DataDocument, newState: DataDocument): AuditRecord {
@@ -86,21 +105,15 @@ class AuditAdapter(private val auditDao: AuditDao) {
 
    fun registerDataChange(parentId: String, resourceType: ResourceType, resourceId: String, user: User?, automation: String?, viewId: String?, oldState: DataDocument, oldStateDecoded: DataDocument, newState: DataDocument, newStateDecoded: DataDocument) =
       getChanges(oldStateDecoded, newStateDecoded).takeIf { it.isNotEmpty() }?.let { changes ->
+         if (auditLogWriter != null) {
+            auditLogWriter.writeDataChange(workspace, auditDao, parentId, resourceType, user, automation, viewId, DataChange(resourceId, oldState, oldStateDecoded, newState, newStateDecoded))
+            return@let null
+         }
+
          val lastAuditRecord = auditDao.findLatestAuditRecord(parentId, resourceType, resourceId, AuditType.Updated)
 
          if (lastAuditRecord != null && changesOverlap(lastAuditRecord, user?.id, automation, changes)) {
-            changes.keys.forEach {
-               if (!lastAuditRecord.oldState.containsKey(it) && !lastAuditRecord.newState.containsKey(it))
-                  lastAuditRecord.oldState[it] = oldState[it]
-            }
-            lastAuditRecord.newState.putAll(changes)
-            changes.keys.forEach {
-               if (lastAuditRecord.oldState[it] == lastAuditRecord.newState[it]) {
-                  lastAuditRecord.oldState.remove(it)
-                  lastAuditRecord.newState.remove(it)
-               }
-            }
-            lastAuditRecord.changeDate = ZonedDateTime.now()
+            mergeChanges(lastAuditRecord, oldState, changes)
 
             if (lastAuditRecord.newState.isEmpty()) {
                auditDao.deleteAuditRecord(lastAuditRecord.id)
@@ -108,19 +121,91 @@ class AuditAdapter(private val auditDao: AuditDao) {
             } else
                auditDao.updateAuditRecord(lastAuditRecord)
          } else {
-            // we will keep only those values that changed
-            val partialOldState = DataDocument(oldState.filterKeys { it != DataDocument.ID })
-            val oldStateKeys = HashSet(partialOldState.keys)
-            oldStateKeys.forEach {
-               if (!changes.containsKey(it)) partialOldState.remove(it)
-            }
-
-            val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, viewId, automation, partialOldState, changes)
-            auditRecord.type = AuditType.Updated
-            auditDao.createAuditRecord(auditRecord)
+            auditDao.createAuditRecord(createUpdateRecord(parentId, resourceType, resourceId, user, automation, viewId, oldState, changes))
+         }
+      }
+
+   /**
+    * Same as [registerDataChange] for many resources of the same parent, each resource must be present at most once.
+    * The latest records are read in a single query and the records are written in bulk.
+    */
+   fun registerDataChanges(parentId: String, resourceType: ResourceType, user: User?, automation: String?, viewId: String?, dataChanges: List<DataChange>): List<AuditRecord> {
+      if (auditLogWriter != null) {
+         dataChanges.forEach { auditLogWriter.writeDataChange(workspace, auditDao, parentId, resourceType, user, automation, viewId, it) }
+         return emptyList()
+      }
+
+      val changesByResource = dataChanges.mapNotNull { dataChange ->
+         getChanges(dataChange.oldStateDecoded, dataChange.newStateDecoded).takeIf { it.isNotEmpty() }?.let { dataChange to it }
+      }
+      if (changesByResource.isEmpty()) {
+         return emptyList()
+      }
+
+      val lastAuditRecords = auditDao.findLatestAuditRecords(parentId, resourceType, changesByResource.map { it.first.resourceId }.toSet(), AuditType.Updated)
+            .associateBy { it.resourceId }
+
+      val createdRecords = mutableListOf<AuditRecord>()
+      val updatedRecords = mutableListOf<AuditRecord>()
+      val deletedRecords = mutableListOf<AuditRecord>()
+
+      changesByResource.forEach { (dataChange, changes) ->
+         val lastAuditRecord = lastAuditRecords[dataChange.resourceId]
+
+         if (lastAuditRecord != null && changesOverlap(lastAuditRecord, user?.id, automation, changes)) {
+            mergeChanges(lastAuditRecord, dataChange.oldState, changes)
+
+            if (lastAuditRecord.newState.isEmpty()) deletedRecords.add(lastAuditRecord) else updatedRecords.add(lastAuditRecord)
+         } else {
+            createdRecords.add(createUpdateRecord(parentId, resourceType, dataChange.resourceId, user, automation, viewId, dataChange.oldState, changes))
          }
       }
 
+      auditDao.deleteAuditRecords(deletedRecords.map { it.id }.toSet())
+      auditDao.updateAuditRecords(updatedRecords)
+      auditDao.createAuditRecords(createdRecords)
+
+      return deletedRecords + updatedRecords + createdRecords
+   }
+
+   private fun createAuditRecord(auditRecord: AuditRecord): AuditRecord {
+      if (auditLogWriter != null) {
+         auditLogWriter.write(workspace, auditDao, auditRecord)
+         return auditRecord
+      }
+      return auditDao.createAuditRecord(auditRecord)
+   }
+
+   private fun flushQueued() = AuditLogWriter.flushInstance(AuditLogWriter.DEFAULT_FLUSH_TIMEOUT_MS)
+
+   private fun mergeChanges(lastAuditRecord: AuditRecord, oldState: DataDocument, changes: DataDocument) {
+      changes.keys.forEach {
+         if (!lastAuditRecord.oldState.containsKey(it) && !lastAuditRecord.newState.containsKey(it))
+            lastAuditRecord.oldState[it] = oldState[it]
+      }
+      lastAuditRecord.newState.putAll(changes)
+      changes.keys.forEach {
+         if (lastAuditRecord.oldState[it] == lastAuditRecord.newState[it]) {
+            lastAuditRecord.oldState.remove(it)
+            lastAuditRecord.newState.remove(it)
+         }
+      }
+      lastAuditRecord.changeDate = ZonedDateTime.now()
+   }
+
+   private fun createUpdateRecord(parentId: String, resourceType: ResourceType, resourceId: String, user: User?, automation: String?, viewId: String?, oldState: DataDocument, changes: DataDocument): AuditRecord {
+      // we will keep only those values that changed
+      val partialOldState = DataDocument(oldState.filterKeys { it != DataDocument.ID })
+      val oldStateKeys = HashSet(partialOldState.keys)
+      oldStateKeys.forEach {
+         if (!changes.containsKey(it)) partialOldState.remove(it)
+      }
+
+      val auditRecord = AuditRecord(parentId, resourceType, resourceId, ZonedDateTime.now(), user?.id, user?.name, user?.email, viewId, automation, partialOldState, changes)
+      auditRecord.type = AuditType.Updated
+      return auditRecord
+   }
+
    private fun changesOverlap(lastAuditRecord: AuditRecord, userId: String?, automation: String?, changes: DataDocument): Boolean = when {
       (StringUtils.isNotEmpty(lastAuditRecord.user) || StringUtils.isNotEmpty(userId)) && lastAuditRecord.user != userId -> false
       (StringUtils.isNotEmpty(lastAuditRecord.automation) || StringUtils.isNotEmpty(automation)) && lastAuditRecord.automation != automation -> false
@@ -145,6 +230,7 @@ class AuditAdapter(private val auditDao: AuditDao) {
    companion object {
 
       @JvmStatic
-      fun getAuditAdapter(daoContextSnapshot: DaoContextSnapshot) = AuditAdapter(daoContextSnapshot.auditDao)
+      fun getAuditAdapter(daoContextSnapshot: DaoContextSnapshot) =
+         AuditAdapter(daoContextSnapshot.auditDao, AuditLogWriter.getInstance(), daoContextSnapshot.organizationId + "/" + daoContextSnapshot.projectId)
    }
 }
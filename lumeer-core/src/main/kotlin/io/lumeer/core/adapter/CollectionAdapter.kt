@@ -31,6 +31,8 @@ class CollectionAdapter(val collectionDao: CollectionDao, val favoriteItemDao: F
 
    fun isFavorite(collectionId: String, userId: String, projectId: String): Boolean = getFavoriteCollectionIds(userId, projectId).contains(collectionId)
 
+   fun getFavoriteUserIds(collectionId: String, projectId: String): Set<String> = favoriteItemDao.getFavoriteCollectionUserIds(projectId, collectionId)
+
    fun getDocumentsCountByCollection(collectionId: String) = documentDao.getDocumentsCountByCollection(collectionId)
 
    fun getDocumentsCounts() = documentDao.documentsCounts
@@ -53,17 +55,26 @@ class CollectionAdapter(val collectionDao: CollectionDao, val favoriteItemDao: F
    }
 
    fun updateCollectionMetadata(collection: Collection, attributesIdsToInc: Set<String>, attributesIdsToDec: Set<String>) {
-      val originalCollection = collection.copy()
+      val usageCountChanges = collection.attributes.mapNotNull {
+         when {
+            attributesIdsToInc.contains(it.id) -> it.id to 1
+            attributesIdsToDec.contains(it.id) -> it.id to -1
+            else -> null
+         }
+      }.toMap()
       collection.attributes = HashSet(ResourceUtils.incOrDecAttributes(collection.attributes, attributesIdsToInc, attributesIdsToDec))
-      collection.lastTimeUsed = ZonedDateTime.now()
-      collectionDao.updateCollection(collection.id, collection, originalCollection)
+      updateAttributesUsage(collection, usageCountChanges)
    }
 
    fun updateCollectionMetadata(collection: Collection, attributesToInc: Map<String, Int>) {
-      val originalCollection = collection.copy()
       collection.attributes = HashSet(ResourceUtils.incAttributes(collection.attributes, attributesToInc))
+      updateAttributesUsage(collection, attributesToInc)
+   }
+
+   // only usage statistics change here, so they are applied as deltas without rewriting the collection and notifying about its update
+   private fun updateAttributesUsage(collection: Collection, usageCountChanges: Map<String, Int>) {
       collection.lastTimeUsed = ZonedDateTime.now()
-      collectionDao.updateCollection(collection.id, collection, originalCollection)
+      collectionDao.updateAttributesUsage(collection.id, usageCountChanges, collection.lastTimeUsed)
    }
 
 }
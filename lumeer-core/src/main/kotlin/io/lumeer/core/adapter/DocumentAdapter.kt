@@ -35,6 +35,8 @@ class DocumentAdapter(private val resourceCommentDao: ResourceCommentDao, privat
 
     fun isFavorite(documentId: String, userId: String, projectId: String): Boolean = getFavoriteDocumentIds(userId, projectId).contains(documentId)
 
+    fun getFavoriteUserIds(documentId: String, projectId: String): Set<String> = favoriteItemDao.getFavoriteDocumentUserIds(projectId, documentId)
+
     fun mapDocumentData(document: Document, userId: String, projectId: String): Document = document.apply {
         isFavorite = isFavorite(document.id, userId, projectId)
         commentsCount = getCommentsCount(document.id)
@@ -33,6 +33,25 @@ class FacadeAdapter(private val permissionAdapter: PermissionAdapter) {
       }
    }
 
+   /**
+    * Groups the users so that [mapResource] returns the same result for all users in a group.
+    */
+   fun <T : Resource> groupUsersByMappedResource(organization: Organization?, project: Project?, resource: T, userIds: Collection<String>): Collection<List<String>> {
+      val admins = getUserAdmins(organization, project, resource)
+      val groupsOrganization = if (resource is Organization) resource else organization
+      val groups = groupsOrganization?.let { permissionAdapter.getGroups(it.id) }.orEmpty()
+
+      return userIds.groupBy { userId ->
+         if (admins.contains(userId)) {
+            ADMIN_KEY
+         } else {
+            val userGroups = PermissionUtils.getUserGroups(groupsOrganization, permissionAdapter.getUser(userId), groups)
+            Pair(resource.permissions?.userPermissions?.filter { it.id == userId }.orEmpty().toSet(),
+                  resource.permissions?.groupPermissions?.filter { userGroups.contains(it.id) }.orEmpty().toSet())
+         }
+      }.values
+   }
+
    fun mapLinkType(organization: Organization?, project: Project?, linkType: LinkType, user: User): LinkType {
       if (linkType.permissionsType == LinkPermissionsType.Merge) {
          return linkType.apply { permissions = Permissions() }
@@ -101,4 +120,7 @@ class FacadeAdapter(private val permissionAdapter: PermissionAdapter) {
       }
    }
 
+   companion object {
+      private val ADMIN_KEY = Any()
+   }
 }
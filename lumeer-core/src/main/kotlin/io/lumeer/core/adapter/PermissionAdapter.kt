@@ -33,6 +33,8 @@ import io.lumeer.core.util.FunctionRuleJsParser
 import io.lumeer.core.util.LinkInstanceUtils
 import io.lumeer.core.util.QueryUtils
 import io.lumeer.storage.api.dao.*
+import java.util.BitSet
+import java.util.IdentityHashMap
 
 class PermissionAdapter(
    private val userDao: UserDao,
@@ -49,6 +51,9 @@ class PermissionAdapter(
    private val groupsCache = mutableMapOf<String, List<Group>>()
    private val linkTypes = lazy { linkTypeDao.allLinkTypes }
    private val collections = lazy { collectionDao.allCollections }
+   private val resourceStates = IdentityHashMap<Any, PermissionDecisionCache.ResourceState>()
+   private val userGroupIdsCache = mutableMapOf<Pair<String, String>, Set<String>>()
+   private val readerIndexes = mutableMapOf<List<Any?>, ReaderIndex>()
 
    private var currentViewId: String? = null
 
@@ -70,6 +75,9 @@ class PermissionAdapter(
       usersCache.clear()
       userCache.clear()
       groupsCache.clear()
+      userGroupIdsCache.clear()
+      readerIndexes.clear()
+      PermissionDecisionCache.invalidate()
    }
 
    fun invalidateCollectionCache() {
@@ -88,7 +96,10 @@ class PermissionAdapter(
    }
 
    fun getOrganizationUsersByRole(organization: Organization, roleType: RoleType): Set<String> {
-      return PermissionUtils.getOrganizationUsersByRole(organization, getUsers(organization.id), getGroups(organization.id), roleType)
+      val index = getReaderIndex(organization, null)
+      return index.toUserIds(index.getUsers(organization.id, roleType, listOf()) {
+         PermissionUtils.getOrganizationUsersByRole(organization, getUsers(organization.id), getGroups(organization.id), roleType)
+      })
    }
 
    fun getOrganizationReadersDifference(organization1: Organization, organization2: Organization): RolesDifference {
@@ -96,7 +107,13 @@ class PermissionAdapter(
    }
 
    fun getProjectUsersByRole(organization: Organization, project: Project?, roleType: RoleType): Set<String> {
-      return PermissionUtils.getProjectUsersByRole(organization, project, getUsers(organization.id), getGroups(organization.id), roleType)
+      if (project == null) {
+         return PermissionUtils.getProjectUsersByRole(organization, project, getUsers(organization.id), getGroups(organization.id), roleType)
+      }
+      val index = getReaderIndex(organization, project)
+      return index.toUserIds(index.getUsers(project.id, roleType, listOf()) {
+         PermissionUtils.getProjectUsersByRole(organization, project, getUsers(organization.id), getGroups(organization.id), roleType)
+      })
    }
 
    fun getProjectReadersDifference(organization: Organization, project1: Project, project2: Project): RolesDifference {
@@ -104,11 +121,34 @@ class PermissionAdapter(
    }
 
    fun <T : Resource> getResourceUsersByRole(organization: Organization, project: Project?, resource: T, roleType: RoleType): Set<String> {
-      return PermissionUtils.getResourceUsersByRole(organization, project, resource, getUsers(organization.id), getGroups(organization.id), roleType)
+      val index = getReaderIndex(organization, project)
+      return index.toUserIds(getResourceUsersByRole(index, organization, project, resource, roleType))
+   }
+
+   fun <T : Resource> getResourceUsersByRole(index: ReaderIndex, organization: Organization, project: Project?, resource: T, roleType: RoleType): BitSet {
+      return index.getUsers(resource.id, roleType, listOf(resource)) {
+         PermissionUtils.getResourceUsersByRole(organization, project, resource, getUsers(organization.id), getGroups(organization.id), roleType)
+      }
    }
 
    fun getLinkTypeUsersByRole(organization: Organization, project: Project?, linkType: LinkType, roleType: RoleType): Set<String> {
-      return PermissionUtils.getLinkTypeUsersByRole(organization, project, linkType, getLinkTypeCollections(linkType), getUsers(organization.id), getGroups(organization.id), roleType)
+      val index = getReaderIndex(organization, project)
+      return index.toUserIds(getLinkTypeUsersByRole(index, organization, project, linkType, roleType))
+   }
+
+   fun getLinkTypeUsersByRole(index: ReaderIndex, organization: Organization, project: Project?, linkType: LinkType, roleType: RoleType): BitSet {
+      val collections = getLinkTypeCollections(linkType)
+      return index.getUsers(linkType.id, roleType, listOf<Any?>(linkType).plus(collections)) {
+         PermissionUtils.getLinkTypeUsersByRole(organization, project, linkType, collections, getUsers(organization.id), getGroups(organization.id), roleType)
+      }
+   }
+
+   /**
+    * Returns the index of users having roles in resources of the workspace, it is shared by all requests.
+    */
+   fun getReaderIndex(organization: Organization, project: Project?): ReaderIndex {
+      val key = listOf(organization.id, organization.version, project?.id, project?.version)
+      return readerIndexes.getOrPut(key) { ReaderIndex.getIndex(organization, project, getUsers(organization.id), getGroups(organization.id)) }
    }
 
    fun <T : Resource> getResourceReadersDifference(organization: Organization?, project: Project?, resource1: T, resource2: T): RolesDifference {
@@ -133,7 +173,10 @@ class PermissionAdapter(
    }
 
    fun <T : Resource> getUserRolesInResource(organization: Organization?, project: Project?, resource: T, user: User): Set<RoleType> {
-      return PermissionUtils.getUserRolesInResource(organization, project, resource, user, getGroups(organization?.id ?: resource.id))
+      val key = PermissionDecisionCache.createKey(user.id, getUserGroupIds(organization ?: resource as? Organization, user), resourceStates, organization, project, resource)
+      return PermissionDecisionCache.getRoles(key) {
+         PermissionUtils.getUserRolesInResource(organization, project, resource, user, getGroups(organization?.id ?: resource.id))
+      }
    }
 
    fun <T : Resource> getUserRolesInResource(organization: Organization?, project: Project?, resource: T, group: Group): Set<RoleType> {
@@ -181,7 +224,10 @@ class PermissionAdapter(
    }
 
    fun getUserRolesInLinkType(organization: Organization, project: Project?, linkType: LinkType, collections: List<Collection>, user: User): Set<RoleType> {
-      return PermissionUtils.getUserRolesInLinkType(organization, project, linkType, collections, user, getGroups(organization.id))
+      val key = PermissionDecisionCache.createKey(user.id, getUserGroupIds(organization, user), resourceStates, organization, project, linkType, *collections.toTypedArray())
+      return PermissionDecisionCache.getRoles(key) {
+         PermissionUtils.getUserRolesInLinkType(organization, project, linkType, collections, user, getGroups(organization.id))
+      }
    }
 
    fun checkRole(organization: Organization?, project: Project?, resource: Resource, role: RoleType, userId: String) {
@@ -497,4 +543,11 @@ class PermissionAdapter(
       return groupsCache.computeIfAbsent(organizationId) { groupDao.getAllGroups(organizationId) }
    }
 
+   private fun getUserGroupIds(organization: Organization?, user: User): Set<String> {
+      if (organization?.id == null || user.id == null) {
+         return emptySet()
+      }
+      return userGroupIdsCache.getOrPut(organization.id to user.id) { PermissionUtils.getUserGroups(organization, user, getGroups(organization.id)) }
+   }
+
 }
@@ -0,0 +1,144 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter
+
+import io.lumeer.api.model.LinkType
+import io.lumeer.api.model.Permissions
+import io.lumeer.api.model.Role
+import io.lumeer.api.model.RoleType
+import io.lumeer.api.model.common.Resource
+import io.lumeer.engine.api.cache.CacheStats
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Role decisions shared across requests and threads. A decision is keyed by the user, the user's groups and by id, version
+ * and permissions of every resource it was computed from, so any change of permissions creates a new key. Other changes
+ * bump the epoch by [invalidate], other nodes see them after [MAX_AGE_MS] at the latest.
+ */
+object PermissionDecisionCache {
+
+   private const val MAX_SIZE = 50_000
+   private const val MAX_AGE_MS = 30_000L
+
+   data class ResourceState(val id: String, val version: Long, val permissions: PermissionsState)
+
+   /**
+    * Immutable copy of the permissions of a resource, compared by value.
+    */
+   data class PermissionsState(val users: Set<Pair<String?, Set<Role>>>, val groups: Set<Pair<String?, Set<Role>>>, val type: Any? = null)
+
+   data class Key(val epoch: Long,
+                  val userId: String,
+                  val groupIds: Set<String>,
+                  val resources: List<ResourceState?>)
+
+   private class Entry(val roles: Set<RoleType>, val created: Long)
+
+   private val evictions = AtomicLong()
+   private val hits = AtomicLong()
+   private val misses = AtomicLong()
+   private val epoch = AtomicLong()
+
+   private val entries = object : LinkedHashMap<Key, Entry>(1024, 0.75f, true) {
+      override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>?): Boolean {
+         if (size > MAX_SIZE) {
+            evictions.incrementAndGet()
+            return true
+         }
+         return false
+      }
+   }
+
+   /**
+    * Returns a key for a decision computed from the given resources and link types (null values are allowed, e.g. a missing project)
+    * or null when the decision must not be cached, because some of them was not stored yet. Copies of the permissions
+    * are memoized in [states] by identity, so they are created only once per request for every resource instance.
+    */
+   fun createKey(userId: String?, groupIds: Set<String>, states: MutableMap<Any, ResourceState>, vararg resources: Any?): Key? {
+      if (userId == null) {
+         return null
+      }
+      val resourceStates = ArrayList<ResourceState?>(resources.size)
+      for (resource in resources) {
+         if (resource == null) {
+            resourceStates.add(null)
+            continue
+         }
+         resourceStates.add(states.getOrPut(resource) { createState(resource) ?: return null })
+      }
+      return Key(epoch.get(), userId, groupIds, resourceStates)
+   }
+
+   internal fun createState(resource: Any): ResourceState? = when (resource) {
+      is Resource -> createState(resource.id, resource.version, copyPermissions(resource.permissions, null))
+      is LinkType -> createState(resource.id, resource.version, copyPermissions(resource.permissions, resource.permissionsType))
+      else -> null
+   }
+
+   private fun createState(id: String?, version: Long, permissions: PermissionsState): ResourceState? =
+         if (id.isNullOrEmpty()) null else ResourceState(id, version, permissions)
+
+   fun getRoles(key: Key?, compute: () -> Set<RoleType>): Set<RoleType> {
+      if (key == null) {
+         return compute()
+      }
+
+      val now = System.currentTimeMillis()
+      synchronized(entries) {
+         val entry = entries[key]
+         if (entry != null && now - entry.created < MAX_AGE_MS) {
+            hits.incrementAndGet()
+            return entry.roles.toMutableSet()
+         }
+      }
+
+      misses.incrementAndGet()
+      val roles = compute()
+      synchronized(entries) {
+         entries[key] = Entry(roles.toSet(), now)
+      }
+      return roles
+   }
+
+   internal fun getEpoch(): Long = epoch.get()
+
+   /**
+    * Drops all decisions, called when permissions change in a way not reflected by resource versions.
+    */
+   @JvmStatic
+   fun invalidate() {
+      epoch.incrementAndGet()
+      synchronized(entries) {
+         entries.clear()
+      }
+   }
+
+   @JvmStatic
+   fun getStats(): CacheStats {
+      val size = synchronized(entries) { entries.size.toLong() }
+      return CacheStats(size, hits.get(), misses.get(), evictions.get())
+   }
+
+   private fun copyPermissions(permissions: Permissions?, type: Any?): PermissionsState {
+      // Permission.equals() covers only the id, roles need to be compared too
+      val users = permissions?.userPermissions?.map { it.id to it.roles.orEmpty().toSet() }?.toSet().orEmpty()
+      val groups = permissions?.groupPermissions?.map { it.id to it.roles.orEmpty().toSet() }?.toSet().orEmpty()
+      return PermissionsState(users, groups, type)
+   }
+}
@@ -29,6 +29,8 @@ import io.lumeer.storage.api.dao.LinkTypeDao
 import io.lumeer.storage.api.dao.ViewDao
 import org.marvec.pusher.data.BackupDataEvent
 import org.marvec.pusher.data.Event
+import java.util.function.BiConsumer
+import java.util.function.Function
 
 class PusherAdapter(
    private val appId: AppId?,
@@ -198,22 +200,39 @@ class PusherAdapter(
       } else {
          ObjectWithParent(appId, any, organizationId, projectId)
       }
-      val extraId = when (any) {
-         is Document -> {
-            any.collectionId
-         }
-         is LinkInstance -> {
-            any.linkTypeId
-         }
-         is ResourceComment -> {
-            any.resourceType.toString() + '/' + any.resourceId
-         }
-         else -> null
-      }
-      val alternateMessage = ResourceId(appId, id, organizationId, projectId, extraId)
+      val alternateMessage = ResourceId(appId, id, organizationId, projectId, getExtraId(any))
       return createEventForObjectWithParent(normalMessage, alternateMessage, event, userId)
    }
 
+   /**
+    * Creates the same event for all the given users, the message is created only once and shared by all the events.
+    * Must not be used for objects that are mapped for each user (i.e. [LinkType]).
+    */
+   fun createEventsForWorkspaceObject(organization: Organization?, project: Project?, any: Any, id: String, event: String, userIds: kotlin.collections.Collection<String>): List<Event> {
+      val organizationId = organization?.id.orEmpty()
+      val projectId = project?.id.orEmpty()
+      if (PusherFacade.REMOVE_EVENT_SUFFIX == event) {
+         val resourceId = ResourceId(appId, id, organizationId, projectId)
+         return userIds.map { userId -> createEventForRemove(any.javaClass.simpleName, resourceId, userId) }
+      }
+      val normalMessage = ObjectWithParent(appId, any, organizationId, projectId)
+      val alternateMessage = ResourceId(appId, id, organizationId, projectId, getExtraId(any))
+      return userIds.map { userId -> createEventForObjectWithParent(normalMessage, alternateMessage, event, userId) }
+   }
+
+   private fun getExtraId(any: Any): String? = when (any) {
+      is Document -> {
+         any.collectionId
+      }
+      is LinkInstance -> {
+         any.linkTypeId
+      }
+      is ResourceComment -> {
+         any.resourceType.toString() + '/' + any.resourceId
+      }
+      else -> null
+   }
+
    fun createEventForRemove(className: String, any: ResourceId, userId: String): Event {
       return Event(PusherFacade.eventChannel(userId), className + PusherFacade.REMOVE_EVENT_SUFFIX, any, null)
    }
@@ -243,6 +262,27 @@ class PusherAdapter(
       return createEventForObjectWithParent(newObjectWithParent, getResourceId(organization, project, resource), event, userId)
    }
 
+   /**
+    * Creates events of a nested resource for all the given users. Users are grouped by the mapped permissions and by the given
+    * per user overlay (i.e. favorite flag), the resource is copied and mapped only once per group and all the events of the group share the message.
+    */
+   fun <T : Resource> createEventsForNestedResource(organization: Organization, project: Project?, resource: T, event: String, userIds: kotlin.collections.Collection<String>,
+                                                    overlay: Function<String, Any?>, applyOverlay: BiConsumer<T, Any?>): List<Event> {
+      val resourceId = getResourceId(organization, project, resource)
+      if (PusherFacade.REMOVE_EVENT_SUFFIX == event) {
+         return userIds.map { userId -> createEventForRemove(resource.javaClass.simpleName, resourceId, userId) }
+      }
+
+      return facadeAdapter.groupUsersByMappedResource(organization, project, resource, userIds).flatMap { permissionsGroup ->
+         permissionsGroup.groupBy { overlay.apply(it) }.flatMap { (overlayValue, groupUserIds) ->
+            val copy = resource.copy<T>().also { applyOverlay.accept(it, overlayValue) }
+            val mappedResource = facadeAdapter.mapResource(organization, project, copy, permissionAdapter.getUser(groupUserIds.first()))
+            val message = ObjectWithParent(appId, mappedResource, organization.id, project?.id)
+            groupUserIds.map { userId -> createEventForObjectWithParent(message, resourceId, event, userId) }
+         }
+      }
+   }
+
    fun createEventForObjectWithParent(objectWithParent: ObjectWithParent, event: String, userId: String): Event {
       return Event(eventChannel(userId), objectWithParent.`object`.javaClass.simpleName + event, objectWithParent)
    }
@@ -0,0 +1,126 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter
+
+import io.lumeer.api.model.Group
+import io.lumeer.api.model.Organization
+import io.lumeer.api.model.Project
+import io.lumeer.api.model.RoleType
+import io.lumeer.api.model.User
+import java.util.BitSet
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Users having a role in resources of a single workspace, stored as bitmaps of user ordinals. A bitmap is computed only
+ * once for every version of a resource (and the resources it depends on), so resolving readers of a resource is a lookup
+ * and unions of bitmaps instead of evaluating roles of every user. The whole index is rebuilt when the organization,
+ * the project or the organization users and groups change.
+ */
+class ReaderIndex private constructor(private val key: Key, private val userIds: Array<String>) {
+
+   data class Key(val epoch: Long,
+                  val organization: PermissionDecisionCache.ResourceState?,
+                  val project: PermissionDecisionCache.ResourceState?,
+                  val members: Members)
+
+   /**
+    * Users of the workspace in the order of their ordinals and the users of every group.
+    */
+   data class Members(val userIds: List<String?>, val groups: Set<Pair<String?, Set<String>>>)
+
+   private class Entry(val states: List<PermissionDecisionCache.ResourceState?>, val users: BitSet)
+
+   private val ordinals: Map<String, Int> = userIds.withIndex().associate { it.value to it.index }
+   private val entries = ConcurrentHashMap<String, Entry>()
+   private val created = System.currentTimeMillis()
+
+   /**
+    * Returns users having the role in the resource, [dependencies] are all the objects the result is computed from
+    * except the organization and the project (e.g. collections of a link type).
+    */
+   fun getUsers(resourceId: String?, role: RoleType, dependencies: List<Any?>, compute: () -> Set<String>): BitSet {
+      val states = dependencies.map { dependency -> dependency?.let { PermissionDecisionCache.createState(it) ?: return toBitSet(compute()) } }
+      if (resourceId == null) {
+         return toBitSet(compute())
+      }
+
+      val entryKey = "$role:$resourceId"
+      val entry = entries[entryKey]
+      if (entry != null && entry.states == states) {
+         return entry.users.clone() as BitSet
+      }
+
+      val users = toBitSet(compute())
+      entries[entryKey] = Entry(states, users)
+      return users.clone() as BitSet
+   }
+
+   fun toUserIds(users: BitSet): Set<String> {
+      val result = HashSet<String>(users.cardinality() * 2)
+      var ordinal = users.nextSetBit(0)
+      while (ordinal >= 0) {
+         result.add(userIds[ordinal])
+         ordinal = users.nextSetBit(ordinal + 1)
+      }
+      return result
+   }
+
+   fun toBitSet(users: Set<String>): BitSet {
+      val bits = BitSet(userIds.size)
+      users.forEach { userId -> ordinals[userId]?.let { bits.set(it) } }
+      return bits
+   }
+
+   companion object {
+      private const val MAX_INDEXES = 1000
+      private const val MAX_AGE_MS = 30_000L
+
+      private val indexes = object : LinkedHashMap<Pair<String, String?>, ReaderIndex>(64, 0.75f, true) {
+         override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Pair<String, String?>, ReaderIndex>?) = size > MAX_INDEXES
+      }
+
+      /**
+       * Returns the index of the workspace, users not present in [users] are never part of the results.
+       */
+      @JvmStatic
+      fun getIndex(organization: Organization, project: Project?, users: List<User>, groups: List<Group>): ReaderIndex {
+         val key = Key(PermissionDecisionCache.getEpoch(), PermissionDecisionCache.createState(organization), project?.let { PermissionDecisionCache.createState(it) }, getMembers(users, groups))
+         val workspace = organization.id to project?.id
+         val now = System.currentTimeMillis()
+
+         synchronized(indexes) {
+            val index = indexes[workspace]
+            if (index != null && index.key == key && now - index.created < MAX_AGE_MS) {
+               return index
+            }
+         }
+
+         val index = ReaderIndex(key, users.mapNotNull { it.id }.distinct().toTypedArray())
+         if (key.organization != null && (project == null || key.project != null)) {
+            synchronized(indexes) {
+               indexes[workspace] = index
+            }
+         }
+         return index
+      }
+
+      private fun getMembers(users: List<User>, groups: List<Group>): Members =
+            Members(users.map { it.id }, groups.map { it.id to it.users.orEmpty().toSet() }.toSet())
+   }
+}
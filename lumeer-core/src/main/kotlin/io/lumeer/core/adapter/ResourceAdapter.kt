@@ -26,6 +26,7 @@ import io.lumeer.storage.api.dao.CollectionDao
 import io.lumeer.storage.api.dao.LinkTypeDao
 import io.lumeer.storage.api.dao.UserDao
 import io.lumeer.storage.api.dao.ViewDao
+import java.util.BitSet
 
 class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
                       private val collectionDao: CollectionDao,
@@ -96,13 +97,17 @@ class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getCollectionReaders(organization: Organization, project: Project, collection: Collection): Set<String> {
-      val viewReaders = getCollectionTransitiveReaders(organization, project, collection.id)
-      return permissionAdapter.getResourceUsersByRole(organization, project, collection, RoleType.Read).plus(viewReaders)
+      val index = permissionAdapter.getReaderIndex(organization, project)
+      val readers = permissionAdapter.getResourceUsersByRole(index, organization, project, collection, RoleType.Read)
+      readers.or(getCollectionTransitiveReaders(index, organization, project, collection.id))
+      return index.toUserIds(readers)
    }
 
    fun getLinkTypeReaders(organization: Organization, project: Project, linkType: LinkType): Set<String> {
-      val viewReaders = getLinkTypeTransitiveReaders(organization, project, linkType.id)
-      return permissionAdapter.getLinkTypeUsersByRole(organization, project, linkType, RoleType.Read).plus(viewReaders)
+      val index = permissionAdapter.getReaderIndex(organization, project)
+      val readers = permissionAdapter.getLinkTypeUsersByRole(index, organization, project, linkType, RoleType.Read)
+      readers.or(getLinkTypeTransitiveReaders(index, organization, project, linkType.id))
+      return index.toUserIds(readers)
    }
 
    fun getDocumentReaders(organization: Organization, project: Project, collection: Collection, document: Document): Set<String> {
@@ -145,20 +150,31 @@ class ResourceAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getCollectionTransitiveReaders(organization: Organization, project: Project, collectionId: String): Set<String> {
+      val index = permissionAdapter.getReaderIndex(organization, project)
+      return index.toUserIds(getCollectionTransitiveReaders(index, organization, project, collectionId))
+   }
+
+   private fun getCollectionTransitiveReaders(index: ReaderIndex, organization: Organization, project: Project, collectionId: String): BitSet {
       val linkTypes = linkTypeDao.allLinkTypes
       val views = viewDao.allViews.filter { QueryUtils.getViewCollectionIds(it, linkTypes).contains(collectionId) }
       val linkTypesByCustomPermissions = linkTypes.filter { it.permissionsType == LinkPermissionsType.Custom && it.collectionIds.orEmpty().contains(collectionId) }
 
-      val viewsReaders = views.flatMap { permissionAdapter.getResourceUsersByRole(organization, project, it, RoleType.Read) }.toSet()
-      val linkTypeReaders = linkTypesByCustomPermissions.flatMap { permissionAdapter.getLinkTypeUsersByRole(organization, project, it, RoleType.Read)  }.toSet()
-
-      return viewsReaders.plus(linkTypeReaders)
+      val readers = BitSet()
+      views.forEach { readers.or(permissionAdapter.getResourceUsersByRole(index, organization, project, it, RoleType.Read)) }
+      linkTypesByCustomPermissions.forEach { readers.or(permissionAdapter.getLinkTypeUsersByRole(index, organization, project, it, RoleType.Read)) }
+      return readers
    }
 
    fun getLinkTypeTransitiveReaders(organization: Organization, project: Project, linkTypeId: String): Set<String> {
-      val views = viewDao.allViews.filter { it.allLinkTypeIds.contains(linkTypeId) }
+      val index = permissionAdapter.getReaderIndex(organization, project)
+      return index.toUserIds(getLinkTypeTransitiveReaders(index, organization, project, linkTypeId))
+   }
 
-      return views.flatMap { permissionAdapter.getResourceUsersByRole(organization, project, it, RoleType.Read) }.toSet()
+   private fun getLinkTypeTransitiveReaders(index: ReaderIndex, organization: Organization, project: Project, linkTypeId: String): BitSet {
+      val readers = BitSet()
+      viewDao.allViews.filter { it.allLinkTypeIds.contains(linkTypeId) }
+            .forEach { readers.or(permissionAdapter.getResourceUsersByRole(index, organization, project, it, RoleType.Read)) }
+      return readers
    }
 
    private fun filterViewsByUser(organization: Organization?, project: Project?, views: List<View>, userId: String): List<View> {
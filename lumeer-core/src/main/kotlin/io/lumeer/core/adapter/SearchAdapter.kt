@@ -48,19 +48,19 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
          documents.addAll(getContributionDocuments(collection, documentIds, userId))
       }
       if (collection.purposeType == CollectionPurposeType.Tasks) {
-         documents.addAll(getAssigneeDocuments(collection, null, null, documentIds, userId))
+         documents.addAll(getAssigneeDocuments(collection, null, documentIds, userId))
       }
       return documents
    }
 
    private fun getAllDocuments(collection: Collection, documentIds: Set<String>): List<Document> {
-      val documents = documentDao.getDocumentsByCollection(collection.id, documentIds)
-      return mapDocumentsData(collection, documents)
+      val documents = documentDao.getDocumentsWithData(collection.id, documentIds)
+      return decodeDocumentsData(collection, documents)
    }
 
    private fun getContributionDocuments(collection: Collection, documentIds: Set<String>, userId: String): List<Document> {
-      val documents = documentDao.getDocumentsByCreator(collection.id, userId, documentIds)
-      return mapDocumentsData(collection, documents)
+      val documents = documentDao.getDocumentsWithDataByCreator(collection.id, userId, documentIds)
+      return decodeDocumentsData(collection, documents)
    }
 
    fun getDocuments(organization: Organization?, project: Project?, collection: Collection, userId: String): List<Document> {
@@ -68,52 +68,88 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getDocuments(organization: Organization?, project: Project?, collection: Collection, page: Int?, limit: Int?, userId: String): List<Document> {
+      return getDocuments(organization, project, collection, Pagination(page, limit), userId)
+   }
+
+   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, pagination: Pagination, userId: String): List<Document> {
       val documents = mutableListOf<Document>()
       if (canReadAllDocuments(organization, project, collection, userId)) {
-         return getAllDocuments(collection, page, limit)
+         return getAllDocuments(collection, pagination)
       }
       if (canReadContributionDocuments(organization, project, collection, userId)) {
-         documents.addAll(getContributionDocuments(collection, page, limit, userId))
+         documents.addAll(getContributionDocuments(collection, pagination, userId))
       }
       if (collection.purposeType == CollectionPurposeType.Tasks) {
-         documents.addAll(getAssigneeDocuments(collection, page, limit, null, userId))
+         documents.addAll(getAssigneeDocuments(collection, pagination, null, userId))
       }
-      return documents
+      return mergeKeysetPage(documents, pagination) { it.id }
    }
 
-   fun getAllDocuments(collection: Collection, page: Int?, limit: Int?): List<Document> {
-      val documents = documentDao.getDocumentsByCollection(collection.id, Pagination(page, limit))
-      return mapDocumentsData(collection, documents)
+   /**
+    * A page of documents together with the id of the last record read from the database. Some records of the page may not
+    * resolve to a document (e.g. data without a document), so paging must continue after [lastId], not after the last document.
+    * [lastId] is null when nothing was read.
+    */
+   class DocumentsPage(val documents: List<Document>, val lastId: String?)
+
+   /**
+    * Returns a page of documents preselected by the database, the result is a superset of documents matching the stem.
+    */
+   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, stem: SearchQueryStem, page: Int?, limit: Int?, userId: String): List<Document> {
+      return getDocuments(organization, project, collection, stem, Pagination(page, limit), userId)
    }
 
-   private fun getContributionDocuments(collection: Collection, page: Int?, limit: Int?, userId: String): List<Document> {
-      val documents = documentDao.getDocumentsByCreator(collection.id, userId, Pagination(page, limit))
-      return mapDocumentsData(collection, documents)
+   fun getDocuments(organization: Organization?, project: Project?, collection: Collection, stem: SearchQueryStem, pagination: Pagination, userId: String): List<Document> {
+      return getDocumentsPage(organization, project, collection, stem, pagination, userId).documents
    }
 
-   private fun mapDocumentsData(collection: Collection, documents: List<Document>): List<Document> {
-      if (documents.isNotEmpty()) {
-         val data = if (documents.size < MAX_IDS_QUERY) { // large queries throw error in DB
-            dataDao.getData(collection.id, documents.map { it.id }.toSet())
-         } else {
-            dataDao.getData(collection.id)
+   fun getDocumentsPage(organization: Organization?, project: Project?, collection: Collection, stem: SearchQueryStem, pagination: Pagination, userId: String): DocumentsPage {
+      if (canReadAllDocuments(organization, project, collection, userId)) {
+         val data = dataDao.searchDataCandidates(stem, pagination, collection)
+         if (data.isNotEmpty()) {
+            val dataMap = data.associateBy { it.id }
+            val documents = documentDao.getDocumentsByCollection(collection.id, dataMap.keys)
+                  .onEach { it.data = constraintManager.decodeDataTypes(collection, dataMap.getOrDefault(it.id, DataDocument())) }
+            return DocumentsPage(mergeKeysetPage(documents, pagination) { it.id }, data.last().id)
          }
-         val dataMap = data.associateBy { it.id }
-         return documents.onEach { it.data = constraintManager.decodeDataTypes(collection, dataMap.getOrDefault(it.id, DataDocument())) }
+         return DocumentsPage(listOf(), null)
       }
-      return documents
+      return getDocumentsPage(organization, project, collection, pagination, userId)
+   }
+
+   fun getDocumentsPage(organization: Organization?, project: Project?, collection: Collection, pagination: Pagination, userId: String): DocumentsPage {
+      val documents = getDocuments(organization, project, collection, pagination, userId)
+      return DocumentsPage(documents, documents.lastOrNull()?.id)
+   }
+
+   fun getAllDocuments(collection: Collection, page: Int?, limit: Int?): List<Document> {
+      return getAllDocuments(collection, Pagination(page, limit))
+   }
+
+   fun getAllDocuments(collection: Collection, pagination: Pagination): List<Document> {
+      val documents = documentDao.getDocumentsWithData(collection.id, pagination)
+      return decodeDocumentsData(collection, documents)
+   }
+
+   private fun getContributionDocuments(collection: Collection, pagination: Pagination, userId: String): List<Document> {
+      val documents = documentDao.getDocumentsWithDataByCreator(collection.id, userId, pagination)
+      return decodeDocumentsData(collection, documents)
+   }
+
+   private fun decodeDocumentsData(collection: Collection, documents: List<Document>): List<Document> {
+      return documents.onEach { it.data = constraintManager.decodeDataTypes(collection, it.data ?: DataDocument()) }
    }
 
-   private fun getAssigneeDocuments(collection: Collection, page: Int?, limit: Int?, documentIds: Set<String>?, userId: String): List<Document> {
+   private fun getAssigneeDocuments(collection: Collection, pagination: Pagination?, documentIds: Set<String>?, userId: String): List<Document> {
       val assigneeAttribute = ResourceUtils.findAttribute(collection.attributes, collection.purpose?.assigneeAttributeId)
       if (assigneeAttribute != null) {
          val user = permissionAdapter.getUser(userId)
          val searchQuery = SearchQueryStem.createBuilder(collection.id)
                .filters(setOf(CollectionSearchAttributeFilter(collection.id, ConditionType.HAS_SOME, assigneeAttribute.id, user.email)))
                .build()
-         val data = if (documentIds != null) dataDao.searchDataByIds(searchQuery, documentIds, collection) else dataDao.searchData(searchQuery, Pagination(page, limit), collection)
+         val data = if (documentIds != null) dataDao.searchDataByIds(searchQuery, documentIds, collection) else dataDao.searchData(searchQuery, pagination, collection)
          if (data.isNotEmpty()) {
-            val documentsMap = documentDao.getDocumentsByCollection(collection.id).associateBy { it.id }
+            val documentsMap = documentDao.getDocumentsByCollection(collection.id, data.map { it.id }.toSet()).associateBy { it.id }
             return data.mapNotNull { documentsMap[it.id]?.apply { setData(constraintManager.decodeDataTypes(collection, it)) } }
          }
       }
@@ -154,23 +190,31 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
    }
 
    fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, page: Int?, limit: Int?, userId: String): List<LinkInstance> {
+      return getLinkInstances(organization, project, linkType, Pagination(page, limit), userId)
+   }
+
+   fun getLinkInstances(organization: Organization, project: Project?, linkType: LinkType, pagination: Pagination, userId: String): List<LinkInstance> {
       val linkInstances = mutableListOf<LinkInstance>()
       if (canReadAllLinkInstances(organization, project, linkType, userId)) {
-         return getAllLinkInstances(linkType, page, limit)
+         return getAllLinkInstances(linkType, pagination)
       }
       if (canReadContributionLinkInstances(organization, project, linkType, userId)) {
-         linkInstances.addAll(getContributionLinkInstances(linkType, page, limit, userId))
+         linkInstances.addAll(getContributionLinkInstances(linkType, pagination, userId))
       }
       return linkInstances
    }
 
    fun getAllLinkInstances(linkType: LinkType, page: Int?, limit: Int?): List<LinkInstance> {
-      val linkInstances = linkInstanceDao.getLinkInstancesByLinkType(linkType.id, Pagination(page, limit))
+      return getAllLinkInstances(linkType, Pagination(page, limit))
+   }
+
+   fun getAllLinkInstances(linkType: LinkType, pagination: Pagination): List<LinkInstance> {
+      val linkInstances = linkInstanceDao.getLinkInstancesByLinkType(linkType.id, pagination)
       return mapLinkData(linkType, linkInstances)
    }
 
-   private fun getContributionLinkInstances(linkType: LinkType, page: Int?, limit: Int?, userId: String): List<LinkInstance> {
-      val documents = linkInstanceDao.getLinkInstancesByCreator(linkType.id, userId, Pagination(page, limit))
+   private fun getContributionLinkInstances(linkType: LinkType, pagination: Pagination, userId: String): List<LinkInstance> {
+      val documents = linkInstanceDao.getLinkInstancesByCreator(linkType.id, userId, pagination)
       return mapLinkData(linkType, documents)
    }
 
@@ -191,6 +235,18 @@ class SearchAdapter(private val permissionAdapter: PermissionAdapter,
       return permissionAdapter.hasRoleInLinkTypeWithView(organization, project, linkType, RoleType.DataRead, userId)
    }
 
+   /**
+    * Every source of a keyset page returns its first records after the resume token ordered by id,
+    * so the page is formed by the smallest ids of all of them.
+    */
+   private fun <T> mergeKeysetPage(items: List<T>, pagination: Pagination?, id: (T) -> String): List<T> {
+      if (pagination == null || !pagination.isKeyset) {
+         return items
+      }
+      val sorted = items.distinctBy(id).sortedBy(id)
+      return pagination.pageSize?.let { sorted.take(it) } ?: sorted
+   }
+
    private fun canReadContributionLinkInstances(organization: Organization, project: Project?, linkType: LinkType, userId: String): Boolean {
       return permissionAdapter.hasRoleInLinkTypeWithView(organization, project, linkType, RoleType.DataContribute, userId)
    }
@@ -29,6 +29,8 @@ class ViewAdapter(private val resourceAdapter: ResourceAdapter, private val favo
 
    fun isFavorite(viewId: String, userId: String, projectId: String): Boolean = getFavoriteViewIds(userId, projectId).contains(viewId)
 
+   fun getFavoriteUserIds(viewId: String, projectId: String): Set<String> = favoriteItemDao.getFavoriteViewUserIds(projectId, viewId)
+
    fun mapViewsData(organization: Organization, project: Project, views: List<View>, userId: String, projectId: String): List<View> {
       val favoriteIds = getFavoriteViewIds(userId, projectId);
       return views.onEach {
@@ -38,8 +40,11 @@ class ViewAdapter(private val resourceAdapter: ResourceAdapter, private val favo
       }
    }
 
-   fun mapViewData(organization: Organization, project: Project, view: View, userId: String, projectId: String): View = view.apply {
+   fun mapViewData(organization: Organization, project: Project, view: View, userId: String, projectId: String): View = mapViewAuthorRights(organization, project, view).apply {
       isFavorite = isFavorite(view.id, userId, projectId)
+   }
+
+   fun mapViewAuthorRights(organization: Organization, project: Project, view: View): View = view.apply {
       authorCollectionsRights = resourceAdapter.getViewAuthorCollectionsRoles(organization, project, view)
       authorLinkTypesRights = resourceAdapter.getViewAuthorLinkTypesRoles(organization, project, view)
    }
@@ -0,0 +1,222 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.js
+
+import org.graalvm.polyglot.Context
+import org.graalvm.polyglot.Source
+import org.graalvm.polyglot.Value
+import java.util.concurrent.LinkedBlockingDeque
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Bounded pool of pre-initialized JS contexts. Each context has the given source already evaluated
+ * and the requested function bound, so the borrower only pays for the function call itself.
+ * A context is never used by two threads at the same time. Contexts are evicted after [maxUses] calls
+ * or after any failure so that the guest heap cannot grow without limits. When the pool stays exhausted for [borrowTimeoutMs],
+ * up to [maxOverflow] temporary contexts are created on top of it, beyond that the call fails with [ExhaustedException].
+ */
+class JsContextPool(private val name: String,
+                    private val source: Source,
+                    private val functionName: String,
+                    private val maxSize: Int = DEFAULT_MAX_SIZE,
+                    private val maxUses: Int = DEFAULT_MAX_USES,
+                    private val borrowTimeoutMs: Long = DEFAULT_BORROW_TIMEOUT_MS,
+                    private val maxOverflow: Int = maxSize) {
+
+    class ExhaustedException(message: String) : IllegalStateException(message)
+
+    class PooledContext internal constructor(val context: Context, val function: Value) {
+        internal var uses = 0
+        internal var overflow = false
+    }
+
+    data class Stats(val name: String,
+                     val size: Int,
+                     val idle: Int,
+                     val borrows: Long,
+                     val averageBorrowWaitMicros: Long,
+                     val maxBorrowWaitMicros: Long,
+                     val created: Long,
+                     val evictions: Long,
+                     val overflows: Long,
+                     val rejections: Long)
+
+    private val idle = LinkedBlockingDeque<PooledContext>()
+    private val size = AtomicInteger(0)
+    private val overflowPermits = Semaphore(maxOverflow)
+
+    private val borrows = AtomicLong(0)
+    private val borrowWaitNanos = AtomicLong(0)
+    private val maxBorrowWaitNanos = AtomicLong(0)
+    private val created = AtomicLong(0)
+    private val evictions = AtomicLong(0)
+    private val overflows = AtomicLong(0)
+    private val rejections = AtomicLong(0)
+
+    fun <T> execute(block: (Value) -> T): T {
+        val pooled = borrow()
+        var failed = true
+        try {
+            val result = block(pooled.function)
+            failed = false
+            return result
+        } finally {
+            release(pooled, failed)
+        }
+    }
+
+    fun stats(): Stats {
+        val count = borrows.get()
+        val averageWait = if (count > 0) borrowWaitNanos.get() / count / 1000 else 0
+        return Stats(name, size.get(), idle.size, count, averageWait, maxBorrowWaitNanos.get() / 1000, created.get(), evictions.get(), overflows.get(), rejections.get())
+    }
+
+    /**
+     * Creates contexts until the pool holds at least the given number of them, so the first requests don't pay for initialization.
+     */
+    fun warmUp(count: Int = 1) {
+        while (size.get() < minOf(count, maxSize)) {
+            if (reserveSlot()) {
+                idle.offerLast(createContext())
+            }
+        }
+    }
+
+    fun close() {
+        while (true) {
+            val pooled = idle.pollFirst() ?: break
+            size.decrementAndGet()
+            closeQuietly(pooled)
+        }
+    }
+
+    private fun borrow(): PooledContext {
+        val start = System.nanoTime()
+        try {
+            idle.pollFirst()?.let { return it }
+
+            if (reserveSlot()) {
+                return createContextOrFreeSlot()
+            }
+
+            idle.pollFirst(borrowTimeoutMs, TimeUnit.MILLISECONDS)?.let { return it }
+
+            // the pool is exhausted for too long, do not fail the request, but don't keep the context either
+            if (!overflowPermits.tryAcquire()) {
+                rejections.incrementAndGet()
+                throw ExhaustedException("JS context pool '$name' exhausted: $maxSize contexts and $maxOverflow overflow contexts are in use for more than ${borrowTimeoutMs}ms.")
+            }
+            overflows.incrementAndGet()
+            logger.log(Level.WARNING, "JS context pool '$name' exhausted after ${borrowTimeoutMs}ms, creating an overflow context.")
+            try {
+                return createContext().apply { overflow = true }
+            } catch (e: Exception) {
+                overflowPermits.release()
+                throw e
+            }
+        } finally {
+            recordWait(System.nanoTime() - start)
+        }
+    }
+
+    private fun release(pooled: PooledContext, failed: Boolean) {
+        if (pooled.overflow) {
+            closeQuietly(pooled)
+            overflowPermits.release()
+            return
+        }
+
+        pooled.uses++
+        if (failed || pooled.uses >= maxUses) {
+            evictions.incrementAndGet()
+            size.decrementAndGet()
+            closeQuietly(pooled)
+        } else {
+            idle.offerFirst(pooled)
+        }
+    }
+
+    private fun reserveSlot(): Boolean {
+        while (true) {
+            val current = size.get()
+            if (current >= maxSize) {
+                return false
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true
+            }
+        }
+    }
+
+    private fun createContextOrFreeSlot(): PooledContext {
+        try {
+            return createContext()
+        } catch (e: Exception) {
+            size.decrementAndGet()
+            throw e
+        }
+    }
+
+    private fun createContext(): PooledContext {
+        val context = Context
+                .newBuilder("js")
+                .engine(JsEngineFactory.getEngine())
+                .allowAllAccess(true)
+                .build()
+        try {
+            context.initialize("js")
+            context.eval(source)
+            val function = context.getBindings("js").getMember(functionName)
+                    ?: throw IllegalStateException("Function $functionName not found in ${source.name}.")
+            created.incrementAndGet()
+            return PooledContext(context, function)
+        } catch (e: Exception) {
+            context.close()
+            throw e
+        }
+    }
+
+    private fun recordWait(nanos: Long) {
+        borrows.incrementAndGet()
+        borrowWaitNanos.addAndGet(nanos)
+        maxBorrowWaitNanos.accumulateAndGet(nanos) { a, b -> maxOf(a, b) }
+    }
+
+    private fun closeQuietly(pooled: PooledContext) {
+        try {
+            pooled.context.close()
+        } catch (e: Exception) {
+            logger.log(Level.FINE, "Unable to close JS context: ", e)
+        }
+    }
+
+    companion object {
+        private val logger: Logger = Logger.getLogger(JsContextPool::class.simpleName)
+
+        @JvmField
+        val DEFAULT_MAX_SIZE = Runtime.getRuntime().availableProcessors().coerceAtLeast(2)
+        const val DEFAULT_MAX_USES = 500
+        const val DEFAULT_BORROW_TIMEOUT_MS = 5000L
+    }
+}
@@ -37,10 +37,20 @@ class DataFilter {
         }
 
         @JvmStatic
+        @JvmOverloads
         fun filterDocumentsAndLinksByQueryFromJson(documents: List<Document>,
                                                    collections: List<Collection>, linkTypes: List<LinkType>, linkInstances: List<LinkInstance>,
                                                    query: Query, collectionsPermissions: Map<String, AllowedPermissions>, linkTypesPermissions: Map<String, AllowedPermissions>,
-                                                   constraintData: ConstraintData, includeChildren: Boolean, language: Language = Language.EN): Tuple<List<Document>, List<LinkInstance>> {
+                                                   constraintData: ConstraintData, includeChildren: Boolean, language: Language = Language.EN, engine: DataFilterEngine = DataFilterEngine.JS): Tuple<List<Document>, List<LinkInstance>> {
+            if (engine == DataFilterEngine.NATIVE) {
+                val nativeTask = NativeDataFilterTask(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, includeChildren)
+                if (nativeTask.canEvaluate()) {
+                    return nativeTask.call()
+                }
+            }
+            if (engine == DataFilterEngine.JS_PROXY) {
+                return filterDocumentsAndLinksByQuery(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language)
+            }
             val task = DataFilterJsonTask(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language)
             return task.call()
         }
@@ -0,0 +1,82 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.js
+
+import io.lumeer.core.js.JsContextPool
+import org.graalvm.polyglot.Source
+import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.util.logging.Level
+import java.util.logging.Logger
+
+/**
+ * Context pools with the data filters library already evaluated, shared by all data filter tasks.
+ */
+object DataFilterContexts {
+
+    const val FILTER_JSON_JS = "filterDocumentsAndLinksIdsFromJson"
+    const val FILTER_PROXY_JS = "filterDocumentsAndLinksByQuery"
+
+    private val filterJsCode: String? = try {
+        DataFilterContexts::class.java.getResourceAsStream("/lumeer-data-filters.min.js").use { stream ->
+            String(stream.readAllBytes(), StandardCharsets.UTF_8)
+        }
+    } catch (e: Exception) {
+        null
+    }
+
+    private val jsonPool: JsContextPool? by lazy {
+        filterJsCode?.let { code ->
+            val source = Source.newBuilder("js", code.plus("; function ${FILTER_JSON_JS}(json) { return Filter.filterDocumentsAndLinksIdsFromJson(json); }"), "lumeer-data-filters-json.js").cached(true).buildLiteral()
+            JsContextPool("data-filter-json", source, FILTER_JSON_JS)
+        }
+    }
+
+    private val proxyPool: JsContextPool? by lazy {
+        filterJsCode?.let { code ->
+            val source = Source.newBuilder("js", code.plus("; function ${FILTER_PROXY_JS}(documents, collections, linkTypes, linkInstances, query, collectionPermissions, linkTypePermissions, constraintData, includeChildren, language) { return Filter.filterDocumentsAndLinksByQuery(documents, Filter.createConstraintsInCollections(collections, language), Filter.createConstraintsInLinkTypes(linkTypes, language), linkInstances, query, collectionPermissions, linkTypePermissions, constraintData, includeChildren); }"), "lumeer-data-filters-proxy.js").cached(true).buildLiteral()
+            JsContextPool("data-filter-proxy", source, FILTER_PROXY_JS)
+        }
+    }
+
+    @JvmStatic
+    fun jsonPool(): JsContextPool = jsonPool ?: throw IOException("Filters JS code not present.")
+
+    @JvmStatic
+    fun proxyPool(): JsContextPool = proxyPool ?: throw IOException("Filters JS code not present.")
+
+    /**
+     * Runs the filter and returns the empty result when it fails. Exhaustion of a context pool is rethrown, an overloaded
+     * server must not look like there is no matching data.
+     */
+    @JvmStatic
+    fun <T> filterOrEmpty(emptyResult: T, logger: Logger, filter: () -> T): T {
+        return try {
+            filter()
+        } catch (e: JsContextPool.ExhaustedException) {
+            throw e
+        } catch (e: Exception) {
+            logger.log(Level.SEVERE, "Error filtering data: ", e)
+            emptyResult
+        }
+    }
+
+    @JvmStatic
+    fun stats(): List<JsContextPool.Stats> = listOfNotNull(jsonPool?.stats(), proxyPool?.stats())
+}
@@ -64,36 +64,30 @@ data class DataFilterDecodingJsonTask(val documents: List<Document>,
         }
 
         val emptyTuple = Tuple<List<Document>, List<LinkInstance>>(emptyList(), emptyList())
-        val context = DataFilterJsonTask.getContext()
-
-        return try {
-            val filterJsValue = DataFilterJsonTask.getFunction(context)
 
+        return DataFilterContexts.filterOrEmpty(emptyTuple, logger) {
             val json = DataFilterJsonTask.convertToJson(DataFilterJson(decodedDocuments, collections, linkTypes, decodedLinks, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language.toLanguageTag()))
 
-            val result = filterJsValue.execute(json)
+            DataFilterContexts.jsonPool().execute { filterJsValue ->
+                val result = filterJsValue.execute(json)
 
-            if (result != null) {
-                val documentsMap = documents.groupBy { it.id }
-                val resultDocumentsList = mutableListOf<Document>()
-                val resultDocuments = result.getMember("documentsIds")
-                for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
+                if (result != null) {
+                    val documentsMap = documents.groupBy { it.id }
+                    val resultDocumentsList = mutableListOf<Document>()
+                    val resultDocuments = result.getMember("documentsIds")
+                    for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
 
-                val linkInstancesMap = linkInstances.groupBy { it.id }
-                val resultLinksList = mutableListOf<LinkInstance>()
-                val resultLinks = result.getMember("linkInstancesIds")
-                for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
+                    val linkInstancesMap = linkInstances.groupBy { it.id }
+                    val resultLinksList = mutableListOf<LinkInstance>()
+                    val resultLinks = result.getMember("linkInstancesIds")
+                    for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
 
-                Tuple(resultDocumentsList, resultLinksList)
-            } else {
-                logger.log(Level.SEVERE, "Error filtering data - null result.")
-                emptyTuple
+                    Tuple<List<Document>, List<LinkInstance>>(resultDocumentsList, resultLinksList)
+                } else {
+                    logger.log(Level.SEVERE, "Error filtering data - null result.")
+                    emptyTuple
+                }
             }
-        } catch (e: Exception) {
-            logger.log(Level.SEVERE, "Error filtering data: ", e)
-            emptyTuple
-        } finally {
-            context.close()
         }
     }
 
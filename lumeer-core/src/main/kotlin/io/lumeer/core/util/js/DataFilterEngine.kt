@@ -0,0 +1,42 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.js
+
+enum class DataFilterEngine {
+    /**
+     * Everything is filtered by the lumeer-data-filters JS library.
+     */
+    JS,
+
+    /**
+     * Everything is filtered by the lumeer-data-filters JS library, documents and links are exposed to the library
+     * through proxies instead of being serialized to JSON.
+     */
+    JS_PROXY,
+
+    /**
+     * Supported queries are filtered in Java, the rest falls back to JS.
+     */
+    NATIVE;
+
+    companion object {
+        @JvmStatic
+        fun fromString(value: String?): DataFilterEngine = values().find { it.name.equals(value?.trim(), ignoreCase = true) } ?: JS
+    }
+}
@@ -22,12 +22,7 @@ import com.google.gson.*
 import io.lumeer.api.model.*
 import io.lumeer.api.model.Collection
 import io.lumeer.api.model.common.Resource
-import io.lumeer.core.js.JsEngineFactory
 import io.lumeer.core.util.Tuple
-import org.graalvm.polyglot.Context
-import org.graalvm.polyglot.Value
-import java.io.IOException
-import java.nio.charset.StandardCharsets
 import java.util.concurrent.Callable
 import java.util.logging.Level
 import java.util.logging.Logger
@@ -51,90 +46,55 @@ data class DataFilterJsonTask(val documents: List<Document>,
 
     override fun call(): Tuple<List<Document>, List<LinkInstance>> {
         val emptyTuple = Tuple<List<Document>, List<LinkInstance>>(emptyList(), emptyList())
-        val context = getContext()
-
-        return try {
-            val filterJsValue = getFunction(context)
 
+        return DataFilterContexts.filterOrEmpty(emptyTuple, logger) {
             val json = convertToJson(DataFilterJson(documents, collections, linkTypes, linkInstances, query, collectionsPermissions, linkTypesPermissions, constraintData, includeChildren, language.toLanguageTag()))
 
-            val result = filterJsValue.execute(json)
+            DataFilterContexts.jsonPool().execute { filterJsValue ->
+                val result = filterJsValue.execute(json)
 
-            if (result != null) {
-                val documentsMap = documents.groupBy { it.id }
-                val resultDocumentsList = mutableListOf<Document>()
-                val resultDocuments = result.getMember("documentsIds")
-                for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
+                if (result != null) {
+                    val documentsMap = documents.groupBy { it.id }
+                    val resultDocumentsList = mutableListOf<Document>()
+                    val resultDocuments = result.getMember("documentsIds")
+                    for (i in 0 until resultDocuments.arraySize) resultDocumentsList.addAll(documentsMap[resultDocuments.getArrayElement(i).asString()].orEmpty())
 
-                val linkInstancesMap = linkInstances.groupBy { it.id }
-                val resultLinksList = mutableListOf<LinkInstance>()
-                val resultLinks = result.getMember("linkInstancesIds")
-                for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
+                    val linkInstancesMap = linkInstances.groupBy { it.id }
+                    val resultLinksList = mutableListOf<LinkInstance>()
+                    val resultLinks = result.getMember("linkInstancesIds")
+                    for (i in 0 until resultLinks.arraySize) resultLinksList.addAll(linkInstancesMap[resultLinks.getArrayElement(i).asString()].orEmpty())
 
-                Tuple(resultDocumentsList, resultLinksList)
-            } else {
-                logger.log(Level.SEVERE, "Error filtering data - null result.")
-                emptyTuple
+                    Tuple<List<Document>, List<LinkInstance>>(resultDocumentsList, resultLinksList)
+                } else {
+                    logger.log(Level.SEVERE, "Error filtering data - null result.")
+                    emptyTuple
+                }
             }
-        } catch (e: Exception) {
-            logger.log(Level.SEVERE, "Error filtering data: ", e)
-            emptyTuple
-        } finally {
-            context.close()
         }
     }
 
     companion object {
         private val logger: Logger = Logger.getLogger(DataFilterJsonTask::class.simpleName)
-        private const val FILTER_JS = "filterDocumentsAndLinksIdsFromJson"
-        private var filterJsCode: String? = null
-        private val engine = JsEngineFactory.getEngine()
-
-        fun getContext(): Context {
-            val context = Context
-                    .newBuilder("js")
-                    .engine(engine)
-                    .allowAllAccess(true)
-                    .build()
-            context.initialize("js")
-
-            return context
-        }
 
-        fun getFunction(context: Context): Value {
-            if (filterJsCode != null) {
-                context.eval("js", filterJsCode)
-                return context.getBindings("js").getMember(FILTER_JS)
-            } else {
-                throw IOException("Filters JS code not present.")
-            }
-        }
+        // fields that are sent to the filters library, all the other fields of these classes are skipped
+        private val serializedFields: Map<Class<*>, Set<String>> = mapOf(
+                Document::class.java to setOf("id", "data", "metaData", "collectionId"),
+                Collection::class.java to setOf("id", "attributes"),
+                Resource::class.java to setOf("id"),
+                LinkType::class.java to setOf("id", "attributes", "collectionIds"),
+                LinkInstance::class.java to setOf("id", "data", "linkTypeId", "documentIds"),
+                User::class.java to setOf("id", "name", "email"),
+                Attribute::class.java to setOf("id", "name", "constraint")
+        )
+
+        private val gson: Gson = createGson()
 
-        fun convertToJson(dataFilterJson: DataFilterJson): String {
+        fun convertToJson(dataFilterJson: DataFilterJson): String = gson.toJson(dataFilterJson)
+
+        private fun createGson(): Gson {
             val strategy: ExclusionStrategy = object : ExclusionStrategy {
                 override fun shouldSkipField(field: FieldAttributes): Boolean {
-                    if (field.declaringClass == Document::class.java && !listOf("id", "data", "metaData", "collectionId").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == Collection::class.java && !listOf("id", "attributes").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == Resource::class.java && !listOf("id").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == LinkType::class.java && !listOf("id", "attributes", "collectionIds").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == LinkInstance::class.java && !listOf("id", "data", "linkTypeId", "documentIds").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == User::class.java && !listOf("id", "name", "email").contains(field.name)) {
-                        return true
-                    }
-                    if (field.declaringClass == Attribute::class.java && !listOf("id", "name", "constraint").contains(field.name)) {
-                        return true
-                    }
-                    return false
+                    return serializedFields[field.declaringClass]?.contains(field.name) == false
                 }
 
                 override fun shouldSkipClass(clazz: Class<*>?): Boolean {
@@ -164,11 +124,11 @@ data class DataFilterJsonTask(val documents: List<Document>,
                 }
             }
 
-            val localDateTimeSerializer: JsonSerializer<LocalDateTime> = JsonSerializer<LocalDateTime> { dt, srcType, _ ->
+            val localDateTimeSerializer: JsonSerializer<LocalDateTime> = JsonSerializer<LocalDateTime> { dt, _, _ ->
                 JsonPrimitive(dt.toInstant(ZoneOffset.UTC).epochSecond)
             }
 
-            val zonedDateTimeSerializer2: JsonSerializer<ZonedDateTime> = JsonSerializer<ZonedDateTime> { dt, srcType, _ ->
+            val zonedDateTimeSerializer: JsonSerializer<ZonedDateTime> = JsonSerializer<ZonedDateTime> { dt, _, _ ->
                 JsonPrimitive(dt.toInstant().epochSecond)
             }
 
@@ -178,19 +138,8 @@ data class DataFilterJsonTask(val documents: List<Document>,
                     .registerTypeAdapter(Double::class.java, doubleSerializer)
                     .registerTypeAdapter(Float::class.java, floatSerializer)
                     .registerTypeAdapter(LocalDateTime::class.java, localDateTimeSerializer)
-                    .registerTypeAdapter(ZonedDateTime::class.java, zonedDateTimeSerializer2)
+                    .registerTypeAdapter(ZonedDateTime::class.java, zonedDateTimeSerializer)
                     .create()
-                    .toJson(dataFilterJson)
-        }
-
-        init {
-            try {
-                DataFilterJsonTask::class.java.getResourceAsStream("/lumeer-data-filters.min.js").use { stream ->
-                    filterJsCode = String(stream.readAllBytes(), StandardCharsets.UTF_8).plus("; function ${FILTER_JS}(json) { return Filter.filterDocumentsAndLinksIdsFromJson(json); }")
-                }
-            } catch (ioe: IOException) {
-                filterJsCode = null
-            }
         }
     }
 }
@@ -33,50 +33,28 @@ import java.time.ZoneOffset
 import java.time.ZonedDateTime
 import java.time.format.DateTimeFormatter
 import java.util.*
-import kotlin.collections.ArrayList
+import java.util.concurrent.ConcurrentHashMap
 
 class JvmObjectProxy<T>(val proxyObject: T, clazz: Class<T>, val locale: Locale = Locale.getDefault()) : ProxyObject {
-    private val fields: List<Field> = listOf(*clazz.fields)
+    private val classMembers: ClassMembers = getClassMembers(clazz)
     private val objects: MutableMap<String, Any> = mutableMapOf()
-    private val methodObjects: MutableMap<String, Any> = mutableMapOf()
-    private val methods: List<Method> = listOf(*clazz.methods)
-    private val members: MutableList<String>
-    private val membersCheck: MutableSet<String> = mutableSetOf()
-
-    init {
-        members = ArrayList()
-        members.addAll(fields.filter { !it.name.isUpperCase() }.map { it.name })
-        members.addAll(methods.filter { methodAllowed(it) && it.name.startsWith("get") }
-                .map { it.name }
-                .map { it.substring(3, 4).toLowerCase() + it.substring(4) }
-                .filter { it.isNotEmpty() }
-        )
-        membersCheck.addAll(members)
-    }
 
     override fun getMember(key: String): Any? {
         try {
-            if (objects[key] != null) {
-                return objects[key]
-            } else {
-                if (methodObjects[key] != null) {
-                    return methodObjects[key]
-                } else {
-                    val field = fields.firstOrNull { f: Field -> f.name == key }
-                    if (field != null) {
-                        val enc = encodeObject(field[proxyObject], locale)
-                        objects[key] = enc
-                        return enc
-                    }
+            objects[key]?.let { return it }
 
-                    val keyMethod = key.substring(0, 1).toUpperCase() + key.substring(1)
-                    val method = methods.firstOrNull { methodAllowed(it) && it.name == "get$keyMethod" }
-                    if (method != null) {
-                        val obj = encodeObject(method.invoke(proxyObject), locale)
-                        methodObjects[key] = obj
-                        return obj
-                    }
-                }
+            val field = classMembers.fields[key]
+            if (field != null) {
+                val enc = encodeObject(field[proxyObject], locale)
+                objects[key] = enc
+                return enc
+            }
+
+            val method = classMembers.getters[key]
+            if (method != null) {
+                val obj = encodeObject(method.invoke(proxyObject), locale)
+                objects[key] = obj
+                return obj
             }
         } catch (e: Exception) {
             return null
@@ -85,17 +63,41 @@ class JvmObjectProxy<T>(val proxyObject: T, clazz: Class<T>, val locale: Locale
         return null
     }
 
-    private fun methodAllowed(m: Method): Boolean = m.parameterCount == 0 && m.returnType != Void.TYPE
-
-    override fun getMemberKeys(): Any = members
+    override fun getMemberKeys(): Any = classMembers.members
 
-    override fun hasMember(key: String): Boolean = membersCheck.contains(key)
+    override fun hasMember(key: String): Boolean = classMembers.membersCheck.contains(key)
 
     override fun putMember(key: String, value: Value) = throw UnsupportedOperationException()
 
+    /**
+     * Reflection data of a proxied class, computed only once per class.
+     */
+    class ClassMembers(clazz: Class<*>) {
+        val fields: Map<String, Field>
+        val getters: Map<String, Method>
+        val members: List<String>
+        val membersCheck: Set<String>
+
+        init {
+            fields = clazz.fields.associateBy { it.name }
+            getters = clazz.methods.filter { methodAllowed(it) && it.name.startsWith("get") && it.name.length > 3 }
+                    .associateBy { it.name.substring(3, 4).toLowerCase() + it.name.substring(4) }
+            members = fields.keys.filter { !it.isUpperCase() } + getters.keys
+            membersCheck = members.toSet()
+        }
+
+        private fun methodAllowed(m: Method): Boolean = m.parameterCount == 0 && m.returnType != Void.TYPE
+
+        private fun String.isUpperCase(): Boolean = !toCharArray().asList().any { it.isLowerCase() }
+    }
+
     @Suppress("UNCHECKED_CAST")
     companion object {
         private val utcZone = ZoneId.ofOffset("UTC", ZoneOffset.UTC)
+        private val classMembersCache: MutableMap<Class<*>, ClassMembers> = ConcurrentHashMap()
+        private val dateFormatters: MutableMap<Locale, DateTimeFormatter> = ConcurrentHashMap()
+
+        private fun getClassMembers(clazz: Class<*>): ClassMembers = classMembersCache.computeIfAbsent(clazz) { ClassMembers(it) }
 
         fun decodeValue(value: Value): Any? {
             return if (value.isNumber) {
@@ -140,7 +142,7 @@ class JvmObjectProxy<T>(val proxyObject: T, clazz: Class<T>, val locale: Locale
                 o is Date -> {
                     val dt = ZonedDateTime.from(o.toInstant().atZone(utcZone))
                     return try {
-                        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ", locale).format(dt)
+                        dateFormatters.computeIfAbsent(locale) { DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ", it) }.format(dt)
                     } catch (dte: DateTimeException) {
                         o
                     }
@@ -181,7 +183,5 @@ class JvmObjectProxy<T>(val proxyObject: T, clazz: Class<T>, val locale: Locale
             return JvmArrayProxy(array as Array<Any?>, locale)
         }
     }
-
-    fun String.isUpperCase(): Boolean = !toCharArray().asList().any { it.isLowerCase() }
 }
 
@@ -0,0 +1,219 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.js
+
+import io.lumeer.api.model.*
+import io.lumeer.api.model.Collection
+import io.lumeer.api.util.ResourceUtils
+import io.lumeer.core.util.Tuple
+import java.math.BigDecimal
+import java.util.concurrent.Callable
+
+/**
+ * Evaluates simple queries directly in Java. Only a subset of queries is supported (single collection stem without links,
+ * no fulltexts, text, number and boolean attributes, all documents readable), callers must check [canEvaluate] first
+ * and use the JS data filter otherwise.
+ */
+data class NativeDataFilterTask(val documents: List<Document>,
+                                val collections: List<Collection>,
+                                val linkTypes: List<LinkType>,
+                                val linkInstances: List<LinkInstance>,
+                                val query: Query,
+                                val collectionsPermissions: Map<String, AllowedPermissions>,
+                                val includeChildren: Boolean) : Callable<Tuple<List<Document>, List<LinkInstance>>> {
+
+    private val stem: QueryStem? = query.stems.singleOrNull()
+    private val collection: Collection? = stem?.let { s -> collections.find { it.id == s.collectionId } }
+
+    fun canEvaluate(): Boolean {
+        if (stem == null || collection == null || query.fulltexts.isNotEmpty() || linkTypes.isNotEmpty() || linkInstances.isNotEmpty()) {
+            return false
+        }
+        if (stem.linkTypeIds.isNotEmpty() || stem.linkFilters.isNotEmpty()) {
+            return false
+        }
+        if (collectionsPermissions[collection.id]?.rolesWithView?.get(RoleType.DataRead) != true) {
+            return false
+        }
+        return stem.filters.all { filter -> filter.collectionId == collection.id && isSupported(filter) }
+    }
+
+    override fun call(): Tuple<List<Document>, List<LinkInstance>> {
+        val collection = this.collection ?: return Tuple(emptyList(), emptyList())
+        val stem = this.stem!!
+        val conditions = stem.filters.map { filter -> filter to getConstraintType(filter) }
+
+        val collectionDocuments = documents.filter { it.collectionId == collection.id }
+        val documentsById = collectionDocuments.associateBy { it.id }
+
+        fun inDocumentIds(document: Document) = stem.documentIds.isEmpty() || stem.documentIds.contains(document.id)
+        fun meets(document: Document) = conditions.all { (filter, type) -> meetsCondition(document.data?.get(filter.attributeId), filter, type) }
+        fun parentOf(document: Document) = (document.metaData?.get(Document.META_PARENT_ID) as? String)?.let { documentsById[it] }
+
+        // follows the JS filter: documents pass the filters also by their ancestors, the document ids are checked afterwards,
+        // and descendants of documents passing both directly are added
+        val meetingWithParents = HashMap<String, Boolean>(collectionDocuments.size)
+        fun meetsWithParents(document: Document, visited: MutableSet<String>): Boolean {
+            meetingWithParents[document.id]?.let { return it }
+            var result = meets(document)
+            if (!result && includeChildren && visited.add(document.id)) {
+                result = parentOf(document)?.let { meetsWithParents(it, visited) } ?: false
+            }
+            meetingWithParents[document.id] = result
+            return result
+        }
+
+        val withMatchingAncestor = HashMap<String, Boolean>(collectionDocuments.size)
+        fun hasMatchingAncestor(document: Document, visited: MutableSet<String>): Boolean {
+            withMatchingAncestor[document.id]?.let { return it }
+            var result = false
+            val parent = parentOf(document)
+            if (parent != null && visited.add(document.id)) {
+                result = (inDocumentIds(parent) && meets(parent)) || hasMatchingAncestor(parent, visited)
+            }
+            withMatchingAncestor[document.id] = result
+            return result
+        }
+
+        return Tuple(collectionDocuments.filter { document ->
+            (inDocumentIds(document) && meetsWithParents(document, mutableSetOf())) || (includeChildren && hasMatchingAncestor(document, mutableSetOf()))
+        }, emptyList())
+    }
+
+    private fun getConstraintType(filter: AttributeFilter): ConstraintType =
+            ResourceUtils.findConstraint(collection?.attributes, filter.attributeId)?.type ?: ConstraintType.None
+
+    private fun isSupported(filter: AttributeFilter): Boolean {
+        if (ResourceUtils.findAttribute(collection?.attributes, filter.attributeId) == null || filter.condition == null) {
+            return false
+        }
+        if (filter.conditionValues.any { it.type != null }) {
+            return false
+        }
+        val supportedConditions = SUPPORTED_CONDITIONS[getConstraintType(filter)] ?: return false
+        if (!supportedConditions.contains(filter.condition)) {
+            return false
+        }
+        return when (filter.condition) {
+            ConditionType.IS_EMPTY, ConditionType.NOT_EMPTY, ConditionType.ENABLED, ConditionType.DISABLED -> true
+            ConditionType.BETWEEN, ConditionType.NOT_BETWEEN -> filter.conditionValues.size >= 2 && filter.conditionValues.take(2).all { !isEmpty(it.value) }
+            else -> !isEmpty(filter.value)
+        }
+    }
+
+    private fun meetsCondition(value: Any?, filter: AttributeFilter, type: ConstraintType): Boolean {
+        return when (type) {
+            ConstraintType.Number -> meetsNumberCondition(value, filter)
+            ConstraintType.Boolean -> meetsBooleanCondition(value, filter.condition)
+            else -> meetsTextCondition(value, filter)
+        }
+    }
+
+    private fun meetsTextCondition(value: Any?, filter: AttributeFilter): Boolean {
+        val text = normalize(value)
+        val conditionText = normalize(filter.value)
+        return when (filter.condition) {
+            ConditionType.EQUALS -> text == conditionText
+            ConditionType.NOT_EQUALS -> text != conditionText
+            ConditionType.CONTAINS -> text.contains(conditionText)
+            ConditionType.NOT_CONTAINS -> !text.contains(conditionText)
+            ConditionType.STARTS_WITH -> text.startsWith(conditionText)
+            ConditionType.ENDS_WITH -> text.endsWith(conditionText)
+            ConditionType.IS_EMPTY -> text.isEmpty()
+            ConditionType.NOT_EMPTY -> text.isNotEmpty()
+            else -> false
+        }
+    }
+
+    private fun meetsNumberCondition(value: Any?, filter: AttributeFilter): Boolean {
+        val number = toNumber(value)
+        when (filter.condition) {
+            ConditionType.IS_EMPTY -> return isEmpty(value)
+            ConditionType.NOT_EMPTY -> return !isEmpty(value)
+            else -> {
+            }
+        }
+
+        val first = toNumber(filter.conditionValues.getOrNull(0)?.value)
+        if (number == null || first == null) {
+            return filter.condition == ConditionType.NOT_EQUALS && number != first
+        }
+
+        return when (filter.condition) {
+            ConditionType.EQUALS -> number.compareTo(first) == 0
+            ConditionType.NOT_EQUALS -> number.compareTo(first) != 0
+            ConditionType.LOWER_THAN -> number < first
+            ConditionType.LOWER_THAN_EQUALS -> number <= first
+            ConditionType.GREATER_THAN -> number > first
+            ConditionType.GREATER_THAN_EQUALS -> number >= first
+            ConditionType.BETWEEN, ConditionType.NOT_BETWEEN -> {
+                val second = toNumber(filter.conditionValues.getOrNull(1)?.value) ?: return false
+                val between = number >= first.min(second) && number <= first.max(second)
+                if (filter.condition == ConditionType.BETWEEN) between else !between
+            }
+            else -> false
+        }
+    }
+
+    private fun meetsBooleanCondition(value: Any?, condition: ConditionType): Boolean {
+        val enabled = value == true || value?.toString()?.trim()?.equals("true", ignoreCase = true) == true
+        return if (condition == ConditionType.ENABLED) enabled else !enabled
+    }
+
+    companion object {
+
+        private val TEXT_CONDITIONS = setOf(ConditionType.EQUALS, ConditionType.NOT_EQUALS, ConditionType.CONTAINS, ConditionType.NOT_CONTAINS,
+                ConditionType.STARTS_WITH, ConditionType.ENDS_WITH, ConditionType.IS_EMPTY, ConditionType.NOT_EMPTY)
+
+        private val NUMBER_CONDITIONS = setOf(ConditionType.EQUALS, ConditionType.NOT_EQUALS, ConditionType.LOWER_THAN, ConditionType.LOWER_THAN_EQUALS,
+                ConditionType.GREATER_THAN, ConditionType.GREATER_THAN_EQUALS, ConditionType.BETWEEN, ConditionType.NOT_BETWEEN, ConditionType.IS_EMPTY, ConditionType.NOT_EMPTY)
+
+        private val SUPPORTED_CONDITIONS = mapOf(
+                ConstraintType.None to TEXT_CONDITIONS,
+                ConstraintType.Text to TEXT_CONDITIONS,
+                ConstraintType.Number to NUMBER_CONDITIONS,
+                ConstraintType.Boolean to setOf(ConditionType.ENABLED, ConditionType.DISABLED)
+        )
+
+        @JvmStatic
+        fun isEmpty(value: Any?): Boolean = value == null || value.toString().isBlank()
+
+        /**
+         * Text form of the value as compared by text conditions (trimmed and lower case, accents are significant as in the JS filter).
+         */
+        @JvmStatic
+        fun normalize(value: Any?): String {
+            if (value == null) {
+                return ""
+            }
+            return value.toString().trim().toLowerCase()
+        }
+
+        @JvmStatic
+        fun toNumber(value: Any?): BigDecimal? {
+            return when (value) {
+                null -> null
+                is BigDecimal -> value
+                is Int, is Long, is Short, is Byte -> BigDecimal.valueOf((value as Number).toLong())
+                is Number -> if (value.toDouble().isFinite()) BigDecimal.valueOf(value.toDouble()) else null
+                else -> value.toString().trim().replace(",", ".").toBigDecimalOrNull()
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.User;
+import io.lumeer.cache.simple.SimpleCacheFactory;
+import io.lumeer.storage.api.dao.UserDao;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.Set;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserCacheTest {
+
+   private static final String ID = "5e1f0e7ad412bc2e5c2c3a01";
+   private static final String ID2 = "5e1f0e7ad412bc2e5c2c3a02";
+   private static final String ID3 = "5e1f0e7ad412bc2e5c2c3a03";
+
+   @Spy
+   private SimpleCacheFactory cacheFactory = new SimpleCacheFactory();
+
+   @Mock
+   private UserDao userDao;
+
+   @InjectMocks
+   private UserCache userCache;
+
+   @Before
+   public void initCache() {
+      userCache.initCache();
+   }
+
+   @Test
+   public void testLookupAfterUpdate() {
+      final User user = user(ID, "user@lumeer.io");
+      userCache.updateUser(user.getEmail(), user);
+
+      assertThat(userCache.getUser("user@lumeer.io")).isSameAs(user);
+      assertThat(userCache.getUserById(ID)).isSameAs(user);
+      verify(userDao, never()).getUserByEmail("user@lumeer.io");
+      verify(userDao, never()).getUserById(ID);
+   }
+
+   @Test
+   public void testChangedEmailReplacesOldEntry() {
+      final User user = user(ID, "old@lumeer.io");
+      userCache.updateUser(user.getEmail(), user);
+
+      final User renamed = user(ID, "new@lumeer.io");
+      userCache.updateUser(renamed.getEmail(), renamed);
+
+      assertThat(userCache.getUserById(ID)).isSameAs(renamed);
+      assertThat(userCache.getUser("new@lumeer.io")).isSameAs(renamed);
+
+      // the old email is not served from the cache any more
+      assertThat(userCache.getUser("old@lumeer.io")).isNull();
+      verify(userDao).getUserByEmail("old@lumeer.io");
+   }
+
+   @Test
+   public void testEmailTakenOverByAnotherId() {
+      final User user = user(ID, "user@lumeer.io");
+      userCache.updateUser(user.getEmail(), user);
+
+      final User other = user(ID2, "user@lumeer.io");
+      userCache.updateUser(other.getEmail(), other);
+
+      assertThat(userCache.getUser("user@lumeer.io")).isSameAs(other);
+      assertThat(userCache.getUserById(ID2)).isSameAs(other);
+
+      // the previous owner of the email is loaded again
+      when(userDao.getUserById(ID)).thenReturn(user(ID, "moved@lumeer.io"));
+      assertThat(userCache.getUserById(ID).getEmail()).isEqualTo("moved@lumeer.io");
+   }
+
+   @Test
+   public void testLookupAfterRemoval() {
+      final User user = user(ID, "user@lumeer.io");
+      userCache.updateUser(user.getEmail(), user);
+
+      userCache.removeUser("user@lumeer.io");
+
+      final User stored = user(ID, "user@lumeer.io");
+      when(userDao.getUserById(ID)).thenReturn(stored);
+      assertThat(userCache.getUserById(ID)).isSameAs(stored);
+
+      // loading by id fills the email index too
+      assertThat(userCache.getUser("user@lumeer.io")).isSameAs(stored);
+      verify(userDao, never()).getUserByEmail("user@lumeer.io");
+   }
+
+   @Test
+   public void testLookupByEmailFillsIdIndex() {
+      final User stored = user(ID, "user@lumeer.io");
+      when(userDao.getUserByEmail("user@lumeer.io")).thenReturn(stored);
+
+      assertThat(userCache.getUser("user@lumeer.io")).isSameAs(stored);
+      assertThat(userCache.getUserById(ID)).isSameAs(stored);
+      verify(userDao, never()).getUserById(ID);
+   }
+
+   @Test
+   public void testGetUsersByIdsLoadsOnlyMissing() {
+      final User cached = user(ID, "cached@lumeer.io");
+      userCache.updateUser(cached.getEmail(), cached);
+
+      final User loaded = user(ID2, "loaded@lumeer.io");
+      when(userDao.getUserByIds(anySet())).thenReturn(List.of(loaded));
+
+      assertThat(userCache.getUsersByIds(Set.of(ID, ID2, ID3))).containsExactlyInAnyOrder(cached, loaded);
+      verify(userDao).getUserByIds(Set.of(ID2, ID3));
+
+      // the loaded user is cached in both indexes
+      assertThat(userCache.getUser("loaded@lumeer.io")).isSameAs(loaded);
+      assertThat(userCache.getUsersByIds(Set.of(ID, ID2))).containsExactlyInAnyOrder(cached, loaded);
+      verify(userDao).getUserByIds(anySet());
+   }
+
+   private static User user(final String id, final String email) {
+      final User user = new User(email);
+      user.setId(id);
+      return user;
+   }
+}
@@ -0,0 +1,144 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.api.model.function.Function;
+import io.lumeer.core.task.executor.ChangesTracker;
+import io.lumeer.core.task.executor.FunctionTaskExecutor;
+import io.lumeer.core.task.executor.JsExecutor;
+import io.lumeer.core.task.executor.operation.DocumentOperation;
+import io.lumeer.core.task.executor.operation.Operation;
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class FunctionTaskTest {
+
+   private static final String ATTRIBUTE_ID = "a1";
+
+   private final List<Set<Operation<?>>> commits = new ArrayList<>();
+   private final List<Boolean> reportErrors = new ArrayList<>();
+   private FunctionTask task;
+
+   @Before
+   public void setUp() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID);
+      attribute.setFunction(new Function("var x = 1;", "", "", 0L, true));
+
+      final Collection collection = new Collection("C1", "c1", "", "", new Permissions());
+      collection.setId("c1");
+
+      task = new FunctionTask() {
+         @Override
+         ChangesTracker commitOperations(final TaskExecutor taskExecutor, final Set<Operation<?>> operations) {
+            commits.add(operations);
+            return new ChangesTracker();
+         }
+      };
+      task.setFunctionTask(attribute, collection, Set.of(), null);
+   }
+
+   @Test
+   public void testOperationsAreCommittedPerBatch() {
+      final List<Document> documents = documents(2 * FunctionTask.BATCH_SIZE + 1);
+
+      task.processInBatches(mock(TaskExecutor.class), new ChangesTracker(), documents, document -> executor(document, false));
+
+      assertThat(commits).hasSize(3);
+      assertThat(documentIds(commits.get(0))).isEqualTo(ids(documents.subList(0, FunctionTask.BATCH_SIZE)));
+      assertThat(documentIds(commits.get(1))).isEqualTo(ids(documents.subList(FunctionTask.BATCH_SIZE, 2 * FunctionTask.BATCH_SIZE)));
+      assertThat(documentIds(commits.get(2))).containsOnly(documents.get(2 * FunctionTask.BATCH_SIZE).getId());
+   }
+
+   @Test
+   public void testBatchOfExactSize() {
+      final List<Document> documents = documents(FunctionTask.BATCH_SIZE);
+
+      task.processInBatches(mock(TaskExecutor.class), new ChangesTracker(), documents, document -> executor(document, false));
+
+      assertThat(commits).hasSize(1);
+      assertThat(documentIds(commits.get(0))).isEqualTo(ids(documents));
+   }
+
+   @Test
+   public void testErrorIsReportedOnce() {
+      final List<Document> documents = documents(FunctionTask.BATCH_SIZE + 10);
+      final Set<String> failing = Set.of(documents.get(3).getId(), documents.get(FunctionTask.BATCH_SIZE + 5).getId());
+
+      task.processInBatches(mock(TaskExecutor.class), new ChangesTracker(), documents, document -> executor(document, failing.contains(document.getId())));
+
+      // only the records up to the first failure may write the error report
+      assertThat(reportErrors).hasSize(documents.size());
+      assertThat(reportErrors.subList(0, 4)).containsOnly(true);
+      assertThat(reportErrors.subList(4, reportErrors.size())).containsOnly(false);
+
+      // the failed records are still committed with the error value
+      assertThat(commits).hasSize(2);
+      final List<Object> errorValues = commits.stream().flatMap(Set::stream)
+                                              .filter(operation -> failing.contains(((Document) operation.getEntity()).getId()))
+                                              .map(operation -> ((DocumentOperation) operation).getValue())
+                                              .collect(Collectors.toList());
+      assertThat(errorValues).containsExactly("ERR!", "ERR!");
+   }
+
+   private FunctionTaskExecutor executor(final Document document, final boolean failing) {
+      final FunctionTaskExecutor executor = mock(FunctionTaskExecutor.class);
+      when(executor.evaluate(any(JsExecutor.Session.class), anyBoolean())).thenAnswer(invocation -> {
+         reportErrors.add(invocation.getArgument(1));
+         return Set.of(new DocumentOperation(document, ATTRIBUTE_ID, failing ? "ERR!" : "value"));
+      });
+      when(executor.isFailed()).thenReturn(failing);
+      when(executor.getChangesTracker()).thenReturn(new ChangesTracker());
+      return executor;
+   }
+
+   private static List<Document> documents(final int count) {
+      return IntStream.range(0, count).mapToObj(i -> {
+         final Document document = new Document(new DataDocument());
+         document.setId(String.format("d%04d", i));
+         document.setCollectionId("c1");
+         return document;
+      }).collect(Collectors.toList());
+   }
+
+   private static Set<String> ids(final List<Document> documents) {
+      return documents.stream().map(Document::getId).collect(Collectors.toSet());
+   }
+
+   private static Set<String> documentIds(final Set<Operation<?>> operations) {
+      return operations.stream().map(operation -> ((Document) operation.getEntity()).getId()).collect(Collectors.toSet());
+   }
+}
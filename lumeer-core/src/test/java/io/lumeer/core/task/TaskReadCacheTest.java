@@ -0,0 +1,132 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.LinkInstance;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.DataDao;
+import io.lumeer.storage.api.dao.DocumentDao;
+import io.lumeer.storage.api.dao.LinkInstanceDao;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+import io.lumeer.storage.api.query.SearchQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TaskReadCacheTest {
+
+   private DataDao dataDao;
+   private DocumentDao documentDao;
+   private LinkInstanceDao linkInstanceDao;
+   private TaskReadCache cache;
+
+   @Before
+   public void setUp() {
+      dataDao = mock(DataDao.class);
+      documentDao = mock(DocumentDao.class);
+      linkInstanceDao = mock(LinkInstanceDao.class);
+
+      final DaoContextSnapshot dao = mock(DaoContextSnapshot.class);
+      when(dao.getDataDao()).thenReturn(dataDao);
+      when(dao.getDocumentDao()).thenReturn(documentDao);
+      when(dao.getLinkInstanceDao()).thenReturn(linkInstanceDao);
+
+      when(dataDao.getData(eq("c1"), anySet())).thenAnswer(invocation -> {
+         final Set<String> ids = invocation.getArgument(1);
+         return ids.stream().map(id -> new DataDocument("a1", "value " + id).append(DataDocument.ID, id)).collect(Collectors.toList());
+      });
+      when(documentDao.getDocumentsByIds(anySet())).thenAnswer(invocation -> {
+         final Set<String> ids = invocation.getArgument(0);
+         return ids.stream().map(TaskReadCacheTest::document).collect(Collectors.toList());
+      });
+      when(linkInstanceDao.searchLinkInstances(any(SearchQuery.class))).thenReturn(List.of(link("l1", "d1", "d2"), link("l2", "d1", "d3")));
+
+      cache = new TaskReadCache(dao);
+   }
+
+   @Test
+   public void testDataAreReadOnce() {
+      assertThat(cache.getDocumentsData("c1", Set.of("d1", "d2"))).containsOnlyKeys("d1", "d2");
+      final Map<String, DataDocument> data = cache.getDocumentsData("c1", Set.of("d1", "d2", "d3"));
+      assertThat(data.get("d3").getString("a1")).isEqualTo("value d3");
+
+      verify(dataDao).getData("c1", Set.of("d1", "d2"));
+      verify(dataDao).getData("c1", Set.of("d3"));
+
+      // the callers get copies
+      data.get("d1").put("a1", "changed");
+      assertThat(cache.getDocumentsData("c1", Set.of("d1")).get("d1").getString("a1")).isEqualTo("value d1");
+   }
+
+   @Test
+   public void testInvalidation() {
+      cache.getDocuments(Set.of("d1"));
+      cache.getDocumentsData("c1", Set.of("d1"));
+
+      cache.invalidateDocument(document("d1"));
+      cache.getDocuments(Set.of("d1"));
+      cache.getDocumentsData("c1", Set.of("d1"));
+
+      verify(documentDao, times(2)).getDocumentsByIds(Set.of("d1"));
+      verify(dataDao, times(2)).getData("c1", Set.of("d1"));
+
+      cache.clear();
+      cache.getDocuments(Set.of("d1"));
+      verify(documentDao, times(3)).getDocumentsByIds(Set.of("d1"));
+   }
+
+   @Test
+   public void testLinkInstances() {
+      assertThat(cache.getLinkInstances(Set.of("d1"), "lt1")).extracting(LinkInstance::getId).containsExactlyInAnyOrder("l1", "l2");
+      assertThat(cache.getLinkInstances(Set.of("d1"), "lt1")).extracting(LinkInstance::getId).containsExactlyInAnyOrder("l1", "l2");
+      verify(linkInstanceDao, times(1)).searchLinkInstances(any(SearchQuery.class));
+
+      cache.invalidateLinkInstance(link("l3", "d1", "d4"));
+      cache.getLinkInstances(Set.of("d1"), "lt1");
+      verify(linkInstanceDao, times(2)).searchLinkInstances(any(SearchQuery.class));
+   }
+
+   private static Document document(final String id) {
+      final Document document = new Document(new DataDocument());
+      document.setId(id);
+      document.setCollectionId("c1");
+      return document;
+   }
+
+   private static LinkInstance link(final String id, final String documentId1, final String documentId2) {
+      final LinkInstance linkInstance = new LinkInstance("lt1", List.of(documentId1, documentId2));
+      linkInstance.setId(id);
+      return linkInstance;
+   }
+}
@@ -0,0 +1,127 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.api.model.function.Function;
+import io.lumeer.core.task.FunctionTask;
+import io.lumeer.core.task.TaskReadCache;
+import io.lumeer.core.task.executor.operation.DocumentOperation;
+import io.lumeer.core.task.executor.operation.Operation;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.CollectionDao;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class FunctionTaskExecutorTest {
+
+   private static final String SETTING_SCRIPT = "var lumeer = Polyglot.import('lumeer'); lumeer.setDocumentAttribute(thisDocument, 'a2', 'computed');";
+   private static final String FAILING_SCRIPT = "throw new Error('broken');";
+
+   private final Attribute attribute = new Attribute("a1");
+   private final Collection collection = new Collection("C1", "c1", "", "", new Permissions());
+   private final CollectionDao collectionDao = mock(CollectionDao.class);
+   private final FunctionTask task = mock(FunctionTask.class);
+   private boolean executorFailed;
+
+   @Before
+   public void setUp() {
+      collection.setId("c1");
+
+      final DaoContextSnapshot dao = mock(DaoContextSnapshot.class);
+      when(dao.getCollectionDao()).thenReturn(collectionDao);
+
+      when(task.getAttribute()).thenReturn(attribute);
+      when(task.getDaoContextSnapshot()).thenReturn(dao);
+      when(task.getReadCache()).thenReturn(mock(TaskReadCache.class));
+   }
+
+   @Test
+   public void testEvaluateReturnsOperations() {
+      setFunction(SETTING_SCRIPT);
+      final Set<Operation<?>> operations = evaluate(document("d1"), true);
+
+      assertThat(executorFailed).isFalse();
+      assertThat(operations).hasSize(1);
+      final DocumentOperation operation = (DocumentOperation) operations.iterator().next();
+      assertThat(operation.getEntity().getId()).isEqualTo("d1");
+      assertThat(operation.getAttrId()).isEqualTo("a2");
+      assertThat(operation.getValue()).isEqualTo("computed");
+      assertThat(attribute.getFunction().getErrorReport()).isEmpty();
+      verify(collectionDao, never()).updateCollection(any(), any(), any());
+   }
+
+   @Test
+   public void testFailedEvaluationWritesErrorOnlyWhenReported() {
+      setFunction(FAILING_SCRIPT);
+
+      final Set<Operation<?>> reported = evaluate(document("d1"), true);
+      assertError(reported, "d1");
+      assertThat(attribute.getFunction().getErrorReport()).contains("broken");
+      verify(collectionDao, times(1)).updateCollection(eq("c1"), eq(collection), any());
+
+      final Set<Operation<?>> notReported = evaluate(document("d2"), false);
+      assertError(notReported, "d2");
+      verify(collectionDao, times(1)).updateCollection(eq("c1"), eq(collection), any());
+   }
+
+   private void setFunction(final String js) {
+      attribute.setFunction(new Function(js, "", "", 0L, true));
+      when(task.getFunction()).thenReturn(attribute.getFunction());
+   }
+
+   private Set<Operation<?>> evaluate(final Document document, final boolean reportError) {
+      final FunctionTaskExecutor executor = new FunctionTaskExecutor(task, collection, document);
+      final Set<Operation<?>> operations = JsExecutor.withSession(attribute.getFunction().getJs(), session -> executor.evaluate(session, reportError));
+      executorFailed = executor.isFailed();
+      return operations;
+   }
+
+   private void assertError(final Set<Operation<?>> operations, final String documentId) {
+      assertThat(executorFailed).isTrue();
+      assertThat(operations).hasSize(1);
+      final DocumentOperation operation = (DocumentOperation) operations.iterator().next();
+      assertThat(operation.getEntity().getId()).isEqualTo(documentId);
+      assertThat(operation.getAttrId()).isEqualTo("a1");
+      assertThat(operation.getValue()).isEqualTo("ERR!");
+   }
+
+   private static Document document(final String id) {
+      final Document document = new Document(new DataDocument());
+      document.setId(id);
+      document.setCollectionId("c1");
+      return document;
+   }
+}
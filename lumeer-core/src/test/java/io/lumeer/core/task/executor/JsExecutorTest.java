@@ -0,0 +1,72 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.lumeer.core.task.ContextualTask;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class JsExecutorTest {
+
+   private static final String POLLUTING_SCRIPT = "globalThis.leaked = 42; var declared = 'yes'; Object.prototype.polluted = 'yes'; Array.prototype.includes = function() { return true; }; result.set('done');";
+   private static final String CHECKING_SCRIPT = "result.set(typeof leaked + ',' + typeof declared + ',' + ({}).polluted + ',' + [1].includes(2));";
+
+   private final ContextualTask task = mock(ContextualTask.class);
+
+   @Test
+   public void testScriptsDoNotSeeChangesOfOtherScripts() {
+      assertThat(execute(POLLUTING_SCRIPT)).isEqualTo("done");
+      assertThat(execute(CHECKING_SCRIPT)).isEqualTo("undefined,undefined,undefined,false");
+   }
+
+   @Test
+   public void testRunsInSessionDoNotSeeChangesOfPreviousRuns() {
+      final String script = "globalThis.counter = (globalThis.counter || 0) + 1; result.set('' + counter);";
+
+      JsExecutor.withSession(script, session -> {
+         for (int i = 0; i < 3; i++) {
+            final AtomicReference<String> result = new AtomicReference<>();
+            session.createExecutor().execute(Map.of("result", result), task, script);
+            assertThat(result.get()).isEqualTo("1");
+         }
+         return null;
+      });
+   }
+
+   @Test
+   public void testLibrariesAreNotShared() {
+      final String polluteLibrary = "lumeer_isEmpty = function() { return 'hacked'; }; result.set('done');";
+      final String useLibrary = "result.set('' + lumeer_isEmpty(''));";
+
+      assertThat(execute(polluteLibrary)).isEqualTo("done");
+      assertThat(execute(useLibrary)).isEqualTo("true");
+   }
+
+   private String execute(final String js) {
+      final AtomicReference<String> result = new AtomicReference<>();
+      new JsExecutor().execute(Map.of("result", result), task, js);
+      return result.get();
+   }
+}
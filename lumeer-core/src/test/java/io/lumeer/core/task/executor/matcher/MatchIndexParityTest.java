@@ -0,0 +1,131 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor.matcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.AllowedPermissions;
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.Constraint;
+import io.lumeer.api.model.ConstraintData;
+import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.CurrencyData;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Language;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.core.util.js.DataFilter;
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that the index finds the same documents as the JS data filter evaluating the match queries.
+ */
+public class MatchIndexParityTest {
+
+   private static final String ATTRIBUTE_ID = "a1";
+
+   private final ConstraintData constraintData = new ConstraintData(List.of(), null, Map.of(), new CurrencyData(List.of(), List.of()), "Europe/Bratislava", List.of(), List.of());
+
+   @Test
+   public void testTextValues() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID, "text", null, new Constraint(ConstraintType.Text, null), null, null, 0, null);
+      final List<Document> documents = documents("Lumeer", " LUMEER ", "lúmeer", "other", "", null, 5);
+
+      assertParity(new SimpleToSimpleMatch(), attribute, documents, "lumeer", "LÚMEER", " other", "missing", "5", 5);
+      assertParity(new MultiselectToSimpleMatch(), attribute, documents, List.of("lumeer", "other"));
+   }
+
+   @Test
+   public void testNoneValues() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID, "none", null, null, null, null, 0, null);
+      final List<Document> documents = documents("abc", "ABC ", "5", 5, 5.0, "xyz");
+
+      assertParity(new SimpleToSimpleMatch(), attribute, documents, "abc", "5", 5, "xyz", "missing");
+   }
+
+   @Test
+   public void testNumberValues() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID, "number", null, new Constraint(ConstraintType.Number, null), null, null, 0, null);
+      final List<Document> documents = documents(10, "10.0", " 10 ", "10,0", 5.5, -3, "abc");
+
+      assertParity(new SimpleToSimpleMatch(), attribute, documents, 10, 10L, "10", 5.5, "5,5", -3, 7);
+   }
+
+   @Test
+   public void testSelectValues() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID, "select", null, new Constraint(ConstraintType.Select, selectConfig(false)), null, null, 0, null);
+      final List<Document> documents = documents("a", "b", "1", 1, "x", "A", List.of("a", "b"), null);
+
+      assertParity(new SimpleToSimpleMatch(), attribute, documents, "a", "b", "1", 1, "x", "A", "missing");
+      assertParity(new MultiselectToSimpleMatch(), attribute, documents, List.of("a", "x"), List.of("b", "1"));
+   }
+
+   @Test
+   public void testMultiselectValues() {
+      final Attribute attribute = new Attribute(ATTRIBUTE_ID, "select", null, new Constraint(ConstraintType.Select, selectConfig(true)), null, null, 0, null);
+      final List<Document> documents = documents(List.of("a", "b"), List.of("b", "c"), List.of("c", "x"), "c", List.of(), List.of("A"));
+
+      assertParity(new SimpleToMultiselectMatch(), attribute, documents, "a", "b", "c", "x", "A", "missing");
+      assertParity(new MultiselectToMultiselectMatch(), attribute, documents, List.of("b", "c"), List.of("c"), List.of("x"), List.of("a", "missing"));
+   }
+
+   private void assertParity(final MatchQueryProvider provider, final Attribute attribute, final List<Document> documents, final Object... values) {
+      final Collection collection = new Collection("C1", "c1", "", "", new Permissions());
+      collection.setId("c1");
+      collection.setAttributes(List.of(attribute));
+      documents.forEach(document -> document.setCollectionId(collection.getId()));
+
+      final MatchIndex index = new MatchIndex(attribute, documents);
+      assertThat(index.isUsable()).isTrue();
+
+      for (final Object value : values) {
+         final Set<String> indexed = provider.getMatchingDocumentIds(index, value);
+         if (indexed == null) {
+            // the index can't answer, the filter is used
+            continue;
+         }
+
+         final List<Document> filtered = DataFilter.filterDocumentsAndLinksByQueryDecodingFromJson(documents, List.of(collection), List.of(), List.of(),
+               provider.getMatchQuery(collection, attribute, value), Map.of(collection.getId(), AllowedPermissions.allAllowed()), Map.of(), constraintData, true, Language.EN).getFirst();
+
+         assertThat(indexed).describedAs("%s %s", provider.getClass().getSimpleName(), value)
+                            .containsExactlyInAnyOrderElementsOf(filtered.stream().map(Document::getId).collect(Collectors.toList()));
+      }
+   }
+
+   private static Map<String, Object> selectConfig(final boolean multi) {
+      return Map.of("multi", multi, "options", List.of(Map.of("value", "a"), Map.of("value", "b"), Map.of("value", "c"), Map.of("value", "1")));
+   }
+
+   private static List<Document> documents(final Object... values) {
+      return IntStream.range(0, values.length).mapToObj(i -> {
+         final Document document = new Document(new DataDocument(ATTRIBUTE_ID, values[i]));
+         document.setId("d" + i);
+         return document;
+      }).collect(Collectors.toList());
+   }
+}
@@ -0,0 +1,116 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.task.executor.matcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Constraint;
+import io.lumeer.api.model.ConstraintType;
+import io.lumeer.api.model.Document;
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class MatchIndexTest {
+
+   private static final String ATTRIBUTE_ID = "a1";
+
+   private final Attribute textAttribute = new Attribute(ATTRIBUTE_ID, "text", null, new Constraint(ConstraintType.Text, null), null, null, 0, null);
+   private final Attribute numberAttribute = new Attribute(ATTRIBUTE_ID, "number", null, new Constraint(ConstraintType.Number, null), null, null, 0, null);
+   private final Attribute multiselectAttribute = new Attribute(ATTRIBUTE_ID, "select", null, new Constraint(ConstraintType.Select, Map.of("multi", true)), null, null, 0, null);
+   private final Attribute dateAttribute = new Attribute(ATTRIBUTE_ID, "date", null, new Constraint(ConstraintType.DateTime, null), null, null, 0, null);
+
+   @Test
+   public void testTextValues() {
+      final MatchIndex index = new MatchIndex(textAttribute, List.of(document("d1", "Lumeer"), document("d2", " LUMEER "), document("d3", "lúmeer"), document("d4", "other"), document("d5", null)));
+
+      assertThat(index.isUsable()).isTrue();
+      assertThat(index.getDocumentIds("lumeer")).containsOnly("d1", "d2");
+      assertThat(index.getDocumentIds("LÚMEER")).containsOnly("d3");
+      assertThat(index.getDocumentIds("none")).isEmpty();
+      assertThat(index.getDocumentIds("")).isNull();
+      assertThat(index.getDocumentIdsWithSome(List.of("lumeer", "other"))).isNull();
+   }
+
+   @Test
+   public void testNumberValues() {
+      final MatchIndex index = new MatchIndex(numberAttribute, List.of(document("d1", 10), document("d2", "10.0"), document("d3", 5.5)));
+
+      assertThat(index.getDocumentIds(10L)).containsOnly("d1", "d2");
+      assertThat(index.getDocumentIds("5,5")).containsOnly("d3");
+      assertThat(index.getDocumentIds("abc")).isNull();
+   }
+
+   @Test
+   public void testSelectValues() {
+      final Attribute selectAttribute = new Attribute(ATTRIBUTE_ID, "select", null, new Constraint(ConstraintType.Select, Map.of("options", List.of(Map.of("value", "a"), Map.of("value", "1")))), null, null, 0, null);
+      final MatchIndex index = new MatchIndex(selectAttribute, List.of(document("d1", "a"), document("d2", 1), document("d3", "1"), document("d4", "A")));
+
+      assertThat(index.isUsable()).isTrue();
+      assertThat(index.getDocumentIds("a")).containsOnly("d1");
+      assertThat(index.getDocumentIds(1)).containsOnly("d2", "d3");
+      assertThat(index.getDocumentIds("A")).containsOnly("d4");
+      assertThat(index.getDocumentIdsWithSome(List.of("a", "1"))).containsOnly("d1", "d2", "d3");
+   }
+
+   @Test
+   public void testSelectionListIsNotIndexed() {
+      final Attribute selectAttribute = new Attribute(ATTRIBUTE_ID, "select", null, new Constraint(ConstraintType.Select, Map.of("selectionListId", "l1")), null, null, 0, null);
+
+      assertThat(new MatchIndex(selectAttribute, List.of(document("d1", "a"))).isUsable()).isFalse();
+   }
+
+   @Test
+   public void testMultiselectValues() {
+      final MatchIndex index = new MatchIndex(multiselectAttribute, List.of(document("d1", List.of("a", "b")), document("d2", List.of("b", "c")), document("d3", List.of("c"))));
+
+      assertThat(index.getDocumentIds("b")).containsOnly("d1", "d2");
+      assertThat(index.getDocumentIdsWithSome(List.of("a", "c"))).containsOnly("d1", "d2", "d3");
+      assertThat(index.getDocumentIdsWithAll(List.of("b", "c"))).containsOnly("d2");
+      assertThat(index.getDocumentIdsWithAll(List.of())).isNull();
+   }
+
+   @Test
+   public void testChildrenAreMatching() {
+      final Document child = document("d2", "other");
+      child.setMetaData(new DataDocument(Document.META_PARENT_ID, "d1"));
+      final Document grandChild = document("d3", "another");
+      grandChild.setMetaData(new DataDocument(Document.META_PARENT_ID, "d2"));
+
+      final MatchIndex index = new MatchIndex(textAttribute, List.of(document("d1", "lumeer"), child, grandChild));
+
+      assertThat(index.getDocumentIds("lumeer")).containsOnly("d1", "d2", "d3");
+      assertThat(index.getDocumentIds("another")).containsOnly("d3");
+   }
+
+   @Test
+   public void testUnsupportedConstraint() {
+      assertThat(new MatchIndex(dateAttribute, List.of(document("d1", "2020-01-01"))).isUsable()).isFalse();
+   }
+
+   private static Document document(final String id, final Object value) {
+      final Document document = new Document(new DataDocument(ATTRIBUTE_ID, value));
+      document.setId(id);
+      return document;
+   }
+}
@@ -0,0 +1,170 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.lumeer.api.model.AuditRecord;
+import io.lumeer.api.model.AuditType;
+import io.lumeer.api.model.ResourceType;
+import io.lumeer.api.model.User;
+import io.lumeer.core.adapter.AuditAdapter;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.AuditDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+public class AuditLogWriterTest {
+
+   private static final String WORKSPACE = "org/project";
+
+   private final List<List<AuditRecord>> insertedBatches = new CopyOnWriteArrayList<>();
+   private AuditDao auditDao;
+   private AuditLogWriter writer;
+
+   @Before
+   public void setUp() {
+      auditDao = mock(AuditDao.class);
+      when(auditDao.createAuditRecords(anyList())).thenAnswer(invocation -> {
+         final List<AuditRecord> records = invocation.getArgument(0);
+         if (!records.isEmpty()) {
+            insertedBatches.add(records);
+         }
+         return records;
+      });
+      when(auditDao.findLatestAuditRecords(anyString(), any(ResourceType.class), anySet(), eq(AuditType.Updated))).thenReturn(Collections.emptyList());
+   }
+
+   @After
+   public void closeWriter() {
+      if (writer != null) {
+         writer.close(1000);
+      }
+   }
+
+   @Test
+   public void testRecordsAreWrittenInBatches() {
+      writer = new AuditLogWriter(100, 10_000, 5);
+
+      for (int i = 0; i < 12; i++) {
+         writer.write(WORKSPACE, auditDao, record("d" + i));
+      }
+      writer.flush(2000);
+
+      assertThat(insertedBatches.stream().mapToInt(List::size).sum()).isEqualTo(12);
+      assertThat(insertedBatches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(5));
+      assertThat(writer.getStats().getQueueDepth()).isZero();
+      assertThat(writer.getStats().getWritten()).isEqualTo(12);
+   }
+
+   @Test
+   public void testConsecutiveChangesAreMerged() {
+      writer = new AuditLogWriter(100, 10_000, 100);
+      final User user = new User("u1", "user", "user@lumeer.io", Collections.emptySet());
+
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user, null, null, change("d1", "a", "b"));
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user, null, null, change("d1", "b", "c"));
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user, null, null, change("d2", "x", "y"));
+      writer.flush(2000);
+
+      assertThat(writer.getStats().getMerged()).isEqualTo(1);
+      assertThat(insertedBatches).hasSize(1);
+      final List<AuditRecord> records = insertedBatches.get(0);
+      assertThat(records).extracting(AuditRecord::getResourceId).containsExactly("d1", "d2");
+      assertThat(records.get(0).getOldState()).containsEntry("a1", "a");
+      assertThat(records.get(0).getNewState()).containsEntry("a1", "c");
+   }
+
+   @Test
+   public void testChangesAreNotMergedOverOtherUserChange() {
+      writer = new AuditLogWriter(100, 10_000, 100);
+      final User user1 = new User("u1", "user1", "user1@lumeer.io", Collections.emptySet());
+      final User user2 = new User("u2", "user2", "user2@lumeer.io", Collections.emptySet());
+
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user1, null, null, change("d1", "a", "b"));
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user2, null, null, change("d1", "b", "c"));
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user1, null, null, change("d1", "c", "d"));
+      writer.flush(2000);
+
+      assertThat(writer.getStats().getMerged()).isZero();
+      final List<AuditRecord> records = insertedBatches.stream().flatMap(List::stream).collect(Collectors.toList());
+      assertThat(records).extracting(AuditRecord::getUser).containsExactly("u1", "u2", "u1");
+      assertThat(records).extracting(record -> record.getNewState().getString("a1")).containsExactly("b", "c", "d");
+   }
+
+   @Test
+   public void testRecordsAreWrittenInQueueOrder() {
+      writer = new AuditLogWriter(100, 10_000, 100);
+      final User user = new User("u1", "user", "user@lumeer.io", Collections.emptySet());
+
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user, null, null, change("d1", "a", "b"));
+      final AuditRecord deleted = record("d1");
+      deleted.setType(AuditType.Deleted);
+      writer.write(WORKSPACE, auditDao, deleted);
+      // the document is gone, the change must not be merged into the update queued before the deletion
+      writer.writeDataChange(WORKSPACE, auditDao, "c1", ResourceType.DOCUMENT, user, null, null, change("d1", "b", "c"));
+      writer.flush(2000);
+
+      assertThat(writer.getStats().getMerged()).isZero();
+      final List<AuditRecord> records = insertedBatches.stream().flatMap(List::stream).collect(Collectors.toList());
+      assertThat(records).extracting(AuditRecord::getType).containsExactly(AuditType.Updated, AuditType.Deleted, AuditType.Updated);
+   }
+
+   @Test
+   public void testRecordsAreWrittenOnClose() {
+      writer = new AuditLogWriter(100, 10_000, 100);
+
+      writer.write(WORKSPACE, auditDao, record("d1"));
+      writer.close(2000);
+
+      assertThat(insertedBatches).hasSize(1);
+
+      // the writer is closed, the record is written synchronously
+      writer.write(WORKSPACE, auditDao, record("d2"));
+      assertThat(insertedBatches).hasSize(2);
+      assertThat(writer.getStats().getSynchronous()).isEqualTo(1);
+   }
+
+   private static AuditRecord record(final String resourceId) {
+      final AuditRecord record = new AuditRecord("c1", ResourceType.DOCUMENT, resourceId, ZonedDateTime.now(), "u1", "user", "user@lumeer.io", null, null, new DataDocument(), new DataDocument("a1", "value"));
+      record.setType(AuditType.Created);
+      return record;
+   }
+
+   private static AuditAdapter.DataChange change(final String resourceId, final String oldValue, final String newValue) {
+      final DataDocument oldState = new DataDocument("a1", oldValue);
+      final DataDocument newState = new DataDocument("a1", newValue);
+      return new AuditAdapter.DataChange(resourceId, oldState, oldState, newState, newState);
+   }
+}
@@ -0,0 +1,167 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.AppId;
+import io.lumeer.api.model.Document;
+import io.lumeer.core.facade.PusherFacade;
+import io.lumeer.engine.api.data.DataDocument;
+
+import org.junit.After;
+import org.junit.Test;
+import org.marvec.pusher.data.Event;
+import org.marvec.pusher.data.Result;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PushDispatcherTest {
+
+   private static final AppId APP_ID = new AppId("app");
+
+   private StubPusherClient client;
+
+   @After
+   public void closeClient() {
+      if (client != null) {
+         client.close(1000);
+      }
+   }
+
+   @Test
+   public void testCoalescing() throws Exception {
+      client = new StubPusherClient(0, (sender, preparer) -> new PushDispatcher(sender, preparer, 100, 100, 10, 0, 1));
+
+      IntStream.range(0, 10).forEach(i -> client.dispatch(List.of(documentEvent("user1", "d1", i))));
+      client.dispatch(List.of(documentEvent("user2", "d1", 10), new Event("user1", "Reload", "d1", null)));
+
+      waitFor(() -> client.getDispatcherStats().getSent() == 3);
+
+      assertThat(client.sent).hasSize(3);
+      final Event documentEvent = client.sent.get(0);
+      assertThat(documentEvent.getChannel()).isEqualTo("user1");
+      assertThat(((Document) ((PusherFacade.ObjectWithParent) documentEvent.getData()).getObject()).getData().getInteger("a1")).isEqualTo(9);
+      assertThat(client.sent.stream().map(Event::getChannel).collect(Collectors.toList())).containsExactly("user1", "user2", "user1");
+
+      final PushDispatcher.Stats stats = client.getDispatcherStats();
+      assertThat(stats.getCoalesced()).isEqualTo(9);
+      assertThat(stats.getQueueDepth()).isEqualTo(0);
+      assertThat(stats.getDropped()).isEqualTo(0);
+   }
+
+   @Test
+   public void testDropWhenFull() throws Exception {
+      client = new StubPusherClient(0, (sender, preparer) -> new PushDispatcher(sender, preparer, 5, 200, 10, 0, 1));
+
+      final List<Event> events = new ArrayList<>();
+      IntStream.range(0, 8).forEach(i -> events.add(documentEvent("user1", "d" + i, i)));
+      client.dispatch(events);
+
+      assertThat(client.getDispatcherStats().getDropped()).isEqualTo(3);
+      waitFor(() -> client.getDispatcherStats().getSent() == 5);
+      assertThat(client.sent).hasSize(5);
+   }
+
+   @Test
+   public void testRetry() throws Exception {
+      client = new StubPusherClient(2, (sender, preparer) -> new PushDispatcher(sender, preparer, 100, 0, 10, 3, 1));
+
+      client.dispatch(List.of(documentEvent("user1", "d1", 1)));
+
+      waitFor(() -> client.getDispatcherStats().getSent() == 1);
+      assertThat(client.sent).hasSize(1);
+      assertThat(client.getDispatcherStats().getRetries()).isEqualTo(2);
+      assertThat(client.getDispatcherStats().getFailed()).isEqualTo(0);
+   }
+
+   @Test
+   public void testRetryOnFailedResult() throws Exception {
+      client = new StubPusherClient(0, (sender, preparer) -> new PushDispatcher(sender, preparer, 100, 0, 10, 3, 1));
+      client.results.add(List.of(Result.fromHttpCode(503, "Service unavailable")));
+      client.results.add(List.of(Result.fromHttpCode(200, "{}"), Result.fromHttpCode(500, "Internal error")));
+
+      client.dispatch(List.of(documentEvent("user1", "d1", 1)));
+
+      waitFor(() -> client.getDispatcherStats().getSent() == 1);
+      assertThat(client.getDispatcherStats().getRetries()).isEqualTo(2);
+      assertThat(client.getDispatcherStats().getFailed()).isEqualTo(0);
+   }
+
+   @Test
+   public void testNoRetryOnClientError() throws Exception {
+      client = new StubPusherClient(0, (sender, preparer) -> new PushDispatcher(sender, preparer, 100, 0, 10, 3, 1));
+      client.results.add(List.of(Result.fromHttpCode(400, "Bad request")));
+
+      client.dispatch(List.of(documentEvent("user1", "d1", 1)));
+
+      waitFor(() -> client.getDispatcherStats().getFailed() == 1);
+      assertThat(client.getDispatcherStats().getFailed()).isEqualTo(1);
+      assertThat(client.getDispatcherStats().getRetries()).isEqualTo(0);
+      assertThat(client.getDispatcherStats().getSent()).isEqualTo(0);
+   }
+
+   private static Event documentEvent(final String userId, final String documentId, final int value) {
+      final Document document = new Document(new DataDocument("a1", value));
+      document.setId(documentId);
+      return new Event(userId, "Document:update", new PusherFacade.ObjectWithParent(APP_ID, document, "o1", "p1"), null);
+   }
+
+   private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+   }
+
+   private static class StubPusherClient extends PusherClient {
+
+      private final List<Event> sent = new CopyOnWriteArrayList<>();
+      private final Queue<Collection<Result>> results = new ConcurrentLinkedQueue<>();
+      private final AtomicInteger failures;
+
+      private StubPusherClient(final int failures, final PushDispatcher.Factory dispatcherFactory) {
+         super("key", "secret", dispatcherFactory);
+         this.failures = new AtomicInteger(failures);
+      }
+
+      @Override
+      public Collection<Result> trigger(final List<Event> notifications) {
+         if (failures.getAndDecrement() > 0) {
+            throw new IllegalStateException("Simulated failure");
+         }
+         final Collection<Result> result = results.poll();
+         if (result != null) {
+            return result;
+         }
+         sent.addAll(notifications);
+         return Collections.emptyList();
+      }
+   }
+}
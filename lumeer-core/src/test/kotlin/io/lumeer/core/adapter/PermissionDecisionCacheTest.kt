@@ -0,0 +1,83 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter
+
+import io.lumeer.api.model.Collection
+import io.lumeer.api.model.Permission
+import io.lumeer.api.model.Permissions
+import io.lumeer.api.model.Role
+import io.lumeer.api.model.RoleType
+import org.assertj.core.api.Assertions
+import org.junit.Test
+import java.util.IdentityHashMap
+
+class PermissionDecisionCacheTest {
+
+    private val user = "u1"
+
+    @Test
+    fun testKeyFollowsVersionAndPermissions() {
+        val collection = collection(RoleType.Read)
+        val key = createKey(collection)
+
+        Assertions.assertThat(createKey(collection(RoleType.Read))).isEqualTo(key)
+        Assertions.assertThat(createKey(collection(RoleType.DataWrite))).isNotEqualTo(key)
+        Assertions.assertThat(createKey(collection(RoleType.Read).apply { version = 2 })).isNotEqualTo(key)
+        Assertions.assertThat(createKey(collection(RoleType.Read).apply { id = null })).isNull()
+        Assertions.assertThat(PermissionDecisionCache.createKey(user, setOf("g1"), IdentityHashMap(), null, null, collection)).isNotEqualTo(key)
+    }
+
+    @Test
+    fun testDecisionsAreReused() {
+        val collection = collection(RoleType.Read)
+        val stats = PermissionDecisionCache.getStats()
+        var computations = 0
+
+        repeat(3) {
+            val roles = PermissionDecisionCache.getRoles(createKey(collection)) { computations++; setOf(RoleType.Read) }
+            Assertions.assertThat(roles).containsOnly(RoleType.Read)
+        }
+        Assertions.assertThat(computations).isEqualTo(1)
+        Assertions.assertThat(PermissionDecisionCache.getStats().hits - stats.hits).isEqualTo(2)
+
+        PermissionDecisionCache.invalidate()
+        PermissionDecisionCache.getRoles(createKey(collection)) { computations++; setOf(RoleType.Read) }
+        Assertions.assertThat(computations).isEqualTo(2)
+    }
+
+    @Test
+    fun testKeyFollowsSwappedRoles() {
+        val collection = collection(Permission("u1", setOf(Role(RoleType.Read))), Permission("u2", setOf(Role(RoleType.DataWrite))))
+        val swapped = collection(Permission("u1", setOf(Role(RoleType.DataWrite))), Permission("u2", setOf(Role(RoleType.Read))))
+
+        Assertions.assertThat(createKey(swapped)).isNotEqualTo(createKey(collection))
+        Assertions.assertThat(createKey(collection(Permission("u2", setOf(Role(RoleType.DataWrite))), Permission("u1", setOf(Role(RoleType.Read))))))
+                .isEqualTo(createKey(collection))
+    }
+
+    private fun createKey(collection: Collection) = PermissionDecisionCache.createKey(user, setOf(), IdentityHashMap(), null, null, collection)
+
+    private fun collection(role: RoleType) = collection(Permission(user, setOf(Role(role))))
+
+    private fun collection(vararg permissions: Permission) =
+            Collection("C1", "c1", "", "", Permissions(permissions.toMutableSet(), mutableSetOf())).apply {
+                id = "c1"
+                version = 1
+            }
+}
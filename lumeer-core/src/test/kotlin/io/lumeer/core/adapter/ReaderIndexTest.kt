@@ -0,0 +1,84 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.adapter
+
+import io.lumeer.api.model.Collection
+import io.lumeer.api.model.Group
+import io.lumeer.api.model.Organization
+import io.lumeer.api.model.Permissions
+import io.lumeer.api.model.Project
+import io.lumeer.api.model.RoleType
+import io.lumeer.api.model.User
+import org.assertj.core.api.Assertions
+import org.junit.Test
+
+class ReaderIndexTest {
+
+    private val organization = Organization().apply {
+        id = "o1-${System.nanoTime()}"
+        version = 1
+    }
+    private val project = Project().apply {
+        id = "p1"
+        version = 1
+    }
+    private val users = listOf(User("u1", "u1", "u1@lumeer.io", setOf()), User("u2", "u2", "u2@lumeer.io", setOf()), User("u3", "u3", "u3@lumeer.io", setOf()))
+
+    @Test
+    fun testReadersAreComputedOncePerVersion() {
+        val collection = Collection("C1", "c1", "", "", Permissions()).apply {
+            id = "c1"
+            version = 1
+        }
+        val index = ReaderIndex.getIndex(organization, project, users, listOf())
+        var computations = 0
+        val compute = { computations++; setOf("u1", "u3") }
+
+        repeat(3) {
+            Assertions.assertThat(index.toUserIds(index.getUsers(collection.id, RoleType.Read, listOf(collection), compute))).containsOnly("u1", "u3")
+        }
+        Assertions.assertThat(computations).isEqualTo(1)
+
+        collection.version = 2
+        index.getUsers(collection.id, RoleType.Read, listOf(collection), compute)
+        Assertions.assertThat(computations).isEqualTo(2)
+
+        index.getUsers(collection.id, RoleType.DataWrite, listOf(collection), compute)
+        Assertions.assertThat(computations).isEqualTo(3)
+    }
+
+    @Test
+    fun testIndexIsRebuiltOnMembershipChange() {
+        val index = ReaderIndex.getIndex(organization, project, users, listOf(group("u1")))
+        Assertions.assertThat(ReaderIndex.getIndex(organization, project, users, listOf(group("u1")))).isSameAs(index)
+        Assertions.assertThat(ReaderIndex.getIndex(organization, project, users, listOf(group("u1", "u2")))).isNotSameAs(index)
+        Assertions.assertThat(ReaderIndex.getIndex(organization, project, users.subList(0, 2), listOf(group("u1", "u2")))).isNotSameAs(index)
+    }
+
+    @Test
+    fun testIndexIsRebuiltWhenGroupsSwapUsers() {
+        val index = ReaderIndex.getIndex(organization, project, users, listOf(group("g1", "u1"), group("g2", "u2")))
+        Assertions.assertThat(ReaderIndex.getIndex(organization, project, users, listOf(group("g1", "u2"), group("g2", "u1")))).isNotSameAs(index)
+        Assertions.assertThat(ReaderIndex.getIndex(organization, project, users.reversed(), listOf(group("g1", "u2"), group("g2", "u1")))).isNotSameAs(index)
+    }
+
+    private fun group(vararg users: String) = group("g1", *users)
+
+    private fun group(id: String, vararg users: String) = Group(id, id).apply { this.users = users.toList() }
+}
@@ -0,0 +1,79 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.js
+
+import org.assertj.core.api.Assertions
+import org.graalvm.polyglot.Source
+import org.junit.Test
+
+class JsContextPoolTest {
+
+    private val source = Source.create("js", "var counter = 0; function next(x) { counter++; if (x < 0) { throw new Error('negative'); } return counter; }")
+
+    @Test
+    fun testReuseAndEviction() {
+        val pool = JsContextPool("test", source, "next", maxSize = 1, maxUses = 3)
+
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(1)
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(2)
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(3)
+        // the context was evicted after three uses
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(1)
+
+        Assertions.assertThatThrownBy { pool.execute { it.execute(-1) } }.isNotNull()
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(1)
+
+        val stats = pool.stats()
+        Assertions.assertThat(stats.size).isEqualTo(1)
+        Assertions.assertThat(stats.created).isEqualTo(3)
+        Assertions.assertThat(stats.evictions).isEqualTo(2)
+        Assertions.assertThat(stats.borrows).isEqualTo(6)
+
+        pool.close()
+        Assertions.assertThat(pool.stats().size).isEqualTo(0)
+    }
+
+    @Test
+    fun testOverflowAndExhaustion() {
+        val pool = JsContextPool("test", source, "next", maxSize = 1, borrowTimeoutMs = 10, maxOverflow = 1)
+
+        val result = pool.execute { pooled ->
+            // the only pooled context is borrowed, the nested call gets an overflow context
+            val nested = pool.execute { overflow ->
+                // both the pooled and the overflow context are borrowed
+                Assertions.assertThatThrownBy { pool.execute { it.execute(1).asInt() } }
+                        .isInstanceOf(JsContextPool.ExhaustedException::class.java)
+                overflow.execute(1).asInt()
+            }
+            pooled.execute(1).asInt() + nested
+        }
+        Assertions.assertThat(result).isEqualTo(2)
+
+        // the overflow context was closed and its permit returned
+        Assertions.assertThat(pool.execute { it.execute(1).asInt() }).isEqualTo(2)
+        Assertions.assertThat(pool.execute { pool.execute { overflow -> overflow.execute(1).asInt() } }).isEqualTo(1)
+
+        val stats = pool.stats()
+        Assertions.assertThat(stats.size).isEqualTo(1)
+        Assertions.assertThat(stats.overflows).isEqualTo(2)
+        Assertions.assertThat(stats.rejections).isEqualTo(1)
+
+        pool.close()
+    }
+}
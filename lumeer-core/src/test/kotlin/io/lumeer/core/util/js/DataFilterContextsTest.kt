@@ -0,0 +1,58 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.js
+
+import io.lumeer.core.js.JsContextPool
+import org.assertj.core.api.Assertions
+import org.graalvm.polyglot.Source
+import org.junit.Test
+import java.util.logging.Logger
+
+class DataFilterContextsTest {
+
+    private val source = Source.create("js", "function filter(x) { if (x < 0) { throw new Error('negative'); } return x; }")
+    private val logger = Logger.getLogger(DataFilterContextsTest::class.simpleName)
+
+    @Test
+    fun testFilterErrorGivesEmptyResult() {
+        val pool = JsContextPool("test", source, "filter", maxSize = 1)
+
+        Assertions.assertThat(DataFilterContexts.filterOrEmpty(-1, logger) { pool.execute { it.execute(5).asInt() } }).isEqualTo(5)
+        Assertions.assertThat(DataFilterContexts.filterOrEmpty(-1, logger) { pool.execute { it.execute(-5).asInt() } }).isEqualTo(-1)
+
+        pool.close()
+    }
+
+    @Test
+    fun testPoolExhaustionIsRethrown() {
+        val pool = JsContextPool("test", source, "filter", maxSize = 1, borrowTimeoutMs = 10, maxOverflow = 0)
+
+        pool.execute { pooled ->
+            // the only context is borrowed and no overflow context is allowed
+            Assertions.assertThatThrownBy { DataFilterContexts.filterOrEmpty(-1, logger) { pool.execute { it.execute(5).asInt() } } }
+                    .isInstanceOf(JsContextPool.ExhaustedException::class.java)
+            pooled.execute(1).asInt()
+        }
+
+        Assertions.assertThat(pool.stats().rejections).isEqualTo(1)
+        Assertions.assertThat(DataFilterContexts.filterOrEmpty(-1, logger) { pool.execute { it.execute(5).asInt() } }).isEqualTo(5)
+
+        pool.close()
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.core.util.js
+
+import io.lumeer.api.model.*
+import io.lumeer.api.model.Collection
+import io.lumeer.engine.api.data.DataDocument
+import org.assertj.core.api.Assertions
+import org.junit.Test
+
+class NativeDataFilterParityTest {
+
+    private val textAttribute = Attribute("a1", "text", null, Constraint(ConstraintType.Text, null), null, null, 0, null)
+    private val numberAttribute = Attribute("a2", "number", null, Constraint(ConstraintType.Number, null), null, null, 0, null)
+    private val booleanAttribute = Attribute("a3", "boolean", null, Constraint(ConstraintType.Boolean, null), null, null, 0, null)
+    private val noneAttribute = Attribute("a4", "none", null, null, null, null, 0, null)
+
+    private val collection = Collection("c1", "c1", "", "", "", null, Permissions(), setOf(textAttribute, numberAttribute, booleanAttribute, noneAttribute), mapOf(), "", null).apply {
+        id = "c1"
+    }
+
+    private val documents = listOf(
+            document("d1", "Lumeer", 10, true, "abc"),
+            document("d2", "lúmeer engine", 5.5, false, "ABCD"),
+            document("d3", "", 100, null, null),
+            document("d4", null, null, true, "xyz"),
+            document("d5", "engine", -3, false, "   "),
+            document("d6", "child of d2", 1, false, "child").apply { metaData = DataDocument(Document.META_PARENT_ID, "d2") }
+    )
+
+    private val permissions = mapOf(collection.id to AllowedPermissions.allAllowed())
+    private val constraintData = ConstraintData(listOf(), null, mapOf(), CurrencyData(listOf(), listOf()), "Europe/Bratislava", listOf(), listOf())
+
+    @Test
+    fun testTextConditions() {
+        assertParity(filter(textAttribute, ConditionType.EQUALS, "lumeer"))
+        assertParity(filter(textAttribute, ConditionType.NOT_EQUALS, "lumeer"))
+        assertParity(filter(textAttribute, ConditionType.CONTAINS, "engine"))
+        assertParity(filter(textAttribute, ConditionType.NOT_CONTAINS, "engine"))
+        assertParity(filter(textAttribute, ConditionType.STARTS_WITH, "lum"))
+        assertParity(filter(textAttribute, ConditionType.ENDS_WITH, "ine"))
+        assertParity(filter(textAttribute, ConditionType.IS_EMPTY))
+        assertParity(filter(textAttribute, ConditionType.NOT_EMPTY))
+        assertParity(filter(textAttribute, ConditionType.EQUALS, "LÚMEER ENGINE"))
+        assertParity(filter(textAttribute, ConditionType.NOT_EQUALS, "lúmeer engine"))
+        assertParity(filter(textAttribute, ConditionType.CONTAINS, "lúm"))
+        assertParity(filter(textAttribute, ConditionType.NOT_CONTAINS, "lum"))
+        assertParity(filter(textAttribute, ConditionType.STARTS_WITH, "lúm"))
+        assertParity(filter(textAttribute, ConditionType.ENDS_WITH, "éngine"))
+        assertParity(filter(noneAttribute, ConditionType.EQUALS, "abc"))
+        assertParity(filter(noneAttribute, ConditionType.CONTAINS, "abc"))
+        assertParity(filter(noneAttribute, ConditionType.IS_EMPTY))
+    }
+
+    @Test
+    fun testNumberConditions() {
+        assertParity(filter(numberAttribute, ConditionType.EQUALS, 10))
+        assertParity(filter(numberAttribute, ConditionType.NOT_EQUALS, 10))
+        assertParity(filter(numberAttribute, ConditionType.LOWER_THAN, 10))
+        assertParity(filter(numberAttribute, ConditionType.LOWER_THAN_EQUALS, 10))
+        assertParity(filter(numberAttribute, ConditionType.GREATER_THAN, 5.5))
+        assertParity(filter(numberAttribute, ConditionType.GREATER_THAN_EQUALS, 5.5))
+        assertParity(filter(numberAttribute, ConditionType.BETWEEN, 0, 10))
+        assertParity(filter(numberAttribute, ConditionType.NOT_BETWEEN, 0, 10))
+        assertParity(filter(numberAttribute, ConditionType.IS_EMPTY))
+        assertParity(filter(numberAttribute, ConditionType.NOT_EMPTY))
+    }
+
+    @Test
+    fun testBooleanConditions() {
+        assertParity(filter(booleanAttribute, ConditionType.ENABLED))
+        assertParity(filter(booleanAttribute, ConditionType.DISABLED))
+    }
+
+    @Test
+    fun testCombinedConditionsAndDocumentIds() {
+        assertParity(filter(textAttribute, ConditionType.CONTAINS, "engine"), filter(numberAttribute, ConditionType.GREATER_THAN, 0))
+        assertParity(QueryStem(null, collection.id, listOf(), setOf("d1", "d2"), listOf(), listOf()))
+    }
+
+    @Test
+    fun testDocumentIdsWithParents() {
+        // the child is found by its parent matching the filter, although the parent is not among the document ids
+        assertParity(QueryStem(null, collection.id, listOf(), setOf("d6"), listOf(filter(textAttribute, ConditionType.EQUALS, "lúmeer engine")), listOf()))
+        // children of a document matching both the filter and the document ids
+        assertParity(QueryStem(null, collection.id, listOf(), setOf("d2"), listOf(filter(textAttribute, ConditionType.CONTAINS, "engine")), listOf()))
+        // a matching child of a document that is among the ids but does not match
+        assertParity(QueryStem(null, collection.id, listOf(), setOf("d2"), listOf(filter(textAttribute, ConditionType.CONTAINS, "child")), listOf()))
+    }
+
+    @Test
+    fun testEnginesFindTheSameDocuments() {
+        // the engines return nothing on errors, so check that they agree on an actual result
+        val query = Query(listOf(QueryStem(null, collection.id, listOf(), setOf(), listOf(filter(textAttribute, ConditionType.CONTAINS, "engine")), listOf())), setOf(), 0, 10)
+        for (engine in DataFilterEngine.values()) {
+            Assertions.assertThat(filterDocumentIds(query, true, engine)).describedAs("engine=%s", engine).containsExactlyInAnyOrder("d2", "d5", "d6")
+            Assertions.assertThat(filterDocumentIds(query, false, engine)).describedAs("engine=%s", engine).containsExactlyInAnyOrder("d2", "d5")
+        }
+    }
+
+    @Test
+    fun testUnsupportedQueryFallsBack() {
+        val stem = QueryStem(null, collection.id, listOf(), setOf(), listOf(CollectionAttributeFilter.createFromTypes(collection.id, textAttribute.id, ConditionType.HAS_SOME, ConditionValueType.CURRENT_USER.value)), listOf())
+        val task = NativeDataFilterTask(documents, listOf(collection), listOf(), listOf(), Query(stem), permissions, true)
+        Assertions.assertThat(task.canEvaluate()).isFalse()
+
+        val fulltextTask = NativeDataFilterTask(documents, listOf(collection), listOf(), listOf(), Query(listOf(QueryStem(collection.id)), setOf("lumeer"), 0, 10), permissions, true)
+        Assertions.assertThat(fulltextTask.canEvaluate()).isFalse()
+    }
+
+    private fun assertParity(vararg filters: CollectionAttributeFilter) {
+        assertParity(QueryStem(null, collection.id, listOf(), setOf(), filters.toList(), listOf()))
+    }
+
+    private fun assertParity(stem: QueryStem) {
+        val query = Query(listOf(stem), setOf(), 0, 10)
+        for (includeChildren in listOf(true, false)) {
+            val task = NativeDataFilterTask(documents, listOf(collection), listOf(), listOf(), query, permissions, includeChildren)
+            Assertions.assertThat(task.canEvaluate()).isTrue()
+
+            val nativeIds = filterDocumentIds(query, includeChildren, DataFilterEngine.NATIVE)
+            for (engine in listOf(DataFilterEngine.JS, DataFilterEngine.JS_PROXY)) {
+                Assertions.assertThat(nativeIds)
+                        .describedAs("%s, includeChildren=%s, engine=%s", stem.filters, includeChildren, engine)
+                        .containsExactlyInAnyOrderElementsOf(filterDocumentIds(query, includeChildren, engine))
+            }
+        }
+    }
+
+    private fun filterDocumentIds(query: Query, includeChildren: Boolean, engine: DataFilterEngine) =
+            DataFilter.filterDocumentsAndLinksByQueryFromJson(documents, listOf(collection), listOf(), listOf(), query, permissions, mapOf(), constraintData, includeChildren, Language.EN, engine).first.map { it.id }
+
+    private fun filter(attribute: Attribute, condition: ConditionType, vararg values: Any) =
+            CollectionAttributeFilter.createFromValues(collection.id, attribute.id, condition, *values)
+
+    private fun document(id: String, text: String?, number: Number?, boolean: Boolean?, none: String?) =
+            Document(DataDocument(textAttribute.id, text).append(numberAttribute.id, number).append(booleanAttribute.id, boolean).append(noneAttribute.id, none)).apply {
+                this.id = id
+                this.collectionId = collection.id
+            }
+}
@@ -24,9 +24,15 @@ import io.lumeer.api.model.LinkInstance;
 import io.lumeer.api.model.Query;
 import io.lumeer.core.facade.SearchFacade;
 import io.lumeer.core.util.Tuple;
+import io.lumeer.core.util.js.DataFilterEngine;
 import io.lumeer.remote.rest.annotation.HealthCheck;
 import io.lumeer.remote.rest.annotation.QueryProcessor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
@@ -37,7 +43,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
 
 @RequestScoped
 @Produces(MediaType.APPLICATION_JSON)
@@ -45,18 +56,31 @@ import javax.ws.rs.core.MediaType;
 @Path("organizations/{organizationId:[0-9a-fA-F]{24}}/projects/{projectId:[0-9a-fA-F]{24}}/search")
 public class SearchService extends AbstractService {
 
+   public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+   private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+
    @PathParam("organizationId")
    private String organizationId;
 
    @PathParam("projectId")
    private String projectId;
 
+   @QueryParam("filterEngine")
+   private String filterEngine;
+
    @Inject
    private SearchFacade searchFacade;
 
+   @Context
+   private Providers providers;
+
    @PostConstruct
    public void init() {
       workspaceKeeper.setWorkspaceIds(organizationId, projectId);
+      if (filterEngine != null) {
+         searchFacade.setDataFilterEngine(DataFilterEngine.fromString(filterEngine));
+      }
    }
 
    @POST
@@ -85,6 +109,37 @@ public class SearchService extends AbstractService {
       return new DocumentsAndLinks(documentsAndLinks.getFirst(), documentsAndLinks.getSecond());
    }
 
+   /**
+    * Same as {@link #getDocumentsAndLinkInstances(Query, boolean)}, but every filtered page is written as soon as it is ready,
+    * one {@link DocumentsAndLinks} JSON object per line. The next page is not read until the previous one is written to the client.
+    */
+   @POST
+   @Path("documentsAndLinks/stream")
+   @Produces(APPLICATION_NDJSON)
+   @QueryProcessor
+   @HealthCheck
+   public StreamingOutput streamDocumentsAndLinkInstances(Query query, @QueryParam("subItems") boolean includeSubItems) {
+      final MessageBodyWriter<DocumentsAndLinks> writer = providers.getMessageBodyWriter(DocumentsAndLinks.class, DocumentsAndLinks.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+
+      return output -> {
+         try {
+            searchFacade.streamDocumentsAndLinks(query, includeSubItems, page -> writeLine(writer, new DocumentsAndLinks(page.getFirst(), page.getSecond()), output));
+         } catch (UncheckedIOException e) {
+            throw e.getCause();
+         }
+      };
+   }
+
+   private void writeLine(final MessageBodyWriter<DocumentsAndLinks> writer, final DocumentsAndLinks documentsAndLinks, final OutputStream output) {
+      try {
+         writer.writeTo(documentsAndLinks, DocumentsAndLinks.class, DocumentsAndLinks.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<>(), output);
+         output.write(LINE_SEPARATOR);
+         output.flush();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
    @POST
    @Path("tasks")
    @QueryProcessor
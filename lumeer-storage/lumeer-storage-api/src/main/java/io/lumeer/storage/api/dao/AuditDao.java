@@ -32,6 +32,7 @@ public interface AuditDao extends ProjectScopedDao, Serializable {
 
    AuditRecord findLatestAuditRecord(final String parentId, final ResourceType resourceType, final String resourceId);
    AuditRecord findLatestAuditRecord(final String parentId, final ResourceType resourceType, final String resourceId, final AuditType type);
+   List<AuditRecord> findLatestAuditRecords(final String parentId, final ResourceType resourceType, final Set<String> resourceIds, final AuditType type);
 
    List<AuditRecord> findAuditRecords(final Set<String> collectionIds, final Set<String> linkTypeIds, final Set<String> viewIds, final ZonedDateTime noOlderThan);
    List<AuditRecord> findAuditRecords(final Set<String> collectionIds, final Set<String> linkTypeIds, final Set<String> viewIds, final int countLimit);
@@ -50,10 +51,13 @@ public interface AuditDao extends ProjectScopedDao, Serializable {
 
    AuditRecord createAuditRecord(final AuditRecord record);
    AuditRecord updateAuditRecord(final AuditRecord record);
+   List<AuditRecord> createAuditRecords(final List<AuditRecord> records);
+   void updateAuditRecords(final List<AuditRecord> records);
 
    AuditRecord getAuditRecord(final String id);
 
    void deleteAuditRecord(final String id);
+   void deleteAuditRecords(final Set<String> ids);
 
    void ensureIndexes(final Project project);
 }
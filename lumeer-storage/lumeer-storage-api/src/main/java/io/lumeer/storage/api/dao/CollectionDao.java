@@ -24,7 +24,9 @@ import io.lumeer.api.model.Project;
 import io.lumeer.storage.api.query.DatabaseQuery;
 import io.lumeer.storage.api.query.SearchSuggestionQuery;
 
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface CollectionDao extends ProjectScopedDao {
@@ -65,5 +67,11 @@ public interface CollectionDao extends ProjectScopedDao {
 
    Collection bookAttributesNum(String id, Collection collection, int count);
 
+   /**
+    * Applies attribute usage count changes (by attribute id) and moves last time used forward without rewriting
+    * the collection or firing an update event. Usage counts never drop below zero.
+    */
+   void updateAttributesUsage(String id, Map<String, Integer> usageCountChanges, ZonedDateTime lastTimeUsed);
+
    void ensureIndexes(final Project project);
 }
@@ -42,6 +42,11 @@ public interface DataDao {
 
    DataDocument patchData(String collectionId, String documentId, DataDocument data);
 
+   /**
+    * Patches data of several documents (keyed by document id) in a single bulk write and returns the patched data.
+    */
+   List<DataDocument> patchData(String collectionId, Map<String, DataDocument> data);
+
    void deleteData(String collectionId, String documentId);
 
    long deleteAttribute(String collectionId, String attributeId);
@@ -58,10 +63,18 @@ public interface DataDao {
 
    List<DataDocument> getData(String collectionId, Integer skip, Integer limit);
 
+   List<DataDocument> getData(String collectionId, Pagination pagination);
+
    List<DataDocument> searchData(SearchQueryStem stem, Pagination pagination, Collection collection);
 
    List<DataDocument> searchDataByIds(SearchQueryStem stem, Set<String> documentIds, Collection collection);
 
+   /**
+    * Returns a superset of data matching the stem filters, numeric comparisons also match values stored as strings.
+    * Callers are expected to evaluate the exact conditions on the returned data.
+    */
+   List<DataDocument> searchDataCandidates(SearchQueryStem stem, Pagination pagination, Collection collection);
+
    List<DataDocument> searchDataByFulltexts(Set<String> fulltexts, Pagination pagination, List<Collection> projectCollections);
 
    List<DataDocument> duplicateData(String collectionId, java.util.Collection<DataDocument> data, Map<String, String> documentIds);
@@ -20,6 +20,7 @@ package io.lumeer.storage.api.dao;
 
 import io.lumeer.api.model.Document;
 import io.lumeer.api.model.Pagination;
+import io.lumeer.api.model.Project;
 import io.lumeer.engine.api.data.DataDocument;
 
 import java.util.Collection;
@@ -35,6 +36,8 @@ public interface DocumentDao extends ProjectScopedDao {
 
    Document updateDocument(String id, Document document);
 
+   List<Document> updateDocuments(List<Document> documents);
+
    void deleteDocument(String id, DataDocument data);
 
    void deleteDocuments(String collectionId);
@@ -45,6 +48,11 @@ public interface DocumentDao extends ProjectScopedDao {
 
    Map<String, Long> getDocumentsCounts();
 
+   /**
+    * Recomputes the maintained documents counters from the stored documents.
+    */
+   Map<String, Long> reconcileDocumentsCounts();
+
    List<Document> getDocumentsByIds(String... ids);
 
    List<Document> getDocumentsByCreator(String collectionId, String userId, Set<String> ids);
@@ -61,6 +69,17 @@ public interface DocumentDao extends ProjectScopedDao {
 
    List<Document> getDocumentsByCollection(String collectionId, Pagination pagination);
 
+   /**
+    * Returns documents together with their raw (not decoded) data, loaded by a single database round trip.
+    */
+   List<Document> getDocumentsWithData(String collectionId, Set<String> ids);
+
+   List<Document> getDocumentsWithData(String collectionId, Pagination pagination);
+
+   List<Document> getDocumentsWithDataByCreator(String collectionId, String userId, Set<String> ids);
+
+   List<Document> getDocumentsWithDataByCreator(String collectionId, String userId, Pagination pagination);
+
    List<Document> getDocumentsWithTemplateId();
 
    List<Document> getRecentDocuments(final String collectionId, boolean byUpdate);
@@ -69,4 +88,5 @@ public interface DocumentDao extends ProjectScopedDao {
 
    List<Document> duplicateDocuments(List<Document> documents);
 
+   void ensureIndexes(final Project project);
 }
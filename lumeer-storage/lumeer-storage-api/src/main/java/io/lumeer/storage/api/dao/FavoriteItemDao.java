@@ -16,6 +16,8 @@ public interface FavoriteItemDao extends OrganizationScopedDao {
 
    Set<String> getFavoriteCollectionIds(String projectId);
 
+   Set<String> getFavoriteCollectionUserIds(String projectId, String collectionId);
+
    void addFavoriteView(String userId, String projectId, String viewId);
 
    void removeFavoriteView(String userId, String viewId);
@@ -28,6 +30,8 @@ public interface FavoriteItemDao extends OrganizationScopedDao {
 
    Set<String> getFavoriteViewIds(String projectId);
 
+   Set<String> getFavoriteViewUserIds(String projectId, String viewId);
+
    void addFavoriteDocument(String userId, String projectId, String collectionId, String documentId);
 
    void removeFavoriteDocument(String userId, String documentId);
@@ -39,4 +43,6 @@ public interface FavoriteItemDao extends OrganizationScopedDao {
    void removeFavoriteDocumentsByCollectionFromUsers(String projectId, String collectionId);
 
    Set<String> getFavoriteDocumentIds(String userId, String projectId);
+
+   Set<String> getFavoriteDocumentUserIds(String projectId, String documentId);
 }
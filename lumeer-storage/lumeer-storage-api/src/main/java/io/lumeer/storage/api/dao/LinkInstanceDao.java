@@ -79,4 +79,5 @@ public interface LinkInstanceDao extends ProjectScopedDao {
 
    List<LinkInstance> duplicateLinkInstances(List<LinkInstance> linkInstances, String replaceDocumentId, String newDocumentId, Map<String, String> documentMap);
 
+   void ensureIndexes(final Project project);
 }
@@ -74,6 +74,7 @@ import io.lumeer.storage.mongodb.codecs.providers.UserCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.UserLoginEventCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.UserNotificationCodecProvider;
 import io.lumeer.storage.mongodb.codecs.providers.ViewCodecProvider;
+import io.lumeer.storage.mongodb.util.SequenceAllocator;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.ErrorCategory;
@@ -199,6 +200,7 @@ public class MongoDbStorage implements DataStorage {
    @Override
    public void dropCollection(final String collectionName) {
       database.getCollection(collectionName).drop();
+      SequenceAllocator.getInstance().invalidatePrefix(database.getName() + "/" + collectionName + "/");
    }
 
    @Override
@@ -513,37 +515,51 @@ public class MongoDbStorage implements DataStorage {
    }
 
    @Override
-   public synchronized int getNextSequenceNo(final String collectionName, final String indexAttribute, final String index) {
+   public int getNextSequenceNo(final String collectionName, final String indexAttribute, final String index) {
+      return (int) SequenceAllocator.getInstance().next(getSequenceKey(collectionName, indexAttribute, index),
+            size -> reserveSequenceBlock(collectionName, indexAttribute, index, size));
+   }
+
+   private long reserveSequenceBlock(final String collectionName, final String indexAttribute, final String index, final int size) {
       final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions();
       options.returnDocument(ReturnDocument.AFTER);
 
-      final Document doc = database.getCollection(collectionName).findOneAndUpdate(eq(indexAttribute, index), inc("seq", 1),
+      final Document doc = database.getCollection(collectionName).findOneAndUpdate(eq(indexAttribute, index), inc("seq", size),
             options);
 
-      if (doc == null) { // the sequence did not exist
-         resetSequence(collectionName, indexAttribute, index);
-         return 0;
+      if (doc == null) { // the sequence did not exist, the block starts from zero
+         setSequence(collectionName, indexAttribute, index, size - 1);
+         return size - 1;
       } else {
          return doc.getInteger("seq");
       }
    }
 
    @Override
-   public synchronized void resetSequence(final String collectionName, final String indexAttribute, final String index) {
+   public void resetSequence(final String collectionName, final String indexAttribute, final String index) {
+      setSequence(collectionName, indexAttribute, index, 0);
+      SequenceAllocator.getInstance().invalidate(getSequenceKey(collectionName, indexAttribute, index));
+   }
+
+   private void setSequence(final String collectionName, final String indexAttribute, final String index, final int value) {
       final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions();
       options.returnDocument(ReturnDocument.AFTER);
 
-      final Document doc = database.getCollection(collectionName).findOneAndUpdate(eq(indexAttribute, index), set("seq", 0),
+      final Document doc = database.getCollection(collectionName).findOneAndUpdate(eq(indexAttribute, index), set("seq", value),
             options);
 
       if (doc == null) {
          Document newSeq = new Document();
          newSeq.put(indexAttribute, index);
-         newSeq.put("seq", 0);
+         newSeq.put("seq", value);
          database.getCollection(collectionName).insertOne(newSeq);
       }
    }
 
+   private String getSequenceKey(final String collectionName, final String indexAttribute, final String index) {
+      return database.getName() + "/" + collectionName + "/" + indexAttribute + ":" + index;
+   }
+
    @Override
    public void createIndex(final String collectionName, final DataDocument indexAttributes, boolean unique) {
       database.getCollection(collectionName).createIndex(MongoUtils.dataDocumentToDocument(indexAttributes), new IndexOptions().unique(unique));
@@ -24,13 +24,18 @@ import io.lumeer.storage.api.DataStorageFactory;
 import io.lumeer.engine.api.data.StorageConnection;
 import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
 import io.lumeer.storage.mongodb.dao.context.MongoDaoContextSnapshotFactory;
+import io.lumeer.storage.mongodb.dao.project.ProjectMetadataCache;
 
 import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 @ApplicationScoped
 public class MongoDbStorageFactory implements DataStorageFactory {
 
+   @Inject
+   private ProjectMetadataCache metadataCache;
+
    @Override
    public DataStorage getStorage(final List<StorageConnection> connections, final String database, final Boolean useSsl) {
       final DataStorage storage = new MongoDbStorage();
@@ -40,6 +45,6 @@ public class MongoDbStorageFactory implements DataStorageFactory {
 
    @Override
    public DaoContextSnapshot getDaoContextSnapshot(final DataStorage systemDataStorage, final DataStorage userDataStorage, final SelectedWorkspace selectedWorkspace) {
-      return (new MongoDaoContextSnapshotFactory()).getInstance(systemDataStorage, userDataStorage, selectedWorkspace);
+      return (new MongoDaoContextSnapshotFactory(metadataCache)).getInstance(systemDataStorage, userDataStorage, selectedWorkspace);
    }
 }
\ No newline at end of file
@@ -58,6 +58,10 @@ public class DocumentCodec implements CollectibleCodec<Document> {
    public Document decode(final BsonReader reader, final DecoderContext decoderContext) {
       org.bson.Document bson = documentCodec.decode(reader, decoderContext);
 
+      return DocumentCodec.convertFromDocument(bson);
+   }
+
+   public static Document convertFromDocument(final org.bson.Document bson) {
       String id = bson.getObjectId(ID).toHexString();
       String collectionId = bson.getString(COLLECTION_ID);
       Date creationDate = bson.getDate(CREATION_DATE);
@@ -19,18 +19,29 @@
 package io.lumeer.storage.mongodb.dao;
 
 import io.lumeer.api.model.Pagination;
+import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.api.query.DatabaseQuery;
 
 import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class MongoDao {
 
+   private static final String ID = "_id";
+
+   private static final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+
    protected MongoDatabase database;
 
    public void setDatabase(final MongoDatabase database) {
@@ -41,7 +52,47 @@ public abstract class MongoDao {
       addPaginationToQuery(findIterable, query.getPagination());
    }
 
+   public <T> FindIterable<T> findPaginated(MongoCollection<T> collection, Bson filter, Pagination pagination) {
+      FindIterable<T> findIterable = collection.find(addPaginationToFilter(filter, pagination));
+      addPaginationToQuery(findIterable, pagination);
+      return findIterable;
+   }
+
+   public Bson addPaginationToFilter(Bson filter, Pagination pagination) {
+      if (pagination == null || !pagination.isKeyset() || pagination.getAfterId() == null) {
+         return filter;
+      }
+      if (!ObjectId.isValid(pagination.getAfterId())) {
+         throw new StorageException("Invalid pagination cursor: " + pagination.getAfterId());
+      }
+      return Filters.and(filter, Filters.gt(ID, new ObjectId(pagination.getAfterId())));
+   }
+
+   /**
+    * Creates the indexes of the given collection once per server run. Collections created by an older version
+    * get the indexes added since then on their first read, createIndex does nothing for the existing ones.
+    */
+   protected void ensureIndexesOnce(final String collectionName, final Runnable ensureIndexes) {
+      final String key = database.getName() + "." + collectionName;
+      if (indexedCollections.add(key)) {
+         try {
+            ensureIndexes.run();
+         } catch (RuntimeException e) {
+            indexedCollections.remove(key);
+            throw e;
+         }
+      }
+   }
+
    public <T> void addPaginationToQuery(FindIterable<T> findIterable, Pagination pagination) {
+      if (pagination != null && pagination.isKeyset()) {
+         findIterable.sort(Sorts.ascending(ID));
+         if (pagination.getPageSize() != null) {
+            findIterable.limit(pagination.getPageSize());
+         }
+         return;
+      }
+
       Integer page = pagination != null ? pagination.getPage() : null;
       Integer pageSize = pagination != null ? pagination.getPageSize() : null;
 
@@ -51,6 +102,18 @@ public abstract class MongoDao {
       }
    }
 
+   public void addPaginationToAggregates(List<Bson> aggregates, Pagination pagination) {
+      if (pagination != null && pagination.isKeyset()) {
+         aggregates.add(Aggregates.sort(Sorts.ascending(ID)));
+         if (pagination.getPageSize() != null) {
+            aggregates.add(Aggregates.limit(pagination.getPageSize()));
+         }
+      } else if (pagination != null && pagination.getPage() != null && pagination.getPageSize() != null) {
+         aggregates.add(Aggregates.skip(pagination.getPage() * pagination.getPageSize()));
+         aggregates.add(Aggregates.limit(pagination.getPageSize()));
+      }
+   }
+
    public void addPaginationToAggregates(List<Bson> aggregates, DatabaseQuery query) {
       if (query.getPage() != null && query.getPageSize() != null) {
          aggregates.add(Aggregates.skip(query.getPage() * query.getPageSize()));
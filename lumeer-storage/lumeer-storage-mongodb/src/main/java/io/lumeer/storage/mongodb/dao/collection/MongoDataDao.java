@@ -31,15 +31,19 @@ import io.lumeer.storage.api.query.SearchQueryStem;
 import io.lumeer.storage.mongodb.MongoUtils;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.BsonDocument;
@@ -53,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -130,6 +135,27 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       return MongoUtils.convertDocument(patchedDocument);
    }
 
+   @Override
+   public List<DataDocument> patchData(final String collectionId, final Map<String, DataDocument> data) {
+      final List<UpdateOneModel<Document>> updates = new ArrayList<>();
+      data.forEach((documentId, patch) -> {
+         patch.remove(ID);
+         if (patch.size() > 0) {
+            updates.add(new UpdateOneModel<>(idFilter(documentId), new Document("$set", new Document(patch)), new UpdateOptions().upsert(true)));
+         }
+      });
+
+      if (!updates.isEmpty()) {
+         try {
+            dataCollection(collectionId).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+         } catch (MongoException ex) {
+            throw new StorageException("Documents in collection '" + collectionId + "' have not been patched (partially updated).", ex);
+         }
+      }
+
+      return getData(collectionId, data.keySet());
+   }
+
    @Override
    public void deleteData(final String collectionId, final String documentId) {
       dataCollection(collectionId).deleteOne(idFilter(documentId));
@@ -184,12 +210,15 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       return MongoUtils.convertIterableToList(dataCollection(collectionId).find().skip(skip).limit(limit));
    }
 
+   @Override
+   public List<DataDocument> getData(final String collectionId, final Pagination pagination) {
+      return MongoUtils.convertIterableToList(findPaginated(dataCollection(collectionId), new Document(), pagination));
+   }
+
    @Override
    public List<DataDocument> searchData(final SearchQueryStem stem, final Pagination pagination, final Collection collection) {
       Bson filter = createFilterForStem(stem, collection);
-      FindIterable<Document> iterable = dataCollection(collection.getId()).find(filter);
-      addPaginationToQuery(iterable, pagination);
-      return MongoUtils.convertIterableToList(iterable);
+      return MongoUtils.convertIterableToList(findPaginated(dataCollection(collection.getId()), filter, pagination));
    }
 
    @Override
@@ -203,7 +232,17 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       return MongoUtils.convertIterableToList(iterable);
    }
 
+   @Override
+   public List<DataDocument> searchDataCandidates(final SearchQueryStem stem, final Pagination pagination, final Collection collection) {
+      Bson filter = createFilterForStem(stem, collection, MongoFilters::attributePrefilter);
+      return MongoUtils.convertIterableToList(findPaginated(dataCollection(collection.getId()), filter, pagination));
+   }
+
    private Bson createFilterForStem(final SearchQueryStem stem, Collection collection) {
+      return createFilterForStem(stem, collection, MongoFilters::attributeFilter);
+   }
+
+   private Bson createFilterForStem(final SearchQueryStem stem, Collection collection, Function<CollectionSearchAttributeFilter, Bson> attributeFilter) {
       List<Bson> filters = new ArrayList<>();
 
       if (stem.containsDocumentIdsQuery()) {
@@ -215,7 +254,7 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
 
       if (stem.containsFiltersQuery()) {
          List<Bson> attributeFilters = stem.getFilters().stream()
-                                           .map(this::attributeFilter)
+                                           .map(attributeFilter)
                                            .filter(Objects::nonNull)
                                            .collect(Collectors.toList());
          if (!attributeFilters.isEmpty()) {
@@ -233,10 +272,6 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       return filters.size() > 0 ? Filters.and(filters) : new Document();
    }
 
-   private Bson attributeFilter(CollectionSearchAttributeFilter filter) {
-      return MongoFilters.attributeFilter(filter);
-   }
-
    @Override
    public List<DataDocument> searchDataByFulltexts(final Set<String> fulltexts, final Pagination pagination, final List<Collection> projectCollections) {
       List<DataDocument> documents = new ArrayList<>();
@@ -278,7 +313,7 @@ public class MongoDataDao extends MongoCollectionScopedDao implements DataDao {
       return database.getCollection(dataCollectionName(collectionId));
    }
 
-   String dataCollectionName(String collectionId) {
+   public static String dataCollectionName(String collectionId) {
       return PREFIX + collectionId;
    }
 
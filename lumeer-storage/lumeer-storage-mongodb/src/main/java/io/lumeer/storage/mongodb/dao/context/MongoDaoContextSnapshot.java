@@ -68,6 +68,7 @@ import io.lumeer.storage.mongodb.dao.project.MongoProjectScopedDao;
 import io.lumeer.storage.mongodb.dao.project.MongoResourceCommentDao;
 import io.lumeer.storage.mongodb.dao.project.MongoSequenceDao;
 import io.lumeer.storage.mongodb.dao.project.MongoViewDao;
+import io.lumeer.storage.mongodb.dao.project.ProjectMetadataCache;
 import io.lumeer.storage.mongodb.dao.system.MongoDelayedActionDao;
 import io.lumeer.storage.mongodb.dao.system.MongoFeedbackDao;
 import io.lumeer.storage.mongodb.dao.system.MongoFileAttachmentDao;
@@ -155,7 +156,7 @@ public class MongoDaoContextSnapshot implements DaoContextSnapshot {
       this.resourceVariableDao = originalDao.resourceVariableDao;
    }
 
-   MongoDaoContextSnapshot(final DataStorage systemDataStorage, final DataStorage userDataStorage, final SelectedWorkspace selectedWorkspace) {
+   MongoDaoContextSnapshot(final DataStorage systemDataStorage, final DataStorage userDataStorage, final SelectedWorkspace selectedWorkspace, final ProjectMetadataCache metadataCache) {
       this.systemDatabase = (MongoDatabase) systemDataStorage.getDatabase();
       this.userDatabase = (MongoDatabase) userDataStorage.getDatabase();
 
@@ -175,7 +176,7 @@ public class MongoDaoContextSnapshot implements DaoContextSnapshot {
 
       this.organizationDao = initSystemScopedDao(new MongoOrganizationDao());
       this.projectDao = initOrganizationScopedDao(new MongoProjectDao());
-      this.collectionDao = initProjectScopedDao(new MongoCollectionDao());
+      this.collectionDao = initMetadataCache(initProjectScopedDao(new MongoCollectionDao()), metadataCache);
       this.companyContactDao = initSystemScopedDao(new MongoCompanyContactDao());
       this.dataDao = initProjectScopedDao(new MongoDataDao());
       this.documentDao = initProjectScopedDao(new MongoDocumentDao());
@@ -185,12 +186,12 @@ public class MongoDaoContextSnapshot implements DaoContextSnapshot {
       this.groupDao = initOrganizationScopedDao(new MongoGroupDao());
       this.linkInstanceDao = initProjectScopedDao(new MongoLinkInstanceDao());
       this.linkDataDao = initProjectScopedDao(new MongoLinkDataDao());
-      this.linkTypeDao = initProjectScopedDao(new MongoLinkTypeDao());
+      this.linkTypeDao = initMetadataCache(initProjectScopedDao(new MongoLinkTypeDao()), metadataCache);
       this.paymentDao = initOrganizationScopedDao(new MongoPaymentDao());
       this.userDao = initSystemScopedDao(new MongoUserDao());
       this.userLoginDao = initSystemScopedDao(new MongoUserLoginDao());
       this.userNotificationDao = initSystemScopedDao(new MongoUserNotificationDao());
-      this.viewDao = initProjectScopedDao(new MongoViewDao());
+      this.viewDao = initMetadataCache(initProjectScopedDao(new MongoViewDao()), metadataCache);
       this.sequenceDao = initProjectScopedDao(new MongoSequenceDao());
       this.resourceCommentDao = initProjectScopedDao(new MongoResourceCommentDao());
       this.delayedActionDao = initSystemScopedDao(new MongoDelayedActionDao());
@@ -218,6 +219,22 @@ public class MongoDaoContextSnapshot implements DaoContextSnapshot {
       return dao;
    }
 
+   // the snapshot shares the cache with request scoped daos, so that its writes invalidate what requests read
+   private MongoCollectionDao initMetadataCache(final MongoCollectionDao dao, final ProjectMetadataCache metadataCache) {
+      dao.setMetadataCache(metadataCache);
+      return dao;
+   }
+
+   private MongoLinkTypeDao initMetadataCache(final MongoLinkTypeDao dao, final ProjectMetadataCache metadataCache) {
+      dao.setMetadataCache(metadataCache);
+      return dao;
+   }
+
+   private MongoViewDao initMetadataCache(final MongoViewDao dao, final ProjectMetadataCache metadataCache) {
+      dao.setMetadataCache(metadataCache);
+      return dao;
+   }
+
    @Override
    public Organization getOrganization() {
       return organization;
@@ -32,6 +32,7 @@ import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
@@ -151,6 +152,12 @@ public class MongoFavoriteItemDao extends MongoOrganizationScopedDao implements
                                 .collect(Collectors.toSet());
    }
 
+   @Override
+   public Set<String> getFavoriteCollectionUserIds(final String projectId, final String collectionId) {
+      Bson filter = and(eq(PROJECT_ID, projectId), eq(COLLECTION_ID, collectionId));
+      return getUserIds(favoriteCollectionsDBCollection(), filter);
+   }
+
    @Override
    public void addFavoriteView(final String userId, final String projectId, final String viewId) {
       Document document = new Document()
@@ -206,6 +213,12 @@ public class MongoFavoriteItemDao extends MongoOrganizationScopedDao implements
                           .collect(Collectors.toSet());
    }
 
+   @Override
+   public Set<String> getFavoriteViewUserIds(final String projectId, final String viewId) {
+      Bson filter = and(eq(PROJECT_ID, projectId), eq(VIEW_ID, viewId));
+      return getUserIds(favoriteViewsDBCollection(), filter);
+   }
+
    @Override
    public void addFavoriteDocument(final String userId, final String projectId, final String collectionId, final String documentId) {
       Document document = new Document()
@@ -259,6 +272,19 @@ public class MongoFavoriteItemDao extends MongoOrganizationScopedDao implements
                               .collect(Collectors.toSet());
    }
 
+   @Override
+   public Set<String> getFavoriteDocumentUserIds(final String projectId, final String documentId) {
+      Bson filter = and(eq(PROJECT_ID, projectId), eq(DOCUMENT_ID, documentId));
+      return getUserIds(favoriteDocumentsDBCollection(), filter);
+   }
+
+   private Set<String> getUserIds(final MongoCollection<Document> collection, final Bson filter) {
+      return collection.find(filter).projection(Projections.include(USER_ID)).into(new ArrayList<>())
+                       .stream()
+                       .map(document -> document.getString(USER_ID))
+                       .collect(Collectors.toSet());
+   }
+
    private String favoriteCollectionsDBName() {
       if (getOrganization().isEmpty()) {
          throw new ResourceNotFoundException(ResourceType.ORGANIZATION);
@@ -28,15 +28,20 @@ import io.lumeer.storage.api.dao.AuditDao;
 import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.codecs.AuditRecordCodec;
+import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
@@ -45,10 +50,12 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditDao {
 
    private static final String PREFIX = "auditlog_p-";
+   private static final String LATEST_RECORD = "latestRecord";
 
    @Override
    public void createRepository(final Project project) {
@@ -98,6 +105,29 @@ public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditD
       return findAuditRecords(filters, 1).stream().findFirst().orElse(null);
    }
 
+   @Override
+   public List<AuditRecord> findLatestAuditRecords(final String parentId, final ResourceType resourceType, final Set<String> resourceIds, final AuditType type) {
+      if (resourceIds.isEmpty()) {
+         return new ArrayList<>();
+      }
+
+      final Bson filters = Filters.and(
+            Filters.eq(AuditRecord.RESOURCE_TYPE, resourceType.toString()),
+            Filters.eq(AuditRecord.PARENT_ID, parentId),
+            Filters.in(AuditRecord.RESOURCE_ID, resourceIds),
+            Filters.or(Filters.eq(AuditRecord.TYPE, type.toString()), Filters.eq(AuditRecord.TYPE, null))
+      );
+
+      final List<Bson> pipeline = List.of(
+            Aggregates.match(filters),
+            Aggregates.sort(Sorts.descending(AuditRecord.CHANGE_DATE)),
+            Aggregates.group("$" + AuditRecord.RESOURCE_ID, Accumulators.first(LATEST_RECORD, "$$ROOT")),
+            Aggregates.replaceRoot("$" + LATEST_RECORD)
+      );
+
+      return databaseCollection().aggregate(pipeline).into(new ArrayList<>());
+   }
+
    @Override
    public List<AuditRecord> findAuditRecords(final Set<String> collectionIds, final Set<String> linkTypeIds, final Set<String> viewIds, final ZonedDateTime noOlderThan) {
       final Bson filters = Filters.and(
@@ -216,6 +246,37 @@ public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditD
       }
    }
 
+   @Override
+   public List<AuditRecord> createAuditRecords(final List<AuditRecord> records) {
+      if (records.isEmpty()) {
+         return records;
+      }
+
+      try {
+         databaseCollection().insertMany(records);
+
+         return records;
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot create audit log records: " + records, ex);
+      }
+   }
+
+   @Override
+   public void updateAuditRecords(final List<AuditRecord> records) {
+      if (records.isEmpty()) {
+         return;
+      }
+
+      final List<UpdateOneModel<AuditRecord>> updates = records.stream()
+                                                               .map(record -> new UpdateOneModel<AuditRecord>(idFilter(record.getId()), new Document("$set", record)))
+                                                               .collect(Collectors.toList());
+      try {
+         databaseCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot update audit log records: " + records, ex);
+      }
+   }
+
    @Override
    public AuditRecord getAuditRecord(final String id) {
       final AuditRecord record = databaseCollection().find(idFilter(id)).first();
@@ -233,6 +294,14 @@ public class MongoAuditRecordDao extends MongoProjectScopedDao implements AuditD
       }
    }
 
+   @Override
+   public void deleteAuditRecords(final Set<String> ids) {
+      final Bson idsFilter = MongoFilters.idsFilter(ids);
+      if (idsFilter != null) {
+         databaseCollection().deleteMany(idsFilter);
+      }
+   }
+
    @Override
    public List<AuditRecord> findAuditRecords(final ZonedDateTime olderThan, final AuditType type) {
       final Bson filter = Filters.and(
@@ -54,14 +54,18 @@ import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -84,10 +88,14 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
    @Inject
    private Event<RemoveResource> removeResourceEvent;
 
+   @Inject
+   private ProjectMetadataCache metadataCache;
+
    @Override
    public void createRepository(final Project project) {
       database.createCollection(databaseCollectionName(project));
       ensureIndexes(project);
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
@@ -122,12 +130,14 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
    @Override
    public void deleteRepository(final Project project) {
       database.getCollection(databaseCollectionName(project)).drop();
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
    public Collection createCollection(final Collection collection) {
       try {
          databaseCollection().insertOne(collection);
+         invalidateCache();
          if (createResourceEvent != null) {
             createResourceEvent.fire(new CreateResource(collection));
          }
@@ -149,6 +159,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       try {
          Bson update = new Document("$inc", new Document(CollectionCodec.LAST_ATTRIBUTE_NUM, count));
          final Collection updatedCollection = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
+         invalidateCache();
          if (updatedCollection == null) {
             throw new StorageException("Collection '" + id + "' has not been updated.");
          }
@@ -158,6 +169,35 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       }
    }
 
+   @Override
+   public void updateAttributesUsage(final String id, final Map<String, Integer> usageCountChanges, final ZonedDateTime lastTimeUsed) {
+      final Document inc = new Document();
+      final List<Bson> arrayFilters = new ArrayList<>();
+      usageCountChanges.forEach((attributeId, change) -> {
+         if (change != null && change != 0) {
+            final String identifier = "a" + arrayFilters.size();
+            final String usageCount = identifier + "." + AttributeCodec.USAGE_COUNT;
+            inc.append(CollectionCodec.ATTRIBUTES + ".$[" + identifier + "]." + AttributeCodec.USAGE_COUNT, change);
+
+            final Bson attributeFilter = Filters.eq(identifier + "." + AttributeCodec.ID, attributeId);
+            // do not let the usage count drop below zero
+            arrayFilters.add(change > 0 ? attributeFilter : Filters.and(attributeFilter, Filters.gte(usageCount, -change)));
+         }
+      });
+
+      final Document update = new Document("$max", new Document(CollectionCodec.LAST_TIME_USED, Date.from(lastTimeUsed.toInstant())));
+      if (!inc.isEmpty()) {
+         update.append("$inc", inc);
+      }
+
+      try {
+         databaseCollection().updateOne(idFilter(id), update, new UpdateOptions().arrayFilters(arrayFilters));
+         invalidateCache();
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot update attributes usage of collection: " + id, ex);
+      }
+   }
+
    @Override
    public Collection updateCollection(final String id, final Collection collection, final Collection originalCollection, final boolean pushNotification) {
       FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
@@ -165,6 +205,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       try {
          Bson update = new Document("$set", collection).append("$inc", new Document(CollectionCodec.VERSION, 1L));
          final Collection updatedCollection = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
+         invalidateCache();
          if (updatedCollection == null) {
             throw new StorageException("Collection '" + id + "' has not been updated.");
          }
@@ -183,6 +224,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
       try {
          Bson update = new Document("$set", new Document(CollectionCodec.RULES, collection.getRules()));
          final Collection originalCollection = databaseCollection().findOneAndUpdate(idFilter(collection.getId()), update, options);
+         invalidateCache();
          if (originalCollection == null) {
             throw new StorageException("Collection '" + collection.getId() + "' has not been updated.");
          }
@@ -195,6 +237,7 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
    @Override
    public void deleteCollection(final String id) {
       final Collection collection = databaseCollection().findOneAndDelete(idFilter(id));
+      invalidateCache();
       if (collection == null) {
          throw new StorageException("Collection '" + id + "' has not been deleted.");
       }
@@ -210,6 +253,12 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
 
    @Override
    public Collection getCollectionById(final String id) {
+      if (metadataCache != null) {
+         final Collection collection = metadataCache.getById(databaseCollectionName(), databaseCollection(), id);
+         if (collection != null) {
+            return collection;
+         }
+      }
       return getCollectionByFilter(idFilter(id));
    }
 
@@ -223,6 +272,9 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
 
    @Override
    public List<Collection> getCollectionsByIds(final java.util.Collection<String> ids) {
+      if (metadataCache != null) {
+         return metadataCache.getByIds(databaseCollectionName(), databaseCollection(), ids);
+      }
       Bson filter = MongoFilters.idsFilter(ids);
       if (filter == null) {
          return Collections.emptyList();
@@ -232,6 +284,9 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
 
    @Override
    public List<Collection> getAllCollections() {
+      if (metadataCache != null) {
+         return metadataCache.getAll(databaseCollectionName(), databaseCollection());
+      }
       return databaseCollection().find().into(new ArrayList<>());
    }
 
@@ -340,6 +395,20 @@ public class MongoCollectionDao extends MongoProjectScopedDao implements Collect
                                  .collect(Collectors.toSet());
    }
 
+   public void setMetadataCache(final ProjectMetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+   }
+
+   private void invalidateCache() {
+      invalidateCache(databaseCollectionName());
+   }
+
+   private void invalidateCache(final String name) {
+      if (metadataCache != null) {
+         metadataCache.invalidate(name);
+      }
+   }
+
    private String databaseCollectionName(Project project) {
       return PREFIX + project.getId();
    }
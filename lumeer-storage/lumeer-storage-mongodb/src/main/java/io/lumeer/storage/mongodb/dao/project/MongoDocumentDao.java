@@ -31,18 +31,27 @@ import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.MongoUtils;
 import io.lumeer.storage.mongodb.codecs.DocumentCodec;
+import io.lumeer.storage.mongodb.dao.collection.MongoDataDao;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import com.mongodb.MongoException;
-import com.mongodb.client.FindIterable;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
@@ -50,6 +59,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,6 +73,14 @@ import javax.inject.Inject;
 public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentDao {
 
    private static final String PREFIX = "documents_p-";
+   private static final String DATA_ID = "_id";
+   private static final String JOINED_DATA = "joinedData";
+   private static final String COUNTERS_PREFIX = "documentcounts_p-";
+   private static final String COUNT = "count";
+   private static final String COUNTS_RECONCILED = "_reconciled";
+   private static final String RECONCILE_DATE = "reconcileDate";
+   private static final String PARTIAL = "partial";
+   private static final int RECONCILE_ATTEMPTS = 3;
 
    @Inject
    private Event<RemoveDocument> removeDocumentEvent;
@@ -69,9 +88,14 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
    @Override
    public void createRepository(final Project project) {
       database.createCollection(databaseCollectionName(project));
+      ensureIndexes(project);
+   }
 
+   @Override
+   public void ensureIndexes(final Project project) {
       MongoCollection<org.bson.Document> collection = database.getCollection(databaseCollectionName(project));
       collection.createIndex(Indexes.ascending(DocumentCodec.COLLECTION_ID), new IndexOptions().unique(false));
+      collection.createIndex(Indexes.ascending(DocumentCodec.COLLECTION_ID, DocumentCodec.ID), new IndexOptions().unique(false));
       collection.createIndex(Indexes.descending(DocumentCodec.CREATION_DATE), new IndexOptions().unique(false));
       collection.createIndex(Indexes.descending(DocumentCodec.UPDATE_DATE), new IndexOptions().unique(false));
    }
@@ -79,6 +103,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
    @Override
    public void deleteRepository(final Project project) {
       database.getCollection(databaseCollectionName(project)).drop();
+      database.getCollection(countersCollectionName(project)).drop();
    }
 
    @Override
@@ -86,6 +111,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       try {
          document.setDataVersion(0);
          databaseCollection().insertOne(document);
+         incrementDocumentsCount(document.getCollectionId(), 1);
 
          return document;
       } catch (MongoException ex) {
@@ -99,6 +125,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
                                                 .peek(document -> document.setDataVersion(0))
                                                 .collect(Collectors.toList());
       databaseCollection().insertMany(returnDocuments);
+      incrementDocumentsCounts(returnDocuments);
       return new ArrayList<>(returnDocuments);
    }
 
@@ -120,12 +147,36 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       }
    }
 
+   @Override
+   public List<Document> updateDocuments(final List<Document> documents) {
+      if (documents.isEmpty()) {
+         return new ArrayList<>();
+      }
+
+      final List<UpdateOneModel<Document>> updates = documents.stream().map(document -> {
+         Bson update = new org.bson.Document("$set", document).append("$inc", new org.bson.Document(DocumentCodec.DATA_VERSION, 1));
+         return new UpdateOneModel<Document>(idFilter(document.getId()), update);
+      }).collect(Collectors.toList());
+
+      try {
+         final BulkWriteResult result = databaseCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+         if (result.getMatchedCount() != documents.size()) {
+            throw new StorageException("Only " + result.getMatchedCount() + " of " + documents.size() + " documents have been updated.");
+         }
+      } catch (MongoException ex) {
+         throw new StorageException("Cannot update documents: " + documents.stream().map(Document::getId).collect(Collectors.toList()), ex);
+      }
+
+      return getDocumentsByIds(documents.stream().map(Document::getId).collect(Collectors.toSet()));
+   }
+
    @Override
    public void deleteDocument(final String id, final DataDocument data) {
       Document document = databaseCollection().findOneAndDelete(idFilter(id));
       if (document == null) {
          throw new StorageException("Document '" + id + "' has not been deleted.");
       }
+      incrementDocumentsCount(document.getCollectionId(), -1);
       if (removeDocumentEvent != null) {
          if (data != null) {
             document.setData(data);
@@ -139,6 +190,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       final Bson filter = Filters.eq(DocumentCodec.COLLECTION_ID, collectionId);
 
       databaseCollection().deleteMany(filter);
+      countersCollection().deleteOne(Filters.eq(DATA_ID, collectionId));
 
       // no event is fired here as this method only occurs when the collection is deleted completely
    }
@@ -156,15 +208,113 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
 
    @Override
    public Long getDocumentsCountByCollection(final String collectionId) {
-      return databaseCollection().countDocuments(Filters.eq(DocumentCodec.COLLECTION_ID, collectionId));
+      final org.bson.Document counter = countersCollection().find(Filters.eq(DATA_ID, collectionId)).first();
+      if (counter == null || counter.getBoolean(PARTIAL, false)) {
+         return reconcileDocumentsCount(collectionId, counter);
+      }
+      return counter.get(COUNT, Number.class).longValue();
    }
 
    @Override
    public Map<String, Long> getDocumentsCounts() {
-      return rawDatabaseCollection().aggregate(Collections.singletonList(Aggregates.sortByCount("$" + DocumentCodec.COLLECTION_ID)))
-                                    .into(new ArrayList<>())
-                                    .stream()
-                                    .collect(Collectors.toMap(doc -> doc.getString("_id"), doc -> Long.valueOf(doc.getInteger("count"))));
+      final Map<String, Long> counts = new HashMap<>();
+      boolean reconciled = false;
+
+      for (final org.bson.Document counter : countersCollection().find()) {
+         if (COUNTS_RECONCILED.equals(counter.getString(DATA_ID))) {
+            reconciled = true;
+         } else {
+            final long count = counter.getBoolean(PARTIAL, false) ? reconcileDocumentsCount(counter.getString(DATA_ID), counter) : counter.get(COUNT, Number.class).longValue();
+            if (count > 0) {
+               counts.put(counter.getString(DATA_ID), count);
+            }
+         }
+      }
+
+      // counters of collections untouched since they were introduced are missing
+      return reconciled ? counts : reconcileDocumentsCounts();
+   }
+
+   @Override
+   public Map<String, Long> reconcileDocumentsCounts() {
+      final Map<String, Number> counters = new HashMap<>();
+      for (final org.bson.Document counter : countersCollection().find(Filters.ne(DATA_ID, COUNTS_RECONCILED))) {
+         counters.put(counter.getString(DATA_ID), counter.get(COUNT, Number.class));
+      }
+
+      final Map<String, Long> counts = rawDatabaseCollection().aggregate(Collections.singletonList(Aggregates.sortByCount("$" + DocumentCodec.COLLECTION_ID)))
+                                                              .into(new ArrayList<>())
+                                                              .stream()
+                                                              .collect(Collectors.toMap(doc -> doc.getString(DATA_ID), doc -> doc.get(COUNT, Number.class).longValue()));
+
+      // the counters are replaced or deleted only when they were not incremented meanwhile, the missing ones are created only when still missing
+      final List<WriteModel<org.bson.Document>> writes = new ArrayList<>();
+      counts.forEach((collectionId, count) -> {
+         final Number counter = counters.get(collectionId);
+         if (counter != null) {
+            writes.add(new UpdateOneModel<>(Filters.and(Filters.eq(DATA_ID, collectionId), Filters.eq(COUNT, counter)), Updates.combine(Updates.set(COUNT, count), Updates.unset(PARTIAL))));
+         } else {
+            writes.add(new UpdateOneModel<>(Filters.eq(DATA_ID, collectionId), Updates.setOnInsert(COUNT, count), new UpdateOptions().upsert(true)));
+         }
+      });
+      counters.forEach((collectionId, counter) -> {
+         if (!counts.containsKey(collectionId)) {
+            writes.add(new DeleteOneModel<>(Filters.and(Filters.eq(DATA_ID, collectionId), Filters.eq(COUNT, counter))));
+         }
+      });
+      writes.add(new UpdateOneModel<>(Filters.eq(DATA_ID, COUNTS_RECONCILED), Updates.set(RECONCILE_DATE, new Date()), new UpdateOptions().upsert(true)));
+      countersCollection().bulkWrite(writes);
+
+      return counts;
+   }
+
+   /**
+    * Counts the documents of the collection and stores the count. The counter is created atomically when it is missing
+    * and it is replaced only when no increment happened since it was read, otherwise the count is computed again.
+    */
+   private long reconcileDocumentsCount(final String collectionId, final org.bson.Document readCounter) {
+      org.bson.Document counter = readCounter;
+      for (int attempt = 1; ; attempt++) {
+         final long count = databaseCollection().countDocuments(Filters.eq(DocumentCodec.COLLECTION_ID, collectionId));
+
+         if (counter == null) {
+            final UpdateResult result = countersCollection().updateOne(Filters.eq(DATA_ID, collectionId), Updates.setOnInsert(COUNT, count), new UpdateOptions().upsert(true));
+            if (result.getUpsertedId() != null) {
+               return count;
+            }
+         } else {
+            final UpdateResult result = countersCollection().updateOne(Filters.and(Filters.eq(DATA_ID, collectionId), Filters.eq(COUNT, counter.get(COUNT))),
+                  Updates.combine(Updates.set(COUNT, count), Updates.unset(PARTIAL)));
+            if (result.getMatchedCount() > 0) {
+               return count;
+            }
+         }
+
+         // somebody else changed the counter meanwhile
+         counter = countersCollection().find(Filters.eq(DATA_ID, collectionId)).first();
+         if (counter != null && !counter.getBoolean(PARTIAL, false)) {
+            return counter.get(COUNT, Number.class).longValue();
+         }
+         if (attempt >= RECONCILE_ATTEMPTS) {
+            return count;
+         }
+      }
+   }
+
+   private void incrementDocumentsCounts(final List<Document> documents) {
+      documents.stream().collect(Collectors.groupingBy(Document::getCollectionId, Collectors.counting()))
+               .forEach(this::incrementDocumentsCount);
+   }
+
+   private void incrementDocumentsCount(final String collectionId, final long delta) {
+      if (collectionId == null) {
+         return;
+      }
+
+      // a missing counter is created by the same atomic update, it does not include the documents created before counting
+      // was introduced, so it is marked as partial and reconciled when it is read
+      countersCollection().updateOne(Filters.eq(DATA_ID, collectionId), Updates.combine(Updates.inc(COUNT, delta), Updates.setOnInsert(PARTIAL, true)),
+            new UpdateOptions().upsert(true));
    }
 
    @Override
@@ -197,9 +347,8 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
    }
 
    private List<Document> getDocumentsPaginated(final Bson filter, final Pagination pagination) {
-      FindIterable<Document> iterable = databaseCollection().find(filter);
-      addPaginationToQuery(iterable, pagination);
-      return iterable.into(new ArrayList<>());
+      ensureIndexesOnce(databaseCollectionName(), () -> ensureIndexes(getProject().get()));
+      return findPaginated(databaseCollection(), filter, pagination).into(new ArrayList<>());
    }
 
    @Override
@@ -232,6 +381,54 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       return getDocumentsPaginated(filter, pagination);
    }
 
+   @Override
+   public List<Document> getDocumentsWithData(final String collectionId, final Set<String> ids) {
+      Bson idsFilter = MongoFilters.idsFilter(ids);
+      if (idsFilter == null) {
+         return Collections.emptyList();
+      }
+      return getDocumentsWithData(collectionId, Filters.and(idsFilter, Filters.eq(DocumentCodec.COLLECTION_ID, collectionId)), null);
+   }
+
+   @Override
+   public List<Document> getDocumentsWithData(final String collectionId, final Pagination pagination) {
+      return getDocumentsWithData(collectionId, Filters.eq(DocumentCodec.COLLECTION_ID, collectionId), pagination);
+   }
+
+   @Override
+   public List<Document> getDocumentsWithDataByCreator(final String collectionId, final String userId, final Set<String> ids) {
+      Bson idsFilter = MongoFilters.idsFilter(ids);
+      if (idsFilter == null) {
+         return Collections.emptyList();
+      }
+      return getDocumentsWithData(collectionId, Filters.and(idsFilter, creatorFilter(collectionId, userId)), null);
+   }
+
+   @Override
+   public List<Document> getDocumentsWithDataByCreator(final String collectionId, final String userId, final Pagination pagination) {
+      return getDocumentsWithData(collectionId, creatorFilter(collectionId, userId), pagination);
+   }
+
+   private List<Document> getDocumentsWithData(final String collectionId, final Bson filter, final Pagination pagination) {
+      ensureIndexesOnce(databaseCollectionName(), () -> ensureIndexes(getProject().get()));
+      final List<Bson> aggregates = new ArrayList<>();
+      aggregates.add(Aggregates.match(addPaginationToFilter(filter, pagination)));
+      addPaginationToAggregates(aggregates, pagination);
+      aggregates.add(Aggregates.lookup(MongoDataDao.dataCollectionName(collectionId), DocumentCodec.ID, DATA_ID, JOINED_DATA));
+
+      final List<Document> documents = new ArrayList<>();
+      try (MongoCursor<org.bson.Document> cursor = rawDatabaseCollection().aggregate(aggregates).iterator()) {
+         while (cursor.hasNext()) {
+            final org.bson.Document bson = cursor.next();
+            final List<org.bson.Document> joinedData = bson.getList(JOINED_DATA, org.bson.Document.class);
+            final Document document = DocumentCodec.convertFromDocument(bson);
+            document.setData(joinedData != null && !joinedData.isEmpty() ? MongoUtils.convertDocument(joinedData.get(0)) : new DataDocument());
+            documents.add(document);
+         }
+      }
+      return documents;
+   }
+
    @Override
    public List<Document> getDocumentsWithTemplateId() {
       return databaseCollection().find(Filters.exists(DocumentCodec.META_DATA + "." + Document.META_TEMPLATE_ID)).into(new ArrayList<>());
@@ -263,6 +460,7 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
          insertDocuments.add(insertDocument);
       });
       databaseCollection().insertMany(insertDocuments);
+      incrementDocumentsCounts(insertDocuments);
 
       return insertDocuments;
    }
@@ -289,6 +487,17 @@ public class MongoDocumentDao extends MongoProjectScopedDao implements DocumentD
       return databaseCollectionName(getProject().get());
    }
 
+   private String countersCollectionName(Project project) {
+      return COUNTERS_PREFIX + project.getId();
+   }
+
+   private MongoCollection<org.bson.Document> countersCollection() {
+      if (getProject().isEmpty()) {
+         throw new ResourceNotFoundException(ResourceType.PROJECT);
+      }
+      return database.getCollection(countersCollectionName(getProject().get()));
+   }
+
    private MongoCollection<org.bson.Document> rawDatabaseCollection() {
       return database.getCollection(databaseCollectionName());
    }
@@ -74,9 +74,14 @@ public class MongoLinkInstanceDao extends MongoProjectScopedDao implements LinkI
    @Override
    public void createRepository(Project project) {
       database.createCollection(databaseCollectionName(project));
+      ensureIndexes(project);
+   }
 
+   @Override
+   public void ensureIndexes(final Project project) {
       MongoCollection<Document> projectCollection = database.getCollection(databaseCollectionName(project));
       projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.LINK_TYPE_ID), new IndexOptions().unique(false));
+      projectCollection.createIndex(Indexes.ascending(LinkInstanceCodec.LINK_TYPE_ID, LinkInstanceCodec.ID), new IndexOptions().unique(false));
    }
 
    @Override
@@ -212,9 +217,8 @@ public class MongoLinkInstanceDao extends MongoProjectScopedDao implements LinkI
    }
 
    private List<LinkInstance> getLinkInstancesPaginated(final Bson filter, final Pagination pagination) {
-      FindIterable<LinkInstance> iterable = databaseCollection().find(filter);
-      addPaginationToQuery(iterable, pagination);
-      return iterable.into(new ArrayList<>());
+      ensureIndexesOnce(databaseCollectionName(), () -> ensureIndexes(getProject().get()));
+      return findPaginated(databaseCollection(), filter, pagination).into(new ArrayList<>());
    }
 
    @Override
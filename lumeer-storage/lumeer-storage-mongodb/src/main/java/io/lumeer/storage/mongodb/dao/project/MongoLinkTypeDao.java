@@ -72,6 +72,9 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
    @Inject
    private Event<RemoveLinkType> removeLinkTypeEvent;
 
+   @Inject
+   private ProjectMetadataCache metadataCache;
+
    @Override
    public void createRepository(Project project) {
       database.createCollection(databaseCollectionName(project));
@@ -79,17 +82,20 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
       MongoCollection<Document> projectCollection = database.getCollection(databaseCollectionName(project));
       projectCollection.createIndex(Indexes.ascending(LinkTypeCodec.NAME), new IndexOptions().unique(false));
       projectCollection.createIndex(Indexes.ascending(LinkTypeCodec.COLLECTION_IDS));
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
    public void deleteRepository(Project project) {
       database.getCollection(databaseCollectionName(project)).drop();
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
    public LinkType createLinkType(final LinkType linkType) {
       try {
          databaseCollection().insertOne(linkType);
+         invalidateCache();
          if (createLinkTypeEvent != null) {
             createLinkTypeEvent.fire(new CreateLinkType(linkType));
          }
@@ -110,6 +116,7 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
       try {
          Bson update = new Document("$set", linkType).append("$inc", new Document(LinkTypeCodec.VERSION, 1L));
          LinkType updatedLinkType = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
+         invalidateCache();
          if (updatedLinkType == null) {
             throw new StorageException("Link type '" + id + "' has not been updated.");
          }
@@ -125,6 +132,7 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
    @Override
    public void deleteLinkType(final String id) {
       LinkType linkType = databaseCollection().findOneAndDelete(idFilter(id));
+      invalidateCache();
       if (linkType == null) {
          throw new StorageException("Link type '" + id + "' has not been deleted.");
       }
@@ -136,10 +144,17 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
    @Override
    public void deleteLinkTypesByCollectionId(final String collectionId) {
       databaseCollection().deleteMany(collectionIdFilter(collectionId));
+      invalidateCache();
    }
 
    @Override
    public LinkType getLinkType(final String id) {
+      if (metadataCache != null) {
+         final LinkType linkType = metadataCache.getById(databaseCollectionName(), databaseCollection(), id);
+         if (linkType != null) {
+            return linkType;
+         }
+      }
       LinkType linkType = databaseCollection().find(idFilter(id)).first();
       if (linkType == null) {
          throw new StorageException("Cannot find link type: " + id);
@@ -149,11 +164,17 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
 
    @Override
    public List<LinkType> getAllLinkTypes() {
+      if (metadataCache != null) {
+         return metadataCache.getAll(databaseCollectionName(), databaseCollection());
+      }
       return databaseCollection().find().into(new ArrayList<>());
    }
 
    @Override
    public List<LinkType> getLinkTypesByIds(final Set<String> ids) {
+      if (metadataCache != null) {
+         return metadataCache.getByIds(databaseCollectionName(), databaseCollection(), ids);
+      }
       Bson filter = MongoFilters.idsFilter(ids);
       if (filter == null) {
          return Collections.emptyList();
@@ -225,6 +246,7 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
       try {
          Bson update = new Document("$inc", new Document(LinkTypeCodec.LAST_ATTRIBUTE_NUM, count));
          final LinkType updatedLinkType = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
+         invalidateCache();
          if (updatedLinkType == null) {
             throw new StorageException("LinkType '" + id + "' has not been updated.");
          }
@@ -258,6 +280,20 @@ public class MongoLinkTypeDao extends MongoProjectScopedDao implements LinkTypeD
       return Filters.in(LinkTypeCodec.COLLECTION_IDS, Collections.singletonList(collectionId));
    }
 
+   public void setMetadataCache(final ProjectMetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+   }
+
+   private void invalidateCache() {
+      invalidateCache(databaseCollectionName());
+   }
+
+   private void invalidateCache(final String name) {
+      if (metadataCache != null) {
+         metadataCache.invalidate(name);
+      }
+   }
+
    private String databaseCollectionName(Project project) {
       return PREFIX + project.getId();
    }
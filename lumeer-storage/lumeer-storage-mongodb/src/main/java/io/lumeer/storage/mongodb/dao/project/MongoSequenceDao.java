@@ -33,6 +33,7 @@ import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.codecs.SequenceCodec;
 import io.lumeer.storage.mongodb.util.MongoFilters;
+import io.lumeer.storage.mongodb.util.SequenceAllocator;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
@@ -72,6 +73,7 @@ public class MongoSequenceDao extends MongoProjectScopedDao implements SequenceD
    @Override
    public void deleteRepository(final Project project) {
       database.getCollection(getSequenceCollectionName(project)).drop();
+      SequenceAllocator.getInstance().invalidatePrefix(getAllocatorKeyPrefix(getSequenceCollectionName(project)));
    }
 
    @Override
@@ -95,6 +97,7 @@ public class MongoSequenceDao extends MongoProjectScopedDao implements SequenceD
       if (sequence == null) {
          throw new StorageException("Sequence '" + id + "' has not been deleted.");
       }
+      SequenceAllocator.getInstance().invalidate(getAllocatorKey(sequence.getName()));
       if (removeSequenceEvent != null) {
          removeSequenceEvent.fire(new RemoveSequence(sequence));
       }
@@ -108,6 +111,7 @@ public class MongoSequenceDao extends MongoProjectScopedDao implements SequenceD
          if (returnedSequence == null) {
             throw new StorageException("Sequence '" + sequence.getId() + "' has not been updated.");
          }
+         SequenceAllocator.getInstance().invalidate(getAllocatorKey(returnedSequence.getName()));
          if (createOrUpdateSequenceEvent != null) {
             createOrUpdateSequenceEvent.fire(new CreateOrUpdateSequence(returnedSequence));
          }
@@ -118,29 +122,46 @@ public class MongoSequenceDao extends MongoProjectScopedDao implements SequenceD
    }
 
    @Override
-   public synchronized int getNextSequenceNo(final String indexName) {
+   public int getNextSequenceNo(final String indexName) {
+      return (int) SequenceAllocator.getInstance().next(getAllocatorKey(indexName), size -> reserveSequenceBlock(indexName, size));
+   }
+
+   private long reserveSequenceBlock(final String indexName, final int size) {
       final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions();
       options.returnDocument(ReturnDocument.AFTER);
 
-      final Sequence seq = databaseCollection().findOneAndUpdate(eq(SequenceCodec.NAME, indexName), inc(SequenceCodec.SEQ, 1),
+      final Sequence seq = databaseCollection().findOneAndUpdate(eq(SequenceCodec.NAME, indexName), inc(SequenceCodec.SEQ, size),
             options);
 
-      if (seq == null) { // the sequence did not exist
-         resetSequence(indexName);
-         return 0;
+      if (seq == null) { // the sequence did not exist, the block starts from zero
+         setSequence(indexName, size - 1);
+         return size - 1;
       } else {
          return seq.getSeq();
       }
    }
 
    @Override
-   public synchronized void resetSequence(final String indexName) {
+   public void resetSequence(final String indexName) {
+      setSequence(indexName, 0);
+      SequenceAllocator.getInstance().invalidate(getAllocatorKey(indexName));
+   }
+
+   private void setSequence(final String indexName, final int value) {
       final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER).upsert(true);
-      final Sequence sequence = new Sequence(indexName, 0);
+      final Sequence sequence = new Sequence(indexName, value);
       Bson update = new org.bson.Document("$set", sequence);
       databaseCollection().findOneAndUpdate(eq(SequenceCodec.NAME, indexName), update, options);
    }
 
+   private String getAllocatorKey(final String indexName) {
+      return getAllocatorKeyPrefix(getDatabaseCollectionName()) + indexName;
+   }
+
+   private String getAllocatorKeyPrefix(final String collectionName) {
+      return database.getName() + "/" + collectionName + "/";
+   }
+
    public String getSequenceCollectionName(Project project) {
       return PREFIX + project.getId();
    }
@@ -71,6 +71,9 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
    @Inject
    private Event<RemoveResource> removeResourceEvent;
 
+   @Inject
+   private ProjectMetadataCache metadataCache;
+
    @Override
    public void createRepository(Project project) {
       database.createCollection(databaseCollectionName(project));
@@ -79,17 +82,20 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
       projectCollection.createIndex(Indexes.ascending(ViewCodec.CODE), new IndexOptions().unique(true));
       projectCollection.createIndex(Indexes.ascending(ViewCodec.NAME), new IndexOptions().unique(false));
       projectCollection.createIndex(Indexes.text(ViewCodec.NAME));
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
    public void deleteRepository(Project project) {
       database.getCollection(databaseCollectionName(project)).drop();
+      invalidateCache(databaseCollectionName(project));
    }
 
    @Override
    public View createView(final View view) {
       try {
          databaseCollection().insertOne(view);
+         invalidateCache();
          if (createResourceEvent != null) {
             createResourceEvent.fire(new CreateResource(view));
          }
@@ -111,6 +117,7 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
       try {
          Bson update = new Document("$set", view).append("$inc", new Document(ViewCodec.VERSION, 1L));
          View updatedView = databaseCollection().findOneAndUpdate(idFilter(id), update, options);
+         invalidateCache();
          if (updatedView == null) {
             throw new StorageException("View '" + id + "' has not been updated.");
          }
@@ -127,6 +134,7 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
    @Override
    public void deleteView(final String id) {
       final View view = databaseCollection().findOneAndDelete(idFilter(id));
+      invalidateCache();
       if (view == null) {
          throw new StorageException("View '" + id + "' has not been deleted.");
       }
@@ -146,6 +154,12 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
 
    @Override
    public View getViewById(final String id) {
+      if (metadataCache != null) {
+         final View view = metadataCache.getById(databaseCollectionName(), databaseCollection(), id);
+         if (view != null) {
+            return view;
+         }
+      }
       MongoCursor<View> mongoCursor = databaseCollection().find(idFilter(id)).iterator();
       if (!mongoCursor.hasNext()) {
          throw new ResourceNotFoundException(ResourceType.VIEW);
@@ -155,6 +169,9 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
 
    @Override
    public List<View> getAllViews() {
+      if (metadataCache != null) {
+         return metadataCache.getAll(databaseCollectionName(), databaseCollection());
+      }
       return databaseCollection().find().into(new ArrayList<>());
    }
 
@@ -188,6 +205,20 @@ public class MongoViewDao extends MongoProjectScopedDao implements ViewDao {
                                  .collect(Collectors.toSet());
    }
 
+   public void setMetadataCache(final ProjectMetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+   }
+
+   private void invalidateCache() {
+      invalidateCache(databaseCollectionName());
+   }
+
+   private void invalidateCache(final String name) {
+      if (metadataCache != null) {
+         metadataCache.invalidate(name);
+      }
+   }
+
    private String databaseCollectionName(Project project) {
       return PREFIX + project.getId();
    }
@@ -0,0 +1,240 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.dao.project;
+
+import io.lumeer.api.model.Project;
+import io.lumeer.engine.api.event.LinkTypeEvent;
+import io.lumeer.engine.api.event.ResourceEvent;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+/**
+ * Application wide cache of small per project metadata collections (collections, link types, views).
+ * Each database collection is cached as a snapshot of raw BSON documents, every read decodes fresh objects,
+ * so callers are free to modify them. A snapshot is valid only for the epoch it was loaded in, the epoch is
+ * increased by every write done through the DAOs and by the resource events. Snapshots also expire after
+ * {@link #MAX_AGE_MS} to limit staleness caused by writes from other application nodes.
+ */
+@ApplicationScoped
+public class ProjectMetadataCache {
+
+   public static final int MAX_SNAPSHOTS = 1_000;
+   public static final long MAX_AGE_MS = 30_000;
+
+   public static final class Stats {
+      private final int size;
+      private final long hits;
+      private final long misses;
+      private final long invalidations;
+
+      private Stats(final int size, final long hits, final long misses, final long invalidations) {
+         this.size = size;
+         this.hits = hits;
+         this.misses = misses;
+         this.invalidations = invalidations;
+      }
+
+      public int getSize() {
+         return size;
+      }
+
+      public long getHits() {
+         return hits;
+      }
+
+      public long getMisses() {
+         return misses;
+      }
+
+      public long getInvalidations() {
+         return invalidations;
+      }
+
+      @Override
+      public String toString() {
+         return "Stats{" +
+               "size=" + size +
+               ", hits=" + hits +
+               ", misses=" + misses +
+               ", invalidations=" + invalidations +
+               '}';
+      }
+   }
+
+   private static final class Snapshot {
+      private final long epoch;
+      private final long created = System.currentTimeMillis();
+      private final List<RawBsonDocument> documents;
+      private final Map<String, RawBsonDocument> documentsById;
+
+      private Snapshot(final long epoch, final List<RawBsonDocument> documents) {
+         this.epoch = epoch;
+         this.documents = documents;
+         this.documentsById = documents.stream().collect(Collectors.toMap(ProjectMetadataCache::getId, d -> d, (a, b) -> a));
+      }
+   }
+
+   private final Map<String, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Snapshot> eldest) {
+         return size() > MAX_SNAPSHOTS;
+      }
+   }; // guarded by itself
+
+   private final Map<String, AtomicLong> epochs = new ConcurrentHashMap<>();
+
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong invalidations = new AtomicLong();
+
+   public <T> List<T> getAll(final String key, final MongoCollection<T> collection) {
+      final Snapshot snapshot = getSnapshot(key, collection);
+      final Codec<T> codec = getCodec(collection);
+      final List<T> result = new ArrayList<>(snapshot.documents.size());
+      snapshot.documents.forEach(document -> result.add(document.decode(codec)));
+      return result;
+   }
+
+   /**
+    * @return The cached object or null when it is not present in the snapshot.
+    */
+   public <T> T getById(final String key, final MongoCollection<T> collection, final String id) {
+      final RawBsonDocument document = getSnapshot(key, collection).documentsById.get(id);
+      return document != null ? document.decode(getCodec(collection)) : null;
+   }
+
+   public <T> List<T> getByIds(final String key, final MongoCollection<T> collection, final java.util.Collection<String> ids) {
+      if (ids == null || ids.isEmpty()) {
+         return Collections.emptyList();
+      }
+      final Snapshot snapshot = getSnapshot(key, collection);
+      final Codec<T> codec = getCodec(collection);
+      return ids.stream().distinct()
+                .map(snapshot.documentsById::get)
+                .filter(Objects::nonNull)
+                .map(document -> document.decode(codec))
+                .collect(Collectors.toList());
+   }
+
+   public void invalidate(final String key) {
+      epochs.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+      synchronized (snapshots) {
+         snapshots.remove(key);
+      }
+      invalidations.incrementAndGet();
+   }
+
+   public void invalidateProject(final Project project) {
+      invalidateMatching((key, snapshot) -> key.endsWith(project.getId()));
+   }
+
+   public void clear() {
+      invalidateMatching((key, snapshot) -> true);
+   }
+
+   public Stats getStats() {
+      final int size;
+      synchronized (snapshots) {
+         size = snapshots.size();
+      }
+      return new Stats(size, hits.get(), misses.get(), invalidations.get());
+   }
+
+   public void onResourceEvent(@Observes final ResourceEvent event) {
+      if (event.getResource() instanceof Project) {
+         invalidateProject((Project) event.getResource());
+      } else if (event.getResource() != null) {
+         invalidateContaining(event.getResource().getId());
+      }
+   }
+
+   public void onLinkTypeEvent(@Observes final LinkTypeEvent event) {
+      if (event.getLinkType() != null) {
+         invalidateContaining(event.getLinkType().getId());
+      }
+   }
+
+   private void invalidateContaining(final String id) {
+      invalidateMatching((key, snapshot) -> snapshot.documentsById.containsKey(id));
+   }
+
+   private void invalidateMatching(final BiPredicate<String, Snapshot> predicate) {
+      final List<String> keys;
+      synchronized (snapshots) {
+         keys = snapshots.entrySet().stream()
+                         .filter(entry -> predicate.test(entry.getKey(), entry.getValue()))
+                         .map(Map.Entry::getKey)
+                         .collect(Collectors.toList());
+      }
+      keys.forEach(this::invalidate);
+   }
+
+   private <T> Snapshot getSnapshot(final String key, final MongoCollection<T> collection) {
+      final AtomicLong epoch = epochs.computeIfAbsent(key, k -> new AtomicLong());
+      final long currentEpoch = epoch.get();
+
+      synchronized (snapshots) {
+         final Snapshot snapshot = snapshots.get(key);
+         if (snapshot != null && snapshot.epoch == currentEpoch && System.currentTimeMillis() - snapshot.created < MAX_AGE_MS) {
+            hits.incrementAndGet();
+            return snapshot;
+         }
+      }
+
+      misses.incrementAndGet();
+      final Snapshot snapshot = new Snapshot(currentEpoch, collection.withDocumentClass(RawBsonDocument.class).find().into(new ArrayList<>()));
+
+      // a write during the load makes the snapshot outdated, it can be still returned to this reader but must not be cached
+      if (epoch.get() == currentEpoch) {
+         synchronized (snapshots) {
+            snapshots.put(key, snapshot);
+         }
+      }
+      return snapshot;
+   }
+
+   private static <T> Codec<T> getCodec(final MongoCollection<T> collection) {
+      return collection.getCodecRegistry().get(collection.getDocumentClass());
+   }
+
+   private static String getId(final RawBsonDocument document) {
+      final BsonValue id = document.get("_id");
+      if (id instanceof BsonObjectId) {
+         return ((BsonObjectId) id).getValue().toHexString();
+      }
+      return id != null && id.isString() ? id.asString().getValue() : String.valueOf(id);
+   }
+}
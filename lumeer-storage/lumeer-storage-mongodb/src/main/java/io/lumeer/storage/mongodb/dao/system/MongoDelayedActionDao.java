@@ -24,17 +24,21 @@ import io.lumeer.api.model.DelayedAction;
 import io.lumeer.api.model.NotificationType;
 import io.lumeer.storage.api.dao.DelayedActionDao;
 import io.lumeer.storage.api.exception.StorageException;
+import io.lumeer.storage.mongodb.codecs.DelayedActionCodec;
 
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
-import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
@@ -52,10 +56,14 @@ public class MongoDelayedActionDao extends MongoSystemScopedDao implements Delay
 
    public static final String COLLECTION_NAME = "delayed_actions";
 
+   private static final String DATA_DOCUMENT_ID = DelayedAction.DATA + "." + DelayedAction.DATA_DOCUMENT_ID;
+
    @PostConstruct
    public void checkRepository() {
       if (!database.listCollectionNames().into(new ArrayList<>()).contains(databaseCollectionName())) {
          createDelayedActionsRepository();
+      } else {
+         database.getCollection(databaseCollectionName()).createIndex(Indexes.ascending(DelayedAction.PROCESSOR), new IndexOptions().unique(false));
       }
    }
 
@@ -70,6 +78,7 @@ public class MongoDelayedActionDao extends MongoSystemScopedDao implements Delay
       actionsCollection.createIndex(Indexes.ascending(DelayedAction.RECEIVER), new IndexOptions().unique(false));
       actionsCollection.createIndex(Indexes.ascending(DelayedAction.RESOURCE_PATH), new IndexOptions().unique(false));
       actionsCollection.createIndex(Indexes.ascending(DelayedAction.NOTIFICATION_TYPE), new IndexOptions().unique(false));
+      actionsCollection.createIndex(Indexes.ascending(DelayedAction.PROCESSOR), new IndexOptions().unique(false));
    }
 
    @Override
@@ -118,32 +127,47 @@ public class MongoDelayedActionDao extends MongoSystemScopedDao implements Delay
    }
 
    @Override
-   public List<DelayedAction> getActionsForProcessing(final boolean skipDelay) {
-      FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
-      final List<DelayedAction> result = new ArrayList<>();
+   public List<DelayedAction> getActionsForProcessing(final boolean skipDelay, final int batchSize) {
       final String signature = UUID.randomUUID().toString(); // generate unique signature
+      final Bson readyFilter = Filters.and(
+            Filters.not(Filters.exists(DelayedAction.STARTED_PROCESSING)),
+            Filters.lt(DelayedAction.CHECK_AFTER, Date.from((skipDelay ? ZonedDateTime.now() : ZonedDateTime.now().minus(PROCESSING_DELAY_MINUTES, ChronoUnit.MINUTES)).toInstant()))
+      );
 
-      DelayedAction action;
-      do {
-         action = databaseCollection().findOneAndUpdate(
-               Filters.and(
-                     Filters.not(Filters.exists(DelayedAction.STARTED_PROCESSING)),
-                     Filters.lt(DelayedAction.CHECK_AFTER, Date.from((skipDelay ? ZonedDateTime.now() : ZonedDateTime.now().minus(PROCESSING_DELAY_MINUTES, ChronoUnit.MINUTES)).toInstant()))
-               ),
-               Updates.combine(
-                     Updates.set(DelayedAction.STARTED_PROCESSING, Date.from(ZonedDateTime.now().toInstant())),
-                     Updates.set(DelayedAction.PROCESSOR, signature)
-               ),
-               options
-         );
-         if (action != null) {
-            if (signature.equals(action.getProcessor())) { // otherwise it has been taken by another node in cluster
-               result.add(action);
-            }
-         }
-      } while (action != null);
+      final List<Document> candidates = database.getCollection(databaseCollectionName())
+                                                .find(readyFilter)
+                                                .projection(Projections.include(DelayedActionCodec.ID, DelayedAction.RECEIVER, DATA_DOCUMENT_ID))
+                                                .sort(Sorts.ascending(DelayedAction.CHECK_AFTER))
+                                                .limit(batchSize)
+                                                .into(new ArrayList<>());
+      if (candidates.isEmpty()) {
+         return new ArrayList<>();
+      }
+
+      // ready actions of the same receiver and task are claimed with the candidates so that they can be aggregated together
+      final List<Bson> claimFilters = new ArrayList<>();
+      claimFilters.add(Filters.in(DelayedActionCodec.ID, candidates.stream().map(document -> document.getObjectId(DelayedActionCodec.ID)).collect(Collectors.toList())));
+      candidates.stream()
+                .filter(document -> document.getString(DelayedAction.RECEIVER) != null && getDocumentId(document) != null)
+                .map(document -> List.of(document.getString(DelayedAction.RECEIVER), getDocumentId(document)))
+                .distinct()
+                .forEach(group -> claimFilters.add(Filters.and(Filters.eq(DelayedAction.RECEIVER, group.get(0)), Filters.eq(DATA_DOCUMENT_ID, group.get(1)))));
+
+      // the ready filter is repeated so that actions taken by another node in cluster in the meantime are skipped
+      databaseCollection().updateMany(
+            Filters.and(Filters.or(claimFilters), readyFilter),
+            Updates.combine(
+                  Updates.set(DelayedAction.STARTED_PROCESSING, Date.from(ZonedDateTime.now().toInstant())),
+                  Updates.set(DelayedAction.PROCESSOR, signature)
+            )
+      );
+
+      return databaseCollection().find(Filters.eq(DelayedAction.PROCESSOR, signature)).into(new ArrayList<>());
+   }
 
-      return result;
+   private static String getDocumentId(final Document action) {
+      final Document data = action.get(DelayedAction.DATA, Document.class);
+      return data != null ? data.getString(DelayedAction.DATA_DOCUMENT_ID) : null;
    }
 
    public DelayedAction updateAction(final DelayedAction action) {
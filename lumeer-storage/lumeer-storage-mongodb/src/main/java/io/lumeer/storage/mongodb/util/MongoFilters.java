@@ -20,6 +20,7 @@
 package io.lumeer.storage.mongodb.util;
 
 import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.ConditionType;
 import io.lumeer.api.model.RoleType;
 import io.lumeer.storage.api.filter.SearchAttributeFilter;
 import io.lumeer.storage.api.query.DatabaseQuery;
@@ -28,10 +29,12 @@ import io.lumeer.storage.mongodb.codecs.PermissionsCodec;
 import io.lumeer.storage.mongodb.codecs.RoleCodec;
 
 import com.mongodb.client.model.Filters;
+import org.bson.BsonType;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -44,6 +47,7 @@ public class MongoFilters {
    private static final String CODE = "code";
    private static final String NAME = "name";
    private static final String PERMISSIONS = "roles";
+   private static final Set<ConditionType> NUMBER_CONDITIONS = EnumSet.of(ConditionType.EQUALS, ConditionType.LOWER_THAN, ConditionType.LOWER_THAN_EQUALS, ConditionType.GREATER_THAN, ConditionType.GREATER_THAN_EQUALS, ConditionType.BETWEEN);
 
    public static Bson idFilter(String id) {
       return Filters.eq(ID, new ObjectId(id));
@@ -153,8 +157,35 @@ public class MongoFilters {
             return Filters.gt(filter.getAttributeId(), filter.getValue());
          case GREATER_THAN_EQUALS:
             return Filters.gte(filter.getAttributeId(), filter.getValue());
+         case BETWEEN:
+            if (filter.getValue() instanceof List && ((List<?>) filter.getValue()).size() == 2) {
+               List<?> values = (List<?>) filter.getValue();
+               return Filters.and(Filters.gte(filter.getAttributeId(), values.get(0)), Filters.lte(filter.getAttributeId(), values.get(1)));
+            }
+            return null;
+         case NOT_EMPTY:
+            return Filters.and(Filters.ne(filter.getAttributeId(), null), Filters.ne(filter.getAttributeId(), ""));
       }
       return null;
    }
 
+   /**
+    * Creates a filter that matches at least all the documents matched by {@link #attributeFilter(SearchAttributeFilter)},
+    * numeric comparisons also match values that are stored as strings (i.e. numbers with leading zeros).
+    */
+   public static Bson attributePrefilter(SearchAttributeFilter filter) {
+      Bson attributeFilter = attributeFilter(filter);
+      if (attributeFilter != null && NUMBER_CONDITIONS.contains(filter.getConditionType()) && isNumeric(filter.getValue())) {
+         return Filters.or(attributeFilter, Filters.type(filter.getAttributeId(), BsonType.STRING));
+      }
+      return attributeFilter;
+   }
+
+   private static boolean isNumeric(Object value) {
+      if (value instanceof List) {
+         return ((List<?>) value).stream().allMatch(v -> v instanceof Number);
+      }
+      return value instanceof Number;
+   }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out sequence numbers from blocks reserved in the database by a single increment.
+ * Numbers of a reserved block are served lock-free, only the reservation of the next block
+ * is serialized and only for the sequence concerned.
+ *
+ * With the block size of 1 (the default) every number is reserved in the database and the sequence stays gap-free.
+ * Larger blocks (system property <code>lumeer.sequence.blockSize</code>) trade that for far fewer round trips,
+ * numbers of a block not used before restart or reset are skipped.
+ */
+public class SequenceAllocator {
+
+   public static final String BLOCK_SIZE_PROPERTY = "lumeer.sequence.blockSize";
+
+   private static final SequenceAllocator INSTANCE = new SequenceAllocator(Integer.getInteger(BLOCK_SIZE_PROPERTY, 1));
+
+   @FunctionalInterface
+   public interface BlockReservation {
+
+      /**
+       * Reserves the given amount of numbers in the database.
+       *
+       * @param size
+       *       Number of values to reserve.
+       * @return The highest reserved number.
+       */
+      long reserve(final int size);
+   }
+
+   private final int blockSize;
+   private final ConcurrentMap<String, SequenceState> sequences = new ConcurrentHashMap<>();
+
+   public SequenceAllocator(final int blockSize) {
+      this.blockSize = Math.max(1, blockSize);
+   }
+
+   public static SequenceAllocator getInstance() {
+      return INSTANCE;
+   }
+
+   public int getBlockSize() {
+      return blockSize;
+   }
+
+   public boolean isStrict() {
+      return blockSize == 1;
+   }
+
+   public long next(final String key, final BlockReservation reservation) {
+      final SequenceState state = sequences.computeIfAbsent(key, k -> new SequenceState());
+
+      while (true) {
+         final long value = state.block.take();
+         if (value != Block.EXHAUSTED) {
+            return value;
+         }
+
+         synchronized (state) {
+            if (!state.block.hasNext()) {
+               final long last = reservation.reserve(blockSize);
+               state.block = new Block(last - blockSize + 1, last);
+            }
+         }
+      }
+   }
+
+   /**
+    * Forgets the numbers reserved for the sequence, the next number is reserved from the database again.
+    *
+    * @param key
+    *       Sequence key.
+    */
+   public void invalidate(final String key) {
+      sequences.remove(key);
+   }
+
+   public void invalidatePrefix(final String prefix) {
+      sequences.keySet().removeIf(key -> key.startsWith(prefix));
+   }
+
+   private static class SequenceState {
+      private volatile Block block = new Block(0, -1);
+   }
+
+   private static class Block {
+
+      private static final long EXHAUSTED = Long.MIN_VALUE;
+
+      private final AtomicLong next;
+      private final long limit;
+
+      private Block(final long first, final long limit) {
+         this.next = new AtomicLong(first);
+         this.limit = limit;
+      }
+
+      private long take() {
+         while (true) {
+            final long value = next.get();
+            if (value > limit) {
+               return EXHAUSTED;
+            }
+            if (next.compareAndSet(value, value + 1)) {
+               return value;
+            }
+         }
+      }
+
+      private boolean hasNext() {
+         return next.get() <= limit;
+      }
+   }
+}
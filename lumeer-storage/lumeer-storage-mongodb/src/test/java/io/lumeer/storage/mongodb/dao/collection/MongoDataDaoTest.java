@@ -40,8 +40,10 @@ import org.mockito.Mockito;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 public class MongoDataDaoTest extends MongoDbTestBase {
 
@@ -157,6 +159,21 @@ public class MongoDataDaoTest extends MongoDbTestBase {
       assertThat(document).containsEntry(KEY2, VALUE2);
    }
 
+   @Test
+   public void testPatchDataInBulk() {
+      String id1 = createDocument();
+      String id2 = createDocument();
+
+      Map<String, DataDocument> patches = new HashMap<>();
+      patches.put(id1, new DataDocument().append(KEY1, VALUE2));
+      patches.put(id2, new DataDocument().append(KEY3, VALUE1));
+      List<DataDocument> patchedData = dataDao.patchData(COLLECTION_ID, patches);
+
+      assertThat(patchedData).extracting(DataDocument::getId).containsOnly(id1, id2);
+      assertThat(dataDao.getData(COLLECTION_ID, id1)).containsEntry(KEY1, VALUE2).containsEntry(KEY2, VALUE2);
+      assertThat(dataDao.getData(COLLECTION_ID, id2)).containsEntry(KEY1, VALUE1).containsEntry(KEY3, VALUE1);
+   }
+
    @Test
    public void testPatchNestedAttributes() {
 
@@ -277,6 +294,37 @@ public class MongoDataDaoTest extends MongoDbTestBase {
       assertThat(data).extracting(DataDocument::getId).containsOnly(id4);
    }
 
+   @Test
+   public void testSearchDataCandidates() {
+      Collection collection = collectionDao.getCollectionById(COLLECTION_ID);
+      createDocument(KEY1, 4L);
+      String id2 = createDocument(KEY1, 8L);
+      String id3 = createDocument(KEY1, 13.5);
+      String id4 = createDocument(KEY1, "010");
+      createDocument(KEY1, "");
+
+      CollectionSearchAttributeFilter filter = new CollectionSearchAttributeFilter(COLLECTION_ID, ConditionType.GREATER_THAN, KEY1, 5L);
+      SearchQueryStem stem = SearchQueryStem.createBuilder(COLLECTION_ID)
+                                            .filters(Collections.singleton(filter))
+                                            .build();
+      List<DataDocument> data = dataDao.searchDataCandidates(stem, null, collection);
+      assertThat(data).extracting(DataDocument::getId).containsOnly(id2, id3, id4);
+
+      filter = new CollectionSearchAttributeFilter(COLLECTION_ID, ConditionType.BETWEEN, KEY1, Arrays.asList(5L, 10L));
+      stem = SearchQueryStem.createBuilder(COLLECTION_ID)
+                            .filters(Collections.singleton(filter))
+                            .build();
+      data = dataDao.searchDataCandidates(stem, null, collection);
+      assertThat(data).extracting(DataDocument::getId).containsOnly(id2, id4);
+
+      filter = new CollectionSearchAttributeFilter(COLLECTION_ID, ConditionType.NOT_EMPTY, KEY1, null);
+      stem = SearchQueryStem.createBuilder(COLLECTION_ID)
+                            .filters(Collections.singleton(filter))
+                            .build();
+      data = dataDao.searchDataCandidates(stem, new Pagination(0, 10), collection);
+      assertThat(data).hasSize(4);
+   }
+
    @Test
    public void testSearchDataByAllConditions() {
       Collection collection = collectionDao.getCollectionById(COLLECTION_ID);
@@ -83,6 +83,22 @@ public class MongoFavoriteItemDaoTest extends MongoDbTestBase {
       assertThat(dao.getFavoriteDocumentIds(USER2, PROJECT_ID1)).isEmpty();
    }
 
+   @Test
+   public void testGetFavoriteUserIds() {
+      dao.addFavoriteCollection(USER, PROJECT_ID1, COLLECTION_ID1);
+      dao.addFavoriteCollection(USER2, PROJECT_ID1, COLLECTION_ID1);
+      dao.addFavoriteCollection(USER2, PROJECT_ID2, COLLECTION_ID2);
+      dao.addFavoriteView(USER, PROJECT_ID1, VIEW_ID1);
+      dao.addFavoriteDocument(USER2, PROJECT_ID1, COLLECTION_ID1, DOCUMENT_ID1);
+
+      assertThat(dao.getFavoriteCollectionUserIds(PROJECT_ID1, COLLECTION_ID1)).containsOnly(USER, USER2);
+      assertThat(dao.getFavoriteCollectionUserIds(PROJECT_ID1, COLLECTION_ID2)).isEmpty();
+      assertThat(dao.getFavoriteViewUserIds(PROJECT_ID1, VIEW_ID1)).containsOnly(USER);
+      assertThat(dao.getFavoriteViewUserIds(PROJECT_ID2, VIEW_ID1)).isEmpty();
+      assertThat(dao.getFavoriteDocumentUserIds(PROJECT_ID1, DOCUMENT_ID1)).containsOnly(USER2);
+      assertThat(dao.getFavoriteDocumentUserIds(PROJECT_ID1, DOCUMENT_ID2)).isEmpty();
+   }
+
    @Test
    public void testAddFavoriteCollectionDuplicate() {
       dao.addFavoriteCollection(USER, PROJECT_ID1, COLLECTION_ID1);
@@ -20,7 +20,9 @@ package io.lumeer.storage.mongodb.dao.project;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
+import io.lumeer.api.SelectedWorkspace;
 import io.lumeer.api.model.Attribute;
 import io.lumeer.api.model.Collection;
 import io.lumeer.api.model.CollectionPurpose;
@@ -36,11 +38,14 @@ import io.lumeer.api.model.Project;
 import io.lumeer.api.model.Rule;
 import io.lumeer.api.model.common.Resource;
 import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.engine.api.event.UpdateResource;
+import io.lumeer.storage.api.dao.context.DaoContextSnapshot;
 import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.api.query.DatabaseQuery;
 import io.lumeer.storage.api.query.SearchSuggestionQuery;
 import io.lumeer.storage.mongodb.MongoDbTestBase;
+import io.lumeer.storage.mongodb.dao.context.MongoDaoContextSnapshotFactory;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import org.bson.types.ObjectId;
@@ -55,6 +60,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public class MongoCollectionDaoTest extends MongoDbTestBase {
@@ -198,6 +204,77 @@ public class MongoCollectionDaoTest extends MongoDbTestBase {
             .isInstanceOf(StorageException.class);
    }
 
+   @Test
+   public void testUpdateAttributesUsage() {
+      Attribute attribute1 = new Attribute("a1", "first", null, null, null, null, 0, null);
+      Attribute attribute2 = new Attribute("a2", "second", null, null, null, null, 1, null);
+      String id = createCollection(CODE, NAME, new HashSet<>(Arrays.asList(attribute1, attribute2))).getId();
+
+      ZonedDateTime lastTimeUsed = LAST_TIME_USED.plusMinutes(1);
+      collectionDao.updateAttributesUsage(id, Map.of("a1", 2, "a2", -1), lastTimeUsed);
+      collectionDao.updateAttributesUsage(id, Map.of("a2", -1), LAST_TIME_USED);
+
+      Collection storedCollection = collectionDao.getCollectionById(id);
+      assertThat(storedCollection.getAttributes()).extracting(Attribute::getId, Attribute::getUsageCount)
+                                                  .containsOnly(tuple("a1", 2), tuple("a2", 0));
+      assertThat(storedCollection.getLastTimeUsed()).isEqualTo(lastTimeUsed);
+   }
+
+   @Test
+   public void testMetadataCache() {
+      ProjectMetadataCache cache = new ProjectMetadataCache();
+      collectionDao.setMetadataCache(cache);
+
+      String id = collectionDao.createCollection(prepareCollection(CODE, NAME)).getId();
+      assertThat(collectionDao.getAllCollections()).extracting(Resource::getCode).containsOnly(CODE);
+
+      // returned objects are independent copies
+      Collection collection = collectionDao.getCollectionById(id);
+      collection.setName(NAME2);
+      assertThat(collectionDao.getCollectionById(id).getName()).isEqualTo(NAME);
+      assertThat(cache.getStats().getMisses()).isEqualTo(1);
+      assertThat(cache.getStats().getHits()).isEqualTo(2);
+
+      // writes through the dao invalidate the snapshot
+      collectionDao.updateCollection(id, prepareCollection(CODE, NAME2), null);
+      assertThat(collectionDao.getCollectionById(id).getName()).isEqualTo(NAME2);
+      String id2 = collectionDao.createCollection(prepareCollection(CODE2, NAME2)).getId();
+      assertThat(collectionDao.getCollectionsByIds(Arrays.asList(id, id2))).extracting(Resource::getCode).containsOnly(CODE, CODE2);
+      collectionDao.deleteCollection(id);
+      assertThat(collectionDao.getAllCollections()).extracting(Resource::getCode).containsOnly(CODE2);
+      assertThat(cache.getStats().getMisses()).isEqualTo(4);
+
+      // writes done elsewhere are propagated by the resource events
+      Collection other = createCollection(CODE3, NAME3);
+      collectionDao.databaseCollection().deleteOne(MongoFilters.idFilter(id2));
+      cache.onResourceEvent(new UpdateResource(collectionDao.getCollectionById(id2), null));
+      assertThat(collectionDao.getAllCollections()).extracting(Resource::getId).containsOnly(other.getId());
+   }
+
+   @Test
+   public void testMetadataCacheInvalidatedBySnapshotWrites() {
+      ProjectMetadataCache cache = new ProjectMetadataCache();
+      collectionDao.setMetadataCache(cache);
+
+      String id = collectionDao.createCollection(prepareCollection(CODE, NAME)).getId();
+      assertThat(collectionDao.getCollectionById(id).getName()).isEqualTo(NAME);
+
+      SelectedWorkspace workspace = Mockito.mock(SelectedWorkspace.class);
+      Mockito.when(workspace.getOrganization()).thenReturn(Optional.empty());
+      Mockito.when(workspace.getProject()).thenReturn(Optional.of(collectionDao.getProject().get()));
+      DaoContextSnapshot snapshot = new MongoDaoContextSnapshotFactory(cache).getInstance(mongoDbStorage, mongoDbStorage, workspace);
+
+      // a task writes through the snapshot, requests must see the change right away
+      snapshot.getCollectionDao().updateCollection(id, prepareCollection(CODE, NAME2), null);
+      assertThat(collectionDao.getCollectionById(id).getName()).isEqualTo(NAME2);
+
+      snapshot.getCollectionDao().updateAttributesUsage(id, Map.of("a1", 3), ZonedDateTime.now());
+      assertThat(collectionDao.getCollectionById(id).getAttributes()).extracting(Attribute::getUsageCount).containsOnly(3);
+
+      snapshot.getCollectionDao().deleteCollection(id);
+      assertThat(collectionDao.getAllCollections()).isEmpty();
+   }
+
    @Test
    public void testDeleteCollection() {
       String id = createCollection(CODE, NAME).getId();
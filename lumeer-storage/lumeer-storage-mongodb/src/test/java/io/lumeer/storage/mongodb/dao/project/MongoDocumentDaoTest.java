@@ -20,14 +20,18 @@ package io.lumeer.storage.mongodb.dao.project;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Pagination;
 import io.lumeer.api.model.Project;
 import io.lumeer.api.model.ResourceType;
 import io.lumeer.engine.api.data.DataDocument;
 import io.lumeer.storage.api.exception.ResourceNotFoundException;
 import io.lumeer.storage.api.exception.StorageException;
 import io.lumeer.storage.mongodb.MongoDbTestBase;
+import io.lumeer.storage.mongodb.codecs.DocumentCodec;
+import io.lumeer.storage.mongodb.dao.collection.MongoDataDao;
 import io.lumeer.storage.mongodb.util.MongoFilters;
 
 import org.assertj.core.api.SoftAssertions;
@@ -38,7 +42,13 @@ import org.mockito.Mockito;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -61,6 +71,8 @@ public class MongoDocumentDaoTest extends MongoDbTestBase {
    private static final String UPDATED_BY = USER2;
    private static final int DATA_VERSION2 = 2;
 
+   private static final org.bson.Document COMPOUND_INDEX_KEY = new org.bson.Document(DocumentCodec.COLLECTION_ID, 1).append(DocumentCodec.ID, 1);
+
    private MongoDocumentDao documentDao;
 
    @Before
@@ -246,6 +258,125 @@ public class MongoDocumentDaoTest extends MongoDbTestBase {
       assertThat(documents).isEmpty();
    }
 
+   @Test
+   public void testGetDocumentsByCollectionKeyset() {
+      final List<String> ids = IntStream.range(0, 7).mapToObj(i -> createDocument().getId()).sorted().collect(Collectors.toList());
+
+      final List<String> pagedIds = new ArrayList<>();
+      String afterId = null;
+      List<Document> page;
+      do {
+         page = documentDao.getDocumentsByCollection(COLLECTION_ID, Pagination.keyset(afterId, 3));
+         assertThat(page.size()).isLessThanOrEqualTo(3);
+         page.forEach(document -> pagedIds.add(document.getId()));
+         afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+      } while (!page.isEmpty());
+
+      assertThat(pagedIds).containsExactlyElementsOf(ids);
+   }
+
+   @Test
+   public void testGetDocumentsByCollectionInvalidCursor() {
+      createDocument();
+      assertThatThrownBy(() -> documentDao.getDocumentsByCollection(COLLECTION_ID, Pagination.keyset("notAnId", 3)))
+            .isInstanceOf(StorageException.class);
+   }
+
+   @Test
+   public void testGetDocumentsByCollectionKeysetCreatesIndexes() {
+      // project created before the compound index existed
+      Project project = Mockito.mock(Project.class);
+      Mockito.when(project.getId()).thenReturn(new ObjectId().toHexString());
+      documentDao.setProject(project);
+      documentDao.databaseCollection().insertOne(prepareDocument());
+      assertThat(indexKeys()).doesNotContain(COMPOUND_INDEX_KEY);
+
+      assertThat(documentDao.getDocumentsByCollection(COLLECTION_ID, Pagination.keyset(null, 3))).hasSize(1);
+      assertThat(indexKeys()).contains(COMPOUND_INDEX_KEY);
+   }
+
+   private List<org.bson.Document> indexKeys() {
+      return documentDao.databaseCollection().listIndexes().map(index -> index.get("key", org.bson.Document.class)).into(new ArrayList<>());
+   }
+
+   @Test
+   public void testGetDocumentsWithData() {
+      MongoDataDao dataDao = new MongoDataDao();
+      dataDao.setDatabase(database);
+      dataDao.createDataRepository(COLLECTION_ID);
+
+      String id1 = createDocument().getId();
+      String id2 = createDocument().getId();
+      String id3 = createDocument().getId();
+      dataDao.createData(COLLECTION_ID, id1, new DataDocument("a1", "first"));
+      dataDao.createData(COLLECTION_ID, id2, new DataDocument("a1", "second"));
+
+      List<Document> documents = documentDao.getDocumentsWithData(COLLECTION_ID, Set.of(id1, id2, id3));
+      assertThat(documents).extracting(Document::getId).containsOnly(id1, id2, id3);
+      assertThat(documents).filteredOn(document -> document.getId().equals(id1)).extracting(document -> document.getData().getString("a1")).containsOnly("first");
+      assertThat(documents).filteredOn(document -> document.getId().equals(id3)).extracting(document -> document.getData().getString("a1")).containsOnly((String) null);
+
+      List<Document> page = documentDao.getDocumentsWithData(COLLECTION_ID, Pagination.keyset(id1, 1));
+      assertThat(page).extracting(Document::getId).containsExactly(id2);
+      assertThat(page.get(0).getData().getString("a1")).isEqualTo("second");
+   }
+
+   @Test
+   public void testDocumentsCounts() {
+      // documents stored before the counters were maintained
+      createDocument();
+      createDocument();
+      assertThat(documentDao.getDocumentsCounts()).containsOnly(entry(COLLECTION_ID, 2L));
+
+      Document document = documentDao.createDocument(prepareDocument());
+      documentDao.createDocuments(Arrays.asList(prepareDocument(), prepareDocument()));
+      assertThat(documentDao.getDocumentsCountByCollection(COLLECTION_ID)).isEqualTo(5L);
+
+      documentDao.deleteDocument(document.getId(), null);
+      assertThat(documentDao.getDocumentsCounts()).containsOnly(entry(COLLECTION_ID, 4L));
+
+      createDocument();
+      assertThat(documentDao.reconcileDocumentsCounts()).containsOnly(entry(COLLECTION_ID, 5L));
+
+      documentDao.deleteDocuments(COLLECTION_ID);
+      assertThat(documentDao.getDocumentsCounts()).isEmpty();
+      assertThat(documentDao.getDocumentsCountByCollection(COLLECTION_ID)).isEqualTo(0L);
+   }
+
+   @Test
+   public void testDocumentsCountsConcurrentUpdates() throws Exception {
+      // documents stored before the counters were maintained, so the counter is missing when the threads start
+      createDocument();
+      createDocument();
+
+      // 200 created, 50 of them deleted
+      createDocumentsConcurrently(200, 4);
+      assertThat(documentDao.getDocumentsCountByCollection(COLLECTION_ID)).isEqualTo(152L);
+
+      // the counter exists now, the increments are applied to it
+      createDocumentsConcurrently(100, 0);
+      assertThat(documentDao.getDocumentsCountByCollection(COLLECTION_ID)).isEqualTo(252L);
+      assertThat(documentDao.getDocumentsCounts()).containsOnly(entry(COLLECTION_ID, 252L));
+   }
+
+   private void createDocumentsConcurrently(final int count, final int deleteEvery) throws Exception {
+      final ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         final List<Future<?>> futures = new ArrayList<>();
+         IntStream.range(0, count).forEach(i -> futures.add(executor.submit(() -> {
+            final Document document = documentDao.createDocument(prepareDocument());
+            if (deleteEvery > 0 && i % deleteEvery == 0) {
+               documentDao.deleteDocument(document.getId(), null);
+            }
+         })));
+         for (final Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
    @Test
    public void testDuplicateDocuments() {
       final List<Document> documents = IntStream.range(0, 10).mapToObj(i -> createDocument()).collect(Collectors.toList());
@@ -0,0 +1,123 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.dao.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.DelayedAction;
+import io.lumeer.api.model.NotificationChannel;
+import io.lumeer.api.model.NotificationType;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.mongodb.MongoDbTestBase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class MongoDelayedActionDaoTest extends MongoDbTestBase {
+
+   private MongoDelayedActionDao delayedActionDao;
+
+   @Before
+   public void initDelayedActionDao() {
+      delayedActionDao = new MongoDelayedActionDao();
+      delayedActionDao.setDatabase(database);
+
+      delayedActionDao.createDelayedActionsRepository();
+      assertThat(database.listCollectionNames()).contains(delayedActionDao.databaseCollectionName());
+   }
+
+   @Test
+   public void testGetActionsForProcessingInBatches() {
+      final List<DelayedAction> actions = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+         actions.add(prepareAction("user" + i + "@lumeer.io", ZonedDateTime.now().minus(10 - i, ChronoUnit.MINUTES)));
+      }
+      actions.add(prepareAction("future@lumeer.io", ZonedDateTime.now().plus(1, ChronoUnit.HOURS)));
+      delayedActionDao.scheduleActions(actions);
+
+      final Set<String> claimedIds = new HashSet<>();
+
+      List<DelayedAction> batch = delayedActionDao.getActionsForProcessing(true, 2);
+      assertThat(batch).extracting(DelayedAction::getReceiver).containsOnly("user0@lumeer.io", "user1@lumeer.io");
+      assertThat(batch).allMatch(action -> action.getStartedProcessing() != null && action.getProcessor() != null);
+      assertThat(batch.stream().map(DelayedAction::getProcessor).collect(Collectors.toSet())).hasSize(1);
+      batch.forEach(action -> claimedIds.add(action.getId()));
+
+      batch = delayedActionDao.getActionsForProcessing(true, 2);
+      assertThat(batch).hasSize(2);
+      batch.forEach(action -> claimedIds.add(action.getId()));
+
+      batch = delayedActionDao.getActionsForProcessing(true, 2);
+      assertThat(batch).extracting(DelayedAction::getReceiver).containsOnly("user4@lumeer.io");
+      batch.forEach(action -> claimedIds.add(action.getId()));
+
+      assertThat(claimedIds).hasSize(5);
+      assertThat(delayedActionDao.getActionsForProcessing(true, 2)).isEmpty();
+   }
+
+   @Test
+   public void testGetActionsForProcessingClaimsWholeGroups() {
+      final List<DelayedAction> actions = new ArrayList<>();
+      actions.add(prepareTaskAction("user0@lumeer.io", "task1", ZonedDateTime.now().minus(10, ChronoUnit.MINUTES)));
+      actions.add(prepareTaskAction("user1@lumeer.io", "task1", ZonedDateTime.now().minus(9, ChronoUnit.MINUTES)));
+      actions.add(prepareTaskAction("user0@lumeer.io", "task2", ZonedDateTime.now().minus(8, ChronoUnit.MINUTES)));
+      actions.add(prepareTaskAction("user0@lumeer.io", "task1", ZonedDateTime.now().minus(7, ChronoUnit.MINUTES)));
+      actions.add(prepareTaskAction("user0@lumeer.io", "task1", ZonedDateTime.now().plus(1, ChronoUnit.HOURS)));
+      delayedActionDao.scheduleActions(actions);
+
+      // the oldest action takes the other ready action of the same receiver and task along
+      List<DelayedAction> batch = delayedActionDao.getActionsForProcessing(true, 1);
+      assertThat(batch).hasSize(2);
+      assertThat(batch).extracting(DelayedAction::getReceiver).containsOnly("user0@lumeer.io");
+      assertThat(batch).allMatch(action -> "task1".equals(action.getData().getString(DelayedAction.DATA_DOCUMENT_ID)));
+
+      batch = delayedActionDao.getActionsForProcessing(true, 1);
+      assertThat(batch).extracting(DelayedAction::getReceiver).containsExactly("user1@lumeer.io");
+
+      batch = delayedActionDao.getActionsForProcessing(true, 1);
+      assertThat(batch).extracting(action -> action.getData().getString(DelayedAction.DATA_DOCUMENT_ID)).containsExactly("task2");
+
+      assertThat(delayedActionDao.getActionsForProcessing(true, 1)).isEmpty();
+   }
+
+   private DelayedAction prepareTaskAction(final String receiver, final String documentId, final ZonedDateTime checkAfter) {
+      final DelayedAction action = prepareAction(receiver, checkAfter);
+      action.setData(new DataDocument(DelayedAction.DATA_DOCUMENT_ID, documentId));
+      return action;
+   }
+
+   private DelayedAction prepareAction(final String receiver, final ZonedDateTime checkAfter) {
+      final DelayedAction action = new DelayedAction();
+      action.setCheckAfter(checkAfter);
+      action.setResourcePath("org/project/collection/document");
+      action.setInitiator("initiator@lumeer.io");
+      action.setReceiver(receiver);
+      action.setNotificationType(NotificationType.TASK_ASSIGNED);
+      action.setNotificationChannel(NotificationChannel.Email);
+      return action;
+   }
+}
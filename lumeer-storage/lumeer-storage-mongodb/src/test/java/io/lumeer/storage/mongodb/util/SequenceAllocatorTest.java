@@ -0,0 +1,110 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.storage.mongodb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SequenceAllocatorTest {
+
+   private static final String KEY = "db/sequences_p-1/seq";
+
+   @Test
+   public void testBlockReservation() {
+      final SequenceAllocator allocator = new SequenceAllocator(10);
+      final AtomicLong stored = new AtomicLong(-1);
+      final AtomicInteger reservations = new AtomicInteger();
+
+      for (int i = 0; i < 25; i++) {
+         assertThat(allocator.next(KEY, size -> {
+            reservations.incrementAndGet();
+            return stored.addAndGet(size);
+         })).isEqualTo(i);
+      }
+
+      assertThat(reservations.get()).isEqualTo(3);
+      assertThat(stored.get()).isEqualTo(29);
+   }
+
+   @Test
+   public void testStrictMode() {
+      final SequenceAllocator allocator = new SequenceAllocator(1);
+      final AtomicLong stored = new AtomicLong(-1);
+
+      assertThat(allocator.isStrict()).isTrue();
+      for (int i = 0; i < 5; i++) {
+         assertThat(allocator.next(KEY, stored::addAndGet)).isEqualTo(i);
+         assertThat(stored.get()).isEqualTo(i);
+      }
+   }
+
+   @Test
+   public void testInvalidation() {
+      final SequenceAllocator allocator = new SequenceAllocator(10);
+      final AtomicLong stored = new AtomicLong(-1);
+
+      assertThat(allocator.next(KEY, stored::addAndGet)).isEqualTo(0);
+      assertThat(allocator.next(KEY, stored::addAndGet)).isEqualTo(1);
+
+      stored.set(100);
+      allocator.invalidate(KEY);
+      assertThat(allocator.next(KEY, stored::addAndGet)).isEqualTo(101);
+
+      stored.set(200);
+      allocator.invalidatePrefix("db/sequences_p-1/");
+      assertThat(allocator.next(KEY, stored::addAndGet)).isEqualTo(201);
+   }
+
+   @Test
+   public void testConcurrentAllocation() throws Exception {
+      final SequenceAllocator allocator = new SequenceAllocator(50);
+      final AtomicLong stored = new AtomicLong(-1);
+      final Set<Long> values = ConcurrentHashMap.newKeySet();
+      final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+         futures.add(executor.submit(() -> {
+            for (int i = 0; i < 1000; i++) {
+               values.add(allocator.next(KEY, stored::addAndGet));
+            }
+         }));
+      }
+      for (Future<?> future : futures) {
+         future.get();
+      }
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+
+      assertThat(values).hasSize(8000);
+      assertThat(values).allMatch(value -> value >= 0 && value < 8000);
+   }
+}
@@ -0,0 +1,219 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import io.lumeer.engine.api.cache.Cache;
+import io.lumeer.engine.api.cache.CacheSpec;
+import io.lumeer.engine.api.cache.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Cache with a maximum size (the least recently used entries are evicted first), expiration after write
+ * and expiration after access. Values are never computed while holding the cache lock, so a slow
+ * computation does not block readers of other keys.
+ */
+public class BoundedCache<T> implements Cache<T> {
+
+   private static final class Entry<T> {
+      private final T value;
+      private final long written;
+      private long accessed;
+
+      private Entry(final T value, final long now) {
+         this.value = value;
+         this.written = now;
+         this.accessed = now;
+      }
+   }
+
+   private final long maximumSize;
+   private final long expireAfterWriteNanos;
+   private final long expireAfterAccessNanos;
+   private final LongSupplier ticker;
+
+   private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true); // guarded by itself
+   private final KeyLocks locks = new KeyLocks();
+
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong evictions = new AtomicLong();
+
+   public BoundedCache(final CacheSpec spec) {
+      this(spec, System::nanoTime);
+   }
+
+   BoundedCache(final CacheSpec spec, final LongSupplier ticker) {
+      this.maximumSize = spec.getMaximumSize();
+      this.expireAfterWriteNanos = spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite().toNanos() : 0;
+      this.expireAfterAccessNanos = spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess().toNanos() : 0;
+      this.ticker = ticker;
+   }
+
+   @Override
+   public T get(final String key) {
+      final long now = ticker.getAsLong();
+      synchronized (entries) {
+         final Entry<T> entry = entries.get(key);
+         if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+         }
+         if (isExpired(entry, now)) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+         }
+         entry.accessed = now;
+         hits.incrementAndGet();
+         return entry.value;
+      }
+   }
+
+   @Override
+   public T computeIfAbsent(final String key, final Function<String, T> fce) {
+      final T value = get(key);
+      if (value != null) {
+         return value;
+      }
+
+      final T computed = fce.apply(key);
+      if (computed == null) {
+         return null;
+      }
+
+      synchronized (entries) {
+         // somebody else might have been faster, keep the first value as ConcurrentHashMap.computeIfAbsent does
+         final Entry<T> entry = entries.get(key);
+         if (entry != null && !isExpired(entry, ticker.getAsLong())) {
+            return entry.value;
+         }
+         put(key, computed);
+         return computed;
+      }
+   }
+
+   @Override
+   public void set(final String key, final T t) {
+      synchronized (entries) {
+         put(key, t);
+      }
+   }
+
+   @Override
+   public T remove(final String key) {
+      synchronized (entries) {
+         final Entry<T> entry = entries.remove(key);
+         return entry != null ? entry.value : null;
+      }
+   }
+
+   @Override
+   public void lock(final String key) {
+      locks.lock(key);
+   }
+
+   @Override
+   public void unlock(final String key) {
+      locks.unlock(key);
+   }
+
+   @Override
+   public boolean tryLock(final String key) {
+      return locks.tryLock(key);
+   }
+
+   @Override
+   public void clear() {
+      synchronized (entries) {
+         entries.clear();
+      }
+      locks.clear();
+   }
+
+   @Override
+   public Stream<T> stream() {
+      final long now = ticker.getAsLong();
+      final List<T> values;
+      synchronized (entries) {
+         removeExpired(now);
+         values = new ArrayList<>(entries.size());
+         // iterating values does not change the access order
+         entries.values().forEach(entry -> values.add(entry.value));
+      }
+      return values.stream();
+   }
+
+   @Override
+   public CacheStats getStats() {
+      final long size;
+      synchronized (entries) {
+         size = entries.size();
+      }
+      return new CacheStats(size, hits.get(), misses.get(), evictions.get());
+   }
+
+   private void put(final String key, final T value) {
+      if (value == null) {
+         entries.remove(key);
+         return;
+      }
+
+      entries.put(key, new Entry<>(value, ticker.getAsLong()));
+
+      if (maximumSize > 0 && entries.size() > maximumSize) {
+         removeExpired(ticker.getAsLong());
+
+         final Iterator<Map.Entry<String, Entry<T>>> iterator = entries.entrySet().iterator();
+         while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+         }
+      }
+   }
+
+   private void removeExpired(final long now) {
+      if (expireAfterWriteNanos <= 0 && expireAfterAccessNanos <= 0) {
+         return;
+      }
+
+      final Iterator<Entry<T>> iterator = entries.values().iterator();
+      while (iterator.hasNext()) {
+         if (isExpired(iterator.next(), now)) {
+            iterator.remove();
+            evictions.incrementAndGet();
+         }
+      }
+   }
+
+   private boolean isExpired(final Entry<T> entry, final long now) {
+      return (expireAfterWriteNanos > 0 && now - entry.written >= expireAfterWriteNanos)
+            || (expireAfterAccessNanos > 0 && now - entry.accessed >= expireAfterAccessNanos);
+   }
+}
@@ -0,0 +1,75 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks on cache keys. A lock is removed as soon as nobody holds or waits for it, so the number of locks
+ * does not grow with the number of keys ever locked.
+ */
+class KeyLocks {
+
+   private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+   void lock(final String key) {
+      while (true) {
+         final ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+         lock.lock();
+         if (locks.get(key) == lock) {
+            return;
+         }
+         // the lock was released and removed meanwhile, try again with the current one
+         lock.unlock();
+      }
+   }
+
+   boolean tryLock(final String key) {
+      final ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+      if (!lock.tryLock()) {
+         return false;
+      }
+      if (locks.get(key) == lock) {
+         return true;
+      }
+      lock.unlock();
+      return tryLock(key);
+   }
+
+   void unlock(final String key) {
+      final ReentrantLock lock = locks.get(key);
+
+      if (lock != null) {
+         if (lock.isHeldByCurrentThread() && lock.getHoldCount() == 1 && !lock.hasQueuedThreads()) {
+            locks.remove(key, lock);
+         }
+         lock.unlock();
+      }
+   }
+
+   void clear() {
+      locks.clear();
+   }
+
+   int size() {
+      return locks.size();
+   }
+}
@@ -22,8 +22,6 @@ import io.lumeer.engine.api.cache.Cache;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -31,7 +29,7 @@ public class SimpleCache<T> implements Cache<T> {
 
    private Map<String, T> cache = new ConcurrentHashMap<>();
 
-   private Map<String, Lock> locks = new ConcurrentHashMap<>();
+   private KeyLocks locks = new KeyLocks();
 
    @Override
    public T get(final String key) {
@@ -55,24 +53,17 @@ public class SimpleCache<T> implements Cache<T> {
 
    @Override
    public void lock(final String key) {
-      final Lock l = locks.computeIfAbsent(key, k -> new ReentrantLock());
-      l.lock();
+      locks.lock(key);
    }
 
    @Override
    public void unlock(final String key) {
-      final Lock l = locks.get(key);
-
-      if (l != null) {
-         l.unlock();
-      }
+      locks.unlock(key);
    }
 
    @Override
    public boolean tryLock(final String key) {
-      final Lock l = locks.computeIfAbsent(key, k -> new ReentrantLock());
-
-      return l.tryLock();
+      return locks.tryLock(key);
    }
 
    @Override
@@ -20,6 +20,7 @@ package io.lumeer.cache.simple;
 
 import io.lumeer.engine.api.cache.Cache;
 import io.lumeer.engine.api.cache.CacheFactory;
+import io.lumeer.engine.api.cache.CacheSpec;
 
 import java.io.Serializable;
 import javax.enterprise.context.ApplicationScoped;
@@ -31,4 +32,12 @@ public class SimpleCacheFactory implements CacheFactory, Serializable {
    public <T> Cache<T> getCache() {
       return new SimpleCache<>();
    }
+
+   @Override
+   public <T> Cache<T> getCache(final CacheSpec spec) {
+      if (spec == null || spec.isUnbounded()) {
+         return getCache();
+      }
+      return new BoundedCache<>(spec);
+   }
 }
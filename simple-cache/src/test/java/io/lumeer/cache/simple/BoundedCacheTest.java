@@ -0,0 +1,100 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.cache.simple;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.engine.api.cache.CacheSpec;
+import io.lumeer.engine.api.cache.CacheStats;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class BoundedCacheTest {
+
+   private final AtomicLong time = new AtomicLong();
+
+   @Test
+   public void testLeastRecentlyUsedEviction() {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheSpec.maximumSize(2), time::get);
+      cache.set("a", "A");
+      cache.set("b", "B");
+      assertThat(cache.get("a")).isEqualTo("A");
+
+      cache.set("c", "C");
+
+      assertThat(cache.get("b")).isNull();
+      assertThat(cache.get("a")).isEqualTo("A");
+      assertThat(cache.get("c")).isEqualTo("C");
+
+      final CacheStats stats = cache.getStats();
+      assertThat(stats.getSize()).isEqualTo(2);
+      assertThat(stats.getHits()).isEqualTo(3);
+      assertThat(stats.getMisses()).isEqualTo(1);
+      assertThat(stats.getEvictions()).isEqualTo(1);
+   }
+
+   @Test
+   public void testExpiration() {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheSpec.maximumSize(10).expireAfterWrite(Duration.ofNanos(100)).expireAfterAccess(Duration.ofNanos(50)), time::get);
+      cache.set("a", "A");
+      cache.set("b", "B");
+
+      time.set(40);
+      assertThat(cache.get("a")).isEqualTo("A");
+
+      time.set(60);
+      assertThat(cache.get("a")).isEqualTo("A");
+      assertThat(cache.get("b")).isNull();
+
+      time.set(100);
+      assertThat(cache.get("a")).isNull();
+      assertThat(cache.stream().collect(Collectors.toList())).isEmpty();
+      assertThat(cache.getStats().getEvictions()).isEqualTo(2);
+   }
+
+   @Test
+   public void testComputeIfAbsent() {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheSpec.maximumSize(10), time::get);
+      assertThat(cache.computeIfAbsent("a", key -> "A")).isEqualTo("A");
+      assertThat(cache.computeIfAbsent("a", key -> "other")).isEqualTo("A");
+      assertThat(cache.computeIfAbsent("b", key -> null)).isNull();
+      assertThat(cache.getStats().getSize()).isEqualTo(1);
+   }
+
+   @Test
+   public void testLocksArePruned() {
+      final BoundedCache<String> cache = new BoundedCache<>(CacheSpec.maximumSize(10), time::get);
+      cache.lock("a");
+      cache.lock("a");
+      assertThat(cache.tryLock("b")).isTrue();
+      cache.unlock("a");
+      cache.unlock("a");
+      cache.unlock("b");
+
+      final KeyLocks locks = new KeyLocks();
+      locks.lock("x");
+      assertThat(locks.size()).isEqualTo(1);
+      locks.unlock("x");
+      assertThat(locks.size()).isEqualTo(0);
+   }
+}
@@ -390,4 +390,37 @@ public class DelayedActionIT extends IntegrationTestBase {
       assertThat(actions.size()).isEqualTo(0);
    }
 
+   @Test
+   public void testAggregationAcrossBatchesInParallel() {
+      createDocument("First task", List.of(user2.getEmail()), null, "To Do", List.of(), null);
+      createDocument("Second task", List.of(user2.getEmail()), null, "To Do", List.of(), null);
+      createDocument("Third task", List.of(user2.getEmail()), null, "To Do", List.of(), null);
+
+      List<DelayedAction> actions = delayedActionDao.getActions();
+      // user2 - TASK_ASSIGNED and STATE_UPDATE x 3 channels x 3 tasks
+      assertThat(actions).hasSize(18);
+
+      // batches smaller than the actions to aggregate, several workers for each batch
+      delayedActionProcessor.setBatching(2, 4);
+      try {
+         delayedActionProcessor.process();
+      } finally {
+         delayedActionProcessor.init();
+      }
+
+      final DelayedActionProcessor.ProcessingStats stats = delayedActionProcessor.getLastRunStats();
+      assertThat(stats.getBatches()).isGreaterThan(1);
+      assertThat(stats.getClaimed()).isEqualTo(18);
+      assertThat(stats.getFailed()).isEqualTo(0);
+
+      // the actions of each task were aggregated to a single notification, none was left over from a split
+      final List<UserNotification> notifications = userNotificationDao.getRecentNotifications(user2.getId());
+      assertThat(notifications).hasSize(3);
+      assertThat(notifications).extracting(UserNotification::getType).containsOnly(NotificationType.TASK_ASSIGNED);
+
+      actions = delayedActionDao.getActions();
+      assertThat(actions).hasSize(18);
+      assertThat(actions).allMatch(action -> action.getCompleted() != null);
+   }
+
 }
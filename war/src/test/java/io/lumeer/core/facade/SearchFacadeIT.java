@@ -47,6 +47,7 @@ import io.lumeer.core.auth.AuthenticatedUser;
 import io.lumeer.core.auth.PermissionsChecker;
 import io.lumeer.core.constraint.ConstraintManager;
 import io.lumeer.core.facade.configuration.DefaultConfigurationProducer;
+import io.lumeer.core.util.Tuple;
 import io.lumeer.engine.IntegrationTestBase;
 import io.lumeer.engine.api.data.DataDocument;
 import io.lumeer.storage.api.dao.CollectionDao;
@@ -60,6 +61,7 @@ import io.lumeer.storage.api.dao.ProjectDao;
 import io.lumeer.storage.api.dao.UserDao;
 
 import org.assertj.core.api.SoftAssertions;
+import org.bson.types.ObjectId;
 import org.jboss.arquillian.junit.Arquillian;
 import org.junit.Before;
 import org.junit.Test;
@@ -277,6 +279,22 @@ public class SearchFacadeIT extends IntegrationTestBase {
       assertThat(documents).extracting(Document::getId).containsOnly(id1, id2, id3, id4, id5);
    }
 
+   @Test
+   public void testSearchDocumentsByFiltersWithDataWithoutDocuments() {
+      final String collectionId = collectionIds.get(0);
+      createDocument(collectionId, "word");
+
+      // matching data without documents, they fill several pages in front of the matching document
+      for (int i = 0; i < 450; i++) {
+         dataDao.createData(collectionId, new ObjectId().toHexString(), new DataDocument(DOCUMENT_KEY, "lmr"));
+      }
+      final String id = createDocument(collectionId, "lmr").getId();
+
+      final Query query = createSimpleQueryWithAttributeFilter(collectionId, CollectionAttributeFilter.createFromValues(collectionId, DOCUMENT_KEY, ConditionType.EQUALS, "lmr"));
+      final List<Document> documents = searchFacade.searchDocuments(query, true);
+      assertThat(documents).extracting(Document::getId).containsOnly(id);
+   }
+
    @Test
    public void testSearchDocumentsByFiltersAndFulltexts() {
       createDocument(collectionIds.get(0), "word");
@@ -701,6 +719,68 @@ public class SearchFacadeIT extends IntegrationTestBase {
       assertThat(documents).extracting(Document::getId).containsOnly(id11, id6);
    }
 
+   @Test
+   public void testSearchStemsInParallel() {
+      final String id1 = createDocument(collectionIds.get(0), "lmr").getId();
+      createDocument(collectionIds.get(0), "word");
+      final String id3 = createDocument(collectionIds.get(1), "lmr").getId();
+      final String id4 = createDocument(collectionIds.get(1), "other lmr").getId();
+      final String id5 = createDocument(collectionIds.get(2), "lumeer").getId();
+      final String id6 = createDocument(collectionIds.get(2), "word lmr").getId();
+      final String linkTypeId = linkTypeDao.createLinkType(new LinkType("lmr", Arrays.asList(collectionIds.get(1), collectionIds.get(2)), Collections.emptyList(), null, null, null)).getId();
+      final String linkId = createLinkInstance(linkTypeId, Arrays.asList(id4, id5)).getId();
+
+      final List<QueryStem> stems = Arrays.asList(
+            new QueryStem(null, collectionIds.get(0), Collections.emptyList(), Collections.emptySet(), Collections.singletonList(CollectionAttributeFilter.createFromValues(collectionIds.get(0), DOCUMENT_KEY, ConditionType.EQUALS, "lmr")), Collections.emptyList()),
+            new QueryStem(null, collectionIds.get(1), Collections.singletonList(linkTypeId), Collections.emptySet(), Collections.singletonList(CollectionAttributeFilter.createFromValues(collectionIds.get(1), DOCUMENT_KEY, ConditionType.EQUALS, "other lmr")), Collections.emptyList()),
+            new QueryStem(collectionIds.get(2))
+      );
+      final Query stemsQuery = new Query(stems);
+      final Query fulltextQuery = new Query(Collections.emptyList(), Collections.singleton("lmr"), null, null);
+
+      try {
+         for (int parallelism : Arrays.asList(1, 4)) {
+            searchFacade.setSearchParallelism(parallelism);
+
+            Tuple<List<Document>, List<LinkInstance>> result = searchFacade.searchDocumentsAndLinks(stemsQuery, true);
+            assertThat(result.getFirst()).extracting(Document::getId).describedAs("parallelism %d", parallelism).containsOnly(id1, id4, id5, id6);
+            assertThat(result.getSecond()).extracting(LinkInstance::getId).describedAs("parallelism %d", parallelism).containsOnly(linkId);
+
+            result = searchFacade.searchDocumentsAndLinks(fulltextQuery, true);
+            assertThat(result.getFirst()).extracting(Document::getId).describedAs("parallelism %d", parallelism).containsOnly(id1, id3, id4, id6);
+         }
+      } finally {
+         searchFacade.init();
+      }
+   }
+
+   @Test
+   public void testStreamDocumentsAndLinks() {
+      final String collectionId = collectionIds.get(0);
+      final Set<String> ids = new HashSet<>();
+      // more matching documents than a single page of the search
+      for (int i = 0; i < 250; i++) {
+         ids.add(createDocument(collectionId, "lmr").getId());
+      }
+      createDocument(collectionId, "word");
+      ids.add(createDocument(collectionIds.get(1), "lmr").getId());
+
+      final QueryStem stem = new QueryStem(null, collectionId, Collections.emptyList(), Collections.emptySet(), Collections.singletonList(CollectionAttributeFilter.createFromValues(collectionId, DOCUMENT_KEY, ConditionType.EQUALS, "lmr")), Collections.emptyList());
+      // the first stem is repeated, its documents must be sent only once
+      final Query query = new Query(Arrays.asList(stem, stem, new QueryStem(collectionIds.get(1))));
+
+      final List<Tuple<List<Document>, List<LinkInstance>>> pages = new ArrayList<>();
+      searchFacade.streamDocumentsAndLinks(query, true, pages::add);
+
+      assertThat(pages.size()).isGreaterThan(1);
+      assertThat(pages).allMatch(page -> !page.getFirst().isEmpty() || !page.getSecond().isEmpty());
+
+      final List<String> streamedIds = pages.stream().flatMap(page -> page.getFirst().stream()).map(Document::getId).collect(Collectors.toList());
+      assertThat(streamedIds).doesNotHaveDuplicates();
+      assertThat(streamedIds).containsExactlyInAnyOrderElementsOf(ids);
+      assertThat(streamedIds).containsExactlyInAnyOrderElementsOf(searchFacade.searchDocumentsAndLinks(query, true).getFirst().stream().map(Document::getId).collect(Collectors.toList()));
+   }
+
    private LinkInstance createLinkInstance(String linkTypeId, List<String> documentIds) {
       final LinkInstance linkInstance = linkInstanceDao.createLinkInstance(new LinkInstance(linkTypeId, documentIds));
       linkDataDao.createData(linkTypeId, linkInstance.getId(), new DataDocument());
@@ -0,0 +1,189 @@
+/*
+ * Lumeer: Modern Data Definition and Processing Platform
+ *
+ * Copyright (C) since 2017 Lumeer.io, s.r.o. and/or its affiliates.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.lumeer.remote.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lumeer.api.model.Attribute;
+import io.lumeer.api.model.Collection;
+import io.lumeer.api.model.CollectionAttributeFilter;
+import io.lumeer.api.model.ConditionType;
+import io.lumeer.api.model.Document;
+import io.lumeer.api.model.Organization;
+import io.lumeer.api.model.Permission;
+import io.lumeer.api.model.Permissions;
+import io.lumeer.api.model.Project;
+import io.lumeer.api.model.Query;
+import io.lumeer.api.model.QueryStem;
+import io.lumeer.api.model.User;
+import io.lumeer.core.auth.AuthenticatedUser;
+import io.lumeer.engine.api.data.DataDocument;
+import io.lumeer.storage.api.dao.CollectionDao;
+import io.lumeer.storage.api.dao.DataDao;
+import io.lumeer.storage.api.dao.DocumentDao;
+import io.lumeer.storage.api.dao.OrganizationDao;
+import io.lumeer.storage.api.dao.ProjectDao;
+import io.lumeer.storage.api.dao.UserDao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jboss.arquillian.junit.Arquillian;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response;
+
+@RunWith(Arquillian.class)
+public class SearchServiceIT extends ServiceIntegrationTestBase {
+
+   private static final String ORGANIZATION_CODE = "TORG";
+   private static final String PROJECT_CODE = "TPROJ";
+   private static final String COLLECTION_CODE = "TCOLL";
+
+   private static final String COLLECTION_NAME = "Testing collection";
+   private static final String COLLECTION_ICON = "fa-eye";
+   private static final String COLLECTION_COLOR = "#00ee00";
+
+   private static final String USER = AuthenticatedUser.DEFAULT_EMAIL;
+
+   private static final String KEY = "A";
+
+   private String searchUrl;
+
+   private User user;
+
+   @Inject
+   private CollectionDao collectionDao;
+
+   @Inject
+   private DataDao dataDao;
+
+   @Inject
+   private DocumentDao documentDao;
+
+   @Inject
+   private OrganizationDao organizationDao;
+
+   @Inject
+   private ProjectDao projectDao;
+
+   @Inject
+   private UserDao userDao;
+
+   private Collection collection;
+
+   @Before
+   public void configureCollection() {
+      User user = new User(USER);
+      this.user = userDao.createUser(user);
+
+      Organization organization = new Organization();
+      organization.setCode(ORGANIZATION_CODE);
+      organization.setPermissions(new Permissions());
+      Organization storedOrganization = organizationDao.createOrganization(organization);
+
+      projectDao.setOrganization(storedOrganization);
+
+      Permissions organizationPermissions = new Permissions();
+      organizationPermissions.updateUserPermissions(Permission.buildWithRoles(this.user.getId(), Organization.ROLES));
+      storedOrganization.setPermissions(organizationPermissions);
+      organizationDao.updateOrganization(storedOrganization.getId(), storedOrganization);
+
+      Project project = new Project();
+      project.setCode(PROJECT_CODE);
+
+      Permissions projectPermissions = new Permissions();
+      projectPermissions.updateUserPermissions(Permission.buildWithRoles(this.user.getId(), Project.ROLES));
+      project.setPermissions(projectPermissions);
+      Project storedProject = projectDao.createProject(project);
+
+      collectionDao.setProject(storedProject);
+      collectionDao.createRepository(storedProject);
+
+      Permissions collectionPermissions = new Permissions();
+      collectionPermissions.updateUserPermissions(Permission.buildWithRoles(this.user.getId(), Collection.ROLES));
+      Collection jsonCollection = new Collection(COLLECTION_CODE, COLLECTION_NAME, COLLECTION_ICON, COLLECTION_COLOR, collectionPermissions);
+      jsonCollection.setAttributes(Collections.singletonList(new Attribute(KEY, KEY, null, null, null, null, 0, null)));
+      collection = collectionDao.createCollection(jsonCollection);
+      dataDao.createDataRepository(collection.getId());
+
+      documentDao.setProject(storedProject);
+
+      this.searchUrl = projectPath(storedOrganization, storedProject) + "search";
+   }
+
+   private Document createDocument(final String value) {
+      Document document = new Document(new DataDocument(KEY, value));
+      document.setCollectionId(collection.getId());
+      document.setCreatedBy(user.getId());
+      document.setCreationDate(ZonedDateTime.now());
+      Document storedDocument = documentDao.createDocument(document);
+
+      DataDocument storedData = dataDao.createData(collection.getId(), storedDocument.getId(), document.getData());
+
+      storedDocument.setData(storedData);
+      return storedDocument;
+   }
+
+   @Test
+   public void testStreamDocumentsAndLinks() throws IOException {
+      final Set<String> ids = new HashSet<>();
+      // more matching documents than a single page of the search
+      for (int i = 0; i < 250; i++) {
+         ids.add(createDocument("lmr").getId());
+      }
+      createDocument("other");
+
+      final CollectionAttributeFilter filter = CollectionAttributeFilter.createFromValues(collection.getId(), KEY, ConditionType.EQUALS, "lmr");
+      final Query query = new Query(new QueryStem(null, collection.getId(), Collections.emptyList(), Collections.emptySet(), Collections.singletonList(filter), Collections.emptyList()));
+
+      Response response = client.target(searchUrl).path("documentsAndLinks").path("stream")
+                                .queryParam("subItems", true)
+                                .request(SearchService.APPLICATION_NDJSON)
+                                .buildPost(Entity.json(query)).invoke();
+      assertThat(response).isNotNull();
+      assertThat(response.getStatusInfo()).isEqualTo(Response.Status.OK);
+      assertThat(response.getMediaType().toString()).startsWith(SearchService.APPLICATION_NDJSON);
+
+      // one DocumentsAndLinks object per line
+      final String[] lines = response.readEntity(String.class).split("\n");
+      assertThat(lines.length).isGreaterThan(1);
+
+      final ObjectMapper mapper = new ObjectMapper();
+      final List<String> streamedIds = new ArrayList<>();
+      for (final String line : lines) {
+         final JsonNode page = mapper.readTree(line);
+         assertThat(page.has("linkInstances")).isTrue();
+         page.get("documents").forEach(document -> streamedIds.add(document.get("id").asText()));
+      }
+
+      assertThat(streamedIds).doesNotHaveDuplicates();
+      assertThat(streamedIds).containsExactlyInAnyOrderElementsOf(ids);
+   }
+}